@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2008 IBM Corporation and others.
+ * Copyright (c) 2005, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -36,6 +36,11 @@ import org.eclipse.core.runtime.IStatus;
 public abstract class AbstractOperation implements IUndoableOperation {
 	List contexts = new ArrayList();
 
+	/**
+	 * the number of operation histories holding this operation
+	 */
+	int histories = 0;
+
 	private String label = ""; //$NON-NLS-1$
 
 	/**
@@ -60,6 +65,7 @@ public abstract class AbstractOperation implements IUndoableOperation {
 	public void addContext(IUndoContext context) {
 		if (!contexts.contains(context)) {
 			contexts.add(context);
+			contextsChanged();
 		}
 	}
 
@@ -181,7 +187,18 @@ public abstract class AbstractOperation implements IUndoableOperation {
 	 */
 
 	public void removeContext(IUndoContext context) {
-		contexts.remove(context);
+		if (contexts.remove(context)) {
+			contextsChanged();
+		}
+	}
+
+	/*
+	 * Tell the histories holding this operation that its contexts changed.
+	 */
+	void contextsChanged() {
+		if (histories > 0) {
+			DefaultOperationHistory.contextsChanged();
+		}
 	}
 
 	/*
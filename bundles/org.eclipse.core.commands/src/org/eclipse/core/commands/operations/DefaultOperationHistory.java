@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2010 IBM Corporation and others.
+ * Copyright (c) 2005, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,6 +18,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.commands.util.Tracing;
@@ -136,6 +137,43 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 */
 	private List undoList = Collections.synchronizedList(new ArrayList());
 
+	/**
+	 * the undo history filtered by context, a map from {@link IUndoContext}
+	 * to the List of its operations, LIFO. The lists are updated as operations
+	 * are added to and removed from the history, and dropped whenever the
+	 * contexts of the operations in the history change. They are only kept
+	 * for contexts and operations that report such changes, see
+	 * {@link #reportsChanges(IUndoContext)}. The contexts are held weakly so
+	 * that contexts that are no longer used by any operation do not stay in
+	 * the map.
+	 */
+	private Map undoByContext = new WeakHashMap();
+
+	/**
+	 * the redo history filtered by context, a map from {@link IUndoContext}
+	 * to the List of its operations, LIFO, holding the contexts weakly.
+	 */
+	private Map redoByContext = new WeakHashMap();
+
+	/**
+	 * the number of changes to the contexts of operations held by any history,
+	 * or to the matches of contexts, since startup
+	 */
+	private static int contextChanges = 0;
+
+	/**
+	 * the value of contextChanges when the filtered histories were last
+	 * known to be valid
+	 */
+	private int filteredContextChanges = 0;
+
+	/**
+	 * the number of operations in the undo and redo histories whose contexts,
+	 * or the matches of whose contexts, may change without the history being
+	 * told. The histories are filtered live while there are any.
+	 */
+	private int unreportedOperations = 0;
+
 	/**
 	 * a lock that is used to synchronize access between the undo and redo
 	 * history
@@ -187,7 +225,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 
 		if (checkUndoLimit(operation)) {
 			synchronized (undoRedoHistoryLock) {
-				undoList.add(operation);
+				addToHistory(undoList, operation);
 			}
 			notifyAdd(operation);
 
@@ -330,6 +368,10 @@ public final class DefaultOperationHistory implements IOperationHistory {
 			flushUndo(context);
 			flushRedo(context);
 			limits.remove(context);
+			synchronized (undoRedoHistoryLock) {
+				undoByContext.remove(context);
+				redoByContext.remove(context);
+			}
 			return;
 		}
 		if (flushUndo) {
@@ -380,9 +422,9 @@ public final class DefaultOperationHistory implements IOperationHistory {
 		if (status.isOK()) {
 			boolean addedToUndo = true;
 			synchronized (undoRedoHistoryLock) {
-				redoList.remove(operation);
+				removeFromHistory(redoList, operation);
 				if (checkUndoLimit(operation)) {
-					undoList.add(operation);
+					addToHistory(undoList, operation);
 				} else {
 					addedToUndo = false;
 				}
@@ -439,9 +481,9 @@ public final class DefaultOperationHistory implements IOperationHistory {
 		if (status.isOK()) {
 			boolean addedToRedo = true;
 			synchronized (undoRedoHistoryLock) {
-				undoList.remove(operation);
+				removeFromHistory(undoList, operation);
 				if (checkRedoLimit(operation)) {
-					redoList.add(operation);
+					addToHistory(redoList, operation);
 				} else {
 					addedToRedo = false;
 				}
@@ -543,17 +585,26 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 * Filter the specified list to include only the specified undo context.
 	 */
 	private IUndoableOperation[] filter(List list, IUndoContext context) {
-		/*
-		 * This method is used whenever there is a need to filter the undo or
-		 * redo history on a particular context. Currently there are no caches
-		 * kept to optimize repeated requests for the same filter. If benchmarks
-		 * show this to be a common pattern that causes performances problems,
-		 * we could implement a filtered cache here that is nullified whenever
-		 * the global history changes.
-		 */
-
-		List filtered = new ArrayList();
 		synchronized (undoRedoHistoryLock) {
+			List filtered = getFiltered(list, context);
+			return (IUndoableOperation[]) filtered
+					.toArray(new IUndoableOperation[filtered.size()]);
+		}
+	}
+
+	/*
+	 * Return the operations of the specified list that have the specified
+	 * undo context. The filtered lists are kept for repeated requests of the
+	 * same filter, so the caller must hold the history lock and must not
+	 * modify the returned list.
+	 */
+	private List getFiltered(List list, IUndoContext context) {
+		checkContextChanges();
+		boolean cache = unreportedOperations == 0 && reportsChanges(context);
+		Map byContext = list == undoList ? undoByContext : redoByContext;
+		List filtered = cache ? (List) byContext.get(context) : null;
+		if (filtered == null) {
+			filtered = new ArrayList();
 			Iterator iterator = list.iterator();
 			while (iterator.hasNext()) {
 				IUndoableOperation operation = (IUndoableOperation) iterator
@@ -562,9 +613,173 @@ public final class DefaultOperationHistory implements IOperationHistory {
 					filtered.add(operation);
 				}
 			}
+			if (cache) {
+				byContext.put(context, filtered);
+			}
+		}
+		return filtered;
+	}
+
+	/*
+	 * Return whether the matches of the specified context cannot change
+	 * without the history being told. This is the case for plain undo
+	 * contexts, which only match themselves, for object undo contexts, which
+	 * report their changes, and for the global undo context.
+	 */
+	private static boolean reportsChanges(IUndoContext context) {
+		return context == GLOBAL_UNDO_CONTEXT
+				|| context.getClass() == UndoContext.class
+				|| context.getClass() == ObjectUndoContext.class;
+	}
+
+	/*
+	 * Return whether the contexts of the specified operation, and their
+	 * matches, cannot change without the history being told.
+	 */
+	private static boolean reportsChanges(IUndoableOperation operation) {
+		if (!(operation instanceof AbstractOperation)) {
+			return false;
+		}
+		IUndoContext[] contexts = operation.getContexts();
+		for (int i = 0; i < contexts.length; i++) {
+			if (!reportsChanges(contexts[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Count the operations in the history that do not report the changes to
+	 * their contexts. The caller must hold the history lock.
+	 */
+	private void countUnreportedOperations() {
+		unreportedOperations = 0;
+		for (int i = 0; i < undoList.size(); i++) {
+			if (!reportsChanges((IUndoableOperation) undoList.get(i))) {
+				unreportedOperations++;
+			}
+		}
+		for (int i = 0; i < redoList.size(); i++) {
+			if (!reportsChanges((IUndoableOperation) redoList.get(i))) {
+				unreportedOperations++;
+			}
+		}
+	}
+
+	/*
+	 * Add the operation at the top of the specified list, keeping the
+	 * filtered lists up to date. The caller must hold the history lock.
+	 */
+	private void addToHistory(List list, IUndoableOperation operation) {
+		checkContextChanges();
+		list.add(operation);
+		if (operation instanceof AbstractOperation) {
+			((AbstractOperation) operation).histories++;
+		}
+		if (!reportsChanges(operation)) {
+			unreportedOperations++;
+			historyChanged();
+			return;
+		}
+		Map byContext = list == undoList ? undoByContext : redoByContext;
+		Iterator iterator = byContext.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry entry = (Map.Entry) iterator.next();
+			if (operation.hasContext((IUndoContext) entry.getKey())) {
+				((List) entry.getValue()).add(operation);
+			}
+		}
+	}
+
+	/*
+	 * Insert the operation in the specified list at the specified index. The
+	 * caller must hold the history lock.
+	 */
+	private void insertInHistory(List list, int index,
+			IUndoableOperation operation) {
+		checkContextChanges();
+		list.add(index, operation);
+		if (operation instanceof AbstractOperation) {
+			((AbstractOperation) operation).histories++;
+		}
+		if (!reportsChanges(operation)) {
+			unreportedOperations++;
+		}
+		historyChanged();
+	}
+
+	/*
+	 * Remove the operation from the specified list, keeping the filtered
+	 * lists up to date. The caller must hold the history lock.
+	 */
+	private void removeFromHistory(List list, IUndoableOperation operation) {
+		checkContextChanges();
+		if (!list.remove(operation)) {
+			return;
+		}
+		if (operation instanceof AbstractOperation) {
+			((AbstractOperation) operation).histories--;
+		}
+		if (!reportsChanges(operation)) {
+			unreportedOperations--;
+		}
+		Map byContext = list == undoList ? undoByContext : redoByContext;
+		Iterator iterator = byContext.values().iterator();
+		while (iterator.hasNext()) {
+			((List) iterator.next()).remove(operation);
+		}
+	}
+
+	/*
+	 * Drop the filtered lists after the contexts of operations in the
+	 * history, or the order of the history, changed in other ways than
+	 * adding and removing operations. The caller must hold the history lock.
+	 */
+	private void historyChanged() {
+		undoByContext.clear();
+		redoByContext.clear();
+	}
+
+	/*
+	 * Drop the filtered lists if the contexts of operations held by a history,
+	 * or the matches of contexts, changed since they were computed. The caller
+	 * must hold the history lock.
+	 */
+	private void checkContextChanges() {
+		int changes = getContextChanges();
+		if (changes != filteredContextChanges) {
+			historyChanged();
+			countUnreportedOperations();
+			filteredContextChanges = changes;
+		}
+	}
+
+	/*
+	 * Record a change to the contexts of an operation held by a history, or
+	 * to the matches of a context.
+	 */
+	static synchronized void contextsChanged() {
+		contextChanges++;
+	}
+
+	private static synchronized int getContextChanges() {
+		return contextChanges;
+	}
+
+	/*
+	 * Drop the filtered lists that no longer agree with the contexts of the
+	 * specified operation. The caller must hold the history lock.
+	 */
+	private void revalidateFiltered(Map byContext, IUndoableOperation operation) {
+		Iterator iterator = byContext.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry entry = (Map.Entry) iterator.next();
+			if (operation.hasContext((IUndoContext) entry.getKey()) != ((List) entry
+					.getValue()).contains(operation)) {
+				iterator.remove();
+			}
 		}
-		return (IUndoableOperation[]) filtered
-				.toArray(new IUndoableOperation[filtered.size()]);
 	}
 
 	/*
@@ -585,7 +800,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 						|| operation.getContexts().length == 1) {
 					// remove the operation if it only has the context or we are
 					// flushing all
-					redoList.remove(operation);
+					removeFromHistory(redoList, operation);
 					internalRemove(operation);
 				} else {
 					// remove the reference to the context.
@@ -599,8 +814,9 @@ public final class DefaultOperationHistory implements IOperationHistory {
 							operation.removeContext(contexts[j]);
 						}
 					}
+					historyChanged();
 					if (operation.getContexts().length == 0) {
-						redoList.remove(operation);
+						removeFromHistory(redoList, operation);
 						internalRemove(operation);
 					}
 				}
@@ -627,7 +843,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 						|| operation.getContexts().length == 1) {
 					// remove the operation if it only has the context or we are
 					// flushing all
-					undoList.remove(operation);
+					removeFromHistory(undoList, operation);
 					internalRemove(operation);
 				} else {
 					// remove the reference to the context.
@@ -641,8 +857,9 @@ public final class DefaultOperationHistory implements IOperationHistory {
 							operation.removeContext(contexts[j]);
 						}
 					}
+					historyChanged();
 					if (operation.getContexts().length == 0) {
-						undoList.remove(operation);
+						removeFromHistory(undoList, operation);
 						internalRemove(operation);
 					}
 				}
@@ -680,9 +897,12 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 */
 	private void forceRedoLimit(IUndoContext context, int max) {
 		synchronized (undoRedoHistoryLock) {
-			Object[] filtered = filter(redoList, context);
-			int size = filtered.length;
-			if (size > 0) {
+			List operations = getFiltered(redoList, context);
+			int size = operations.size();
+			if (size > max) {
+				// only copy the operations over the limit, since removing
+				// them changes the filtered list
+				Object[] filtered = operations.subList(0, size - max).toArray();
 				int index = 0;
 				while (size > max) {
 					IUndoableOperation removed = (IUndoableOperation) filtered[index];
@@ -692,7 +912,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 						 * remove the operation if we are enforcing a global limit
 						 * or if the operation only has the specified context
 						 */
-						redoList.remove(removed);
+						removeFromHistory(redoList, removed);
 						internalRemove(removed);
 					} else {
 						/*
@@ -701,6 +921,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 						 * context, not the operation.
 						 */
 						removed.removeContext(context);
+						historyChanged();
 					}
 					size--;
 					index++;
@@ -715,9 +936,12 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 */
 	private void forceUndoLimit(IUndoContext context, int max) {
 		synchronized (undoRedoHistoryLock) {
-			Object[] filtered = filter(undoList, context);
-			int size = filtered.length;
-			if (size > 0) {
+			List operations = getFiltered(undoList, context);
+			int size = operations.size();
+			if (size > max) {
+				// only copy the operations over the limit, since removing
+				// them changes the filtered list
+				Object[] filtered = operations.subList(0, size - max).toArray();
 				int index = 0;
 				while (size > max) {
 					IUndoableOperation removed = (IUndoableOperation) filtered[index];
@@ -727,7 +951,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 						 * remove the operation if we are enforcing a global limit
 						 * or if the operation only has the specified context
 						 */
-						undoList.remove(removed);
+						removeFromHistory(undoList, removed);
 						internalRemove(removed);
 					} else {
 						/*
@@ -736,6 +960,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 						 * context, not the operation.
 						 */
 						removed.removeContext(context);
+						historyChanged();
 					}
 					size--;
 					index++;
@@ -799,12 +1024,9 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	public IUndoableOperation getRedoOperation(IUndoContext context) {
 		Assert.isNotNull(context);
 		synchronized (undoRedoHistoryLock) {
-			for (int i = redoList.size() - 1; i >= 0; i--) {
-				IUndoableOperation operation = (IUndoableOperation) redoList
-						.get(i);
-				if (operation.hasContext(context)) {
-					return operation;
-				}
+			List filtered = getFiltered(redoList, context);
+			if (!filtered.isEmpty()) {
+				return (IUndoableOperation) filtered.get(filtered.size() - 1);
 			}
 		}
 		return null;
@@ -853,12 +1075,9 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	public IUndoableOperation getUndoOperation(IUndoContext context) {
 		Assert.isNotNull(context);
 		synchronized (undoRedoHistoryLock) {
-			for (int i = undoList.size() - 1; i >= 0; i--) {
-				IUndoableOperation operation = (IUndoableOperation) undoList
-						.get(i);
-				if (operation.hasContext(context)) {
-					return operation;
-				}
+			List filtered = getFiltered(undoList, context);
+			if (!filtered.isEmpty()) {
+				return (IUndoableOperation) filtered.get(filtered.size() - 1);
 			}
 		}
 		return null;
@@ -1168,7 +1387,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 			int index = undoList.indexOf(operation);
 			if (index > -1) {
 				inUndo = true;
-				undoList.remove(operation);
+				removeFromHistory(undoList, operation);
 				// notify listeners after the lock on undoList is released
 				ArrayList allContexts = new ArrayList(replacements.length);
 				for (int i = 0; i < replacements.length; i++) {
@@ -1176,7 +1395,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 					for (int j = 0; j < opContexts.length; j++) {
 						allContexts.add(opContexts[j]);
 					}
-					undoList.add(index, replacements[i]);
+					insertInHistory(undoList, index, replacements[i]);
 					// notify listeners after the lock on the history is
 					// released
 				}
@@ -1205,14 +1424,14 @@ public final class DefaultOperationHistory implements IOperationHistory {
 				return;
 			}
 			ArrayList allContexts = new ArrayList(replacements.length);
-			redoList.remove(operation);
+			removeFromHistory(redoList, operation);
 			// notify listeners after we release the lock on redoList
 			for (int i = 0; i < replacements.length; i++) {
 				IUndoContext[] opContexts = replacements[i].getContexts();
 				for (int j = 0; j < opContexts.length; j++) {
 					allContexts.add(opContexts[j]);
 				}
-				redoList.add(index, replacements[i]);
+				insertInHistory(redoList, index, replacements[i]);
 				// notify listeners after we release the lock on redoList
 			}
 			// recheck all the limits. We do this at the end so the index
@@ -1390,6 +1609,15 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 */
 	public void operationChanged(IUndoableOperation operation) {
 		if (undoList.contains(operation) || redoList.contains(operation)) {
+			// the contexts of the operation may have changed
+			synchronized (undoRedoHistoryLock) {
+				if (undoList.contains(operation)) {
+					revalidateFiltered(undoByContext, operation);
+				}
+				if (redoList.contains(operation)) {
+					revalidateFiltered(redoByContext, operation);
+				}
+			}
 			notifyChanged(operation);
 		}
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2010 IBM Corporation and others.
+ * Copyright (c) 2006, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -27,6 +27,7 @@ import org.eclipse.core.databinding.observable.list.ListDiffEntry;
 import org.eclipse.core.databinding.observable.map.MapDiff;
 import org.eclipse.core.databinding.observable.set.SetDiff;
 import org.eclipse.core.databinding.observable.value.ValueDiff;
+import org.eclipse.core.internal.databinding.observable.HashedListDiffer;
 import org.eclipse.core.internal.databinding.observable.Util;
 
 /**
@@ -35,6 +36,29 @@ import org.eclipse.core.internal.databinding.observable.Util;
  */
 public class Diffs {
 
+	/**
+	 * Constant for {@link #computeListDiff(List, List, int)} selecting the
+	 * algorithm used by {@link #computeListDiff(List, List)}. Elements are
+	 * compared with {@link Object#equals(Object)} only, but the running time
+	 * is quadratic in the size of the lists.
+	 * 
+	 * @since 1.5
+	 */
+	public static final int LIST_DIFF_DEFAULT = 0;
+
+	/**
+	 * Constant for {@link #computeListDiff(List, List, int)} selecting an
+	 * algorithm which matches equal elements by hashing and leaves the longest
+	 * common subsequence of matched elements in place. It runs in O(n log n)
+	 * time and reports every other matched element as a move, i.e. a removal
+	 * directly followed by an addition of the same element. Elements must
+	 * implement {@link Object#hashCode()} consistently with
+	 * {@link Object#equals(Object)}.
+	 * 
+	 * @since 1.5
+	 */
+	public static final int LIST_DIFF_HASHED = 1;
+
 	/**
 	 * Returns a {@link ListDiff} describing the change between the specified
 	 * old and new list states.
@@ -46,6 +70,29 @@ public class Diffs {
 	 * @return the differences between oldList and newList
 	 */
 	public static ListDiff computeListDiff(List oldList, List newList) {
+		return computeListDiff(oldList, newList, LIST_DIFF_DEFAULT);
+	}
+
+	/**
+	 * Returns a {@link ListDiff} describing the change between the specified
+	 * old and new list states, computed with the given algorithm.
+	 * 
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @param algorithm
+	 *            one of {@link #LIST_DIFF_DEFAULT} or
+	 *            {@link #LIST_DIFF_HASHED}
+	 * @return the differences between oldList and newList
+	 * @since 1.5
+	 */
+	public static ListDiff computeListDiff(List oldList, List newList,
+			int algorithm) {
+		if (algorithm == LIST_DIFF_HASHED) {
+			return createListDiff(HashedListDiffer.computeDifferences(oldList,
+					newList));
+		}
 		List diffEntries = new ArrayList();
 		createListDiffs(new ArrayList(oldList), newList, diffEntries);
 		ListDiff listDiff = createListDiff((ListDiffEntry[]) diffEntries
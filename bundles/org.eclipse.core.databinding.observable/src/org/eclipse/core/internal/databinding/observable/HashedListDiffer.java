@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+
+/**
+ * Computes list differences in O(n log n) time.
+ * <p>
+ * The common prefix and suffix of both lists are skipped. The remaining
+ * elements are matched by hashing, the k-th occurrence of an element in the
+ * new list being paired with the k-th occurrence of an equal element in the
+ * old list. The longest increasing subsequence of the matched old indices
+ * (taken in new list order) stays in place; every other matched element is
+ * reported as a move, i.e. a removal immediately followed by an addition of
+ * the same element. Unmatched old elements are removed and unmatched new
+ * elements are added.
+ * </p>
+ * <p>
+ * Positions of the entries are tracked with binary indexed trees, so that no
+ * intermediate copy of the list needs to be modified. Elements must implement
+ * {@link Object#hashCode()} consistently with {@link Object#equals(Object)}.
+ * </p>
+ *
+ * @since 1.5
+ */
+public class HashedListDiffer {
+
+	/**
+	 * Returns the differences between the two lists, in the order they are to
+	 * be processed.
+	 *
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @return the differences between oldList and newList
+	 */
+	public static ListDiffEntry[] computeDifferences(List oldList, List newList) {
+		Object[] oldElements = oldList.toArray();
+		Object[] newElements = newList.toArray();
+
+		int start = 0;
+		int oldEnd = oldElements.length;
+		int newEnd = newElements.length;
+		while (start < oldEnd && start < newEnd
+				&& Util.equals(oldElements[start], newElements[start])) {
+			start++;
+		}
+		while (oldEnd > start && newEnd > start
+				&& Util.equals(oldElements[oldEnd - 1], newElements[newEnd - 1])) {
+			oldEnd--;
+			newEnd--;
+		}
+
+		int oldSize = oldEnd - start;
+		int newSize = newEnd - start;
+		if (oldSize == 0 && newSize == 0) {
+			return new ListDiffEntry[0];
+		}
+
+		int[] newToOld = matchElements(oldElements, newElements, start,
+				oldSize, newSize);
+		int[] oldToNew = new int[oldSize];
+		for (int i = 0; i < oldSize; i++) {
+			oldToNew[i] = -1;
+		}
+		for (int j = 0; j < newSize; j++) {
+			if (newToOld[j] != -1) {
+				oldToNew[newToOld[j]] = j;
+			}
+		}
+		boolean[] kept = longestIncreasingSubsequence(newToOld);
+
+		// Every element present in the working list is assigned a slot such
+		// that the working list is always sorted by slot. Elements that are in
+		// their final place (kept, added or moved) occupy slot 2j+1 where j is
+		// their index in the new list. Matched elements still waiting to be
+		// moved sit at slot 2k, in front of the next kept element k in old
+		// order, and are ordered among themselves by their old index.
+		int[] waitingSlot = new int[oldSize];
+		int[] groupStart = new int[oldSize];
+		int nextKept = newSize;
+		for (int i = oldSize - 1; i >= 0; i--) {
+			int j = oldToNew[i];
+			if (j != -1 && kept[j]) {
+				nextKept = j;
+			}
+			waitingSlot[i] = 2 * nextKept;
+		}
+		int lastKept = -1;
+		for (int i = 0; i < oldSize; i++) {
+			int j = oldToNew[i];
+			if (j != -1 && kept[j]) {
+				lastKept = i;
+			}
+			groupStart[i] = lastKept + 1;
+		}
+
+		IndexTree slots = new IndexTree(2 * newSize + 1);
+		IndexTree waiting = new IndexTree(oldSize);
+		for (int i = 0; i < oldSize; i++) {
+			int j = oldToNew[i];
+			if (j == -1) {
+				continue;
+			}
+			if (kept[j]) {
+				slots.add(2 * j + 1, 1);
+			} else {
+				slots.add(waitingSlot[i], 1);
+				waiting.add(i, 1);
+			}
+		}
+
+		List diffEntries = new ArrayList();
+
+		// remove unmatched old elements from the back so that positions stay
+		// valid without adjustment
+		for (int i = oldSize - 1; i >= 0; i--) {
+			if (oldToNew[i] == -1) {
+				diffEntries.add(Diffs.createListDiffEntry(start + i, false,
+						oldElements[start + i]));
+			}
+		}
+
+		for (int j = 0; j < newSize; j++) {
+			int i = newToOld[j];
+			if (i != -1 && kept[j]) {
+				continue;
+			}
+			if (i != -1) {
+				int slot = waitingSlot[i];
+				int removePosition = slots.sum(slot - 1)
+						+ waiting.sum(i - 1) - waiting.sum(groupStart[i] - 1);
+				slots.add(slot, -1);
+				waiting.add(i, -1);
+				diffEntries.add(Diffs.createListDiffEntry(start
+						+ removePosition, false, oldElements[start + i]));
+			}
+			diffEntries.add(Diffs.createListDiffEntry(start + slots.sum(2 * j),
+					true, newElements[start + j]));
+			slots.add(2 * j + 1, 1);
+		}
+
+		return (ListDiffEntry[]) diffEntries
+				.toArray(new ListDiffEntry[diffEntries.size()]);
+	}
+
+	/**
+	 * Pairs the k-th occurrence of every element in the new range with the
+	 * k-th occurrence of an equal element in the old range.
+	 *
+	 * @return for every index in the new range, the index of the matching
+	 *         element in the old range, or -1 if there is none
+	 */
+	private static int[] matchElements(Object[] oldElements,
+			Object[] newElements, int start, int oldSize, int newSize) {
+		Map occurrences = new HashMap();
+		for (int i = 0; i < oldSize; i++) {
+			Object element = oldElements[start + i];
+			IndexQueue queue = (IndexQueue) occurrences.get(element);
+			if (queue == null) {
+				queue = new IndexQueue();
+				occurrences.put(element, queue);
+			}
+			queue.add(i);
+		}
+		int[] newToOld = new int[newSize];
+		for (int j = 0; j < newSize; j++) {
+			IndexQueue queue = (IndexQueue) occurrences
+					.get(newElements[start + j]);
+			newToOld[j] = queue == null ? -1 : queue.poll();
+		}
+		return newToOld;
+	}
+
+	/**
+	 * Computes a longest strictly increasing subsequence of the non-negative
+	 * values in the given array using patience sorting.
+	 *
+	 * @return a flag for every index telling whether it belongs to the
+	 *         subsequence
+	 */
+	private static boolean[] longestIncreasingSubsequence(int[] values) {
+		int[] tails = new int[values.length];
+		int[] predecessors = new int[values.length];
+		int length = 0;
+		for (int j = 0; j < values.length; j++) {
+			int value = values[j];
+			if (value == -1) {
+				continue;
+			}
+			int low = 0;
+			int high = length;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (values[tails[middle]] < value) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			predecessors[j] = low > 0 ? tails[low - 1] : -1;
+			tails[low] = j;
+			if (low == length) {
+				length++;
+			}
+		}
+		boolean[] result = new boolean[values.length];
+		for (int j = length > 0 ? tails[length - 1] : -1; j != -1; j = predecessors[j]) {
+			result[j] = true;
+		}
+		return result;
+	}
+
+	/**
+	 * FIFO queue of indices.
+	 */
+	private static class IndexQueue {
+		private int[] indices = new int[1];
+		private int head;
+		private int size;
+
+		void add(int index) {
+			if (size == indices.length) {
+				int[] grown = new int[size * 2];
+				System.arraycopy(indices, 0, grown, 0, size);
+				indices = grown;
+			}
+			indices[size++] = index;
+		}
+
+		int poll() {
+			return head < size ? indices[head++] : -1;
+		}
+	}
+
+	/**
+	 * Binary indexed tree counting present entries per index.
+	 */
+	private static class IndexTree {
+		private final int[] tree;
+
+		IndexTree(int size) {
+			tree = new int[size + 1];
+		}
+
+		void add(int index, int delta) {
+			for (int i = index + 1; i < tree.length; i += i & -i) {
+				tree[i] += delta;
+			}
+		}
+
+		/**
+		 * @return the number of entries at indices 0 to <code>index</code>
+		 *         inclusive
+		 */
+		int sum(int index) {
+			int result = 0;
+			for (int i = Math.min(index + 1, tree.length - 1); i > 0; i -= i & -i) {
+				result += tree[i];
+			}
+			return result;
+		}
+	}
+}
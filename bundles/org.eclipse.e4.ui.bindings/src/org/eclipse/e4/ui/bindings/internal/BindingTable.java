@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2013 IBM Corporation and others.
+ * Copyright (c) 2010, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import org.eclipse.core.commands.ParameterizedCommand;
 import org.eclipse.core.commands.contexts.Context;
@@ -119,13 +120,46 @@ public class BindingTable {
 		}
 	}
 
+	/**
+	 * A node of the prefix trie. The node reached by following the triggers of
+	 * a sequence holds all bindings whose trigger sequence starts with, but is
+	 * longer than, that sequence.
+	 */
+	static class PrefixNode {
+		private Map<Trigger, PrefixNode> children;
+		final ArrayList<Binding> partialMatches = new ArrayList<Binding>();
+
+		PrefixNode getChild(Trigger trigger) {
+			return children == null ? null : children.get(trigger);
+		}
+
+		PrefixNode getOrCreateChild(Trigger trigger) {
+			if (children == null) {
+				children = new HashMap<Trigger, PrefixNode>();
+			}
+			PrefixNode child = children.get(trigger);
+			if (child == null) {
+				child = new PrefixNode();
+				children.put(trigger, child);
+			}
+			return child;
+		}
+
+		void removeChild(Trigger trigger) {
+			children.remove(trigger);
+			if (children.isEmpty()) {
+				children = null;
+			}
+		}
+	}
+
 	public static final BindingComparator BEST_SEQUENCE = new BindingComparator();
 
 	private Context tableId;
-	private ArrayList<Binding> bindings = new ArrayList<Binding>();
+	private LinkedHashSet<Binding> bindings = new LinkedHashSet<Binding>();
 	private Map<TriggerSequence, Binding> bindingsByTrigger = new HashMap<TriggerSequence, Binding>();
 	private Map<ParameterizedCommand, ArrayList<Binding>> bindingsByCommand = new HashMap<ParameterizedCommand, ArrayList<Binding>>();
-	private Map<TriggerSequence, ArrayList<Binding>> bindingsByPrefix = new HashMap<TriggerSequence, ArrayList<Binding>>();
+	private PrefixNode prefixRoot = new PrefixNode();
 	private Map<TriggerSequence, ArrayList<Binding>> conflicts = new HashMap<TriggerSequence, ArrayList<Binding>>();
 	private Map<TriggerSequence, ArrayList<Binding>> orderedBindingsByTrigger = new HashMap<TriggerSequence, ArrayList<Binding>>();
 
@@ -197,20 +231,17 @@ public class BindingTable {
 
 		ArrayList<Binding> sequences = bindingsByCommand.get(binding.getParameterizedCommand());
 		if (sequences == null) {
-			sequences = new ArrayList<Binding>();
+			sequences = new ArrayList<Binding>(1);
 			bindingsByCommand.put(binding.getParameterizedCommand(), sequences);
 		}
-		sequences.add(binding);
-		Collections.sort(sequences, BEST_SEQUENCE);
-
-		TriggerSequence[] prefs = binding.getTriggerSequence().getPrefixes();
-		for (int i = 1; i < prefs.length; i++) {
-			ArrayList<Binding> bindings = bindingsByPrefix.get(prefs[i]);
-			if (bindings == null) {
-				bindings = new ArrayList<Binding>();
-				bindingsByPrefix.put(prefs[i], bindings);
-			}
-			bindings.add(binding);
+		int index = Collections.binarySearch(sequences, binding, BEST_SEQUENCE);
+		sequences.add(index < 0 ? -index - 1 : index + 1, binding);
+
+		Trigger[] triggers = binding.getTriggerSequence().getTriggers();
+		PrefixNode node = prefixRoot;
+		for (int i = 0; i < triggers.length - 1; i++) {
+			node = node.getOrCreateChild(triggers[i]);
+			node.partialMatches.add(binding);
 		}
 	}
 
@@ -221,13 +252,25 @@ public class BindingTable {
 
 		if (sequences != null) {
 			sequences.remove(binding);
+			if (sequences.isEmpty()) {
+				bindingsByCommand.remove(binding.getParameterizedCommand());
+			}
 		}
-		TriggerSequence[] prefs = binding.getTriggerSequence().getPrefixes();
-		for (int i = 1; i < prefs.length; i++) {
-			ArrayList<Binding> bindings = bindingsByPrefix.get(prefs[i]);
-			if (bindings != null) {
-				bindings.remove(binding);
+
+		Trigger[] triggers = binding.getTriggerSequence().getTriggers();
+		PrefixNode node = prefixRoot;
+		for (int i = 0; i < triggers.length - 1; i++) {
+			PrefixNode child = node.getChild(triggers[i]);
+			if (child == null) {
+				return;
+			}
+			child.partialMatches.remove(binding);
+			if (child.partialMatches.isEmpty()) {
+				// no longer sequence goes through this prefix
+				node.removeChild(triggers[i]);
+				return;
 			}
+			node = child;
 		}
 	}
 
@@ -330,12 +373,47 @@ public class BindingTable {
 		return (Collection<Binding>) (triggers == null ? Collections.EMPTY_LIST : triggers.clone());
 	}
 
+	/**
+	 * Returns the bindings for the given command without copying them, sorted by
+	 * {@link #BEST_SEQUENCE}. The result must not be modified.
+	 * 
+	 * @param command
+	 * @return the bindings for the command, or <code>null</code>
+	 */
+	ArrayList<Binding> getSequencesForNoCopy(ParameterizedCommand command) {
+		return bindingsByCommand.get(command);
+	}
+
+	/**
+	 * Sorts the bindings of every command again. The bindings are inserted in
+	 * the order of {@link #BEST_SEQUENCE}, so this must be called when its active
+	 * schemes change.
+	 */
+	void sortSequences() {
+		for (ArrayList<Binding> sequences : bindingsByCommand.values()) {
+			Collections.sort(sequences, BEST_SEQUENCE);
+		}
+	}
+
 	public Collection<Binding> getPartialMatches(TriggerSequence sequence) {
-		return bindingsByPrefix.get(sequence);
+		PrefixNode node = getPrefixNode(sequence);
+		return node == null ? null : node.partialMatches;
 	}
 
 	public boolean isPartialMatch(TriggerSequence seq) {
-		return bindingsByPrefix.get(seq) != null;
+		return getPrefixNode(seq) != null;
+	}
+
+	private PrefixNode getPrefixNode(TriggerSequence sequence) {
+		Trigger[] triggers = sequence.getTriggers();
+		if (triggers.length == 0) {
+			return null;
+		}
+		PrefixNode node = prefixRoot;
+		for (int i = 0; i < triggers.length && node != null; i++) {
+			node = node.getChild(triggers[i]);
+		}
+		return node;
 	}
 
 	public Collection<Binding> getBindings() {
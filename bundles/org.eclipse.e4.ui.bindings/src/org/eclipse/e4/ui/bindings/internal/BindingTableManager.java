@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2012 IBM Corporation and others.
+ * Copyright (c) 2010, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,7 +15,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.ListIterator;
 import javax.inject.Inject;
 import org.eclipse.core.commands.ParameterizedCommand;
 import org.eclipse.core.commands.contexts.Context;
@@ -36,6 +35,14 @@ public class BindingTableManager {
 
 	private String[] activeSchemeIds;
 
+	/*
+	 * The tables resolved for the most recently queried context set. A key
+	 * press queries the same context set several times, so this avoids a
+	 * context lookup per table and per query.
+	 */
+	private ContextSet cachedContextSet;
+	private BindingTable[] cachedTables;
+
 	public void addTable(BindingTable table) {
 		String contextId = getTableId(table.getId());
 		if (eclipseContext.containsKey(contextId)) {
@@ -43,6 +50,7 @@ public class BindingTableManager {
 			//			throw new IllegalArgumentException("Already contains table " + contextId); //$NON-NLS-1$
 		}
 		eclipseContext.set(contextId, table);
+		flushTableCache();
 		final List<Context> contexts = definedTables.getContexts();
 		if (!contexts.contains(table.getTableId())) {
 			// this is only valid because I'm throwing away the old definedTables contextSet
@@ -61,6 +69,7 @@ public class BindingTableManager {
 			throw new IllegalArgumentException("Does not contains table " + contextId); //$NON-NLS-1$
 		}
 		eclipseContext.remove(contextId);
+		flushTableCache();
 		final List<Context> contexts = definedTables.getContexts();
 		if (contexts.contains(table.getTableId())) {
 			// this is only valid because I'm throwing away the old definedTables contextSet
@@ -73,6 +82,30 @@ public class BindingTableManager {
 		return (BindingTable) eclipseContext.get(getTableId(id));
 	}
 
+	private void flushTableCache() {
+		cachedContextSet = null;
+		cachedTables = null;
+	}
+
+	/**
+	 * Returns the tables of the given context set, in the order of its contexts.
+	 * Contexts without a table have a <code>null</code> entry. The returned array
+	 * must not be modified.
+	 */
+	private BindingTable[] getTables(ContextSet contextSet) {
+		if (contextSet == cachedContextSet) {
+			return cachedTables;
+		}
+		List<Context> contexts = contextSet.getContexts();
+		BindingTable[] tables = new BindingTable[contexts.size()];
+		for (int i = 0; i < tables.length; i++) {
+			tables[i] = getTable(contexts.get(i).getId());
+		}
+		cachedContextSet = contextSet;
+		cachedTables = tables;
+		return tables;
+	}
+
 	// we're just going through each binding table, and returning a
 	// flat list of bindings here
 	public Collection<Binding> getActiveBindings() {
@@ -93,8 +126,7 @@ public class BindingTableManager {
 	public Collection<Binding> getConflictsFor(ContextSet contextSet,
 			TriggerSequence triggerSequence) {
 		Collection<Binding> matches = new ArrayList<Binding>();
-		for (Context ctx : contextSet.getContexts()) {
-			BindingTable table = getTable(ctx.getId());
+		for (BindingTable table : getTables(contextSet)) {
 			if (table != null) {
 				final Collection<Binding> matchesFor = table.getConflictsFor(triggerSequence);
 				if (matchesFor != null) {
@@ -122,11 +154,9 @@ public class BindingTableManager {
 	public Binding getPerfectMatch(ContextSet contextSet, TriggerSequence triggerSequence) {
 		Binding result = null;
 		Binding currentResult = null;
-		List<Context> contexts = contextSet.getContexts();
-		ListIterator<Context> it = contexts.listIterator(contexts.size());
-		while (it.hasPrevious()) {
-			Context c = it.previous();
-			BindingTable table = getTable(c.getId());
+		BindingTable[] tables = getTables(contextSet);
+		for (int i = tables.length - 1; i >= 0; i--) {
+			BindingTable table = tables[i];
 			if (table != null) {
 				currentResult = table.getPerfectMatch(triggerSequence);
 			}
@@ -172,13 +202,11 @@ public class BindingTableManager {
 	public Collection<Binding> getSequencesFor(ContextSet contextSet,
 			ParameterizedCommand parameterizedCommand) {
 		ArrayList<Binding> bindings = new ArrayList<Binding>();
-		List<Context> contexts = contextSet.getContexts();
-		ListIterator<Context> it = contexts.listIterator(contexts.size());
-		while (it.hasPrevious()) {
-			Context c = it.previous();
-			BindingTable table = getTable(c.getId());
+		BindingTable[] tables = getTables(contextSet);
+		for (int i = tables.length - 1; i >= 0; i--) {
+			BindingTable table = tables[i];
 			if (table != null) {
-				Collection<Binding> sequences = table.getSequencesFor(parameterizedCommand);
+				Collection<Binding> sequences = table.getSequencesForNoCopy(parameterizedCommand);
 				if (sequences != null) {
 					bindings.addAll(sequences);
 				}
@@ -190,10 +218,9 @@ public class BindingTableManager {
 
 	public Collection<Binding> getBindingsFor(ContextSet contextSet, ParameterizedCommand cmd) {
 		Collection<Binding> bindings = new ArrayList<Binding>();
-		for (Context ctx : contextSet.getContexts()) {
-			BindingTable table = getTable(ctx.getId());
+		for (BindingTable table : getTables(contextSet)) {
 			if (table != null) {
-				Collection<Binding> matches = table.getSequencesFor(cmd);
+				Collection<Binding> matches = table.getSequencesForNoCopy(cmd);
 				if (matches != null) {
 					bindings.addAll(matches);
 				}
@@ -203,11 +230,9 @@ public class BindingTableManager {
 	}
 
 	public boolean isPartialMatch(ContextSet contextSet, TriggerSequence sequence) {
-		List<Context> contexts = contextSet.getContexts();
-		ListIterator<Context> it = contexts.listIterator(contexts.size());
-		while (it.hasPrevious()) {
-			Context c = it.previous();
-			BindingTable table = getTable(c.getId());
+		BindingTable[] tables = getTables(contextSet);
+		for (int i = tables.length - 1; i >= 0; i--) {
+			BindingTable table = tables[i];
 			if (table != null) {
 				if (table.isPartialMatch(sequence)) {
 					return true;
@@ -219,11 +244,9 @@ public class BindingTableManager {
 
 	public Collection<Binding> getPartialMatches(ContextSet contextSet, TriggerSequence sequence) {
 		ArrayList<Binding> bindings = new ArrayList<Binding>();
-		List<Context> contexts = contextSet.getContexts();
-		ListIterator<Context> it = contexts.listIterator(contexts.size());
-		while (it.hasPrevious()) {
-			Context c = it.previous();
-			BindingTable table = getTable(c.getId());
+		BindingTable[] tables = getTables(contextSet);
+		for (int i = tables.length - 1; i >= 0; i--) {
+			BindingTable table = tables[i];
 			if (table != null) {
 				Collection<Binding> partialMatches = table.getPartialMatches(sequence);
 				if (partialMatches != null) {
@@ -240,6 +263,12 @@ public class BindingTableManager {
 	public void setActiveSchemes(String[] activeSchemeIds) {
 		this.activeSchemeIds = activeSchemeIds;
 		BindingTable.BEST_SEQUENCE.setActiveSchemes(activeSchemeIds);
+		for (Context ctx : definedTables.getContexts()) {
+			BindingTable table = getTable(ctx.getId());
+			if (table != null) {
+				table.sortSequences();
+			}
+		}
 	}
 
 	/*
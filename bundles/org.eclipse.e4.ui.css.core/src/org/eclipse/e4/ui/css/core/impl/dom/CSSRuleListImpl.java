@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 Angelo Zerr and others.
+ * Copyright (c) 2008, 2014 Angelo Zerr and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,6 +20,8 @@ import org.w3c.dom.css.CSSRuleList;
 public class CSSRuleListImpl implements CSSRuleList {
 
 	private List<CSSRule> ruleList;
+
+	private int modificationCount;
 	
 	public CSSRuleListImpl() {
 		super();
@@ -51,6 +53,7 @@ public class CSSRuleListImpl implements CSSRuleList {
 	 */	
 	public void add(CSSRule rule) {
 		ruleList.add(rule);
+		modificationCount++;
 	}
 
 	/**
@@ -58,5 +61,14 @@ public class CSSRuleListImpl implements CSSRuleList {
 	 */	
 	public void remove(int position) {
 		ruleList.remove(position);
+		modificationCount++;
+	}
+
+	/**
+	 * Returns a counter that is incremented whenever a rule is added or
+	 * removed, allowing caches derived from this list to detect changes.
+	 */
+	public int getModificationCount() {
+		return modificationCount;
 	}
 }
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.dom;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
+import org.eclipse.e4.ui.css.core.impl.sac.ExtendedSelector;
+import org.w3c.css.sac.AttributeCondition;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionalSelector;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.ElementSelector;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.css.sac.SiblingSelector;
+import org.w3c.dom.Element;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.css.CSSStyleRule;
+import org.w3c.dom.css.CSSStyleSheet;
+
+/**
+ * Index of the style rules of a {@link CSSStyleSheet}. Every selector is put
+ * in a bucket according to its rightmost simple selector: by id, else by CSS
+ * class, else by element name. Selectors without any of those go to the
+ * universal bucket. Only the selectors of the buckets an element can fall
+ * into need to be matched against it.
+ */
+class StyleSheetRuleIndex {
+
+	/**
+	 * A selector of a style rule, with its position in the style sheet.
+	 */
+	static class Entry {
+		final ExtendedSelector selector;
+		final CSSStyleDeclaration style;
+		final int order;
+
+		/**
+		 * Whether the selector only tests the element name, id and CSS class of
+		 * the element itself, so that its result does not depend on the state
+		 * of the element or of its ancestors and siblings.
+		 */
+		final boolean isStatic;
+
+		Entry(ExtendedSelector selector, CSSStyleDeclaration style, int order) {
+			this.selector = selector;
+			this.style = style;
+			this.order = order;
+			this.isStatic = isStatic(selector);
+		}
+	}
+
+	private final CSSRuleList ruleList;
+	private final int length;
+	private final int modificationCount;
+
+	private final Map<String, List<Entry>> entriesById = new HashMap<String, List<Entry>>();
+	private final Map<String, List<Entry>> entriesByClass = new HashMap<String, List<Entry>>();
+	private final Map<String, List<Entry>> entriesByName = new HashMap<String, List<Entry>>();
+	private final List<Entry> universalEntries = new ArrayList<Entry>();
+
+	StyleSheetRuleIndex(CSSStyleSheet styleSheet) {
+		ruleList = styleSheet.getCssRules();
+		length = ruleList == null ? 0 : ruleList.getLength();
+		modificationCount = getModificationCount(ruleList);
+		int order = 0;
+		for (int i = 0; i < length; i++) {
+			CSSRule rule = ruleList.item(i);
+			if (rule.getType() != CSSRule.STYLE_RULE
+					|| !(rule instanceof ExtendedCSSRule)) {
+				continue;
+			}
+			CSSStyleDeclaration style = ((CSSStyleRule) rule).getStyle();
+			SelectorList selectorList = ((ExtendedCSSRule) rule)
+					.getSelectorList();
+			int l = selectorList.getLength();
+			for (int j = 0; j < l; j++) {
+				Selector selector = selectorList.item(j);
+				if (selector instanceof ExtendedSelector) {
+					add(new Entry((ExtendedSelector) selector, style, order++));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns whether this index still reflects the rules of the given style
+	 * sheet.
+	 */
+	boolean isValid(CSSStyleSheet styleSheet) {
+		CSSRuleList rules = styleSheet.getCssRules();
+		return rules == ruleList
+				&& (rules == null ? 0 : rules.getLength()) == length
+				&& getModificationCount(rules) == modificationCount;
+	}
+
+	/**
+	 * Adds the entries that may match the given element to the result, in
+	 * style sheet order.
+	 */
+	void collectCandidates(Element element, List<Entry> result) {
+		int start = result.size();
+		int buckets = 0;
+		String id = getId(element);
+		if (id != null) {
+			buckets += addAll(entriesById.get(id), result);
+		}
+		String cssClass = getCSSClass(element);
+		if (cssClass != null) {
+			int classLength = cssClass.length();
+			int begin = 0;
+			while (begin < classLength) {
+				while (begin < classLength
+						&& Character.isSpaceChar(cssClass.charAt(begin))) {
+					begin++;
+				}
+				int end = begin;
+				while (end < classLength
+						&& !Character.isSpaceChar(cssClass.charAt(end))) {
+					end++;
+				}
+				if (end > begin) {
+					buckets += addAll(
+							entriesByClass.get(cssClass.substring(begin, end)),
+							result);
+				}
+				begin = end;
+			}
+		}
+		String name = element.getPrefix() == null ? element.getNodeName()
+				: element.getLocalName();
+		if (name != null) {
+			buckets += addAll(entriesByName.get(name), result);
+		}
+		buckets += addAll(universalEntries, result);
+		if (buckets > 1) {
+			sortByOrder(result, start);
+		}
+	}
+
+	private void add(Entry entry) {
+		Selector selector = entry.selector;
+		switch (selector.getSelectorType()) {
+		case Selector.SAC_DESCENDANT_SELECTOR:
+		case Selector.SAC_CHILD_SELECTOR:
+			selector = ((DescendantSelector) selector).getSimpleSelector();
+			break;
+		case Selector.SAC_DIRECT_ADJACENT_SELECTOR:
+			selector = ((SiblingSelector) selector).getSiblingSelector();
+			break;
+		}
+		Condition condition = null;
+		if (selector.getSelectorType() == Selector.SAC_CONDITIONAL_SELECTOR) {
+			ConditionalSelector conditional = (ConditionalSelector) selector;
+			condition = conditional.getCondition();
+			selector = conditional.getSimpleSelector();
+		}
+		String id = findConditionValue(condition, Condition.SAC_ID_CONDITION);
+		if (id != null) {
+			add(entriesById, id, entry);
+			return;
+		}
+		String cssClass = findConditionValue(condition,
+				Condition.SAC_CLASS_CONDITION);
+		if (cssClass != null) {
+			add(entriesByClass, cssClass, entry);
+			return;
+		}
+		if (selector.getSelectorType() == Selector.SAC_ELEMENT_NODE_SELECTOR) {
+			String name = ((ElementSelector) selector).getLocalName();
+			if (name != null) {
+				add(entriesByName, name, entry);
+				return;
+			}
+		}
+		universalEntries.add(entry);
+	}
+
+	private static void add(Map<String, List<Entry>> map, String key,
+			Entry entry) {
+		List<Entry> entries = map.get(key);
+		if (entries == null) {
+			entries = new ArrayList<Entry>(2);
+			map.put(key, entries);
+		}
+		entries.add(entry);
+	}
+
+	private static int addAll(List<Entry> entries, List<Entry> result) {
+		if (entries == null || entries.isEmpty()) {
+			return 0;
+		}
+		result.addAll(entries);
+		return 1;
+	}
+
+	/**
+	 * Insertion sort of the candidates collected from several buckets; each
+	 * bucket is already sorted and there are only a few of them.
+	 */
+	private static void sortByOrder(List<Entry> entries, int start) {
+		int size = entries.size();
+		for (int i = start + 1; i < size; i++) {
+			Entry entry = entries.get(i);
+			int j = i - 1;
+			while (j >= start && entries.get(j).order > entry.order) {
+				entries.set(j + 1, entries.get(j));
+				j--;
+			}
+			entries.set(j + 1, entry);
+		}
+	}
+
+	/**
+	 * Returns the value of the first id or class condition (depending on the
+	 * given condition type) found in the given condition tree.
+	 */
+	private static String findConditionValue(Condition condition,
+			short conditionType) {
+		if (condition == null) {
+			return null;
+		}
+		if (condition.getConditionType() == conditionType) {
+			return ((AttributeCondition) condition).getValue();
+		}
+		if (condition.getConditionType() == Condition.SAC_AND_CONDITION) {
+			CombinatorCondition and = (CombinatorCondition) condition;
+			String value = findConditionValue(and.getFirstCondition(),
+					conditionType);
+			return value != null ? value : findConditionValue(
+					and.getSecondCondition(), conditionType);
+		}
+		return null;
+	}
+
+	private static boolean isStatic(Selector selector) {
+		switch (selector.getSelectorType()) {
+		case Selector.SAC_ELEMENT_NODE_SELECTOR:
+			return ((ElementSelector) selector).getNamespaceURI() == null;
+		case Selector.SAC_CONDITIONAL_SELECTOR:
+			ConditionalSelector conditional = (ConditionalSelector) selector;
+			return isStatic(conditional.getSimpleSelector())
+					&& isStatic(conditional.getCondition());
+		default:
+			return false;
+		}
+	}
+
+	private static boolean isStatic(Condition condition) {
+		switch (condition.getConditionType()) {
+		case Condition.SAC_ID_CONDITION:
+		case Condition.SAC_CLASS_CONDITION:
+			return true;
+		case Condition.SAC_AND_CONDITION:
+			CombinatorCondition and = (CombinatorCondition) condition;
+			return isStatic(and.getFirstCondition())
+					&& isStatic(and.getSecondCondition());
+		default:
+			return false;
+		}
+	}
+
+	private static int getModificationCount(CSSRuleList ruleList) {
+		return ruleList instanceof CSSRuleListImpl ? ((CSSRuleListImpl) ruleList)
+				.getModificationCount() : 0;
+	}
+
+	static String getId(Element element) {
+		if (element instanceof CSSStylableElement) {
+			return ((CSSStylableElement) element).getCSSId();
+		}
+		return element.getAttribute("id"); //$NON-NLS-1$
+	}
+
+	static String getCSSClass(Element element) {
+		if (element instanceof CSSStylableElement) {
+			return ((CSSStylableElement) element).getCSSClass();
+		}
+		return element.getAttribute("class"); //$NON-NLS-1$
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 Angelo Zerr and others.
+ * Copyright (c) 2008, 2014 Angelo Zerr and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,16 +12,12 @@
 package org.eclipse.e4.ui.css.core.impl.dom;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
-import org.eclipse.e4.ui.css.core.impl.sac.ExtendedSelector;
-import org.w3c.css.sac.Selector;
-import org.w3c.css.sac.SelectorList;
+import java.util.Map;
+import org.eclipse.e4.ui.css.core.impl.dom.StyleSheetRuleIndex.Entry;
 import org.w3c.dom.Element;
-import org.w3c.dom.css.CSSRule;
-import org.w3c.dom.css.CSSRuleList;
 import org.w3c.dom.css.CSSStyleDeclaration;
-import org.w3c.dom.css.CSSStyleRule;
 import org.w3c.dom.css.CSSStyleSheet;
 import org.w3c.dom.css.DocumentCSS;
 import org.w3c.dom.css.ViewCSS;
@@ -31,11 +27,27 @@ import org.w3c.dom.views.DocumentView;
 
 /**
  * {@link ViewCSS} implementation used to compute {@link CSSStyleDeclaration}.
+ * <p>
+ * The rules of every style sheet are indexed by {@link StyleSheetRuleIndex}
+ * so that only the rules which may apply to an element are matched against
+ * it. Computed styles which only depend on the element name, id, CSS class
+ * and pseudo element are cached until the style sheets change.
+ * </p>
  */
 public class ViewCSSImpl implements ViewCSS {
 
 	protected DocumentCSS documentCSS;
 
+	private CSSStyleSheet[] indexedStyleSheets = new CSSStyleSheet[0];
+
+	private StyleSheetRuleIndex[] ruleIndexes = new StyleSheetRuleIndex[0];
+
+	/**
+	 * key = element name, id, CSS class and pseudo element, value = computed
+	 * style, possibly <code>null</code>
+	 */
+	private Map<String, CSSStyleDeclaration> computedStyles = new HashMap<String, CSSStyleDeclaration>();
+
 	/**
 	 * Creates a new ViewCSS.
 	 */
@@ -56,65 +68,67 @@ public class ViewCSSImpl implements ViewCSS {
 	 * org.w3c.dom.css.ViewCSS#getComputedStyle(Element,String)}.
 	 */
 	public CSSStyleDeclaration getComputedStyle(Element elt, String pseudoElt) {
+		StyleSheetRuleIndex[] indexes = getRuleIndexes();
+		String key = getComputedStyleKey(elt, pseudoElt);
+		if (computedStyles.containsKey(key)) {
+			return computedStyles.get(key);
+		}
+		boolean isStatic = true;
+		CSSStyleDeclaration styleDeclaration = null;
+		List<Entry> candidates = new ArrayList<Entry>();
 		// Loop for CSS StyleSheet list parsed
-		StyleSheetList styleSheetList = documentCSS.getStyleSheets();
-		int l = styleSheetList.getLength();
-		for (int i = 0; i < l; i++) {
-			CSSStyleSheet styleSheet = (CSSStyleSheet) styleSheetList.item(i);
-			CSSStyleDeclaration styleDeclaration = getComputedStyle(styleSheet,
-					elt, pseudoElt);
+		for (int i = 0; i < indexes.length; i++) {
+			candidates.clear();
+			indexes[i].collectCandidates(elt, candidates);
+			for (int j = 0; j < candidates.size() && isStatic; j++) {
+				isStatic = candidates.get(j).isStatic;
+			}
+			styleDeclaration = getComputedStyle(candidates, elt, pseudoElt);
 			if (styleDeclaration != null)
-				return styleDeclaration;
+				break;
 		}
-		return null;
+		if (isStatic) {
+			computedStyles.put(key, styleDeclaration);
+		}
+		return styleDeclaration;
 	}
 
 	public CSSStyleDeclaration getComputedStyle(CSSStyleSheet styleSheet, Element elt, String pseudoElt) {
-		List styleDeclarations = null;
+		StyleSheetRuleIndex index = null;
+		StyleSheetRuleIndex[] indexes = getRuleIndexes();
+		for (int i = 0; i < indexes.length && index == null; i++) {
+			if (indexedStyleSheets[i] == styleSheet) {
+				index = indexes[i];
+			}
+		}
+		if (index == null) {
+			index = new StyleSheetRuleIndex(styleSheet);
+		}
+		List<Entry> candidates = new ArrayList<Entry>();
+		index.collectCandidates(elt, candidates);
+		return getComputedStyle(candidates, elt, pseudoElt);
+	}
+
+	private CSSStyleDeclaration getComputedStyle(List<Entry> candidates, Element elt, String pseudoElt) {
+		List<StyleWrapper> styleDeclarations = null;
 		StyleWrapper firstStyleDeclaration = null;
-		CSSRuleList ruleList = styleSheet.getCssRules();
-		int length = ruleList.getLength();
 		int position = 0;
-		for (int i = 0; i < length; i++) {
-			CSSRule rule = ruleList.item(i);
-			if (rule.getType() == CSSRule.STYLE_RULE) {
-				CSSStyleRule styleRule = (CSSStyleRule) rule;
-				if (rule instanceof ExtendedCSSRule) {
-					ExtendedCSSRule r = (ExtendedCSSRule) rule;
-					SelectorList selectorList = r.getSelectorList();
-					// Loop for SelectorList
-					int l = selectorList.getLength();
-					for (int j = 0; j < l; j++) {
-						Selector selector = (Selector) selectorList.item(j);
-						if (selector instanceof ExtendedSelector) {
-							ExtendedSelector extendedSelector = (ExtendedSelector) selector;
-							if (extendedSelector.match(elt, pseudoElt)) {
-								CSSStyleDeclaration style = styleRule
-										.getStyle();
-								int specificity = extendedSelector
-										.getSpecificity();
-								StyleWrapper wrapper = new StyleWrapper(style,
-										specificity, position++);
-								if (firstStyleDeclaration == null) {
-									firstStyleDeclaration = wrapper;
-								} else {
-									// There is several Style Declarations which
-									// match the current element
-									if (styleDeclarations == null) {
-										styleDeclarations = new ArrayList();
-										styleDeclarations.add(firstStyleDeclaration);
-									}
-									styleDeclarations.add(wrapper);
-								}
-							}
-						} else {
-							// TODO : selector is not batik ExtendedSelector,
-							// Manage this case...
-						}
-					}
+		int size = candidates.size();
+		for (int i = 0; i < size; i++) {
+			Entry candidate = candidates.get(i);
+			if (candidate.selector.match(elt, pseudoElt)) {
+				StyleWrapper wrapper = new StyleWrapper(candidate.style,
+						candidate.selector.getSpecificity(), position++);
+				if (firstStyleDeclaration == null) {
+					firstStyleDeclaration = wrapper;
 				} else {
-					// TODO : CSS rule is not ExtendedCSSRule,
-					// Manage this case...
+					// There is several Style Declarations which
+					// match the current element
+					if (styleDeclarations == null) {
+						styleDeclarations = new ArrayList<StyleWrapper>();
+						styleDeclarations.add(firstStyleDeclaration);
+					}
+					styleDeclarations.add(wrapper);
 				}
 			}
 		}
@@ -128,4 +142,51 @@ public class ViewCSSImpl implements ViewCSS {
 		}
 		return null;
 	}
+
+	/**
+	 * Returns the rule indexes of the style sheets of the document, rebuilding
+	 * those whose style sheet changed and flushing the computed style cache if
+	 * anything changed.
+	 */
+	private StyleSheetRuleIndex[] getRuleIndexes() {
+		StyleSheetList styleSheetList = documentCSS.getStyleSheets();
+		int l = styleSheetList.getLength();
+		boolean valid = l == indexedStyleSheets.length;
+		for (int i = 0; i < l && valid; i++) {
+			CSSStyleSheet styleSheet = (CSSStyleSheet) styleSheetList.item(i);
+			valid = styleSheet == indexedStyleSheets[i]
+					&& ruleIndexes[i].isValid(styleSheet);
+		}
+		if (!valid) {
+			CSSStyleSheet[] styleSheets = new CSSStyleSheet[l];
+			StyleSheetRuleIndex[] indexes = new StyleSheetRuleIndex[l];
+			for (int i = 0; i < l; i++) {
+				styleSheets[i] = (CSSStyleSheet) styleSheetList.item(i);
+				for (int j = 0; j < indexedStyleSheets.length; j++) {
+					if (indexedStyleSheets[j] == styleSheets[i]
+							&& ruleIndexes[j].isValid(styleSheets[i])) {
+						indexes[i] = ruleIndexes[j];
+						break;
+					}
+				}
+				if (indexes[i] == null) {
+					indexes[i] = new StyleSheetRuleIndex(styleSheets[i]);
+				}
+			}
+			indexedStyleSheets = styleSheets;
+			ruleIndexes = indexes;
+			computedStyles.clear();
+		}
+		return ruleIndexes;
+	}
+
+	private static String getComputedStyleKey(Element elt, String pseudoElt) {
+		StringBuilder key = new StringBuilder();
+		key.append(elt.getPrefix() == null ? elt.getNodeName() : elt
+				.getLocalName());
+		key.append('\u0000').append(StyleSheetRuleIndex.getId(elt));
+		key.append('\u0000').append(StyleSheetRuleIndex.getCSSClass(elt));
+		key.append('\u0000').append(pseudoElt);
+		return key.toString();
+	}
 }
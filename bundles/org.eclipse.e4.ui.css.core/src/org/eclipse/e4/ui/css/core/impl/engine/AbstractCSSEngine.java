@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 Angelo Zerr and others.
+ * Copyright (c) 2008, 2014 Angelo Zerr and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.e4.ui.css.core.impl.engine;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -178,8 +179,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	public StyleSheet parseStyleSheet(InputSource source) throws IOException {
 		// Check that CharacterStream or ByteStream is not null
 		checkInputSource(source);
-		CSSParser parser = makeCSSParser();
-		CSSStyleSheet styleSheet = parser.parseStyleSheet(source);
+		CSSStyleSheet styleSheet = parseRules(source);
 		
 		CSSRuleList rules = styleSheet.getCssRules();
 		int length = rules.getLength();
@@ -237,6 +237,35 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 		return s;
 	}
 
+	/**
+	 * Parse the rules of the given source. The style sheets read from a URI are
+	 * shared through {@link StyleSheetCache}, so that the same content is
+	 * not parsed again in the same session.
+	 */
+	private CSSStyleSheet parseRules(InputSource source) throws IOException {
+		CSSParser parser = makeCSSParser();
+		String uri = source.getURI();
+		InputStream stream = source.getByteStream();
+		if (uri == null || stream == null || source.getCharacterStream() != null) {
+			return parser.parseStyleSheet(source);
+		}
+		byte[] content = StyleSheetCache.read(stream);
+		CSSStyleSheet styleSheet = StyleSheetCache.get(uri, content,
+				parser.getClass());
+		if (styleSheet != null) {
+			return styleSheet;
+		}
+		InputSource contentSource = new InputSource();
+		contentSource.setURI(uri);
+		contentSource.setEncoding(source.getEncoding());
+		contentSource.setMedia(source.getMedia());
+		contentSource.setTitle(source.getTitle());
+		contentSource.setByteStream(new ByteArrayInputStream(content));
+		styleSheet = parser.parseStyleSheet(contentSource);
+		StyleSheetCache.put(uri, content, parser.getClass(), styleSheet);
+		return styleSheet;
+	}
+
 	/**
 	 * Return true if <code>source</code> is valid and false otherwise.
 	 * 
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.w3c.dom.css.CSSStyleSheet;
+
+/**
+ * Cache of the style sheets parsed from a URI, shared by all CSS engines of a
+ * session. A style sheet is reused as long as the content read from its URI is
+ * the same and the same parser is used; otherwise it is parsed again. Only the
+ * most recently used style sheets are kept.
+ * <p>
+ * The rules of a parsed style sheet are not modified afterwards, so several
+ * engines can share them.
+ * </p>
+ */
+class StyleSheetCache {
+
+	/**
+	 * The number of style sheets kept, enough for the style sheets and imports
+	 * of a few themes.
+	 */
+	private static final int MAX_ENTRIES = 32;
+
+	private static class CachedStyleSheet {
+		final byte[] content;
+		final Class<?> parserClass;
+		final CSSStyleSheet styleSheet;
+
+		CachedStyleSheet(byte[] content, Class<?> parserClass,
+				CSSStyleSheet styleSheet) {
+			this.content = content;
+			this.parserClass = parserClass;
+			this.styleSheet = styleSheet;
+		}
+	}
+
+	private static final Map<String, CachedStyleSheet> entries = new LinkedHashMap<String, CachedStyleSheet>(
+			MAX_ENTRIES, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		protected boolean removeEldestEntry(
+				Map.Entry<String, CachedStyleSheet> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	private StyleSheetCache() {
+	}
+
+	/**
+	 * Returns the style sheet parsed from the given URI by a parser of the
+	 * given class, if it was parsed from the given content.
+	 */
+	static CSSStyleSheet get(String uri, byte[] content, Class<?> parserClass) {
+		CachedStyleSheet entry;
+		synchronized (entries) {
+			entry = entries.get(uri);
+		}
+		if (entry != null && entry.parserClass == parserClass
+				&& Arrays.equals(entry.content, content)) {
+			return entry.styleSheet;
+		}
+		return null;
+	}
+
+	/**
+	 * Remembers the style sheet parsed from the given URI, replacing the one
+	 * parsed from a previous content.
+	 */
+	static void put(String uri, byte[] content, Class<?> parserClass,
+			CSSStyleSheet styleSheet) {
+		synchronized (entries) {
+			entries.put(uri, new CachedStyleSheet(content, parserClass,
+					styleSheet));
+		}
+	}
+
+	/**
+	 * Reads the remaining content of the given stream. The stream is not
+	 * closed.
+	 */
+	static byte[] read(InputStream stream) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = stream.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+}
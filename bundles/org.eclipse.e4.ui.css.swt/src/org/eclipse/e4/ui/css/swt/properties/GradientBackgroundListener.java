@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 Angelo Zerr and others.
+ * Copyright (c) 2008, 2014 Angelo Zerr and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -45,8 +45,9 @@ public class GradientBackgroundListener implements Listener {
 
 	private Gradient grad;
 	private final Control control;
-	private boolean radialGradient;
+	private final GradientImageCache cache;
 	Image gradientImage;
+	private GradientImageCache.Key gradientKey;
 	
 	private DisposeListener disposeListener = new DisposeListener() {
 		public void widgetDisposed(DisposeEvent e) {
@@ -72,6 +73,7 @@ public class GradientBackgroundListener implements Listener {
 	private GradientBackgroundListener(Control control, Gradient grad) {
 		this.grad = grad;
 		this.control = control;
+		this.cache = GradientImageCache.getCache(control.getDisplay());
 		control.addListener(SWT.Resize, this);
 		control.addDisposeListener(disposeListener);
 	}
@@ -85,10 +87,11 @@ public class GradientBackgroundListener implements Listener {
 				control.setBackgroundImage(null);
 			}
 		}
-		if (gradientImage != null && !gradientImage.isDisposed()) {
-			gradientImage.dispose();
+		if (gradientImage != null) {
+			cache.release(gradientImage);
 		}
 		gradientImage = null;
+		gradientKey = null;
 	}
 
 	public static void handle(Control control, Gradient grad) {
@@ -115,71 +118,82 @@ public class GradientBackgroundListener implements Listener {
 		if (size.x <= 0 || size.y <= 0) {
 			return;
 		}
-		
-		// hold onto our old image for disposal, if necessary
-		Image oldImage = control.getBackgroundImage();
-		if(oldImage != gradientImage) {
-			oldImage = null;
-		}
-		
+
 		/*
-		 * Draw the new background.  Radial backgrounds have to be generated
-		 * for the full size of the control's size; linear backgrounds are
-		 * just a slice for the control's height that is then repeated. 
+		 * Radial backgrounds have to be generated for the full size of the
+		 * control's size; linear backgrounds are just a slice for the
+		 * control's height that is then repeated. Controls with the same
+		 * gradient and image size share the image.
 		 */
 
 		// If Java 5 or lower is used, radial gradients are not supported yet
 		// and they will be replaced by linear gradients
-		if (grad.isRadial() && isRadialSupported) {
-			List<java.awt.Color> colors = new ArrayList<java.awt.Color>();
-			for (Iterator iterator = grad.getRGBs().iterator(); iterator
-					.hasNext();) {
-				RGB rgb = (RGB) iterator.next();
-				java.awt.Color color = new java.awt.Color(rgb.red, rgb.green,
-						rgb.blue);
-				colors.add(color);
-			}
+		boolean radial = grad.isRadial() && isRadialSupported;
+		boolean verticalGradient = grad.getVerticalGradient();
+		int x = radial || !verticalGradient ? size.x : 2;
+		int y = radial || verticalGradient ? size.y : 2;
+		int[] percents = CSSSWTColorHelper.getPercents(grad);
+		GradientImageCache.Key key = new GradientImageCache.Key(
+				grad.getRGBs(), percents, verticalGradient, radial, x, y);
 
-			BufferedImage image = getBufferedImage(size.x, size.y, colors,
-					CSSSWTColorHelper.getPercents(grad));
-			// long startTime = System.currentTimeMillis();
-			ImageData imagedata = convertToSWT(image);
-			// System.out.println("Conversion took "
-			// + (System.currentTimeMillis() - startTime) + " ms");
-			gradientImage = new Image(control.getDisplay(), imagedata);
-			radialGradient = true;
-		} else if (oldImage == null || oldImage.isDisposed()
-				|| oldImage.getBounds().height != size.y || radialGradient
-				|| event == null) {
-			radialGradient = false;
-			boolean verticalGradient = grad.getVerticalGradient();
-			int x = verticalGradient? 2 : size.x;
-			int y = verticalGradient ? size.y : 2;
-			gradientImage = new Image(control.getDisplay(), x, y);
-			GC gc = new GC(gradientImage);
-			List<Color> colors = new ArrayList<Color>();
-			for (Iterator iterator = grad.getRGBs().iterator(); iterator
-					.hasNext();) {
-				RGB rgb = (RGB) iterator.next();
-				Color color = new Color(control.getDisplay(), rgb.red,
-						rgb.green, rgb.blue);
-				colors.add(color);
-			}
-			fillGradient(gc, new Rectangle(0, 0, x, y), colors,
-					CSSSWTColorHelper.getPercents(grad), grad.getVerticalGradient());
-			gc.dispose();
-			for (Iterator<Color> iterator = colors.iterator(); iterator
-					.hasNext();) {
-				Color c = iterator.next();
-				c.dispose(); // Dispose colors too.
+		if (key.equals(gradientKey) && gradientImage != null
+				&& !gradientImage.isDisposed()) {
+			if (control.getBackgroundImage() != gradientImage) {
+				control.setBackgroundImage(gradientImage);
 			}
+			return;
+		}
+
+		Image image = cache.acquire(key);
+		if (image == null) {
+			image = radial ? createRadialImage(x, y, percents)
+					: createLinearImage(x, y, percents, verticalGradient);
+			cache.add(key, image);
 		}
+		control.setBackgroundImage(image);
 		if (gradientImage != null) {
-			control.setBackgroundImage(gradientImage);
+			cache.release(gradientImage);
 		}
-		if (oldImage != null && oldImage != gradientImage) {
-			oldImage.dispose();
+		gradientImage = image;
+		gradientKey = key;
+	}
+
+	private Image createRadialImage(int width, int height, int[] percents) {
+		List<java.awt.Color> colors = new ArrayList<java.awt.Color>();
+		for (Iterator iterator = grad.getRGBs().iterator(); iterator.hasNext();) {
+			RGB rgb = (RGB) iterator.next();
+			java.awt.Color color = new java.awt.Color(rgb.red, rgb.green,
+					rgb.blue);
+			colors.add(color);
+		}
+
+		BufferedImage image = getBufferedImage(width, height, colors, percents);
+		// long startTime = System.currentTimeMillis();
+		ImageData imagedata = convertToSWT(image);
+		// System.out.println("Conversion took "
+		// + (System.currentTimeMillis() - startTime) + " ms");
+		return new Image(control.getDisplay(), imagedata);
+	}
+
+	private Image createLinearImage(int width, int height, int[] percents,
+			boolean verticalGradient) {
+		Image image = new Image(control.getDisplay(), width, height);
+		GC gc = new GC(image);
+		List<Color> colors = new ArrayList<Color>();
+		for (Iterator iterator = grad.getRGBs().iterator(); iterator.hasNext();) {
+			RGB rgb = (RGB) iterator.next();
+			Color color = new Color(control.getDisplay(), rgb.red, rgb.green,
+					rgb.blue);
+			colors.add(color);
 		}
+		fillGradient(gc, new Rectangle(0, 0, width, height), colors, percents,
+				verticalGradient);
+		gc.dispose();
+		for (Iterator<Color> iterator = colors.iterator(); iterator.hasNext();) {
+			Color c = iterator.next();
+			c.dispose(); // Dispose colors too.
+		}
+		return image;
 	}
 
 	/*
@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.swt.properties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Display wide cache of the images drawn by {@link GradientBackgroundListener}.
+ * Controls with the same gradient and the same image size share one image.
+ * Images are reference counted; an image no longer used by any control is kept
+ * for reuse until {@link #MAX_UNUSED_IMAGES} more recently released images
+ * push it out, or until the display is disposed.
+ */
+public class GradientImageCache {
+
+	private static final String DATA_KEY = "org.eclipse.e4.ui.css.swt.gradientImageCache"; //$NON-NLS-1$
+
+	/**
+	 * The number of images kept for reuse while no control uses them.
+	 */
+	static final int MAX_UNUSED_IMAGES = 16;
+
+	/**
+	 * What a gradient image is drawn from.
+	 */
+	static final class Key {
+		private final List<Object> rgbs;
+		private final int[] percents;
+		private final boolean vertical;
+		private final boolean radial;
+		private final int width;
+		private final int height;
+		private final int hashCode;
+
+		Key(List<?> rgbs, int[] percents, boolean vertical, boolean radial,
+				int width, int height) {
+			this.rgbs = new ArrayList<Object>(rgbs);
+			this.percents = percents.clone();
+			this.vertical = vertical;
+			this.radial = radial;
+			this.width = width;
+			this.height = height;
+			int hash = this.rgbs.hashCode();
+			hash = 31 * hash + Arrays.hashCode(this.percents);
+			hash = 31 * hash + (vertical ? 1 : 0);
+			hash = 31 * hash + (radial ? 1 : 0);
+			hash = 31 * hash + width;
+			hashCode = 31 * hash + height;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return width == other.width && height == other.height
+					&& vertical == other.vertical && radial == other.radial
+					&& Arrays.equals(percents, other.percents)
+					&& rgbs.equals(other.rgbs);
+		}
+	}
+
+	private static class Entry {
+		final Key key;
+		final Image image;
+		int references;
+
+		Entry(Key key, Image image) {
+			this.key = key;
+			this.image = image;
+		}
+	}
+
+	private final Map<Key, Entry> entries = new HashMap<Key, Entry>();
+	private final Map<Image, Entry> entriesByImage = new HashMap<Image, Entry>();
+	private final Set<Entry> unusedEntries = new LinkedHashSet<Entry>();
+	private int createdImageCount;
+	private int reusedImageCount;
+
+	private GradientImageCache() {
+	}
+
+	/**
+	 * Returns the cache of the given display, creating it if necessary. The
+	 * cache disposes its images when the display is disposed.
+	 * 
+	 * @param display
+	 *            the display
+	 * @return the gradient image cache of the display
+	 */
+	public static GradientImageCache getCache(Display display) {
+		GradientImageCache cache = (GradientImageCache) display
+				.getData(DATA_KEY);
+		if (cache == null) {
+			final GradientImageCache newCache = new GradientImageCache();
+			display.setData(DATA_KEY, newCache);
+			display.disposeExec(new Runnable() {
+				public void run() {
+					newCache.disposeImages();
+				}
+			});
+			cache = newCache;
+		}
+		return cache;
+	}
+
+	/**
+	 * Returns the image cached for the given key and adds a reference to it.
+	 * 
+	 * @return the image or <code>null</code> if there is none
+	 */
+	Image acquire(Key key) {
+		Entry entry = entries.get(key);
+		if (entry == null || entry.image.isDisposed()) {
+			return null;
+		}
+		if (entry.references++ == 0) {
+			unusedEntries.remove(entry);
+		}
+		reusedImageCount++;
+		return entry.image;
+	}
+
+	/**
+	 * Adds an image drawn for the given key, with one reference to it.
+	 */
+	void add(Key key, Image image) {
+		Entry entry = new Entry(key, image);
+		entry.references = 1;
+		Entry previous = entries.put(key, entry);
+		if (previous != null) {
+			remove(previous);
+		}
+		entriesByImage.put(image, entry);
+		createdImageCount++;
+	}
+
+	/**
+	 * Removes a reference to the given image. Images of this cache are only
+	 * disposed once they are not referenced any more.
+	 */
+	void release(Image image) {
+		Entry entry = entriesByImage.get(image);
+		if (entry == null || entry.references == 0) {
+			return;
+		}
+		if (--entry.references == 0) {
+			unusedEntries.add(entry);
+			if (unusedEntries.size() > MAX_UNUSED_IMAGES) {
+				Iterator<Entry> iterator = unusedEntries.iterator();
+				Entry eldest = iterator.next();
+				iterator.remove();
+				entries.remove(eldest.key);
+				remove(eldest);
+			}
+		}
+	}
+
+	private void remove(Entry entry) {
+		entriesByImage.remove(entry.image);
+		unusedEntries.remove(entry);
+		if (entry.references == 0 && !entry.image.isDisposed()) {
+			entry.image.dispose();
+		}
+	}
+
+	private void disposeImages() {
+		for (Image image : entriesByImage.keySet()) {
+			if (!image.isDisposed()) {
+				image.dispose();
+			}
+		}
+		entries.clear();
+		entriesByImage.clear();
+		unusedEntries.clear();
+	}
+
+	/**
+	 * Returns the number of images currently held by this cache, used or not.
+	 * 
+	 * @return the number of images
+	 */
+	public int getImageCount() {
+		return entriesByImage.size();
+	}
+
+	/**
+	 * Returns the number of held images not used by any control.
+	 * 
+	 * @return the number of unused images
+	 */
+	public int getUnusedImageCount() {
+		return unusedEntries.size();
+	}
+
+	/**
+	 * Returns the number of images drawn since the cache was created.
+	 * 
+	 * @return the number of drawn images
+	 */
+	public int getCreatedImageCount() {
+		return createdImageCount;
+	}
+
+	/**
+	 * Returns the number of times a cached image was reused instead of being
+	 * drawn again.
+	 * 
+	 * @return the number of reused images
+	 */
+	public int getReusedImageCount() {
+		return reusedImageCount;
+	}
+}
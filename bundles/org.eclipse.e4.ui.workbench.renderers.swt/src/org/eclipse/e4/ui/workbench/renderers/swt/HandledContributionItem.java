@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2013 IBM Corporation and others.
+ * Copyright (c) 2010, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,8 +15,11 @@ package org.eclipse.e4.ui.workbench.renderers.swt;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.inject.Inject;
 import org.eclipse.core.commands.IStateListener;
 import org.eclipse.core.commands.ParameterizedCommand;
@@ -118,10 +121,32 @@ public class HandledContributionItem extends ContributionItem {
 		Display display = Display.getCurrent();
 		RunnableRunner runner = new RunnableRunner();
 
-		List<HandledContributionItem> itemsToCheck = new ArrayList<HandledContributionItem>();
+		Set<HandledContributionItem> itemsToCheck = new LinkedHashSet<HandledContributionItem>();
 		List<Runnable> windowRunnables = new ArrayList<Runnable>();
 		final List<HandledContributionItem> orphanedToolItems = new ArrayList<HandledContributionItem>();
 
+		// items skipped because they could not be seen, updated as soon as
+		// they are shown again
+		final Set<HandledContributionItem> hiddenItems = new LinkedHashSet<HandledContributionItem>();
+		private boolean showFilterHooked = false;
+		private boolean showPending = false;
+		private int updateCount = 0;
+
+		private Listener showListener = new Listener() {
+			public void handleEvent(Event event) {
+				if (showPending)
+					return;
+				showPending = true;
+				// the widget is not visible yet while its show event is sent
+				display.asyncExec(new Runnable() {
+					public void run() {
+						showPending = false;
+						updateShownItems();
+					}
+				});
+			}
+		};
+
 		public void addWindowRunnable(Runnable r) {
 			windowRunnables.add(r);
 		}
@@ -131,9 +156,7 @@ public class HandledContributionItem extends ContributionItem {
 		}
 
 		void registerItem(HandledContributionItem item) {
-			if (!itemsToCheck.contains(item)) {
-				itemsToCheck.add(item);
-
+			if (itemsToCheck.add(item)) {
 				// Start the timer on the first item registered
 				if (itemsToCheck.size() == 1)
 					display.timerExec(400, this);
@@ -142,6 +165,51 @@ public class HandledContributionItem extends ContributionItem {
 
 		void removeItem(HandledContributionItem item) {
 			itemsToCheck.remove(item);
+			if (hiddenItems.remove(item))
+				updateShowFilter();
+		}
+
+		/**
+		 * Returns the number of times the enablement of an item has been
+		 * updated. This method is public for use by test cases.
+		 * 
+		 * @return the number of updates
+		 */
+		public int getUpdateCount() {
+			return updateCount;
+		}
+
+		private void updateItem(HandledContributionItem hci) {
+			updateCount++;
+			hci.updateItemEnablement();
+		}
+
+		private void updateShownItems() {
+			Iterator<HandledContributionItem> iterator = hiddenItems.iterator();
+			while (iterator.hasNext()) {
+				HandledContributionItem hci = iterator.next();
+				if (hci.model == null || hci.model.getParent() == null) {
+					// orphaned entries are removed by the next run
+					iterator.remove();
+				} else if (hci.isShowing()) {
+					iterator.remove();
+					updateItem(hci);
+				}
+			}
+			updateShowFilter();
+		}
+
+		private void updateShowFilter() {
+			if (hiddenItems.isEmpty() == !showFilterHooked)
+				return;
+			showFilterHooked = !hiddenItems.isEmpty();
+			if (showFilterHooked) {
+				display.addFilter(SWT.Show, showListener);
+				display.addFilter(SWT.Deiconify, showListener);
+			} else {
+				display.removeFilter(SWT.Show, showListener);
+				display.removeFilter(SWT.Deiconify, showListener);
+			}
 		}
 
 		public void run() {
@@ -149,15 +217,23 @@ public class HandledContributionItem extends ContributionItem {
 			for (final HandledContributionItem hci : itemsToCheck) {
 				// HACK. Remove orphaned entries. See bug 388516.
 				if (hci.model != null && hci.model.getParent() != null) {
-					hci.updateItemEnablement();
+					// items that cannot be seen are updated once shown again
+					if (hci.isShowing()) {
+						hiddenItems.remove(hci);
+						updateItem(hci);
+					} else {
+						hiddenItems.add(hci);
+					}
 				} else {
 					orphanedToolItems.add(hci);
 				}
 			}
 			if (!orphanedToolItems.isEmpty()) {
 				itemsToCheck.removeAll(orphanedToolItems);
+				hiddenItems.removeAll(orphanedToolItems);
 				orphanedToolItems.clear();
 			}
+			updateShowFilter();
 
 			if (windowRunnables.size() > 0) {
 				Runnable[] array = new Runnable[windowRunnables.size()];
@@ -261,6 +337,22 @@ public class HandledContributionItem extends ContributionItem {
 		SafeRunner.run(getUpdateRunner());
 	}
 
+	/**
+	 * Returns whether the tool item of this contribution can be seen, that is
+	 * whether its tool bar is visible in a shell that is not minimized.
+	 */
+	private boolean isShowing() {
+		if (!(model.getWidget() instanceof ToolItem))
+			return true;
+
+		ToolItem widget = (ToolItem) model.getWidget();
+		if (widget.isDisposed())
+			return true;
+
+		ToolBar toolBar = widget.getParent();
+		return toolBar.isVisible() && !toolBar.getShell().getMinimized();
+	}
+
 	private IMenuListener menuListener = new IMenuListener() {
 		public void menuAboutToShow(IMenuManager manager) {
 			update(null);
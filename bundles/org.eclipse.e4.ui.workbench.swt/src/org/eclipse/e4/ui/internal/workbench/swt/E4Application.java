@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2013 IBM Corporation and others.
+ * Copyright (c) 2009, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -384,6 +384,16 @@ public class E4Application implements IApplication {
 		eclipseContext.set(E4Workbench.DELTA_RESTORE,
 				Boolean.valueOf(deltaRestore));
 
+		// Index of the model for the model service searches
+		value = getArgValue(E4Workbench.MODEL_INDEX, appContext, true);
+		eclipseContext.set(E4Workbench.MODEL_INDEX,
+				Boolean.valueOf(value != null && Boolean.parseBoolean(value)));
+
+		// Format of the persisted model, the restored one is read whatever its format
+		value = getArgValue(E4Workbench.BINARY_MODEL, appContext, true);
+		eclipseContext.set(E4Workbench.BINARY_MODEL,
+				Boolean.valueOf(value != null && Boolean.parseBoolean(value)));
+
 		String resourceHandler = getArgValue(IWorkbench.MODEL_RESOURCE_HANDLER,
 				appContext, false);
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 BestSolution.at and others.
+ * Copyright (c) 2008, 2014 BestSolution.at and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -77,6 +77,18 @@ public class E4Workbench implements IWorkbench {
 	 * Value is: <code>perspectiveId</code>
 	 */
 	public static final String FORCED_PERSPECTIVE_ID = "forcedPerspetiveId"; //$NON-NLS-1$
+	/**
+	 * The argument for enabling the index used by the model service to answer model searches <br>
+	 * <br>
+	 * Value is: <code>modelIndex</code>
+	 */
+	public static final String MODEL_INDEX = "modelIndex"; //$NON-NLS-1$
+	/**
+	 * The argument for saving the workbench model in the EMF binary format instead of XMI <br>
+	 * <br>
+	 * Value is: <code>binaryModel</code>
+	 */
+	public static final String BINARY_MODEL = "binaryModel"; //$NON-NLS-1$
 
 	public static final String NO_SAVED_MODEL_FOUND = "NO_SAVED_MODEL_FOUND"; //$NON-NLS-1$
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2013 IBM Corporation and others.
+ * Copyright (c) 2009, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,18 +11,40 @@
 
 package org.eclipse.e4.ui.internal.workbench;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.WeakHashMap;
+import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
 
 public class E4XMIResource extends XMIResourceImpl {
 
+	/**
+	 * Save option to write the model in the EMF binary format instead of XMI. The ids of the
+	 * objects are saved along with the contents. Loading detects the format on its own, so a
+	 * resource saved in one format can always be read back whatever the option is.
+	 * <p>
+	 * Value is: <code>Boolean</code>
+	 * </p>
+	 */
+	public static final String OPTION_BINARY_FORMAT = "e4.binary"; //$NON-NLS-1$
+
+	/**
+	 * The first bytes of the signature written by {@link BinaryResourceImpl}. No XMI document
+	 * starts with them.
+	 */
+	private static final byte[] BINARY_SIGNATURE = { (byte) 0x89, 'e', 'm', 'f' };
+
 	private Map<EObject, String> objectMap = new WeakHashMap<EObject, String>();
 	private Set<String> knownIds = new HashSet<String>();
 
@@ -92,4 +114,65 @@ public class E4XMIResource extends XMIResourceImpl {
 		setID(eObject, id);
 		return id;
 	}
+
+	@Override
+	public void doSave(OutputStream outputStream, Map<?, ?> options) throws IOException {
+		if (options == null || !Boolean.TRUE.equals(options.get(OPTION_BINARY_FORMAT))) {
+			super.doSave(outputStream, options);
+			return;
+		}
+
+		BinaryResourceImpl.EObjectOutputStream out = new BinaryResourceImpl.EObjectOutputStream(
+				outputStream, options);
+		out.saveResource(this);
+		// the binary format has no room for the ids, append them in content order
+		TreeIterator<EObject> it = getAllContents();
+		while (it.hasNext()) {
+			String id = getID(it.next());
+			out.writeBoolean(id != null);
+			if (id != null) {
+				out.writeString(id);
+			}
+		}
+		out.flush();
+	}
+
+	@Override
+	public void doLoad(InputStream inputStream, Map<?, ?> options) throws IOException {
+		InputStream in = inputStream.markSupported() ? inputStream : new BufferedInputStream(
+				inputStream);
+		if (!isBinary(in)) {
+			super.doLoad(in, options);
+			return;
+		}
+
+		BinaryResourceImpl.EObjectInputStream eIn = new BinaryResourceImpl.EObjectInputStream(
+				in, options);
+		eIn.loadResource(this);
+		TreeIterator<EObject> it = getAllContents();
+		while (it.hasNext()) {
+			EObject object = it.next();
+			if (eIn.readBoolean()) {
+				setID(object, eIn.readString());
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the given stream holds a resource saved in the binary format. The stream
+	 * must support marks; it is reset to its current position.
+	 */
+	static boolean isBinary(InputStream in) throws IOException {
+		in.mark(BINARY_SIGNATURE.length);
+		try {
+			for (byte b : BINARY_SIGNATURE) {
+				if (in.read() != (b & 0xFF)) {
+					return false;
+				}
+			}
+			return true;
+		} finally {
+			in.reset();
+		}
+	}
 }
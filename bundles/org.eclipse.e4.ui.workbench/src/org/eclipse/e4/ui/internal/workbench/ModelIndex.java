@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.impl.ApplicationPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.MUIElement;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
+import org.eclipse.e4.ui.model.application.ui.advanced.impl.AdvancedPackageImpl;
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+
+/**
+ * Index of the UI elements of an application by id, tag and implementation class, along with
+ * the placeholders referencing each element. The index is attached to the application as a
+ * content adapter and kept up to date as the model changes.
+ */
+public class ModelIndex extends EContentAdapter {
+
+	/**
+	 * What an element was indexed under, so that it can be removed again after it changed.
+	 */
+	private static class Entry {
+		String id;
+		List<String> tags;
+		MUIElement ref;
+	}
+
+	private Map<MUIElement, Entry> entries = new HashMap<MUIElement, Entry>();
+	private Map<String, Set<MUIElement>> elementsById = new HashMap<String, Set<MUIElement>>();
+	private Map<String, Set<MUIElement>> elementsByTag = new HashMap<String, Set<MUIElement>>();
+	private Map<Class<?>, Set<MUIElement>> elementsByClass = new HashMap<Class<?>, Set<MUIElement>>();
+	private Map<MUIElement, Set<MPlaceholder>> placeholdersByRef = new HashMap<MUIElement, Set<MPlaceholder>>();
+
+	/**
+	 * Returns the index attached to the application containing the given element, attaching a
+	 * new one if there is none yet.
+	 *
+	 * @param element
+	 *            an element of the application model
+	 * @return the index or <code>null</code> if the element is not contained in an application
+	 */
+	public static ModelIndex getIndex(MUIElement element) {
+		EObject root = (EObject) element;
+		while (root.eContainer() != null) {
+			root = root.eContainer();
+		}
+		if (!(root instanceof MApplication))
+			return null;
+
+		for (Adapter adapter : root.eAdapters()) {
+			if (adapter instanceof ModelIndex)
+				return (ModelIndex) adapter;
+		}
+		ModelIndex index = new ModelIndex();
+		root.eAdapters().add(index);
+		return index;
+	}
+
+	/**
+	 * Returns the elements that may match the given criteria. Every element matching all of
+	 * the non-null criteria is part of the result.
+	 *
+	 * @param id
+	 *            the id to match or <code>null</code>
+	 * @param clazz
+	 *            the class to match or <code>null</code>
+	 * @param tagsToMatch
+	 *            the tags to match or <code>null</code>
+	 * @return the candidates or <code>null</code> if there are no criteria
+	 */
+	public Collection<MUIElement> getCandidates(String id, Class<?> clazz, List<String> tagsToMatch) {
+		Collection<MUIElement> result = null;
+		if (id != null) {
+			result = get(elementsById, id);
+		}
+		if (tagsToMatch != null) {
+			for (String tag : tagsToMatch) {
+				Set<MUIElement> tagged = get(elementsByTag, tag);
+				if (result == null || tagged.size() < result.size()) {
+					result = tagged;
+				}
+			}
+		}
+		if (result == null && clazz != null) {
+			result = new ArrayList<MUIElement>();
+			for (Map.Entry<Class<?>, Set<MUIElement>> entry : elementsByClass.entrySet()) {
+				if (clazz.isAssignableFrom(entry.getKey())) {
+					result.addAll(entry.getValue());
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the given element and everything it may be reached from during a model search to the
+	 * given set: its containers, the placeholders referencing any of them and their containers.
+	 *
+	 * @param element
+	 *            the element
+	 * @param ancestors
+	 *            the set to fill
+	 */
+	public void collectAncestors(MUIElement element, Set<Object> ancestors) {
+		EObject current = (EObject) element;
+		while (current != null && ancestors.add(current)) {
+			Set<MPlaceholder> placeholders = placeholdersByRef.get(current);
+			if (placeholders != null) {
+				for (MPlaceholder placeholder : placeholders) {
+					collectAncestors(placeholder, ancestors);
+				}
+			}
+			current = current.eContainer();
+		}
+	}
+
+	@Override
+	public void notifyChanged(Notification notification) {
+		super.notifyChanged(notification);
+
+		if (notification.isTouch() || !(notification.getNotifier() instanceof MUIElement))
+			return;
+
+		Object feature = notification.getFeature();
+		if (feature == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__ELEMENT_ID
+				|| feature == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__TAGS
+				|| feature == AdvancedPackageImpl.Literals.PLACEHOLDER__REF) {
+			MUIElement element = (MUIElement) notification.getNotifier();
+			if (entries.containsKey(element)) {
+				removeElement(element);
+				addElement(element);
+			}
+		}
+	}
+
+	@Override
+	protected void setTarget(EObject target) {
+		super.setTarget(target);
+		if (target instanceof MUIElement) {
+			addElement((MUIElement) target);
+		}
+	}
+
+	@Override
+	protected void unsetTarget(EObject target) {
+		super.unsetTarget(target);
+		if (target instanceof MUIElement) {
+			removeElement((MUIElement) target);
+		}
+	}
+
+	private void addElement(MUIElement element) {
+		Entry entry = new Entry();
+		entry.id = element.getElementId();
+		entry.tags = new ArrayList<String>(element.getTags());
+		if (entry.id != null) {
+			add(elementsById, entry.id, element);
+		}
+		for (String tag : entry.tags) {
+			add(elementsByTag, tag, element);
+		}
+		add(elementsByClass, element.getClass(), element);
+		if (element instanceof MPlaceholder) {
+			entry.ref = ((MPlaceholder) element).getRef();
+			if (entry.ref != null) {
+				add(placeholdersByRef, entry.ref, (MPlaceholder) element);
+			}
+		}
+		entries.put(element, entry);
+	}
+
+	private void removeElement(MUIElement element) {
+		Entry entry = entries.remove(element);
+		if (entry == null)
+			return;
+
+		if (entry.id != null) {
+			remove(elementsById, entry.id, element);
+		}
+		for (String tag : entry.tags) {
+			remove(elementsByTag, tag, element);
+		}
+		remove(elementsByClass, element.getClass(), element);
+		if (entry.ref != null) {
+			remove(placeholdersByRef, entry.ref, element);
+		}
+	}
+
+	private static <K> Set<MUIElement> get(Map<K, Set<MUIElement>> map, K key) {
+		Set<MUIElement> elements = map.get(key);
+		if (elements == null)
+			return Collections.emptySet();
+		return elements;
+	}
+
+	private static <K, V> void add(Map<K, Set<V>> map, K key, V value) {
+		Set<V> values = map.get(key);
+		if (values == null) {
+			values = new HashSet<V>();
+			map.put(key, values);
+		}
+		values.add(value);
+	}
+
+	private static <K, V> void remove(Map<K, Set<V>> map, K key, Object value) {
+		Set<V> values = map.get(key);
+		if (values != null && values.remove(value) && values.isEmpty()) {
+			map.remove(key);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2013 IBM Corporation and others.
+ * Copyright (c) 2010, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,7 +12,10 @@
 package org.eclipse.e4.ui.internal.workbench;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
@@ -285,12 +288,50 @@ public class ModelServiceImpl implements EModelService {
 		return true;
 	}
 
+	/**
+	 * Searches the model for matching elements. If the model index is enabled, the search only
+	 * descends into the elements that lead to a candidate given by the index.
+	 */
+	private <T> void findElements(MUIElement searchRoot, String id, Class<? extends T> type,
+			List<String> tagsToMatch, List<T> elements, int searchFlags) {
+		Assert.isLegal(searchRoot != null);
+		Set<Object> searchScope = null;
+		if (searchFlags != 0 && isModelIndexEnabled()) {
+			ModelIndex index = ModelIndex.getIndex(searchRoot);
+			Collection<MUIElement> candidates = index == null ? null : index.getCandidates(id,
+					type, tagsToMatch);
+			if (candidates != null) {
+				searchScope = new HashSet<Object>();
+				for (MUIElement candidate : candidates) {
+					if (match(candidate, id, type, tagsToMatch))
+						index.collectAncestors(candidate, searchScope);
+				}
+				if (!searchScope.contains(searchRoot))
+					return;
+			}
+		}
+		findElementsRecursive(searchRoot, id, type, tagsToMatch, elements, searchFlags,
+				searchScope);
+	}
+
+	private boolean isModelIndexEnabled() {
+		if (appContext == null)
+			return false;
+		Object value = appContext.get(E4Workbench.MODEL_INDEX);
+		return Boolean.TRUE.equals(value) || "true".equals(value); //$NON-NLS-1$
+	}
+
 	private <T> void findElementsRecursive(MUIElement searchRoot, String id,
-			Class<? extends T> type, List<String> tagsToMatch, List<T> elements, int searchFlags) {
+			Class<? extends T> type, List<String> tagsToMatch, List<T> elements, int searchFlags,
+			Set<Object> searchScope) {
 		Assert.isLegal(searchRoot != null);
 		if (searchFlags == 0)
 			return;
 
+		// the index tells us no match can be found below this element
+		if (searchScope != null && !searchScope.contains(searchRoot))
+			return;
+
 		// are *we* a match ?
 		if (match(searchRoot, id, type, tagsToMatch)) {
 			if (!elements.contains((T) searchRoot))
@@ -305,26 +346,30 @@ public class ModelServiceImpl implements EModelService {
 					MElementContainer<MUIElement> container = (MElementContainer<MUIElement>) searchRoot;
 					List<MUIElement> children = container.getChildren();
 					for (MUIElement child : children) {
-						findElementsRecursive(child, id, type, tagsToMatch, elements, searchFlags);
+						findElementsRecursive(child, id, type, tagsToMatch, elements, searchFlags,
+								searchScope);
 					}
 				} else if ((searchFlags & IN_ACTIVE_PERSPECTIVE) != 0) {
 					// Only search the currently active perspective, if any
 					MPerspective active = ((MPerspectiveStack) searchRoot).getSelectedElement();
 					if (active != null) {
-						findElementsRecursive(active, id, type, tagsToMatch, elements, searchFlags);
+						findElementsRecursive(active, id, type, tagsToMatch, elements, searchFlags,
+								searchScope);
 					}
 				} else if ((searchFlags & IN_SHARED_AREA) != 0) {
 					// Only recurse through the shared areas
 					List<MArea> areas = findElements(searchRoot, null, MArea.class, null);
 					for (MArea area : areas) {
-						findElementsRecursive(area, id, type, tagsToMatch, elements, searchFlags);
+						findElementsRecursive(area, id, type, tagsToMatch, elements, searchFlags,
+								searchScope);
 					}
 				}
 			} else {
 				MElementContainer<MUIElement> container = (MElementContainer<MUIElement>) searchRoot;
 				List<MUIElement> children = container.getChildren();
 				for (MUIElement child : children) {
-					findElementsRecursive(child, id, type, tagsToMatch, elements, searchFlags);
+					findElementsRecursive(child, id, type, tagsToMatch, elements, searchFlags,
+							searchScope);
 				}
 			}
 		}
@@ -334,7 +379,8 @@ public class ModelServiceImpl implements EModelService {
 			MTrimmedWindow tw = (MTrimmedWindow) searchRoot;
 			List<MTrimBar> bars = tw.getTrimBars();
 			for (MTrimBar bar : bars) {
-				findElementsRecursive(bar, id, type, tagsToMatch, elements, searchFlags);
+				findElementsRecursive(bar, id, type, tagsToMatch, elements, searchFlags,
+						searchScope);
 			}
 		}
 
@@ -342,13 +388,15 @@ public class ModelServiceImpl implements EModelService {
 		if (searchRoot instanceof MWindow) {
 			MWindow window = (MWindow) searchRoot;
 			for (MWindow dw : window.getWindows()) {
-				findElementsRecursive(dw, id, type, tagsToMatch, elements, searchFlags);
+				findElementsRecursive(dw, id, type, tagsToMatch, elements, searchFlags,
+						searchScope);
 			}
 		}
 		if (searchRoot instanceof MPerspective) {
 			MPerspective persp = (MPerspective) searchRoot;
 			for (MWindow dw : persp.getWindows()) {
-				findElementsRecursive(dw, id, type, tagsToMatch, elements, searchFlags);
+				findElementsRecursive(dw, id, type, tagsToMatch, elements, searchFlags,
+						searchScope);
 			}
 		}
 		// Search shared elements
@@ -358,7 +406,13 @@ public class ModelServiceImpl implements EModelService {
 			// Don't search in shared areas unless the flag is set
 			if (ph.getRef() != null
 					&& (!(ph.getRef() instanceof MArea) || (searchFlags & IN_SHARED_AREA) != 0)) {
-				findElementsRecursive(ph.getRef(), id, type, tagsToMatch, elements, searchFlags);
+				// The index cannot tell anything about elements outside of the application
+				Set<Object> refScope = searchScope;
+				if (refScope != null
+						&& !(EcoreUtil.getRootContainer((EObject) ph.getRef()) instanceof MApplication))
+					refScope = null;
+				findElementsRecursive(ph.getRef(), id, type, tagsToMatch, elements, searchFlags,
+						refScope);
 			}
 		}
 	}
@@ -372,21 +426,21 @@ public class ModelServiceImpl implements EModelService {
 	public <T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz,
 			List<String> tagsToMatch) {
 		List<T> elements = new ArrayList<T>();
-		findElementsRecursive(searchRoot, id, clazz, tagsToMatch, elements, ANYWHERE);
+		findElements(searchRoot, id, clazz, tagsToMatch, elements, ANYWHERE);
 		return elements;
 	}
 
 	public <T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz,
 			List<String> tagsToMatch, int searchFlags) {
 		List<T> elements = new ArrayList<T>();
-		findElementsRecursive(searchRoot, id, clazz, tagsToMatch, elements, searchFlags);
+		findElements(searchRoot, id, clazz, tagsToMatch, elements, searchFlags);
 		return elements;
 	}
 
 	private <T> List<T> findPerspectiveElements(MUIElement searchRoot, String id, Class<T> clazz,
 			List<String> tagsToMatch) {
 		List<T> elements = new ArrayList<T>();
-		findElementsRecursive(searchRoot, id, clazz, tagsToMatch, elements, PRESENTATION);
+		findElements(searchRoot, id, clazz, tagsToMatch, elements, PRESENTATION);
 		return elements;
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2013 IBM Corporation and others.
+ * Copyright (c) 2009, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,8 +14,11 @@
 
 package org.eclipse.e4.ui.internal.workbench;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
@@ -45,12 +48,15 @@ import org.eclipse.e4.ui.workbench.IWorkbench;
 import org.eclipse.e4.ui.workbench.modeling.IModelReconcilingService;
 import org.eclipse.e4.ui.workbench.modeling.ModelDelta;
 import org.eclipse.e4.ui.workbench.modeling.ModelReconciler;
+import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.URIConverter;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EContentAdapter;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.osgi.service.datalocation.Location;
 import org.osgi.framework.Bundle;
@@ -61,8 +67,26 @@ import org.w3c.dom.Document;
  */
 public class ResourceHandler implements IModelResourceHandler {
 
+	/**
+	 * Tracks whether a persisted feature of the model changed since the last save. Transient
+	 * features such as the widgets or contexts of the elements are ignored.
+	 */
+	private static class ChangeTracker extends EContentAdapter {
+		boolean changed = true;
+
+		@Override
+		public void notifyChanged(Notification notification) {
+			super.notifyChanged(notification);
+			if (!changed && !notification.isTouch()
+					&& notification.getNotifier() instanceof EObject) {
+				changed = !((EStructuralFeature) notification.getFeature()).isTransient();
+			}
+		}
+	}
+
 	private ResourceSetImpl resourceSetImpl;
 	private Resource resource;
+	private ChangeTracker changeTracker;
 
 	@Inject
 	private Logger logger;
@@ -79,6 +103,11 @@ public class ResourceHandler implements IModelResourceHandler {
 	@Named(E4Workbench.INSTANCE_LOCATION)
 	private Location instanceLocation;
 
+	@Inject
+	@Optional
+	@Named(E4Workbench.BINARY_MODEL)
+	private Boolean binaryModel;
+
 	/**
 	 * Dictates whether the model should be stored using EMF or with the merging algorithm.
 	 * https://bugs.eclipse.org/bugs/show_bug.cgi?id=295524
@@ -200,8 +229,10 @@ public class ResourceHandler implements IModelResourceHandler {
 		boolean restore = restoreLastModified > 0;
 
 		resource = null;
+		boolean restored = false;
 		if (restore && saveAndRestore) {
 			resource = loadResource(restoreLocation);
+			restored = resource != null;
 		}
 		if (resource == null) {
 			Resource applicationResource = loadResource(applicationDefinitionInstance);
@@ -210,6 +241,15 @@ public class ResourceHandler implements IModelResourceHandler {
 			context.set(E4Workbench.NO_SAVED_MODEL_FOUND, Boolean.TRUE);
 		}
 
+		if (saveAndRestore) {
+			// track the model before the processors below run so that their changes are saved
+			changeTracker = new ChangeTracker();
+			resource.eAdapters().add(changeTracker);
+			// the file needs to be written again if it was not restored or if it is to be
+			// converted to the other format
+			changeTracker.changed = !restored || isBinaryModel() != isBinaryFile(workbenchData);
+		}
+
 		// Add model items described in the model extension point
 		// This has to be done before commands are put into the context
 		MApplication appElement = (MApplication) resource.getContents().get(0);
@@ -229,8 +269,38 @@ public class ResourceHandler implements IModelResourceHandler {
 	}
 
 	public void save() throws IOException {
-		if (saveAndRestore)
-			resource.save(null);
+		if (!saveAndRestore)
+			return;
+		// nothing to write if no persisted feature changed since the model was last saved
+		if (changeTracker != null && !changeTracker.changed)
+			return;
+
+		Map<String, Object> options = null;
+		if (isBinaryModel()) {
+			options = Collections.<String, Object> singletonMap(
+					E4XMIResource.OPTION_BINARY_FORMAT, Boolean.TRUE);
+		}
+		resource.save(options);
+		if (changeTracker != null) {
+			changeTracker.changed = false;
+		}
+	}
+
+	private boolean isBinaryModel() {
+		return Boolean.TRUE.equals(binaryModel);
+	}
+
+	private boolean isBinaryFile(File file) {
+		try {
+			InputStream in = new BufferedInputStream(new FileInputStream(file));
+			try {
+				return E4XMIResource.isBinary(in);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			return false;
+		}
 	}
 
 	/**
@@ -241,6 +311,10 @@ public class ResourceHandler implements IModelResourceHandler {
 	 * @return a resource with a proper save path with the model as contents
 	 */
 	public Resource createResourceWithApp(MApplication theApp) {
+		// the copy is saved to the same file, which then no longer matches our model
+		if (changeTracker != null) {
+			changeTracker.changed = true;
+		}
 		Resource res = createResource();
 		res.getContents().add((EObject) theApp);
 		return res;
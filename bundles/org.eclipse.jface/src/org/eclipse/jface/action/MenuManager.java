@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,8 +12,10 @@
 package org.eclipse.jface.action;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.jface.internal.MenuManagerEventHelper;
@@ -790,78 +792,93 @@ public class MenuManager extends ContributionManager implements IMenuManager {
                     }
                 }
 
-                // remove obsolete (removed or non active)
                 Item[] mi = getMenuItems();
-
-                for (int i = 0; i < mi.length; i++) {
-                    Object data = mi[i].getData();
-
-                    if (data == null || !clean.contains(data)) {
-                        mi[i].dispose();
-                    } else if (data instanceof IContributionItem
-                            && ((IContributionItem) data).isDynamic()
-                            && ((IContributionItem) data).isDirty()) {
-                        mi[i].dispose();
+                if (!isBuiltFrom(mi, clean)) {
+                    // remove obsolete (removed or non active)
+                    Set<IContributionItem> cleanSet = new HashSet<IContributionItem>(clean);
+                    // separators are interchangeable, so keep as many separator
+                    // items as there are separators to show
+                    int separators = 0;
+                    for (Iterator<IContributionItem> e = clean.iterator(); e.hasNext();) {
+                        if (e.next().isSeparator()) {
+                            separators++;
+                        }
+                    }
+                    for (int i = 0; i < mi.length; i++) {
+                        Object data = mi[i].getData();
+
+                        if (separators > 0 && data instanceof IContributionItem
+                                && ((IContributionItem) data).isSeparator()
+                                && !((IContributionItem) data).isDynamic()) {
+                            separators--;
+                        } else if (data == null || !cleanSet.contains(data)) {
+                            mi[i].dispose();
+                        } else if (data instanceof IContributionItem
+                                && ((IContributionItem) data).isDynamic()
+                                && ((IContributionItem) data).isDirty()) {
+                            mi[i].dispose();
+                        }
                     }
-                }
 
-                // add new
-                mi = getMenuItems();
-                int srcIx = 0;
-                int destIx = 0;
+                    // add new
+                    mi = getMenuItems();
+                    int srcIx = 0;
+                    int destIx = 0;
 
-                for (Iterator<IContributionItem> e = clean.iterator(); e.hasNext();) {
-                    IContributionItem src = e.next();
-                    IContributionItem dest;
+                    for (Iterator<IContributionItem> e = clean.iterator(); e.hasNext();) {
+                        IContributionItem src = e.next();
+                        IContributionItem dest;
 
-                    // get corresponding item in SWT widget
-                    if (srcIx < mi.length) {
-						dest = (IContributionItem) mi[srcIx].getData();
-					} else {
-						dest = null;
-					}
+                        // get corresponding item in SWT widget
+                        if (srcIx < mi.length) {
+                            dest = (IContributionItem) mi[srcIx].getData();
+                        } else {
+                            dest = null;
+                        }
 
-                    if (dest != null && src.equals(dest)) {
-                        srcIx++;
-                        destIx++;
-                    } else if (dest != null && dest.isSeparator()
-                            && src.isSeparator()) {
-                        mi[srcIx].setData(src);
-                        srcIx++;
-                        destIx++;
-                    } else {
-                        int start = getMenuItemCount();
-                        doItemFill(src, destIx);
-                        int newItems = getMenuItemCount() - start;
-                        for (int i = 0; i < newItems; i++) {
-                            Item item = getMenuItem(destIx++);
-                            item.setData(src);
+                        if (dest != null && src.equals(dest)) {
+                            srcIx++;
+                            destIx++;
+                        } else if (dest != null && dest.isSeparator()
+                                && src.isSeparator()) {
+                            mi[srcIx].setData(src);
+                            srcIx++;
+                            destIx++;
+                        } else {
+                            int start = getMenuItemCount();
+                            doItemFill(src, destIx);
+                            int newItems = getMenuItemCount() - start;
+                            for (int i = 0; i < newItems; i++) {
+                                Item item = getMenuItem(destIx++);
+                                item.setData(src);
+                            }
                         }
                     }
 
-                    // May be we can optimize this call. If the menu has just
-                    // been created via the call src.fill(fMenuBar, destIx) then
-                    // the menu has already been updated with update(true) 
-                    // (see MenuManager). So if force is true we do it again. But
-                    // we can't set force to false since then information for the
-                    // sub sub menus is lost.
-                    if (recursive) {
-                        IContributionItem item = src;
+                    // remove any old menu items not accounted for
+                    for (; srcIx < mi.length; srcIx++) {
+                        mi[srcIx].dispose();
+                    }
+                }
+
+                // May be we can optimize this call. If the menu has just
+                // been created via the call src.fill(fMenuBar, destIx) then
+                // the menu has already been updated with update(true) 
+                // (see MenuManager). So if force is true we do it again. But
+                // we can't set force to false since then information for the
+                // sub sub menus is lost.
+                if (recursive) {
+                    for (Iterator<IContributionItem> e = clean.iterator(); e.hasNext();) {
+                        IContributionItem item = e.next();
                         if (item instanceof SubContributionItem) {
-							item = ((SubContributionItem) item).getInnerItem();
-						}
+                            item = ((SubContributionItem) item).getInnerItem();
+                        }
                         if (item instanceof IMenuManager) {
-							((IMenuManager) item).updateAll(force);
-						}
+                            ((IMenuManager) item).updateAll(force);
+                        }
                     }
-
                 }
 
-                // remove any old menu items not accounted for
-                for (; srcIx < mi.length; srcIx++) {
-					mi[srcIx].dispose();
-				}
-
                 setDirty(false);
             }
         } else {
@@ -882,6 +899,46 @@ public class MenuManager extends ContributionManager implements IMenuManager {
         updateMenuItem();
     }
 
+    /**
+     * Returns whether the given menu items were built from the given
+     * contribution items and are still up to date, so that the menu can be
+     * kept as it is. This is the common case for menus that are refilled every
+     * time they are shown (see {@link #setRemoveAllWhenShown(boolean)}), when
+     * the listeners contribute the same items again.
+     * 
+     * @param mi the menu items
+     * @param clean the visible contribution items, without extra separators
+     * @return <code>true</code> if every menu item belongs to the contribution
+     *   item at the same position, and <code>false</code> if the menu items
+     *   need to be added, removed or recreated
+     */
+    private boolean isBuiltFrom(Item[] mi, List<IContributionItem> clean) {
+        if (mi.length != clean.size()) {
+            return false;
+        }
+        for (int i = 0; i < mi.length; i++) {
+            Object data = mi[i].getData();
+            IContributionItem src = clean.get(i);
+            if (!(data instanceof IContributionItem)) {
+                return false;
+            }
+            IContributionItem dest = (IContributionItem) data;
+            if (dest.isDynamic() && dest.isDirty()) {
+                return false;
+            }
+            if (!src.equals(dest) && !(src.isSeparator() && dest.isSeparator())) {
+                return false;
+            }
+        }
+        for (int i = 0; i < mi.length; i++) {
+            IContributionItem src = clean.get(i);
+            if (src.isSeparator()) {
+                mi[i].setData(src);
+            }
+        }
+        return true;
+    }
+
     /* (non-Javadoc)
      * @see org.eclipse.jface.action.IContributionItem#update(java.lang.String)
      */
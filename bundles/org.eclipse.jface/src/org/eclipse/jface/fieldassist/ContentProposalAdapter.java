@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2013 IBM Corporation and others.
+ * Copyright (c) 2005, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,9 @@
 package org.eclipse.jface.fieldassist;
 
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.ListenerList;
@@ -36,6 +39,7 @@ import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.ScrollBar;
@@ -921,6 +925,7 @@ public class ContentProposalAdapter {
 			if (infoPopup != null) {
 				infoPopup.close();
 			}
+			cancelProposalRequest();
 			boolean ret = super.close();
 			notifyPopupClosed();
 			return ret;
@@ -932,58 +937,41 @@ public class ContentProposalAdapter {
 		 */
 		private void showProposalDescription() {
 			// If we do not already have a pending update, then
-			// create a thread now that will show the proposal description
+			// schedule one now that will show the proposal description
 			if (!pendingDescriptionUpdate) {
-				// Create a thread that will sleep for the specified delay
-				// before creating the popup. We do not use Jobs since this
-				// code must be able to run independently of the Eclipse
-				// runtime.
-				Runnable runnable = new Runnable() {
+				// Show the popup after the specified delay, unless the
+				// proposal popup was closed in the meantime.
+				pendingDescriptionUpdate = true;
+				getShell().getDisplay().timerExec(POPUP_DELAY, new Runnable() {
 					public void run() {
-						pendingDescriptionUpdate = true;
-						try {
-							Thread.sleep(POPUP_DELAY);
-						} catch (InterruptedException e) {
-						}
+						pendingDescriptionUpdate = false;
 						if (!isValid()) {
 							return;
 						}
-						getShell().getDisplay().syncExec(new Runnable() {
-							public void run() {
-								// Query the current selection since we have
-								// been delayed
-								IContentProposal p = getSelectedProposal();
-								if (p != null) {
-									String description = p.getDescription();
-									if (description != null) {
-										if (infoPopup == null) {
-											infoPopup = new InfoPopupDialog(
-													getShell());
-											infoPopup.open();
-											infoPopup
-													.getShell()
-													.addDisposeListener(
-															new DisposeListener() {
-																public void widgetDisposed(
-																		DisposeEvent event) {
-																	infoPopup = null;
-																}
-															});
-										}
-										infoPopup.setContents(p
-												.getDescription());
-									} else if (infoPopup != null) {
-										infoPopup.close();
-									}
-									pendingDescriptionUpdate = false;
-
+						// Query the current selection since we have
+						// been delayed
+						IContentProposal p = getSelectedProposal();
+						if (p != null) {
+							String description = p.getDescription();
+							if (description != null) {
+								if (infoPopup == null) {
+									infoPopup = new InfoPopupDialog(getShell());
+									infoPopup.open();
+									infoPopup.getShell().addDisposeListener(
+											new DisposeListener() {
+												public void widgetDisposed(
+														DisposeEvent event) {
+													infoPopup = null;
+												}
+											});
 								}
+								infoPopup.setContents(p.getDescription());
+							} else if (infoPopup != null) {
+								infoPopup.close();
 							}
-						});
+						}
 					}
-				};
-				Thread t = new Thread(runnable);
-				t.start();
+				});
 			}
 		}
 
@@ -1004,8 +992,26 @@ public class ContentProposalAdapter {
 		 * Request the proposals from the proposal provider, and recompute any
 		 * caches. Repopulate the popup if it is open.
 		 */
-		private void recomputeProposals(String filterText) {
-			IContentProposal[] allProposals = getProposals();
+		private void recomputeProposals(final String filterText) {
+			if (computeProposalsInBackground) {
+				requestProposals(new ProposalHandler() {
+					public void proposalsComputed(IContentProposal[] allProposals) {
+						if (popup == ContentProposalPopup.this && isValid()) {
+							recomputeProposals(allProposals, filterText);
+						}
+					}
+				});
+			} else {
+				recomputeProposals(getProposals(), filterText);
+			}
+		}
+
+		/*
+		 * Repopulate the popup with the given proposals, or close it if there
+		 * are none.
+		 */
+		private void recomputeProposals(IContentProposal[] allProposals,
+				String filterText) {
 			if (allProposals == null)
 				 allProposals = getEmptyProposalArray();
 			// If the non-filtered proposal list is empty, we should
@@ -1270,6 +1276,30 @@ public class ContentProposalAdapter {
 	 */
 	private boolean watchModify = false;
 
+	/*
+	 * The pending autoactivation, if any. Every autoactivation replaces the
+	 * pending one so that the popup is opened once after a burst of keystrokes.
+	 */
+	private Runnable pendingAutoActivation;
+
+	/*
+	 * Whether the proposals are requested from the provider in a background
+	 * thread.
+	 */
+	private boolean computeProposalsInBackground = false;
+
+	/*
+	 * The number of the last proposal request. Proposals computed for an older
+	 * request are discarded.
+	 */
+	private volatile int proposalRequest;
+
+	/*
+	 * The thread shared by all adapters for computing proposals in the
+	 * background. Created lazily.
+	 */
+	private static ExecutorService proposalExecutor;
+
 	/**
 	 * Construct a content proposal adapter that can assist the user with
 	 * choosing content for the field.
@@ -1452,6 +1482,39 @@ public class ContentProposalAdapter {
 
 	}
 
+	/**
+	 * Returns whether the proposals are requested from the proposal provider in
+	 * a background thread.
+	 * 
+	 * @return <code>true</code> if the proposals are computed in the
+	 *         background, <code>false</code> if they are computed in the UI
+	 *         thread
+	 * @since 3.10
+	 */
+	public boolean isComputeProposalsInBackground() {
+		return computeProposalsInBackground;
+	}
+
+	/**
+	 * Set whether the proposals are requested from the proposal provider in a
+	 * background thread, so that an expensive provider does not block the UI.
+	 * The popup is opened or updated when the proposals are available. A
+	 * request is discarded when a newer one is made or the popup is closed
+	 * before its proposals are available.
+	 * <p>
+	 * When set to <code>true</code>, the proposal provider must be able to
+	 * compute proposals outside of the UI thread. The default is
+	 * <code>false</code>.
+	 * </p>
+	 * 
+	 * @param computeInBackground
+	 *            <code>true</code> to compute the proposals in the background
+	 * @since 3.10
+	 */
+	public void setComputeProposalsInBackground(boolean computeInBackground) {
+		computeProposalsInBackground = computeInBackground;
+	}
+
 	/**
 	 * Get the integer style that indicates how an accepted proposal affects the
 	 * control's content.
@@ -1605,6 +1668,7 @@ public class ContentProposalAdapter {
 			if (popup != null) {
 				popup.close();
 			}
+			cancelProposalRequest();
 		}
 		isEnabled = enabled;
 	}
@@ -1883,33 +1947,51 @@ public class ContentProposalAdapter {
 	 *            a boolean indicating whether the popup was autoactivated. If
 	 *            false, a beep will sound when no proposals can be shown.
 	 */
-	private void openProposalPopup(boolean autoActivated) {
+	private void openProposalPopup(final boolean autoActivated) {
 		if (isValid()) {
 			if (popup == null) {
 				// Check whether there are any proposals to be shown.
 				recordCursorPosition(); // must be done before getting proposals
-				IContentProposal[] proposals = getProposals();
-				if (proposals.length > 0) {
-					if (DEBUG) {
-						System.out.println("POPUP OPENED BY PRECEDING EVENT"); //$NON-NLS-1$
-					}
-					recordCursorPosition();
-					popup = new ContentProposalPopup(null, proposals);
-					popup.open();
-					popup.getShell().addDisposeListener(new DisposeListener() {
-						public void widgetDisposed(DisposeEvent event) {
-							popup = null;
+				if (computeProposalsInBackground) {
+					requestProposals(new ProposalHandler() {
+						public void proposalsComputed(IContentProposal[] proposals) {
+							if (popup == null) {
+								openProposalPopup(proposals, autoActivated);
+							}
 						}
 					});
-					internalPopupOpened();
-					notifyPopupOpened();
-				} else if (!autoActivated) {
-					getControl().getDisplay().beep();
+				} else {
+					openProposalPopup(getProposals(), autoActivated);
 				}
 			}
 		}
 	}
 
+	/*
+	 * Open the proposal popup with the given proposals. If there are no
+	 * proposals, beep unless the popup was autoactivated.
+	 */
+	private void openProposalPopup(IContentProposal[] proposals,
+			boolean autoActivated) {
+		if (proposals != null && proposals.length > 0) {
+			if (DEBUG) {
+				System.out.println("POPUP OPENED BY PRECEDING EVENT"); //$NON-NLS-1$
+			}
+			recordCursorPosition();
+			popup = new ContentProposalPopup(null, proposals);
+			popup.open();
+			popup.getShell().addDisposeListener(new DisposeListener() {
+				public void widgetDisposed(DisposeEvent event) {
+					popup = null;
+				}
+			});
+			internalPopupOpened();
+			notifyPopupOpened();
+		} else if (!autoActivated) {
+			getControl().getDisplay().beep();
+		}
+	}
+
 	/**
 	 * Open the proposal popup and display the proposals provided by the
 	 * proposal provider. This method returns immediately. That is, it does not
@@ -2034,16 +2116,100 @@ public class ContentProposalAdapter {
 		if (DEBUG) {
 			System.out.println(">>> obtaining proposals from provider"); //$NON-NLS-1$
 		}
+		String contents = getControlContentAdapter().getControlContents(
+				getControl());
+		IContentProposal[] proposals = proposalProvider.getProposals(contents,
+				getProposalPosition());
+		return proposals;
+	}
+
+	/*
+	 * Get the position in the control contents for which proposals are
+	 * requested.
+	 */
+	private int getProposalPosition() {
 		int position = insertionPos;
 		if (position == -1) {
 			position = getControlContentAdapter().getCursorPosition(
 					getControl());
 		}
-		String contents = getControlContentAdapter().getControlContents(
+		return position;
+	}
+
+	/*
+	 * Request the proposals for the current contents of the control in the
+	 * background. The handler is called in the UI thread once the proposals
+	 * are available, unless the request has been superseded or cancelled in
+	 * the meantime.
+	 */
+	private void requestProposals(final ProposalHandler handler) {
+		final int request = ++proposalRequest;
+		if (proposalProvider == null || !isValid()) {
+			return;
+		}
+		if (DEBUG) {
+			System.out.println(">>> requesting proposals from provider in the background"); //$NON-NLS-1$
+		}
+		final IContentProposalProvider provider = proposalProvider;
+		final String contents = getControlContentAdapter().getControlContents(
 				getControl());
-		IContentProposal[] proposals = proposalProvider.getProposals(contents,
-				position);
-		return proposals;
+		final int position = getProposalPosition();
+		final Display display = getControl().getDisplay();
+		getProposalExecutor().execute(new Runnable() {
+			public void run() {
+				// Skip requests superseded while queued
+				if (request != proposalRequest) {
+					return;
+				}
+				IContentProposal[] computed = provider.getProposals(contents,
+						position);
+				final IContentProposal[] proposals = computed == null ? new IContentProposal[0]
+						: computed;
+				if (request != proposalRequest || display.isDisposed()) {
+					return;
+				}
+				display.asyncExec(new Runnable() {
+					public void run() {
+						if (request == proposalRequest && isValid()) {
+							handler.proposalsComputed(proposals);
+						}
+					}
+				});
+			}
+		});
+	}
+
+	/*
+	 * Discard the proposals of any pending background request.
+	 */
+	private void cancelProposalRequest() {
+		proposalRequest++;
+	}
+
+	/*
+	 * Return the executor shared by all adapters for computing proposals in
+	 * the background.
+	 */
+	private static synchronized ExecutorService getProposalExecutor() {
+		if (proposalExecutor == null) {
+			proposalExecutor = Executors
+					.newSingleThreadExecutor(new ThreadFactory() {
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable,
+									"Content Proposal Computation"); //$NON-NLS-1$
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+		return proposalExecutor;
+	}
+
+	/*
+	 * Receives the proposals computed in the background.
+	 */
+	private interface ProposalHandler {
+		void proposalsComputed(IContentProposal[] proposals);
 	}
 
 	/**
@@ -2052,25 +2218,25 @@ public class ContentProposalAdapter {
 	 */
 	private void autoActivate() {
 		if (autoActivationDelay > 0) {
-			Runnable runnable = new Runnable() {
+			// Replace any pending autoactivation so that the delay starts
+			// over with every keystroke.
+			Display display = getControl().getDisplay();
+			if (pendingAutoActivation != null) {
+				display.timerExec(-1, pendingAutoActivation);
+			}
+			receivedKeyDown = false;
+			pendingAutoActivation = new Runnable() {
 				public void run() {
-					receivedKeyDown = false;
-					try {
-						Thread.sleep(autoActivationDelay);
-					} catch (InterruptedException e) {
+					if (pendingAutoActivation == this) {
+						pendingAutoActivation = null;
 					}
 					if (!isValid() || receivedKeyDown) {
 						return;
 					}
-					getControl().getDisplay().syncExec(new Runnable() {
-						public void run() {
-							openProposalPopup(true);
-						}
-					});
+					openProposalPopup(true);
 				}
 			};
-			Thread t = new Thread(runnable);
-			t.start();
+			display.timerExec(autoActivationDelay, pendingAutoActivation);
 		} else {
 			// Since we do not sleep, we must open the popup
 			// in an async exec. This is necessary because
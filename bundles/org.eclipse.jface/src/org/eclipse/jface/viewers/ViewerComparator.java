@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2013 IBM Corporation and others.
+ * Copyright (c) 2006, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,8 @@
 
 package org.eclipse.jface.viewers;
 
+import java.text.CollationKey;
+import java.text.Collator;
 import java.util.Arrays;
 import java.util.Comparator;
 
@@ -48,6 +50,11 @@ public class ViewerComparator {
 	 */
 	private Comparator comparator;
 
+	/**
+	 * Whether <code>sort</code> computes the sort key of each element once.
+	 */
+	private boolean useSortKeys;
+
 	/**
      * Creates a new {@link ViewerComparator}, which uses the default comparator
      * to sort strings.
@@ -170,12 +177,44 @@ public class ViewerComparator {
         return false;
     }
 
+	/**
+	 * Sets whether <code>sort</code> computes the category and the label of
+	 * every element only once instead of on every comparison. When the string
+	 * comparator is a {@link Collator}, the labels are compared through their
+	 * {@link CollationKey}s.
+	 * <p>
+	 * The elements are then ordered exactly as the default
+	 * <code>compare</code> implementation would order them, so this mode must
+	 * not be enabled by subclasses that override <code>compare</code>.
+	 * </p>
+	 * 
+	 * @param useSortKeys
+	 *            <code>true</code> to sort on precomputed keys
+	 * @since 3.10
+	 */
+	public void setUseSortKeys(boolean useSortKeys) {
+		this.useSortKeys = useSortKeys;
+	}
+
+	/**
+	 * Returns whether <code>sort</code> computes the category and the label of
+	 * every element only once.
+	 * 
+	 * @return <code>true</code> if sorting on precomputed keys
+	 * @see #setUseSortKeys(boolean)
+	 * @since 3.10
+	 */
+	public boolean isUsingSortKeys() {
+		return useSortKeys;
+	}
+
     /**
      * Sorts the given elements in-place, modifying the given array.
      * <p>
      * The default implementation of this method uses the 
      * java.util.Arrays#sort algorithm on the given array, 
-     * calling <code>compare</code> to compare elements.
+     * calling <code>compare</code> to compare elements, unless sort keys are
+     * used (see {@link #setUseSortKeys(boolean)}).
      * </p>
      * <p>
      * Subclasses may reimplement this method to provide a more optimized implementation.
@@ -186,6 +225,10 @@ public class ViewerComparator {
      */
 	public void sort(final Viewer viewer, Object[] elements) {
 		try {
+			if (useSortKeys) {
+				sortByKeys(viewer, elements);
+				return;
+			}
 			Arrays.sort(elements, new Comparator() {
 				public int compare(Object a, Object b) {
 					return ViewerComparator.this.compare(viewer, a, b);
@@ -204,4 +247,63 @@ public class ViewerComparator {
 			throw e;
 		}
 	}
+
+	private void sortByKeys(Viewer viewer, Object[] elements) {
+		final Comparator stringComparator = getComparator();
+		Collator collator = stringComparator instanceof Collator ? (Collator) stringComparator
+				: null;
+		SortKey[] keys = new SortKey[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			Object element = elements[i];
+			String label = getLabel(viewer, element);
+			keys[i] = new SortKey(element, category(element),
+					collator != null ? (Object) collator.getCollationKey(label)
+							: label);
+		}
+		Comparator keyComparator;
+		if (collator != null) {
+			keyComparator = new Comparator() {
+				public int compare(Object a, Object b) {
+					SortKey key1 = (SortKey) a;
+					SortKey key2 = (SortKey) b;
+					if (key1.category != key2.category) {
+						return key1.category - key2.category;
+					}
+					return ((CollationKey) key1.label)
+							.compareTo((CollationKey) key2.label);
+				}
+			};
+		} else {
+			keyComparator = new Comparator() {
+				public int compare(Object a, Object b) {
+					SortKey key1 = (SortKey) a;
+					SortKey key2 = (SortKey) b;
+					if (key1.category != key2.category) {
+						return key1.category - key2.category;
+					}
+					return stringComparator.compare(key1.label, key2.label);
+				}
+			};
+		}
+		Arrays.sort(keys, keyComparator);
+		for (int i = 0; i < keys.length; i++) {
+			elements[i] = keys[i].element;
+		}
+	}
+
+	/**
+	 * The precomputed category and label of an element. The label is either
+	 * the label string or its collation key.
+	 */
+	private static class SortKey {
+		final Object element;
+		final int category;
+		final Object label;
+
+		SortKey(Object element, int category, Object label) {
+			this.element = element;
+			this.category = category;
+			this.label = label;
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2006 IBM Corporation and others.
+ * Copyright (c) 2004, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,39 +10,68 @@
  *******************************************************************************/
 package org.eclipse.jface.viewers.deferred;
 
-import java.util.HashMap;
-
 /**
- * Represents a map of objects onto ints. This is intended for future optimization:
- * using int primitives would allow for an implementation that doesn't require
- * additional object allocations for Integers. However, the current implementation
- * simply delegates to the Java HashMap class. 
+ * Represents a map of objects onto ints. Keys and values are stored in
+ * parallel arrays using open addressing with linear probing, so that no
+ * additional objects are allocated per entry. Keys are compared using
+ * {@link Object#equals(Object)} like in a {@link java.util.HashMap}.
  * 
  * @since 3.1
  */
 /* package */ class IntHashMap {
-    private HashMap map; 
+    private static final int MIN_CAPACITY = 16;
+    private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+    
+    // Stands in for the null key, as null marks free slots
+    private static final Object NULL_KEY = new Object();
+    
+    private Object[] keys;
+    private int[] values;
+    private int size;
+    private int threshold;
+    private final float loadFactor;
     
     /**
      * @param size
      * @param loadFactor
      */
     public IntHashMap(int size, float loadFactor) {
-        map = new HashMap(size, loadFactor);
+        this.loadFactor = loadFactor > 0 && loadFactor < 1 ? loadFactor : DEFAULT_LOAD_FACTOR;
+        allocate(capacityFor(size));
     }
     
     /**
      * 
      */
     public IntHashMap() {
-        map = new HashMap();
+        this(MIN_CAPACITY, DEFAULT_LOAD_FACTOR);
     }
     
     /**
      * @param key
      */
     public void remove(Object key) {
-        map.remove(key);
+        int slot = find(maskNull(key));
+        if (keys[slot] == null) {
+            return;
+        }
+        
+        // Shift back the following entries of the probe sequence so that
+        // lookups never stop at the freed slot
+        int mask = keys.length - 1;
+        int free = slot;
+        int next = (free + 1) & mask;
+        while (keys[next] != null) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[free] = null;
+        size--;
     }
     
     /**
@@ -50,7 +79,17 @@ import java.util.HashMap;
      * @param value
      */
     public void put(Object key, int value) {
-        map.put(key, new Integer(value));
+        Object k = maskNull(key);
+        int slot = find(k);
+        if (keys[slot] == null) {
+            if (size >= threshold) {
+                rehash(keys.length * 2);
+                slot = find(k);
+            }
+            keys[slot] = k;
+            size++;
+        }
+        values[slot] = value;
     }
     
     /**
@@ -67,10 +106,10 @@ import java.util.HashMap;
      * @return the int value at the given key, or the default value if this map does not contain the given key
      */
     public int get(Object key, int defaultValue) {
-        Integer result = (Integer)map.get(key);
+        int slot = find(maskNull(key));
         
-        if (result != null) {
-            return result.intValue();
+        if (keys[slot] != null) {
+            return values[slot];
         }
         
         return defaultValue;
@@ -81,13 +120,70 @@ import java.util.HashMap;
      * @return <code>true</code> if this map contains the given key, <code>false</code> otherwise
      */
     public boolean containsKey(Object key) {
-        return map.containsKey(key);
+        return keys[find(maskNull(key))] != null;
     }
     
     /**
      * @return the number of key/value pairs
      */
     public int size() {
-    	return map.size();
+    	return size;
+    }
+    
+    /**
+     * Returns the slot holding the given key, or the free slot where it
+     * would be inserted.
+     */
+    private int find(Object key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        Object current;
+        while ((current = keys[slot]) != null) {
+            if (current == key || current.equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+    
+    private void rehash(int newCapacity) {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object key = oldKeys[i];
+            if (key != null) {
+                int slot = find(key);
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+    
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+        // Always leave at least one free slot to terminate probe sequences
+        threshold = Math.min((int) (capacity * loadFactor), capacity - 1);
+    }
+    
+    private int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+    
+    private static Object maskNull(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+    
+    private static int hash(Object key) {
+        // Spread the high bits so that poor hash codes still use the whole table
+        int h = key.hashCode();
+        h ^= (h >>> 20) ^ (h >>> 12);
+        return h ^ (h >>> 7) ^ (h >>> 4);
     }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2013 IBM Corporation and others.
+ * Copyright (c) 2004, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -277,7 +277,8 @@ public class LazySortedCollection {
         // If neither subtree has any children, add a pseudorandom chance of the
         // newly added element becoming the new pivot for this node. Note: instead
         // of a real pseudorandom generator, we simply use a counter here.
-        if (!enableDebug && leftSubTree[subTree] == -1 && rightSubTree[subTree] == -1 
+        if (!enableDebug && contents[subTree] != lazyRemovalFlag
+                && leftSubTree[subTree] == -1 && rightSubTree[subTree] == -1 
                 && leftSubTree[elementToAdd] == -1 && rightSubTree[elementToAdd] == -1) {
 	        counter--;
 	        
@@ -361,7 +362,9 @@ public class LazySortedCollection {
             return -1;
         }
         
-        if (contents[subTree] == lazyRemovalFlag) {
+        // Removing the node may swap in the value of another node that was itself
+        // flagged for removal, so keep going until the pivot holds a real value
+        while (contents[subTree] == lazyRemovalFlag) {
             subTree = removeNode(subTree);
             if (subTree == -1) {
                 return -1;
@@ -494,8 +497,6 @@ public class LazySortedCollection {
     private int getObjectIndex(Object value) {
         // If we don't have a map of values onto tree indices, build the map now.
         if (objectIndices == null) {
-            int result = -1;
-            
             objectIndices = new IntHashMap((int)(contents.length / loadFactor) + 1, loadFactor);
             
             for (int i = 0; i < lastNode; i++) {
@@ -503,14 +504,8 @@ public class LazySortedCollection {
                 
                 if (element != null && element != lazyRemovalFlag) {
                     objectIndices.put(element, i);
-                    
-                    if (value == element) {
-                        result = i;
-                    }
                 }
             }
-            
-            return result;
         }
         
         // If we have a map of values onto tree indices, return the result by looking it up in
@@ -1040,6 +1035,15 @@ public class LazySortedCollection {
         int left = leftSubTree[subTree];
         int right = rightSubTree[subTree];
         
+        if (left != -1 && right != -1) {
+            // Unsorted nodes along the paths to the next-smallest and next-largest
+            // nodes may lie on either side of the replacement value, so sort them first
+            partitionPath(left, DIR_RIGHT);
+            partitionPath(right, DIR_LEFT);
+            left = leftSubTree[subTree];
+            right = rightSubTree[subTree];
+        }
+        
         if (left == -1 || right == -1) {
             int result = -1;
             
@@ -1145,7 +1149,7 @@ public class LazySortedCollection {
         contents[replacementNode] = contents[subTree];
         contents[subTree] = replacementContent;
         
-        if (objectIndices != null) {
+        if (objectIndices != null && replacementContent != lazyRemovalFlag) {
             objectIndices.put(replacementContent, subTree);
             // Note: currently we don't bother updating the index of the replacement
             // node since we're going to remove it immediately afterwards and there's
@@ -1169,6 +1173,27 @@ public class LazySortedCollection {
         return subTree;
     }
    
+    /**
+     * Partitions every node on the path that starts at the given node and follows
+     * the given direction (DIR_LEFT or DIR_RIGHT).
+     * 
+     * @param node first node of the path
+     * @param direction direction to follow
+     */
+    private final void partitionPath(int node, int direction) {
+        FastProgressReporter mon = new FastProgressReporter();
+        try {
+            while (node != -1) {
+                node = partition(node, mon);
+                if (node != -1) {
+                    node = direction == DIR_LEFT ? leftSubTree[node] : rightSubTree[node];
+                }
+            }
+        } catch (InterruptedException e) {
+            // shouldn't happen
+        }
+    }
+   
     /**
      * Removes all elements from the collection
      */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,11 @@
  *     RasmussenJamie@comcast.net - patch for Bug 184345
  *******************************************************************************/
 package org.eclipse.ui.forms.widgets;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
@@ -71,6 +76,28 @@ public final class ColumnLayout extends Layout implements ILayoutExtension {
 	 */
 	public int rightMargin = 5;
 
+	/**
+	 * The number of sizes kept for each child.
+	 */
+	private static final int MAX_CACHED_SIZES = 8;
+
+	/**
+	 * The sizes computed for each child (<code>Control</code> to
+	 * <code>Map</code> of hints to sizes, both <code>Point</code>s). They are
+	 * only kept while the layout is redone for a single changed child, see
+	 * {@link #flushCache(Control)}.
+	 */
+	private Map sizeCache = new IdentityHashMap();
+
+	/**
+	 * Whether the sizes of the children that have not been flushed can be
+	 * trusted. This is only the case from a call to
+	 * {@link #flushCache(Control)} until the end of the next
+	 * {@link #layout(Composite, boolean)}, which is the pass of
+	 * <code>Composite.layout(Control[])</code> that placed the changed child.
+	 */
+	private boolean useSizeCache;
+
 	/**
 	 * Creates a new instance of the column layout.
 	 */
@@ -79,15 +106,16 @@ public final class ColumnLayout extends Layout implements ILayoutExtension {
 
 	protected Point computeSize(Composite composite, int wHint, int hHint, boolean flushCache) {
 		if (wHint == 0)
-			return computeSize(composite, wHint, hHint, minNumColumns);
+			return computeSize(composite, wHint, hHint, minNumColumns, flushCache);
 		else if (wHint == SWT.DEFAULT)
-			return computeSize(composite, wHint, hHint, maxNumColumns);
+			return computeSize(composite, wHint, hHint, maxNumColumns, flushCache);
 		else
-			return computeSize(composite, wHint, hHint, -1);
+			return computeSize(composite, wHint, hHint, -1, flushCache);
 	}
 
-	private Point computeSize(Composite parent, int wHint, int hHint, int ncolumns) {
+	private Point computeSize(Composite parent, int wHint, int hHint, int ncolumns, boolean flushCache) {
 		Control[] children = parent.getChildren();
+		updateCache(children, flushCache);
 		int cwidth = 0;
 		int cheight = 0;
 		Point[] sizes = new Point[children.length];
@@ -102,7 +130,7 @@ public final class ColumnLayout extends Layout implements ILayoutExtension {
 		}
 
 		for (int i = 0; i < children.length; i++) {
-			sizes[i] = computeControlSize(children[i], cwHint);
+			sizes[i] = computeControlSize(children[i], cwHint, flushCache);
 			cwidth = Math.max(cwidth, sizes[i].x);
 			cheight += sizes[i].y;
 		}
@@ -149,11 +177,66 @@ public final class ColumnLayout extends Layout implements ILayoutExtension {
 		return size;
 	}
 
-	private Point computeControlSize(Control c, int wHint) {
+	private Point computeControlSize(Control c, int wHint, boolean flushCache) {
 		ColumnLayoutData cd = (ColumnLayoutData) c.getLayoutData();
 		int widthHint = cd != null ? cd.widthHint : wHint;
 		int heightHint = cd != null ? cd.heightHint : SWT.DEFAULT;
-		return c.computeSize(widthHint, heightHint);
+		if (!useSizeCache) {
+			// nothing is known about what has changed, so measure the child
+			// from scratch
+			return c.computeSize(widthHint, heightHint);
+		}
+		Map sizes = (Map) sizeCache.get(c);
+		if (sizes == null) {
+			sizes = new HashMap();
+			sizeCache.put(c, sizes);
+		}
+		Point hints = new Point(widthHint, heightHint);
+		Point size = (Point) sizes.get(hints);
+		if (size == null) {
+			// only the first computation after a flush needs to flush the
+			// caches of the child
+			size = c.computeSize(widthHint, heightHint, flushCache
+					&& sizes.isEmpty());
+			if (sizes.size() >= MAX_CACHED_SIZES)
+				sizes.clear();
+			sizes.put(hints, size);
+		}
+		return size;
+	}
+
+	/**
+	 * Drops the cached sizes of all the children if the cache is flushed,
+	 * and the ones of the controls that are disposed or no longer children.
+	 */
+	private void updateCache(Control[] children, boolean flushCache) {
+		if (flushCache || !useSizeCache) {
+			sizeCache.clear();
+			return;
+		}
+		Map current = new IdentityHashMap();
+		for (int i = 0; i < children.length; i++) {
+			current.put(children[i], children[i]);
+		}
+		for (Iterator iter = sizeCache.keySet().iterator(); iter.hasNext();) {
+			Control control = (Control) iter.next();
+			if (control.isDisposed() || !current.containsKey(control))
+				iter.remove();
+		}
+	}
+
+	/**
+	 * Flushes the cached sizes of the given child only. The sizes of its
+	 * siblings are reused until the parent has been laid out, so that they
+	 * are not measured again by each of the computations of the parent size
+	 * when just this child has changed.
+	 * 
+	 * @see Layout#flushCache(Control)
+	 */
+	protected boolean flushCache(Control control) {
+		sizeCache.remove(control);
+		useSizeCache = true;
+		return true;
 	}
 
 	private int findShortestColumn(int[] heights) {
@@ -176,12 +259,13 @@ public final class ColumnLayout extends Layout implements ILayoutExtension {
 	 */
 	protected void layout(Composite parent, boolean flushCache) {
 		Control[] children = parent.getChildren();
+		updateCache(children, flushCache);
 		Rectangle carea = parent.getClientArea();
 		int cwidth = 0;
 		int cheight = 0;
 		Point[] sizes = new Point[children.length];
 		for (int i = 0; i < children.length; i++) {
-			sizes[i] = computeControlSize(children[i], SWT.DEFAULT);
+			sizes[i] = computeControlSize(children[i], SWT.DEFAULT, flushCache);
 			cwidth = Math.max(cwidth, sizes[i].x);
 			cheight += sizes[i].y;
 		}
@@ -247,6 +331,9 @@ public final class ColumnLayout extends Layout implements ILayoutExtension {
 			
 			colHeight += csize.y;
 		}
+		// the children are placed, later passes do not know what changed
+		useSizeCache = false;
+		sizeCache.clear();
 	}
 
 	/*
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -252,6 +252,19 @@ public class ExpandableComposite extends Canvas {
 			}
 		}
 
+		protected boolean flushCache(Control control) {
+			SizeCache[] caches = { toggleCache, textClientCache,
+					textLabelCache, descriptionCache, clientCache };
+			for (int i = 0; i < caches.length; i++) {
+				if (caches[i].getControl() == control) {
+					// only this child has changed
+					caches[i].flush(false);
+					return true;
+				}
+			}
+			return false;
+		}
+
 		protected void layout(Composite parent, boolean changed) {
 			initCache(changed);
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -144,6 +144,19 @@ public class Form extends Composite {
 			return new Point(width, height);
 		}
 
+		protected boolean flushCache(Control control) {
+			// only this child has changed
+			if (control == body) {
+				bodyCache.flush(false);
+				return true;
+			}
+			if (control == head) {
+				headCache.flush(false);
+				return true;
+			}
+			return false;
+		}
+
 		protected void layout(Composite composite, boolean flushCache) {
 			if (flushCache) {
 				bodyCache.flush();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2005 IBM Corporation and others.
+ * Copyright (c) 2004, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -109,6 +109,23 @@ public class LayoutCache {
         caches[controlIndex].flush();
     }
 
+    /**
+     * Flushes the cache for the given control, leaving the caches of its
+     * descendants alone.
+     * 
+     * @param control the control that has changed
+     * @return <code>true</code> if the control is one of the cached controls
+     */
+    boolean flush(Control control) {
+        for (int idx = 0; idx < caches.length; idx++) {
+            if (caches[idx].getControl() == control) {
+                caches[idx].flush(false);
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Flushes the cache.
      */
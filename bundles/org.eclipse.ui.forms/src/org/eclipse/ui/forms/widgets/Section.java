@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2010 IBM Corporation and others.
+ *  Copyright (c) 2000, 2014 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -128,15 +128,24 @@ public class Section extends ExpandableComposite {
 				break;
 			}
 		}
-		c = this;
-		while (c != null) {
-			c.layout(true);
-			c = c.getParent();
+		// Only this section has changed, so lay out the parents without
+		// flushing the caches of the other controls they contain
+		layout(true);
+		Composite top = this;
+		SharedScrolledComposite scrolled = null;
+		for (c = getParent(); c != null; c = c.getParent()) {
 			if (c instanceof SharedScrolledComposite) {
-				((SharedScrolledComposite) c).reflow(true);
+				scrolled = (SharedScrolledComposite) c;
 				break;
 			}
+			top = c;
+			if (c instanceof Shell)
+				break;
 		}
+		if (top != this)
+			top.layout(new Control[] { this });
+		if (scrolled != null)
+			scrolled.reflow(false);
 		c = this;
 		while (c != null) {
 			c.setRedraw(true);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2011 IBM Corporation and others.
+ *  Copyright (c) 2000, 2014 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -188,9 +188,9 @@ public abstract class SharedScrolledComposite extends ScrolledComposite {
 		}
 			
 		contentCache.setControl(c);
-		if (flushCache) {
-			contentCache.flush();
-		}
+		// the size of the content is computed again either way, but its
+		// children are only measured again if the caches are flushed
+		contentCache.flush(flushCache);
 		Point newSize = contentCache.computeSize(FormUtil.getWidthHint(
 				clientArea.width, c), FormUtil.getHeightHint(clientArea.height,
 				c));
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2013 IBM Corporation and others.
+ * Copyright (c) 2004, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -46,6 +46,7 @@ public class SizeCache {
 
     private int cachedHeightQuery;
     private int cachedHeightResult;
+    private int cachedHeightResultWidth;
     
     private int minimumWidth;
     private int heightAtMinimumWidth = -1;
@@ -147,6 +148,7 @@ public class SizeCache {
         cachedWidthResult = -1;
         cachedHeightQuery = -1;
         cachedHeightResult = -1;
+        cachedHeightResultWidth = -1;
         minimumWidth = -1;
         maximumWidth = -1;
         minimumHeight = -1;
@@ -247,7 +249,7 @@ public class SizeCache {
             if (cachedHeightQuery != -1) {
                 // If this was measured with the same width hint
                 if (cachedHeightQuery == widthHint) {
-                    return new Point(widthHint + widthAdjustment, cachedHeightResult);
+                    return new Point(cachedHeightResultWidth, cachedHeightResult);
                 }
             }
 
@@ -269,8 +271,9 @@ public class SizeCache {
             // it from scratch.
             Point newHeight = controlComputeSize(widthHint - widthAdjustment, SWT.DEFAULT);
 
-            cachedHeightQuery = heightHint;
+            cachedHeightQuery = widthHint;
             cachedHeightResult = newHeight.y;
+            cachedHeightResultWidth = newHeight.x;
             
             return newHeight;
         }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2011 IBM Corporation and others.
+ *  Copyright (c) 2000, 2014 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -203,6 +203,16 @@ public final class TableWrapLayout extends Layout implements ILayoutExtension {
 		return internalGetMaximumWidth(parent, changed);
 	}
 
+	/**
+	 * Flushes the cached sizes of the given child only, so that its siblings
+	 * are not measured again when just this child has changed.
+	 * 
+	 * @see Layout#flushCache(Control)
+	 */
+	protected boolean flushCache(Control control) {
+		return cache.flush(control);
+	}
+
 	/**
 	 * @see Layout#layout(Composite, boolean)
 	 */
@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.forms.widgets;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * The element tree of the markup shown by a form text. It is built with a SAX
+ * parser, which is much lighter than building a DOM, and holds only what the
+ * form text model reads: element names, attributes and text.
+ * <p>
+ * Trees are immutable, so the trees of the most recently parsed strings are
+ * cached and shared by all the form texts showing the same markup.
+ * </p>
+ */
+class FormTextMarkup {
+
+	/**
+	 * An element of the markup.
+	 */
+	static final class Element {
+		private final String name;
+
+		private final Map attributes;
+
+		private final Object[] children;
+
+		Element(String name, Map attributes, Object[] children) {
+			this.name = name;
+			this.attributes = attributes;
+			this.children = children;
+		}
+
+		/**
+		 * @return the qualified name of the element
+		 */
+		String getName() {
+			return name;
+		}
+
+		/**
+		 * @param attributeName
+		 *            the qualified name of the attribute
+		 * @return the value of the attribute or <code>null</code> if the
+		 *         element does not have it
+		 */
+		String getAttribute(String attributeName) {
+			return (String) attributes.get(attributeName);
+		}
+
+		/**
+		 * @return the number of child nodes
+		 */
+		int getChildCount() {
+			return children.length;
+		}
+
+		/**
+		 * @param index
+		 *            the index of the child node
+		 * @return the child node, either a <code>String</code> for text or an
+		 *         <code>Element</code>
+		 */
+		Object getChild(int index) {
+			return children[index];
+		}
+	}
+
+	private static final int MAX_CACHED_TREES = 32;
+
+	private static final SAXParserFactory parserFactory = SAXParserFactory
+			.newInstance();
+
+	static {
+		parserFactory.setNamespaceAware(true);
+	}
+
+	/**
+	 * The trees by markup string, the most recently used last.
+	 */
+	private static final Map cache = new LinkedHashMap(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		protected boolean removeEldestEntry(Map.Entry eldest) {
+			return size() > MAX_CACHED_TREES;
+		}
+	};
+
+	/**
+	 * Returns the root element of the given markup, parsing it unless it was
+	 * parsed recently.
+	 *
+	 * @param markup
+	 *            the markup
+	 * @return the root element
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 *             if the markup is not well formed
+	 * @throws IOException
+	 */
+	static Element parse(String markup) throws ParserConfigurationException,
+			SAXException, IOException {
+		synchronized (cache) {
+			Element root = (Element) cache.get(markup);
+			if (root != null)
+				return root;
+		}
+		InputStream stream;
+		try {
+			stream = new ByteArrayInputStream(markup.getBytes("UTF8")); //$NON-NLS-1$
+		} catch (UnsupportedEncodingException e) {
+			throw new IOException(e.getMessage());
+		}
+		Element root = parse(stream);
+		synchronized (cache) {
+			cache.put(markup, root);
+		}
+		return root;
+	}
+
+	/**
+	 * Parses the markup read from the given stream.
+	 *
+	 * @param is
+	 *            the stream
+	 * @return the root element
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 *             if the markup is not well formed
+	 * @throws IOException
+	 *             if reading the stream failed
+	 */
+	static Element parse(InputStream is) throws ParserConfigurationException,
+			SAXException, IOException {
+		SAXParser parser;
+		synchronized (parserFactory) {
+			parser = parserFactory.newSAXParser();
+		}
+		XMLReader reader = parser.getXMLReader();
+		TreeBuilder builder = new TreeBuilder();
+		reader.setContentHandler(builder);
+		reader.setErrorHandler(builder);
+		try {
+			reader.setProperty(
+					"http://xml.org/sax/properties/lexical-handler", builder); //$NON-NLS-1$
+		} catch (SAXNotRecognizedException e) {
+			// CDATA sections will be kept as text
+		} catch (SAXNotSupportedException e) {
+			// CDATA sections will be kept as text
+		}
+		reader.parse(new InputSource(is));
+		return builder.root;
+	}
+
+	/**
+	 * Builds the element tree from the parser events. Comments are dropped
+	 * and so are CDATA sections, as they were when the markup was read into
+	 * a DOM. Parse errors are not written to standard output.
+	 */
+	private static class TreeBuilder extends DefaultHandler implements
+			LexicalHandler {
+
+		private static final Object[] NO_CHILDREN = new Object[0];
+
+		Element root;
+
+		/**
+		 * The names, attributes and child lists of the open elements.
+		 */
+		private final ArrayList stack = new ArrayList();
+
+		private final StringBuffer text = new StringBuffer();
+
+		private boolean inCDATA;
+
+		public void startElement(String uri, String localName, String qName,
+				Attributes atts) throws SAXException {
+			flushText();
+			Map attributes;
+			if (atts.getLength() == 0) {
+				attributes = Collections.EMPTY_MAP;
+			} else {
+				attributes = new HashMap(atts.getLength() * 2);
+				for (int i = 0; i < atts.getLength(); i++) {
+					String name = atts.getQName(i);
+					if (name == null || name.length() == 0)
+						name = atts.getLocalName(i);
+					attributes.put(name, atts.getValue(i));
+				}
+			}
+			stack.add(qName == null || qName.length() == 0 ? localName
+					: qName);
+			stack.add(attributes);
+			stack.add(new ArrayList());
+		}
+
+		public void endElement(String uri, String localName, String qName)
+				throws SAXException {
+			flushText();
+			int size = stack.size();
+			ArrayList children = (ArrayList) stack.remove(size - 1);
+			Map attributes = (Map) stack.remove(size - 2);
+			String name = (String) stack.remove(size - 3);
+			Element element = new Element(name, attributes, children
+					.isEmpty() ? NO_CHILDREN : children.toArray());
+			if (stack.isEmpty())
+				root = element;
+			else
+				((ArrayList) stack.get(stack.size() - 1)).add(element);
+		}
+
+		public void characters(char[] ch, int start, int length)
+				throws SAXException {
+			if (!inCDATA && !stack.isEmpty())
+				text.append(ch, start, length);
+		}
+
+		private void flushText() {
+			if (text.length() > 0) {
+				((ArrayList) stack.get(stack.size() - 1)).add(text.toString());
+				text.setLength(0);
+			}
+		}
+
+		public void startCDATA() throws SAXException {
+			flushText();
+			inCDATA = true;
+		}
+
+		public void endCDATA() throws SAXException {
+			inCDATA = false;
+		}
+
+		public void comment(char[] ch, int start, int length)
+				throws SAXException {
+		}
+
+		public void startDTD(String name, String publicId, String systemId)
+				throws SAXException {
+		}
+
+		public void endDTD() throws SAXException {
+		}
+
+		public void startEntity(String name) throws SAXException {
+		}
+
+		public void endEntity(String name) throws SAXException {
+		}
+	}
+}
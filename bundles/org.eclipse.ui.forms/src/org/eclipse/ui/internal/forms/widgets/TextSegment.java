@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -45,11 +45,23 @@ public class TextSegment extends ParagraphSegment {
 
 	private TextFragment[] textFragments;
 
+	/**
+	 * The extent of the whole text in the font of the segment, or
+	 * <code>null</code> if it has not been measured yet.
+	 */
+	private Point textExtent;
+
 	class AreaRectangle {
 		Rectangle rect;
 
 		int from, to;
 
+		/**
+		 * The extent of the text of this line, measured on the first paint
+		 * after the segment was laid out.
+		 */
+		private Point extent;
+
 		public AreaRectangle(Rectangle rect, int from, int to) {
 			this.rect = rect;
 			this.from = from;
@@ -71,6 +83,13 @@ public class TextSegment extends ParagraphSegment {
 				return TextSegment.this.getText().substring(from);
 			return TextSegment.this.getText().substring(from, to);
 		}
+
+		Point getExtent(GC gc) {
+			if (extent == null)
+				extent = from == 0 && to == -1 ? getTextExtent(gc) : gc
+						.textExtent(getText());
+			return extent;
+		}
 	}
 
 	static class SelectionRange {
@@ -143,6 +162,10 @@ public class TextSegment extends ParagraphSegment {
 		return colorId;
 	}
 
+	public String getFontId() {
+		return fontId;
+	}
+
 	public String getText() {
 		return text;
 	}
@@ -150,6 +173,7 @@ public class TextSegment extends ParagraphSegment {
 	void setText(String text) {
 		this.text = cleanup(text);
 		textFragments = null;
+		textExtent = null;
 	}
 
 	void setColorId(String colorId) {
@@ -159,6 +183,7 @@ public class TextSegment extends ParagraphSegment {
 	void setFontId(String fontId) {
 		this.fontId = fontId;
 		textFragments = null;
+		textExtent = null;
 	}
 
 	public boolean contains(int x, int y) {
@@ -233,7 +258,7 @@ public class TextSegment extends ParagraphSegment {
 		boolean newLine = false;
 
 		if (wHint == SWT.DEFAULT || !wrapAllowed) {
-			Point extent = gc.textExtent(text);
+			Point extent = getTextExtent(gc);
 			int totalExtent = locator.x+extent.x;
 			if (isSelectable())
 				totalExtent+=1;
@@ -318,7 +343,7 @@ public class TextSegment extends ParagraphSegment {
 	 */
 	private void layoutWithoutWrapping(GC gc, int width, Locator locator,
 			boolean selected, FontMetrics fm, int lineHeight, int descent) {
-		Point extent = gc.textExtent(text);
+		Point extent = getTextExtent(gc);
 		int ewidth = extent.x;
 		if (isSelectable())
 			ewidth += 1;
@@ -411,7 +436,7 @@ public class TextSegment extends ParagraphSegment {
 			AreaRectangle areaRectangle = (AreaRectangle) areaRectangles.get(i);
 			Rectangle rect = areaRectangle.rect;
 			String text = areaRectangle.getText();
-			Point extent = gc.textExtent(text);
+			Point extent = areaRectangle.getExtent(gc);
 			int textX = rect.x + (isSelectable()?1:0);
 			int lineY = rect.y + lineHeight - descent + 1;
 			paintString(gc, text, extent.x, textX, rect.y, lineY, selData,
@@ -458,7 +483,7 @@ public class TextSegment extends ParagraphSegment {
 			AreaRectangle areaRectangle = (AreaRectangle) areaRectangles.get(i);
 			Rectangle rect = areaRectangle.rect;
 			String text = areaRectangle.getText();
-			Point extent = gc.textExtent(text);
+			Point extent = areaRectangle.getExtent(gc);
 			computeSelection(gc, text, extent.x, selData,
 					rect);
 		}
@@ -720,11 +745,20 @@ public class TextSegment extends ParagraphSegment {
 		textFragments = (TextFragment[]) list.toArray(new TextFragment[list
 				.size()]);
 	}
+
+	private Point getTextExtent(GC gc) {
+		if (textExtent == null)
+			textExtent = gc.textExtent(text);
+		return textExtent;
+	}
 	
 	public void clearCache(String fontId) {
-		if (fontId==null && (this.fontId==null||this.fontId.equals(FormTextModel.BOLD_FONT_ID)))
+		if (fontId==null && (this.fontId==null||this.fontId.equals(FormTextModel.BOLD_FONT_ID))) {
 			textFragments = null;
-		else if (fontId!=null && this.fontId!=null && fontId.equals(this.fontId))
+			textExtent = null;
+		} else if (fontId!=null && this.fontId!=null && fontId.equals(this.fontId)) {
 			textFragments = null;
+			textExtent = null;
+		}
 	}
 }
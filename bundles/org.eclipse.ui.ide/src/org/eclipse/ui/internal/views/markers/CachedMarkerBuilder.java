@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,6 +24,8 @@ import org.eclipse.ui.IMemento;
 import org.eclipse.ui.IWorkingSet;
 import org.eclipse.ui.IWorkingSetManager;
 import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.internal.ide.IDEInternalPreferences;
+import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
 import org.eclipse.ui.internal.ide.StatusUtil;
 import org.eclipse.ui.progress.IWorkbenchSiteProgressService;
 import org.eclipse.ui.statushandlers.StatusManager;
@@ -71,6 +73,8 @@ public class CachedMarkerBuilder {
 	
 	private IMemento memento;
 	
+	private final boolean incremental;
+
 
 	/**
 	 * Create a new instance of the receiver. Update using the updateJob.
@@ -80,6 +84,8 @@ public class CachedMarkerBuilder {
 		active = false;
 		changeFlags = new boolean[] { true, false, false };
 		MARKERSVIEW_UPDATE_JOB_FAMILY = view.MARKERSVIEW_UPDATE_JOB_FAMILY;
+		incremental = IDEWorkbenchPlugin.getDefault().getPreferenceStore()
+				.getBoolean(IDEInternalPreferences.INCREMENTAL_MARKER_UPDATES);
 		markers = new Markers(this);
 		markerListener = new MarkersChangeListener(view, this);
 		scheduler = new MarkerUpdateScheduler(view, this);
@@ -134,8 +140,8 @@ public class CachedMarkerBuilder {
 			.removePropertyChangeListener(getWorkingSetListener());
 		}
 		
-		if (isIncremental()) {
-			if(incrementJob!=null){
+		synchronized (getUpdateScheduler().getSchedulingLock()) {
+			if (incrementJob != null) {
 				incrementJob.clearEntries();
 			}
 		}
@@ -466,11 +472,12 @@ public class CachedMarkerBuilder {
 				// ensure cancellation before calling the method
 				// updateJob.cancel();
 			} else {
-				/*
-				 * updateJob = isIncremental() ? new IncrementUpdateJob(this):
-				 * new MarkerUpdateJob(this);
-				 */
-				updateJob = new MarkerUpdateJob(this);
+				if (isIncremental()) {
+					incrementJob = new IncrementUpdateJob(this);
+					updateJob = incrementJob;
+				} else {
+					updateJob = new MarkerUpdateJob(this);
+				}
 				updateJob.setPriority(Job.LONG);
 				updateJob.setSystem(true);
 			}
@@ -613,20 +620,18 @@ public class CachedMarkerBuilder {
 	}
 	 
 ///////	<Incremental update code>///////
-		private IncrementUpdateJob incrementJob;
+	private IncrementUpdateJob incrementJob;
 	/**
-	 * Checks whether the builder should perform incrementally Note : Incremental
-	 * updating method is NOT used and tested yet but left out for further
-	 * investigation(*).
+	 * Checks whether the builder should perform incrementally, that is
+	 * apply marker deltas to the markers already gathered instead of
+	 * gathering all of them again. This is enabled through the
+	 * {@link IDEInternalPreferences#INCREMENTAL_MARKER_UPDATES} preference
+	 * when the builder is created.
 	 * 
 	 * @return Returns true if we should collect markers incrementally.
 	 */
 	boolean isIncremental() {
-		/*
-		 * We do not update incrementally. We have 
-		 * code for further investigation(*) for this anyway.
-		 */
-		return false;
+		return incremental;
 	}
 	
 	/**
@@ -657,11 +662,12 @@ public class CachedMarkerBuilder {
 	 */
 	void incrementalUpdate(MarkerUpdate update) {
 		synchronized (getUpdateScheduler().getSchedulingLock()) {
-			if (incrementJob == null) {
-				scheduleUpdateJob(MarkerUpdateScheduler.SHORT_DELAY, true);
+			// without a job the markers have not been gathered yet, the
+			// first update gathers them along with this change
+			if (incrementJob != null) {
+				incrementJob.addUpdate(update);
 			}
 		}
-		incrementJob.addUpdate(update);
 	}
 ///////	</Incremental update code>///////
 	
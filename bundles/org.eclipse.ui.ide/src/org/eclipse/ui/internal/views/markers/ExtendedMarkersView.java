@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2012 IBM Corporation and others.
+ * Copyright (c) 2007, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -1613,6 +1613,9 @@ public class ExtendedMarkersView extends ViewPart {
 		//viewer.setSelection(new StructuredSelection());
 		//viewer.removeAndClearAll();
 		createColumns(viewer.getTree().getColumns(), widths);
+		if (uiUpdateJob != null) {
+			uiUpdateJob.refreshAll();
+		}
 		scheduleUpdate(0L);
 	}
 
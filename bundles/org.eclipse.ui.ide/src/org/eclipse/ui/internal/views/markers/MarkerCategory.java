@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2011 IBM Corporation and others.
+ * Copyright (c) 2007, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -32,6 +32,13 @@ class MarkerCategory extends MarkerSupportItem {
 
 	private Markers markers;
 
+	// the entries the category was created over, kept so that the children
+	// stay valid after the markers moved on to a new array
+	private MarkerEntry[] entries;
+
+	// the update of the markers that last changed the category
+	int lastUpdate;
+
 	/**
 	 * Create a new instance of the receiver that has the markers between
 	 * startIndex and endIndex showing.
@@ -44,12 +51,25 @@ class MarkerCategory extends MarkerSupportItem {
 	MarkerCategory(Markers markers, int startIndex,
 			int endIndex, String categoryName) {
 		this.markers = markers;
+		entries = markers.getMarkerEntryArray();
+		lastUpdate = markers.getUpdateCount();
 		start = startIndex;
 		end = endIndex;
 		refreshing=false;
 		name = categoryName;
 	}
 
+	/**
+	 * Take over the state of a category of a previous update that has the
+	 * same entries as the receiver.
+	 * 
+	 * @param category
+	 */
+	void copyState(MarkerCategory category) {
+		lastUpdate = category.lastUpdate;
+		severity = category.severity;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -58,7 +78,7 @@ class MarkerCategory extends MarkerSupportItem {
 	 */
 	MarkerSupportItem[] getChildren() {
 		if (children == null) {
-			MarkerItem[] allMarkers = markers.getMarkerEntryArray();
+			MarkerItem[] allMarkers = entries;
 			int totalSize = getChildrenCount();
 			children = new MarkerEntry[totalSize];
 			System.arraycopy(allMarkers, start, children, 0, totalSize);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009 IBM Corporation and others.
+ * Copyright (c) 2009, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -176,6 +176,13 @@ class MarkerUpdateJob extends Job {
 		this.clean = true;
 	}
 
+	/**
+	 * Withdraw a clean request that is being taken care of
+	 */
+	void resetClean() {
+		this.clean = false;
+	}
+
 	/**
 	 * @return last update time
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2011 IBM Corporation and others.
+ * Copyright (c) 2009, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,7 +12,9 @@
 package org.eclipse.ui.internal.views.markers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -23,6 +25,7 @@ import java.util.TreeMap;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.ui.views.markers.MarkerItem;
 import org.eclipse.ui.views.markers.internal.MarkerGroup;
 import org.eclipse.ui.views.markers.internal.MarkerGroupingEntry;
@@ -44,6 +47,14 @@ class Markers {
 	private MarkerEntry[] markerEntryArray = EMPTY_ENTRY_ARRAY;
 	// the categories
 	private MarkerCategory[] categories = EMPTY_CATEGORY_ARRAY;
+	// the grouping entries of the categories, in the same order
+	private MarkerGroupingEntry[] groupingEntries = new MarkerGroupingEntry[0];
+
+	// incremented with every update of the entries
+	private int updateCount;
+	// the last update that changed the categories themselves, or the entries
+	// when they are not grouped
+	private int structureUpdate;
 
 	private CachedMarkerBuilder builder;
 
@@ -145,6 +156,7 @@ class Markers {
 		boolean initialVal = inChange;
 		try {
 			inChange = true;
+			structureUpdate = ++updateCount;
 			if (builder.isShowingHierarchy()) {
 				Comparator comparator = builder.getComparator()
 						.getFieldsComparator();
@@ -180,6 +192,271 @@ class Markers {
 		}
 	}
 
+	/**
+	 * Apply the changes of markers to the contained entries, keeping them
+	 * sorted and grouped without collecting all of the markers again. Only
+	 * the categories that contain changed markers are sorted again.
+	 * 
+	 * @param changes
+	 *            map from the changed {@link IMarker}s to their new
+	 *            {@link MarkerEntry}, or to <code>null</code> for removed
+	 *            markers
+	 * @return <code>true</code> if the entries changed
+	 */
+	synchronized boolean updateWithChanges(Map changes) {
+		if (changes.isEmpty()) {
+			return false;
+		}
+		boolean initialVal = inChange;
+		try {
+			inChange = true;
+			if (markerToEntryMap != null) {
+				markerToEntryMap.clear();
+				markerToEntryMap = null;
+			}
+			markerCounts = null;
+			updateCount++;
+			List added = new ArrayList();
+			Iterator iterator = changes.values().iterator();
+			while (iterator.hasNext()) {
+				MarkerEntry entry = (MarkerEntry) iterator.next();
+				if (entry != null) {
+					added.add(entry);
+				}
+			}
+			boolean grouped = categories.length > 0
+					|| markerEntryArray.length == 0;
+			if (grouped != builder.isShowingHierarchy()) {
+				// the entries are not arranged the way they are shown yet
+				MarkerEntry[] entries = new MarkerEntry[markerEntryArray.length
+						+ added.size()];
+				int count = 0;
+				for (int i = 0; i < markerEntryArray.length; i++) {
+					if (!changes.containsKey(markerEntryArray[i].getMarker())) {
+						entries[count++] = markerEntryArray[i];
+					}
+				}
+				for (int i = 0; i < added.size(); i++) {
+					entries[count++] = (MarkerEntry) added.get(i);
+				}
+				markerEntryArray = new MarkerEntry[count];
+				System.arraycopy(entries, 0, markerEntryArray, 0, count);
+				sortAndMakeCategories(new NullProgressMonitor());
+			} else if (builder.isShowingHierarchy()) {
+				updateCategories(changes, added);
+			} else {
+				MarkerEntry[] entries = mergeEntries(markerEntryArray, 0,
+						markerEntryArray.length - 1, changes, added,
+						builder.getComparator());
+				if (entries == null) {
+					return false;
+				}
+				markerEntryArray = entries;
+				structureUpdate = updateCount;
+			}
+			return true;
+		} finally {
+			inChange = initialVal;
+		}
+	}
+
+	/**
+	 * Update the categories with the changes, keeping the categories that
+	 * are not affected.
+	 * 
+	 * @param changes
+	 * @param added
+	 *            the new entries
+	 */
+	private void updateCategories(Map changes, List added) {
+		MarkerGroup group = builder.getCategoryGroup();
+		Comparator groupComparator = group.getEntriesComparator();
+		Comparator comparator = builder.getComparator().getFieldsComparator();
+
+		// the new entries by their category
+		TreeMap addedEntries = new TreeMap(groupComparator);
+		Iterator iterator = added.iterator();
+		while (iterator.hasNext()) {
+			MarkerEntry entry = (MarkerEntry) iterator.next();
+			IMarker marker = entry.getMarker();
+			try {
+				MarkerGroupingEntry groupingEntry = group.findGroupValue(
+						marker.getType(), marker);
+				List list = (List) addedEntries.get(groupingEntry);
+				if (list == null) {
+					list = new ArrayList();
+					addedEntries.put(groupingEntry, list);
+				}
+				list.add(entry);
+			} catch (CoreException e) {
+				entry.checkIfMarkerStale();
+			}
+		}
+
+		MarkerCategory[] oldCategories = categories;
+		MarkerEntry[] oldEntries = markerEntryArray;
+		List newGroupingEntries = new ArrayList(oldCategories.length
+				+ addedEntries.size());
+		List segments = new ArrayList(oldCategories.length
+				+ addedEntries.size());
+		List sources = new ArrayList(oldCategories.length
+				+ addedEntries.size());
+		boolean structureChanged = false;
+		int size = 0;
+		Iterator addedKeys = addedEntries.keySet().iterator();
+		MarkerGroupingEntry nextAdded = addedKeys.hasNext() ? (MarkerGroupingEntry) addedKeys
+				.next() : null;
+		int i = 0;
+		while (i < oldCategories.length || nextAdded != null) {
+			int compare;
+			if (i == oldCategories.length) {
+				compare = 1;
+			} else if (nextAdded == null) {
+				compare = -1;
+			} else {
+				compare = groupComparator.compare(groupingEntries[i],
+						nextAdded);
+			}
+			MarkerGroupingEntry groupingEntry;
+			MarkerCategory oldCategory = null;
+			List categoryAdded = Collections.EMPTY_LIST;
+			if (compare <= 0) {
+				groupingEntry = groupingEntries[i];
+				oldCategory = oldCategories[i++];
+			} else {
+				groupingEntry = nextAdded;
+			}
+			if (compare >= 0) {
+				categoryAdded = (List) addedEntries.get(nextAdded);
+				nextAdded = addedKeys.hasNext() ? (MarkerGroupingEntry) addedKeys
+						.next() : null;
+			}
+			MarkerEntry[] segment;
+			if (oldCategory == null) {
+				structureChanged = true;
+				segment = mergeEntries(oldEntries, 0, -1, changes,
+						categoryAdded, comparator);
+			} else {
+				segment = mergeEntries(oldEntries, oldCategory.start,
+						oldCategory.end, changes, categoryAdded, comparator);
+				if (segment == null) {
+					// unaffected, keep it as it is
+					segments.add(null);
+					sources.add(oldCategory);
+					newGroupingEntries.add(groupingEntry);
+					size += oldCategory.getChildrenCount();
+					continue;
+				}
+			}
+			if (segment.length == 0) {
+				structureChanged = true;
+				continue;
+			}
+			segments.add(segment);
+			sources.add(oldCategory);
+			newGroupingEntries.add(groupingEntry);
+			size += segment.length;
+		}
+
+		markerEntryArray = new MarkerEntry[size];
+		int start = 0;
+		for (int j = 0; j < segments.size(); j++) {
+			MarkerEntry[] segment = (MarkerEntry[]) segments.get(j);
+			MarkerCategory oldCategory = (MarkerCategory) sources.get(j);
+			if (segment == null) {
+				System.arraycopy(oldEntries, oldCategory.start,
+						markerEntryArray, start, oldCategory.getChildrenCount());
+				start += oldCategory.getChildrenCount();
+			} else {
+				System.arraycopy(segment, 0, markerEntryArray, start,
+						segment.length);
+				start += segment.length;
+			}
+		}
+		MarkerCategory[] newCategories = new MarkerCategory[segments.size()];
+		start = 0;
+		for (int j = 0; j < newCategories.length; j++) {
+			MarkerEntry[] segment = (MarkerEntry[]) segments.get(j);
+			MarkerCategory oldCategory = (MarkerCategory) sources.get(j);
+			int count = segment == null ? oldCategory.getChildrenCount()
+					: segment.length;
+			newCategories[j] = new MarkerCategory(this, start, start + count
+					- 1, group.getMarkerField().getValue(
+					markerEntryArray[start]));
+			if (segment == null) {
+				newCategories[j].copyState(oldCategory);
+			}
+			start += count;
+		}
+		categories = newCategories;
+		groupingEntries = (MarkerGroupingEntry[]) newGroupingEntries
+				.toArray(new MarkerGroupingEntry[newGroupingEntries.size()]);
+		if (structureChanged) {
+			structureUpdate = updateCount;
+		}
+	}
+
+	/**
+	 * Returns the entries in [start,end] whose markers did not change
+	 * together with the added entries, sorted the same way as
+	 * {@link #sortMarkerEntries(IProgressMonitor)} does.
+	 * 
+	 * @param entries
+	 * @param start
+	 * @param end
+	 * @param changes
+	 * @param added
+	 *            the new entries to add to the range
+	 * @param comparator
+	 * @return the new entries of the range, or <code>null</code> if they are
+	 *         not affected by the changes
+	 */
+	private MarkerEntry[] mergeEntries(MarkerEntry[] entries, int start,
+			int end, Map changes, List added, Comparator comparator) {
+		int oldCount = end - start + 1;
+		MarkerEntry[] kept = new MarkerEntry[oldCount];
+		int keptCount = 0;
+		for (int i = start; i <= end; i++) {
+			if (!changes.containsKey(entries[i].getMarker())) {
+				kept[keptCount++] = entries[i];
+			}
+		}
+		if (keptCount == oldCount && added.isEmpty()) {
+			return null;
+		}
+		MarkerEntry[] result = new MarkerEntry[keptCount + added.size()];
+		if (getShowingLimit(oldCount) < oldCount) {
+			// only the first entries are in order, sort the range again
+			System.arraycopy(kept, 0, result, 0, keptCount);
+			for (int i = 0; i < added.size(); i++) {
+				result[keptCount + i] = (MarkerEntry) added.get(i);
+			}
+			MarkerSortUtil.sortStartingKElement(result, comparator, 0,
+					result.length - 1, getShowingLimit(result.length),
+					new NullProgressMonitor());
+			return result;
+		}
+		// the kept entries are in order, merge in the sorted new ones
+		MarkerEntry[] newEntries = new MarkerEntry[added.size()];
+		added.toArray(newEntries);
+		Arrays.sort(newEntries, comparator);
+		int i = 0, j = 0, k = 0;
+		while (i < keptCount && j < newEntries.length) {
+			if (comparator.compare(newEntries[j], kept[i]) < 0) {
+				result[k++] = newEntries[j++];
+			} else {
+				result[k++] = kept[i++];
+			}
+		}
+		System.arraycopy(kept, i, result, k, keptCount - i);
+		System.arraycopy(newEntries, j, result, k + keptCount - i,
+				newEntries.length - j);
+		for (i = 0; i < newEntries.length; i++) {
+			newEntries[i].clearCache();
+		}
+		return result;
+	}
+
 	/**
 	 * get marker limit to show, if any.
 	 * 
@@ -214,11 +491,13 @@ class Markers {
 		int start = 0;
 		MarkerCategory[] markerCategories = new MarkerCategory[boundaryInfoMap
 				.size()];
+		groupingEntries = new MarkerGroupingEntry[markerCategories.length];
 		int i = 0;
 		int end = 0;
 		while (iterator.hasNext()) {
 			Object key = iterator.next();
 			end = ((Integer) boundaryInfoMap.get(key)).intValue();
+			groupingEntries[i] = (MarkerGroupingEntry) key;
 			markerCategories[i++] = new MarkerCategory(this, start, end,
 					builder.getCategoryGroup().getMarkerField()
 							.getValue(newMarkers[start]));
@@ -392,10 +671,28 @@ class Markers {
 		if (!inChange) {
 			markers.markerEntryArray = markerEntryArray;
 			markers.categories = categories;
+			markers.groupingEntries = groupingEntries;
+			markers.updateCount = updateCount;
+			markers.structureUpdate = structureUpdate;
 		}
 		return markers;
 	}
 
+	/**
+	 * @return Returns the number of updates of the entries so far.
+	 */
+	int getUpdateCount() {
+		return updateCount;
+	}
+
+	/**
+	 * @return Returns the last update that changed the categories, or the
+	 *         entries when they are not grouped.
+	 */
+	int getStructureUpdate() {
+		return structureUpdate;
+	}
+
 	/**
 	 * @return Returns true if markers are changing.
 	 */
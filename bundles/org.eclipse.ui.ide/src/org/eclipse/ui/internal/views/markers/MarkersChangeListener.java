@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009 IBM Corporation and others.
+ * Copyright (c) 2009, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -186,8 +186,9 @@ class MarkersChangeListener implements IResourceChangeListener {
 	 * operations cannot be locked so locking between gathering of markers and
 	 * marker deltas is not possible.
 	 * 
-	 * Note : this method of updating is NOT used and tested yet and has holes
-	 * but left out SOLELY for further investigation(*).
+	 * The deltas are queued and applied by the {@link IncrementUpdateJob};
+	 * applying a delta to markers that were gathered after it happened does
+	 * no harm.
 	 * 
 	 * @param event
 	 */
@@ -534,6 +535,18 @@ class MarkerUpdateScheduler {
 	 * Schedule marker update.
 	 */
 	void scheduleUpdate(long delay, boolean cancelPrevious) {
+		scheduleUpdate(delay, cancelPrevious, true);
+	}
+
+	/**
+	 * Schedule marker update.
+	 * 
+	 * @param clean
+	 *            <code>false</code> if applying the queued marker deltas
+	 *            suffices
+	 */
+	private void scheduleUpdate(long delay, boolean cancelPrevious,
+			boolean clean) {
 		//we do not need to make this atomic (?)
 		builder.setBuilding(true);
 		if (cancelPrevious) {
@@ -541,7 +554,7 @@ class MarkerUpdateScheduler {
 			cancelUpdate();
 		}
 		// indicateStatus(MarkerMessages.MarkerView_queueing_updates, true);
-		updateJob = builder.scheduleUpdateJob(delay, true);
+		updateJob = builder.scheduleUpdateJob(delay, clean);
 		// updateTimer.reset();
 	}
 
@@ -808,7 +821,9 @@ class MarkerUpdateScheduler {
 
 		private void go(long delay, boolean cancelPrevious) {
 			timeB4Update = System.currentTimeMillis() + delay;
-			scheduleUpdate(delay + AFTER_MARGIN, cancelPrevious);
+			// marker changes are queued when updating incrementally
+			scheduleUpdate(delay + AFTER_MARGIN, cancelPrevious,
+					!builder.isIncremental());
 		}
 	}
 }
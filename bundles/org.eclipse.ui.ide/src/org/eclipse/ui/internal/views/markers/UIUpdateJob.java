@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2010 IBM Corporation and others.
+ * Copyright (c) 2009, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -36,6 +36,9 @@ class UIUpdateJob extends WorkbenchJob {
 
 	private long lastUpdateTime=-1;
 
+	// the update of the markers shown last
+	private int shownUpdate = -1;
+
 	/**
 	 * @param view
 	 *            the markers view base class
@@ -103,9 +106,22 @@ class UIUpdateJob extends WorkbenchJob {
 			 * have to show correct marker counts on UI, not an updating message.
 			 */
 			IContentProvider contentProvider = viewer.getContentProvider();
-			contentProvider.inputChanged(viewer, view.getViewerInput(), clone);
+			Markers input = view.getViewerInput();
+			contentProvider.inputChanged(viewer, input, clone);
 			viewer.getTree().setRedraw(false);
-			viewer.refresh(true);
+			if (input != null && view.getBuilder().isShowingHierarchy()
+					&& clone.getStructureUpdate() <= shownUpdate) {
+				// same categories as shown, refresh the changed ones only
+				MarkerCategory[] categories = clone.getCategories();
+				for (int i = 0; i < categories.length; i++) {
+					if (categories[i].lastUpdate > shownUpdate) {
+						viewer.refresh(categories[i], true);
+					}
+				}
+			} else {
+				viewer.refresh(true);
+			}
+			shownUpdate = clone.getUpdateCount();
 			if (!monitor.isCanceled()) {
 				//do not expand if canceled
 				view.reexpandCategories();
@@ -127,6 +143,14 @@ class UIUpdateJob extends WorkbenchJob {
 		return Status.OK_STATUS;
 	}
 
+	/**
+	 * Refresh all of the viewer on the next run, not only the categories that
+	 * changed since.
+	 */
+	void refreshAll() {
+		shownUpdate = -1;
+	}
+
 	/**
 	 * @return Returns true if updating.
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -55,6 +55,8 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 
     private boolean createLeadupStructure = true;
 
+    private FileContentsPrefetcher prefetcher;
+
     /**
      *	Create an instance of this class.  Use this constructor if you wish to
      *	export specific resources without a common parent resource
@@ -195,7 +197,9 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
             monitor.subTask(destinationName);
 
             try {
-                exporter.write((IFile) exportResource, destinationName);
+                byte[] contents = prefetcher == null ? null : prefetcher
+                        .take((IFile) exportResource);
+                exporter.write((IFile) exportResource, destinationName, contents);
             } catch (IOException e) {
                 addError(NLS.bind(DataTransferMessages.DataTransfer_errorExporting, exportResource.getFullPath().makeRelative(), e.getMessage()), e);
             } catch (CoreException e) {
@@ -230,6 +234,32 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
         }
     }
 
+    /**
+     *  Add the accessible files at or below the passed resource to the passed
+     *  list, in the order they are exported.
+     *
+     *  @param checkResource org.eclipse.core.resources.IResource
+     *  @param files java.util.List
+     */
+    private void collectFiles(IResource checkResource, List files) {
+        if (!checkResource.isAccessible()) {
+			return;
+		}
+
+        if (checkResource.getType() == IResource.FILE) {
+            files.add(checkResource);
+        } else {
+            try {
+                IResource[] children = ((IContainer) checkResource).members();
+                for (int i = 0; i < children.length; i++) {
+					collectFiles(children[i], files);
+				}
+            } catch (CoreException e) {
+                // reported when the resource is exported
+            }
+        }
+    }
+
     /**
      *	Export the resources contained in the previously-defined
      *	resourcesToExport collection
@@ -323,11 +353,31 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
                 // Should not happen
             }
             monitor.beginTask(DataTransferMessages.DataTransfer_exportingTitle, totalWork);
+
+            // read the files ahead while the archive is being written
+            List files = new ArrayList();
             if (resourcesToExport == null) {
-                exportResource(resource);
+                collectFiles(resource, files);
             } else {
-                // ie.- a list of specific resources to export was specified
-                exportSpecifiedResources();
+                Iterator resources = resourcesToExport.iterator();
+                while (resources.hasNext()) {
+                    collectFiles((IResource) resources.next(), files);
+                }
+            }
+            prefetcher = new FileContentsPrefetcher((IFile[]) files
+                    .toArray(new IFile[files.size()]));
+            prefetcher.start();
+
+            try {
+                if (resourcesToExport == null) {
+                    exportResource(resource);
+                } else {
+                    // ie.- a list of specific resources to export was specified
+                    exportSpecifiedResources();
+                }
+            } finally {
+                prefetcher.stop();
+                prefetcher = null;
             }
 
             try {
@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.wizards.datatransfer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * Reads the contents of the files to export ahead of the exporter, on several
+ * background jobs, so that reading files overlaps with compressing and
+ * writing the archive. The contents are handed out in the order of the files.
+ * <p>
+ * Only files up to {@link #MAX_FILE_SIZE} bytes are read ahead, and no more
+ * than {@link #MAX_BUFFERED_SIZE} bytes are held at a time. Larger files are
+ * left to the exporter, which streams them as before.
+ * </p>
+ *
+ * @since 3.9
+ */
+class FileContentsPrefetcher {
+
+	/**
+	 * The size of the largest file read ahead.
+	 */
+	static final int MAX_FILE_SIZE = 1024 * 1024;
+
+	/**
+	 * The number of bytes read ahead after which the readers wait for the
+	 * exporter to catch up.
+	 */
+	static final long MAX_BUFFERED_SIZE = 16 * 1024 * 1024;
+
+	private static final int MAX_READERS = 4;
+
+	private final IFile[] files;
+
+	/**
+	 * The contents of each file: a <code>byte[]</code>, the exception that
+	 * occurred while reading the file, or <code>null</code> if the file was
+	 * not read ahead.
+	 */
+	private final Object[] contents;
+
+	private final boolean[] done;
+
+	private int nextToRead;
+
+	private int nextToTake;
+
+	private long bufferedSize;
+
+	private boolean stopped;
+
+	/**
+	 * Creates a prefetcher for the given files.
+	 *
+	 * @param files
+	 *            the files in the order their contents will be taken
+	 */
+	FileContentsPrefetcher(IFile[] files) {
+		this.files = files;
+		contents = new Object[files.length];
+		done = new boolean[files.length];
+	}
+
+	/**
+	 * Starts reading the files in the background.
+	 */
+	void start() {
+		int readers = Math.min(MAX_READERS, Math.min(files.length, Runtime
+				.getRuntime().availableProcessors()));
+		for (int i = 0; i < readers; i++) {
+			Job job = new Job(DataTransferMessages.DataTransfer_exportingTitle) {
+				protected IStatus run(IProgressMonitor monitor) {
+					readFiles(monitor);
+					return Status.OK_STATUS;
+				}
+
+				public boolean belongsTo(Object family) {
+					return family == FileContentsPrefetcher.this;
+				}
+			};
+			job.setSystem(true);
+			job.schedule();
+		}
+	}
+
+	/**
+	 * Stops reading files and releases the contents not taken yet.
+	 */
+	void stop() {
+		synchronized (this) {
+			stopped = true;
+			for (int i = nextToTake; i < contents.length; i++) {
+				contents[i] = null;
+			}
+			notifyAll();
+		}
+		Job.getJobManager().cancel(this);
+	}
+
+	/**
+	 * Returns the contents of the next file, waiting for them to be read if
+	 * needed. The contents must be taken in the order of the files given to
+	 * the constructor.
+	 *
+	 * @param file
+	 *            the file, used to check the order
+	 * @return the contents or <code>null</code> if the file was not read
+	 *         ahead and should be read by the caller
+	 * @throws IOException
+	 *             if reading the file failed
+	 * @throws CoreException
+	 *             if reading the file failed
+	 * @throws InterruptedException
+	 *             if the thread was interrupted while waiting
+	 */
+	synchronized byte[] take(IFile file) throws IOException, CoreException,
+			InterruptedException {
+		if (nextToTake >= files.length || !files[nextToTake].equals(file)) {
+			return null;
+		}
+		int index = nextToTake++;
+		while (!done[index] && !stopped) {
+			wait();
+		}
+		Object result = contents[index];
+		contents[index] = null;
+		if (result instanceof byte[]) {
+			bufferedSize -= ((byte[]) result).length;
+			notifyAll();
+			return (byte[]) result;
+		}
+		if (result instanceof CoreException) {
+			throw (CoreException) result;
+		}
+		if (result instanceof IOException) {
+			throw (IOException) result;
+		}
+		return null;
+	}
+
+	private void readFiles(IProgressMonitor monitor) {
+		while (!monitor.isCanceled()) {
+			int index;
+			synchronized (this) {
+				while (!stopped && nextToRead < files.length
+						&& bufferedSize >= MAX_BUFFERED_SIZE) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (stopped || nextToRead >= files.length) {
+					return;
+				}
+				index = nextToRead++;
+			}
+
+			Object result;
+			try {
+				result = read(files[index]);
+			} catch (IOException e) {
+				result = e;
+			} catch (CoreException e) {
+				result = e;
+			}
+
+			synchronized (this) {
+				if (!stopped) {
+					contents[index] = result;
+					if (result instanceof byte[]) {
+						bufferedSize += ((byte[]) result).length;
+					}
+				}
+				done[index] = true;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Reads the whole contents of the given file, unless it is too large or
+	 * changes while being read.
+	 */
+	private static byte[] read(IFile file) throws IOException, CoreException {
+		URI location = file.getLocationURI();
+		if (location == null) {
+			return null;
+		}
+		long length = EFS.getStore(location).fetchInfo().getLength();
+		if (length < 0 || length > MAX_FILE_SIZE) {
+			return null;
+		}
+
+		byte[] buffer = new byte[(int) length];
+		InputStream contentStream = file.getContents(false);
+		try {
+			int offset = 0;
+			int n;
+			while (offset < buffer.length
+					&& (n = contentStream.read(buffer, offset, buffer.length
+							- offset)) > 0) {
+				offset += n;
+			}
+			if (offset != buffer.length || contentStream.read() != -1) {
+				// the file changed since its length was fetched
+				return null;
+			}
+		} finally {
+			contentStream.close();
+		}
+		return buffer;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2009 IBM Corporation and others.
+ * Copyright (c) 2004, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -53,4 +53,19 @@ public interface IFileExporter {
     public void write(IFile resource, String destinationPath)
     	throws IOException, CoreException;
 
+	/**
+	 * Write the passed resource to the current archive, using contents that
+	 * were already read from it.
+	 * 
+	 * @param resource
+	 * @param destinationPath
+	 * @param contents the contents of the resource, or <code>null</code> to
+	 *            read them from the resource
+	 * @throws IOException
+	 * @throws CoreException
+	 * @since 3.9
+	 */
+    public void write(IFile resource, String destinationPath, byte[] contents)
+    	throws IOException, CoreException;
+
 }
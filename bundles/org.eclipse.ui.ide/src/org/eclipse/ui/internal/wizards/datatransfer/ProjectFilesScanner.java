@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.wizards.datatransfer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.ui.internal.ide.StatusUtil;
+import org.eclipse.ui.statushandlers.StatusManager;
+
+/**
+ * Searches a directory tree for project description files on several
+ * background jobs. The files found are handed out while the search goes on,
+ * so that they can be shown before the whole tree has been searched.
+ * <p>
+ * Each directory is listed by one job, which queues its sub-directories for
+ * any job to pick up. Workspace metadata and version control folders are not
+ * searched, and directories reached again through symbolic links are skipped.
+ * </p>
+ * <p>
+ * Declared public for the test suite only.
+ * </p>
+ *
+ * @since 3.9
+ */
+public class ProjectFilesScanner {
+
+	/**
+	 * The names of the folders that are not searched.
+	 */
+	private static final Set PRUNED_FOLDERS = new HashSet(Arrays
+			.asList(new String[] { WizardProjectsImportPage.METADATA_FOLDER,
+					".git", ".hg", ".svn", ".bzr", "CVS" })); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+	private static final int MAX_SCANNERS = 8;
+
+	private final File root;
+
+	private final boolean nestedProjects;
+
+	/**
+	 * The directories waiting to be listed.
+	 */
+	private final LinkedList queue = new LinkedList();
+
+	/**
+	 * The canonical paths of the directories queued so far, used as recursion
+	 * guard for recursive symbolic links.
+	 */
+	private final Set directoriesVisited = new HashSet();
+
+	/**
+	 * The project description files found and not taken yet.
+	 */
+	private List found = new ArrayList();
+
+	/**
+	 * The number of directories queued or being listed.
+	 */
+	private int pending;
+
+	private File currentDirectory;
+
+	private boolean canceled;
+
+	/**
+	 * Creates a scanner for the given directory.
+	 *
+	 * @param root
+	 *            the directory to search
+	 * @param nestedProjects
+	 *            whether to search the sub-directories of the projects found
+	 */
+	public ProjectFilesScanner(File root, boolean nestedProjects) {
+		this.root = root;
+		this.nestedProjects = nestedProjects;
+		currentDirectory = root;
+	}
+
+	/**
+	 * Starts searching in the background.
+	 */
+	public void start() {
+		try {
+			directoriesVisited.add(root.getCanonicalPath());
+		} catch (IOException exception) {
+			StatusManager.getManager().handle(
+					StatusUtil.newStatus(IStatus.ERROR, exception
+							.getLocalizedMessage(), exception));
+		}
+		synchronized (this) {
+			queue.add(root);
+			pending = 1;
+		}
+
+		int scanners = Math.min(MAX_SCANNERS, Runtime.getRuntime()
+				.availableProcessors() * 2);
+		for (int i = 0; i < scanners; i++) {
+			Job job = new Job(
+					DataTransferMessages.WizardProjectsImportPage_SearchingMessage) {
+				protected IStatus run(IProgressMonitor monitor) {
+					scan(monitor);
+					return Status.OK_STATUS;
+				}
+
+				public boolean belongsTo(Object family) {
+					return family == ProjectFilesScanner.this;
+				}
+			};
+			job.setSystem(true);
+			job.schedule();
+		}
+	}
+
+	/**
+	 * Stops searching.
+	 */
+	public void cancel() {
+		synchronized (this) {
+			canceled = true;
+			queue.clear();
+			notifyAll();
+		}
+		Job.getJobManager().cancel(this);
+	}
+
+	/**
+	 * Returns the project description files found since the last call,
+	 * waiting up to the given time for new ones.
+	 *
+	 * @param timeout
+	 *            the time to wait in milliseconds
+	 * @return the files found, possibly none, or <code>null</code> if the
+	 *         search is over and all the files have been taken
+	 * @throws InterruptedException
+	 *             if the thread was interrupted while waiting
+	 */
+	public synchronized File[] takeProjectFiles(long timeout)
+			throws InterruptedException {
+		long end = System.currentTimeMillis() + timeout;
+		long remaining = timeout;
+		while (found.isEmpty() && pending > 0 && !canceled && remaining > 0) {
+			wait(remaining);
+			remaining = end - System.currentTimeMillis();
+		}
+		if (found.isEmpty() && (pending == 0 || canceled)) {
+			return null;
+		}
+		File[] files = (File[]) found.toArray(new File[found.size()]);
+		found = new ArrayList();
+		return files;
+	}
+
+	/**
+	 * Returns a directory being searched, for progress reporting.
+	 *
+	 * @return the directory
+	 */
+	public synchronized File getCurrentDirectory() {
+		return currentDirectory;
+	}
+
+	private void scan(IProgressMonitor monitor) {
+		while (!monitor.isCanceled()) {
+			File directory;
+			synchronized (this) {
+				while (queue.isEmpty() && pending > 0 && !canceled) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (queue.isEmpty()) {
+					return;
+				}
+				directory = (File) queue.removeFirst();
+				currentDirectory = directory;
+			}
+
+			try {
+				scanDirectory(directory);
+			} finally {
+				synchronized (this) {
+					pending--;
+					notifyAll();
+				}
+			}
+		}
+	}
+
+	private void scanDirectory(File directory) {
+		File[] contents = directory.listFiles();
+		if (contents == null) {
+			return;
+		}
+
+		// first look for project description files
+		final String dotProject = IProjectDescription.DESCRIPTION_FILE_NAME;
+		for (int i = 0; i < contents.length; i++) {
+			File file = contents[i];
+			if (file.isFile() && file.getName().equals(dotProject)) {
+				synchronized (this) {
+					found.add(file);
+					notifyAll();
+				}
+				if (!nestedProjects) {
+					// don't search sub-directories since we can't have nested
+					// projects
+					return;
+				}
+			}
+		}
+		// no project description found or search for nested projects enabled,
+		// so queue the sub-directories
+		for (int i = 0; i < contents.length; i++) {
+			if (contents[i].isDirectory()
+					&& !PRUNED_FOLDERS.contains(contents[i].getName())) {
+				String canonicalPath = null;
+				try {
+					canonicalPath = contents[i].getCanonicalPath();
+				} catch (IOException exception) {
+					StatusManager.getManager().handle(
+							StatusUtil.newStatus(IStatus.ERROR, exception
+									.getLocalizedMessage(), exception));
+				}
+				synchronized (this) {
+					if (canceled) {
+						return;
+					}
+					if (canonicalPath != null
+							&& !directoriesVisited.add(canonicalPath)) {
+						// already been here --> do not recurse
+						continue;
+					}
+					queue.add(contents[i]);
+					pending++;
+					notifyAll();
+				}
+			}
+		}
+	}
+}
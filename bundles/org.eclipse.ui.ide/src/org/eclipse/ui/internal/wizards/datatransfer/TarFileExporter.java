@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -123,7 +123,23 @@ public class TarFileExporter implements IFileExporter {
      */
     public void write(IFile resource, String destinationPath)
             throws IOException, CoreException {
+        write(createEntry(resource, destinationPath), resource);
+    }
+
+    public void write(IFile resource, String destinationPath, byte[] contents)
+            throws IOException, CoreException {
+        if (contents == null) {
+            write(resource, destinationPath);
+            return;
+        }
+        TarEntry newEntry = createEntry(resource, destinationPath);
+        newEntry.setSize(contents.length);
+        outputStream.putNextEntry(newEntry);
+        outputStream.write(contents);
+        outputStream.closeEntry();
+    }
 
+    private TarEntry createEntry(IFile resource, String destinationPath) {
         TarEntry newEntry = new TarEntry(destinationPath);
         if(resource.getLocalTimeStamp() != IResource.NULL_STAMP) {
         	newEntry.setTime(resource.getLocalTimeStamp() / 1000);
@@ -135,6 +151,6 @@ public class TarFileExporter implements IFileExporter {
         if (attributes != null && attributes.isReadOnly()) {
         	newEntry.setMode(newEntry.getMode() & ~0222);
         }
-        write(newEntry, resource);
+        return newEntry;
     }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2013 IBM Corporation and others.
+ * Copyright (c) 2004, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -29,10 +29,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
@@ -80,6 +78,7 @@ import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.DirectoryDialog;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.FileDialog;
@@ -92,8 +91,6 @@ import org.eclipse.ui.actions.WorkspaceModifyOperation;
 import org.eclipse.ui.dialogs.WizardDataTransferPage;
 import org.eclipse.ui.dialogs.WorkingSetGroup;
 import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
-import org.eclipse.ui.internal.ide.StatusUtil;
-import org.eclipse.ui.statushandlers.StatusManager;
 import org.eclipse.ui.wizards.datatransfer.FileSystemStructureProvider;
 import org.eclipse.ui.wizards.datatransfer.ImportOperation;
 
@@ -358,6 +355,10 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 	private static final String[] FILE_IMPORT_MASK = {
 			"*.jar;*.zip;*.tar;*.tar.gz;*.tgz", "*.*" }; //$NON-NLS-1$ //$NON-NLS-2$
 
+	// The delay between updates of the projects list while searching a
+	// directory
+	private static final long PROJECTS_UPDATE_DELAY = 200;
+
 	// The initial path to set
 	private String initialPath;
 	
@@ -1017,21 +1018,12 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 
 					else if (dirSelected && directory.isDirectory()) {
 
-						if (!collectProjectFilesFromDirectory(files, directory,
-								null, monitor)) {
+						if (!collectProjectsFromDirectory(directory, monitor)) {
+							showFoundProjects(new ProjectRecord[0],
+									new ProjectRecord[0]);
 							return;
 						}
-						Iterator filesIterator = files.iterator();
-						selectedProjects = new ProjectRecord[files.size()];
-						int index = 0;
 						monitor.worked(50);
-						monitor
-								.subTask(DataTransferMessages.WizardProjectsImportPage_ProcessingMessage);
-						while (filesIterator.hasNext()) {
-							File file = (File) filesIterator.next();
-							selectedProjects[index] = new ProjectRecord(file);
-							index++;
-						}
 					} else {
 						monitor.worked(60);
 					}
@@ -1115,77 +1107,76 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 	}
 
 	/**
-	 * Collect the list of .project files that are under directory into files.
+	 * Collect the projects whose .project files are under directory into
+	 * selectedProjects. The directory tree is searched in the background and
+	 * the projects are shown in the list as they are found; selectedProjects
+	 * is only updated from the UI thread.
 	 * 
-	 * @param files
 	 * @param directory
-	 * @param directoriesVisited
-	 * 		Set of canonical paths of directories, used as recursion guard
 	 * @param monitor
 	 * 		The monitor to report to
 	 * @return boolean <code>true</code> if the operation was completed.
 	 */
-	private boolean collectProjectFilesFromDirectory(Collection files,
-			File directory, Set directoriesVisited, IProgressMonitor monitor) {
-
-		if (monitor.isCanceled()) {
-			return false;
-		}
-		monitor.subTask(NLS.bind(
-				DataTransferMessages.WizardProjectsImportPage_CheckingMessage,
-				directory.getPath()));
-		File[] contents = directory.listFiles();
-		if (contents == null)
-			return false;
-
-		// Initialize recursion guard for recursive symbolic links
-		if (directoriesVisited == null) {
-			directoriesVisited = new HashSet();
-			try {
-				directoriesVisited.add(directory.getCanonicalPath());
-			} catch (IOException exception) {
-				StatusManager.getManager().handle(
-						StatusUtil.newStatus(IStatus.ERROR, exception
-								.getLocalizedMessage(), exception));
-			}
-		}
-
-		// first look for project description files
-		final String dotProject = IProjectDescription.DESCRIPTION_FILE_NAME;
-		for (int i = 0; i < contents.length; i++) {
-			File file = contents[i];
-			if (file.isFile() && file.getName().equals(dotProject)) {
-				files.add(file);
-				if (!nestedProjects) {
-					// don't search sub-directories since we can't have nested
-					// projects
+	private boolean collectProjectsFromDirectory(File directory,
+			IProgressMonitor monitor) {
+		ProjectFilesScanner scanner = new ProjectFilesScanner(directory,
+				nestedProjects);
+		scanner.start();
+		try {
+			List records = new ArrayList();
+			while (!monitor.isCanceled()) {
+				File[] files = scanner.takeProjectFiles(PROJECTS_UPDATE_DELAY);
+				if (files == null) {
 					return true;
 				}
+				monitor.subTask(NLS.bind(
+						DataTransferMessages.WizardProjectsImportPage_CheckingMessage,
+						scanner.getCurrentDirectory().getPath()));
+				if (files.length > 0) {
+					ProjectRecord[] found = new ProjectRecord[files.length];
+					for (int i = 0; i < files.length; i++) {
+						found[i] = new ProjectRecord(files[i]);
+						records.add(found[i]);
+					}
+					showFoundProjects((ProjectRecord[]) records
+							.toArray(new ProjectRecord[records.size()]), found);
+				}
 			}
+		} catch (InterruptedException e) {
+			// treated as a cancellation
+		} finally {
+			scanner.cancel();
 		}
-		// no project description found or search for nested projects enabled,
-		// so recurse into sub-directories
-		for (int i = 0; i < contents.length; i++) {
-			if (contents[i].isDirectory()) {
-				if (!contents[i].getName().equals(METADATA_FOLDER)) {
-					try {
-						String canonicalPath = contents[i].getCanonicalPath();
-						if (!directoriesVisited.add(canonicalPath)) {
-							// already been here --> do not recurse
-							continue;
-						}
-					} catch (IOException exception) {
-						StatusManager.getManager().handle(
-								StatusUtil.newStatus(IStatus.ERROR, exception
-										.getLocalizedMessage(), exception));
+		return false;
+	}
 
+	/**
+	 * Show the projects found so far while the search goes on. The projects
+	 * are handed over to the UI thread, which is the only one to read
+	 * selectedProjects while the search runs.
+	 * 
+	 * @param projects
+	 * 		All the projects found so far
+	 * @param found
+	 * 		The projects found since the last update
+	 */
+	private void showFoundProjects(final ProjectRecord[] projects,
+			final ProjectRecord[] found) {
+		final Control control = projectsList.getControl();
+		control.getDisplay().asyncExec(new Runnable() {
+			public void run() {
+				if (control.isDisposed()) {
+					return;
+				}
+				selectedProjects = projects;
+				projectsList.refresh(true);
+				for (int i = 0; i < found.length; i++) {
+					if (!found[i].hasConflicts) {
+						projectsList.setChecked(found[i], true);
 					}
-					collectProjectFilesFromDirectory(files, contents[i],
-							directoriesVisited, monitor);
 				}
 			}
-		}
-		return true;
+		});
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.wizards.datatransfer;
 
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -39,7 +40,7 @@ public class ZipFileExporter implements IFileExporter {
      *	@exception java.io.IOException
      */
     public ZipFileExporter(String filename, boolean compress) throws IOException {
-        outputStream = new ZipOutputStream(new FileOutputStream(filename));
+        outputStream = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
         useCompression = compress;
     }
 
@@ -106,6 +107,34 @@ public class ZipFileExporter implements IFileExporter {
         outputStream.closeEntry();
     }
 
+    /**
+     *	Write the contents already read from a file to the zip archive.
+     *
+     *	@param entry
+     *	@param resource
+     *	@param contents
+     *  @exception java.io.IOException
+     */
+    private void write(ZipEntry entry, IFile resource, byte[] contents) throws IOException {
+        // The checksum of stored entries is computed from the same bytes
+        // rather than by reading the file twice.
+        if (!useCompression) {
+            entry.setMethod(ZipEntry.STORED);
+            CRC32 checksumCalculator = new CRC32();
+            checksumCalculator.update(contents);
+            entry.setSize(contents.length);
+            entry.setCrc(checksumCalculator.getValue());
+        }
+
+        long localTimeStamp = resource.getLocalTimeStamp();
+        if(localTimeStamp != IResource.NULL_STAMP)
+        	entry.setTime(localTimeStamp);
+
+        outputStream.putNextEntry(entry);
+        outputStream.write(contents);
+        outputStream.closeEntry();
+    }
+
     public void write(IContainer container, String destinationPath)
             throws IOException {
         ZipEntry newEntry = new ZipEntry(destinationPath);
@@ -125,4 +154,13 @@ public class ZipFileExporter implements IFileExporter {
         ZipEntry newEntry = new ZipEntry(destinationPath);
         write(newEntry, resource);
     }
+
+    public void write(IFile resource, String destinationPath, byte[] contents)
+            throws IOException, CoreException {
+        if (contents == null) {
+            write(resource, destinationPath);
+        } else {
+            write(new ZipEntry(destinationPath), resource, contents);
+        }
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2010 IBM Corporation and others.
+ * Copyright (c) 2009, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,8 +11,10 @@
 
 package org.eclipse.ui.internal.navigator;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 
 import org.eclipse.ui.navigator.INavigatorContentDescriptor;
 
@@ -32,6 +34,9 @@ public class ContributorTrackingSet extends LinkedHashSet {
 	private INavigatorContentDescriptor contributor;
 	private INavigatorContentDescriptor firstClassContributor;
 	private NavigatorContentService contentService;
+	// the contributions to remember or forget later, or null if the content
+	// service is told about them right away
+	private List deferredContributions;
 	
 	/**
 	 * Construct a tracking set.
@@ -58,13 +63,13 @@ public class ContributorTrackingSet extends LinkedHashSet {
 	
 	public boolean add(Object o) { 
 		if (contributor != null) {
-			contentService.rememberContribution(contributor, firstClassContributor, o);
+			rememberContribution(contributor, firstClassContributor, o);
 		}
 		return super.add(o);
 	}
 	
 	public boolean remove(Object o) { 
-		contentService.forgetContribution(o);
+		forgetContribution(o);
 		return super.remove(o);
 	}
 
@@ -72,10 +77,55 @@ public class ContributorTrackingSet extends LinkedHashSet {
 	public void clear() { 
 		Iterator it = iterator();
 		while (it.hasNext())
-			contentService.forgetContribution(it.next());
+			forgetContribution(it.next());
 		super.clear();
 	}
 
+	/**
+	 * Record the contributions of the following adds and removes instead of
+	 * passing them to the content service, until
+	 * {@link #rememberContributions()} is called. This allows to collect the
+	 * children of several extensions in parallel and still remember which
+	 * extension contributed an element in the order of the extensions.
+	 */
+	public void deferContributions() {
+		deferredContributions = new ArrayList();
+	}
+
+	/**
+	 * Pass the contributions recorded since {@link #deferContributions()} to
+	 * the content service, in the order they were made.
+	 */
+	public void rememberContributions() {
+		List contributions = deferredContributions;
+		deferredContributions = null;
+		if (contributions == null)
+			return;
+		for (Iterator it = contributions.iterator(); it.hasNext();) {
+			Object[] contribution = (Object[]) it.next();
+			if (contribution[0] == null)
+				forgetContribution(contribution[2]);
+			else
+				rememberContribution((INavigatorContentDescriptor) contribution[0],
+						(INavigatorContentDescriptor) contribution[1], contribution[2]);
+		}
+	}
+
+	private void rememberContribution(INavigatorContentDescriptor source,
+			INavigatorContentDescriptor firstClassSource, Object element) {
+		if (deferredContributions != null)
+			deferredContributions.add(new Object[] { source, firstClassSource, element });
+		else
+			contentService.rememberContribution(source, firstClassSource, element);
+	}
+
+	private void forgetContribution(Object element) {
+		if (deferredContributions != null)
+			deferredContributions.add(new Object[] { null, null, element });
+		else
+			contentService.forgetContribution(element);
+	}
+
 	/**
 	 * 
 	 * @return The current contributor.
@@ -130,7 +180,7 @@ public class ContributorTrackingSet extends LinkedHashSet {
 
 			public void remove() {
 				delegateIterator.remove();
-				contentService.forgetContribution(current);
+				forgetContribution(current);
 			}
 		};
 	}
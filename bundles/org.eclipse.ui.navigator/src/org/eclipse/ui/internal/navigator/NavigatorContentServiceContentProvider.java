@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2011 IBM Corporation and others.
+ * Copyright (c) 2003, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -22,9 +22,19 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SafeRunner;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.jface.viewers.AbstractTreeViewer;
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.ITreePathContentProvider;
+import org.eclipse.jface.viewers.ITreeViewerListener;
+import org.eclipse.jface.viewers.TreeExpansionEvent;
 import org.eclipse.jface.viewers.TreePath;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.osgi.util.NLS;
@@ -37,6 +47,8 @@ import org.eclipse.ui.navigator.INavigatorContentDescriptor;
 import org.eclipse.ui.navigator.INavigatorViewerDescriptor;
 import org.eclipse.ui.navigator.IPipelinedTreeContentProvider;
 import org.eclipse.ui.navigator.OverridePolicy;
+import org.eclipse.ui.progress.PendingUpdateAdapter;
+import org.eclipse.ui.progress.UIJob;
 
 /**
  * <p>
@@ -53,6 +65,16 @@ import org.eclipse.ui.navigator.OverridePolicy;
  * functionality (filters, sorting, etc) may choose to use this class, in effect
  * using an extensible, aggregating, delegate content provider.
  * </p>
+ * <p>
+ * If the viewer descriptor sets
+ * {@link NavigatorViewerDescriptor#PROP_COMPUTE_CHILDREN_IN_BACKGROUND}, the
+ * children of an element the user expands for the first time are computed in
+ * the background: a pending placeholder is returned right away and replaced by
+ * the children once every extension has contributed. Children asked for in any
+ * other way, such as by a refresh or a programmatic expansion, are computed
+ * right away so that the viewer can rely on them. The content providers of the
+ * extensions must tolerate being called outside of the UI thread.
+ * </p>
  * 
  * @see org.eclipse.ui.internal.navigator.NavigatorContentService
  * @see org.eclipse.ui.internal.navigator.NavigatorContentServiceLabelProvider
@@ -70,8 +92,14 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 
 	private final boolean enforceHasChildren;
 
+	private final boolean computeChildrenInBackground;
+
 	private Viewer viewer;
 
+	private ITreeViewerListener collapseListener;
+
+	private Object expandingElement;
+
 	/**
 	 * <p>
 	 * Creates a cached {@link NavigatorContentService}&nbsp;from the given
@@ -102,9 +130,16 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 		contentService = aContentService;
 		INavigatorViewerDescriptor vDesc = contentService.getViewerDescriptor();
 		enforceHasChildren = vDesc.getBooleanConfigProperty(NavigatorViewerDescriptor.PROP_ENFORCE_HAS_CHILDREN);
+		computeChildrenInBackground = vDesc.getBooleanConfigProperty(NavigatorViewerDescriptor.PROP_COMPUTE_CHILDREN_IN_BACKGROUND);
 	}
 
 	public void inputChanged(Viewer aViewer, Object anOldInput, Object aNewInput) {
+		if (computeChildrenInBackground) {
+			cancelChildrenJobs(null, false);
+			if (viewer != aViewer) {
+				hookCollapseListener(aViewer);
+			}
+		}
 		viewer = aViewer;
 		contentService.updateService(aViewer, anOldInput, aNewInput);
 	}
@@ -116,14 +151,32 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 
 	public Object[] getChildren(Object aParentElement) {
 		Set enabledExtensions = contentService.findContentExtensionsByTriggerPoint(aParentElement);
+		if (isComputingInBackground(aParentElement, enabledExtensions)) {
+			return scheduleChildrenJob(aParentElement, aParentElement, enabledExtensions);
+		}
 		return internalGetChildren(aParentElement, aParentElement, enabledExtensions, !ELEMENTS);
 	}
 
 	public Object[] getChildren(TreePath parentPath) {
 		Object aParentElement = internalAsElement(parentPath);
 		Set enabledExtensions = contentService.findContentExtensionsByTriggerPoint(aParentElement);
+		if (isComputingInBackground(aParentElement, enabledExtensions)) {
+			return scheduleChildrenJob(aParentElement, parentPath, enabledExtensions);
+		}
 		return internalGetChildren(aParentElement, parentPath, enabledExtensions, !ELEMENTS);
 	}
+
+	/**
+	 * Set the element the user is expanding in the viewer, or
+	 * <code>null</code> once its children have been asked for. Only the
+	 * children of this element are computed in the background.
+	 * 
+	 * @param anElement
+	 *            The element being expanded, or <code>null</code>
+	 */
+	public void setExpandingElement(Object anElement) {
+		expandingElement = anElement;
+	}
 	
 	private static final boolean ELEMENTS = true;
 
@@ -136,31 +189,12 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 		final ContributorTrackingSet localSet = new ContributorTrackingSet(contentService);
 
 		for (final Iterator itr = enabledExtensions.iterator(); itr.hasNext();) {
+			final NavigatorContentExtension foundExtension = (NavigatorContentExtension) itr.next();
 			SafeRunner.run(new NavigatorSafeRunnable() {
-				NavigatorContentExtension foundExtension = (NavigatorContentExtension) itr.next();
-				Object[] contributedChildren = null;
-				NavigatorContentExtension[] overridingExtensions;
 
 				public void run() throws Exception {
-					if (!isOverridingExtensionInSet(foundExtension.getDescriptor(),
-							enabledExtensions)) {
-						if (elements)
-							contributedChildren = foundExtension.internalGetContentProvider()
-									.getElements(aParentElementOrPath);
-						else
-							contributedChildren = foundExtension.internalGetContentProvider()
-									.getChildren(aParentElementOrPath);
-						overridingExtensions = foundExtension
-								.getOverridingExtensionsForTriggerPoint(aParentElement);
-						INavigatorContentDescriptor foundDescriptor = foundExtension
-								.getDescriptor();
-						localSet.setContributor(foundDescriptor, foundDescriptor);
-						localSet.setContents(contributedChildren);
-
-						if (overridingExtensions.length > 0) {
-							pipelineChildren(aParentElement, overridingExtensions, foundDescriptor,
-									localSet, elements);
-						}
+					if (collectChildren(foundExtension, aParentElement, aParentElementOrPath,
+							enabledExtensions, elements, localSet)) {
 						finalSet.addAll(localSet);
 					}
 				}
@@ -176,6 +210,276 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 		return finalSet.toArray();
 	}
 
+	/**
+	 * Ask the given extension for its children (or elements) of the parent
+	 * and pipe them through the overriding extensions.
+	 * 
+	 * @return False if the extension is not invoked because it is overridden
+	 *         by another extension of the set.
+	 */
+	private boolean collectChildren(NavigatorContentExtension foundExtension, Object aParentElement,
+			Object aParentElementOrPath, Set enabledExtensions, boolean elements,
+			ContributorTrackingSet localSet) {
+		if (isOverridingExtensionInSet(foundExtension.getDescriptor(), enabledExtensions)) {
+			return false;
+		}
+		Object[] contributedChildren;
+		if (elements)
+			contributedChildren = foundExtension.internalGetContentProvider()
+					.getElements(aParentElementOrPath);
+		else
+			contributedChildren = foundExtension.internalGetContentProvider()
+					.getChildren(aParentElementOrPath);
+		NavigatorContentExtension[] overridingExtensions = foundExtension
+				.getOverridingExtensionsForTriggerPoint(aParentElement);
+		INavigatorContentDescriptor foundDescriptor = foundExtension.getDescriptor();
+		localSet.setContributor(foundDescriptor, foundDescriptor);
+		localSet.setContents(contributedChildren);
+
+		if (overridingExtensions.length > 0) {
+			pipelineChildren(aParentElement, overridingExtensions, foundDescriptor, localSet,
+					elements);
+		}
+		return true;
+	}
+
+	private boolean isComputingInBackground(Object aParentElement, Set enabledExtensions) {
+		return computeChildrenInBackground && viewer instanceof AbstractTreeViewer
+				&& enabledExtensions.size() > 0 && aParentElement != null
+				&& aParentElement.equals(expandingElement);
+	}
+
+	/**
+	 * Schedule the computation of the children of the parent and return a
+	 * placeholder to show in the meantime. Any computation still running for
+	 * the same parent is cancelled.
+	 */
+	private Object[] scheduleChildrenJob(Object aParentElement, Object aParentElementOrPath,
+			Set enabledExtensions) {
+		cancelChildrenJobs(aParentElement, false);
+		PendingUpdateAdapter placeholder = new PendingUpdateAdapter();
+		ChildrenJob job = new ChildrenJob(aParentElement, aParentElementOrPath,
+				enabledExtensions, placeholder);
+		job.addJobChangeListener(new JobChangeAdapter() {
+			public void done(IJobChangeEvent event) {
+				if (event.getResult().getSeverity() == IStatus.CANCEL) {
+					restorePlaceholder((ChildrenJob) event.getJob());
+				}
+			}
+		});
+		job.schedule();
+		return new Object[] { placeholder };
+	}
+
+	/**
+	 * Cancel the computation of the children of the given element, or of all
+	 * elements if <code>aParentElement</code> is <code>null</code>. If
+	 * <code>restore</code> is false, the placeholders of the cancelled jobs
+	 * are already gone from the viewer and are left alone.
+	 */
+	private void cancelChildrenJobs(Object aParentElement, boolean restore) {
+		Job[] jobs = Job.getJobManager().find(this);
+		for (int i = 0; i < jobs.length; i++) {
+			ChildrenJob job = (ChildrenJob) jobs[i];
+			if (aParentElement == null || aParentElement.equals(job.parentElement)) {
+				if (!restore) {
+					job.placeholder.setRemoved(true);
+				}
+				job.cancel();
+			}
+		}
+	}
+
+	private void hookCollapseListener(Viewer aViewer) {
+		if (viewer instanceof AbstractTreeViewer && collapseListener != null) {
+			((AbstractTreeViewer) viewer).removeTreeListener(collapseListener);
+		}
+		collapseListener = null;
+		if (aViewer instanceof AbstractTreeViewer) {
+			collapseListener = new ITreeViewerListener() {
+				public void treeCollapsed(TreeExpansionEvent event) {
+					cancelChildrenJobs(internalAsElement(event.getElement()), true);
+				}
+
+				public void treeExpanded(TreeExpansionEvent event) {
+				}
+			};
+			((AbstractTreeViewer) aViewer).addTreeListener(collapseListener);
+		}
+	}
+
+	/**
+	 * Replace the placeholder of the job by the children it computed, in one
+	 * update of the viewer. The contributions are merged, and the extensions
+	 * that contributed the children remembered, in the order of the
+	 * extensions.
+	 */
+	private void applyChildren(final ChildrenJob job, final ContributorTrackingSet[] contributions) {
+		UIJob updateJob = new UIJob(CommonNavigatorMessages.NavigatorContentServiceContentProvider_Update_children_) {
+			public IStatus runInUIThread(IProgressMonitor monitor) {
+				AbstractTreeViewer treeViewer = (AbstractTreeViewer) viewer;
+				if (job.placeholder.isRemoved() || treeViewer == null
+						|| treeViewer.getControl().isDisposed()) {
+					return Status.CANCEL_STATUS;
+				}
+				job.placeholder.setRemoved(true);
+				if (treeViewer.testFindItem(job.placeholder) == null) {
+					// a refresh has already replaced the placeholder by the children
+					return Status.CANCEL_STATUS;
+				}
+				Set finalSet = new LinkedHashSet();
+				for (int i = 0; i < contributions.length; i++) {
+					if (contributions[i] != null) {
+						contributions[i].rememberContributions();
+						finalSet.addAll(contributions[i]);
+					}
+				}
+				Object[] children = finalSet.toArray();
+				treeViewer.getControl().setRedraw(false);
+				try {
+					treeViewer.remove(job.placeholder);
+					if (children.length > 0) {
+						treeViewer.add(job.parentElementOrPath, children);
+					}
+				} finally {
+					treeViewer.getControl().setRedraw(true);
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		updateJob.setSystem(true);
+		updateJob.schedule();
+	}
+
+	/**
+	 * Remove the placeholder of a cancelled job and refresh its parent so that
+	 * its children are asked for again the next time it is expanded.
+	 */
+	private void restorePlaceholder(final ChildrenJob job) {
+		UIJob restoreJob = new UIJob(CommonNavigatorMessages.NavigatorContentServiceContentProvider_Update_children_) {
+			public IStatus runInUIThread(IProgressMonitor monitor) {
+				AbstractTreeViewer treeViewer = (AbstractTreeViewer) viewer;
+				if (job.placeholder.isRemoved() || treeViewer == null
+						|| treeViewer.getControl().isDisposed()) {
+					return Status.CANCEL_STATUS;
+				}
+				job.placeholder.setRemoved(true);
+				treeViewer.remove(job.placeholder);
+				treeViewer.refresh(job.parentElement, false);
+				return Status.OK_STATUS;
+			}
+		};
+		restoreJob.setSystem(true);
+		restoreJob.schedule();
+	}
+
+	/**
+	 * Computes the children of an element in the background. Each enabled
+	 * extension is asked for its contribution in a job of its own; the
+	 * contributions are then merged in the order of the extensions on the UI
+	 * thread, as
+	 * {@link NavigatorContentServiceContentProvider#internalGetChildren(Object, Object, Set, boolean)}
+	 * does.
+	 */
+	private class ChildrenJob extends Job {
+
+		private final Object parentElement;
+		private final Object parentElementOrPath;
+		private final Set enabledExtensions;
+		private final PendingUpdateAdapter placeholder;
+
+		ChildrenJob(Object aParentElement, Object aParentElementOrPath, Set theEnabledExtensions,
+				PendingUpdateAdapter aPlaceholder) {
+			super(NLS.bind(CommonNavigatorMessages.NavigatorContentServiceContentProvider_Computing_children_of_0_,
+					aParentElement));
+			parentElement = aParentElement;
+			parentElementOrPath = aParentElementOrPath;
+			enabledExtensions = theEnabledExtensions;
+			placeholder = aPlaceholder;
+			setSystem(true);
+		}
+
+		protected IStatus run(IProgressMonitor monitor) {
+			ContributionJob[] contributions = new ContributionJob[enabledExtensions.size()];
+			int i = 0;
+			for (Iterator itr = enabledExtensions.iterator(); itr.hasNext(); i++) {
+				contributions[i] = new ContributionJob(this, (NavigatorContentExtension) itr.next());
+				contributions[i].schedule();
+			}
+			try {
+				Job.getJobManager().join(this, monitor);
+			} catch (OperationCanceledException e) {
+				Job.getJobManager().cancel(this);
+				return Status.CANCEL_STATUS;
+			} catch (InterruptedException e) {
+				Job.getJobManager().cancel(this);
+				return Status.CANCEL_STATUS;
+			}
+			if (monitor.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+
+			ContributorTrackingSet[] children = new ContributorTrackingSet[contributions.length];
+			for (i = 0; i < contributions.length; i++) {
+				children[i] = contributions[i].children;
+			}
+			applyChildren(this, children);
+			return Status.OK_STATUS;
+		}
+
+		public boolean belongsTo(Object family) {
+			return family == NavigatorContentServiceContentProvider.this;
+		}
+	}
+
+	/**
+	 * Asks a single extension for its contribution to the children computed
+	 * by a {@link ChildrenJob}. The extensions of the contributed children
+	 * are not remembered yet, since the first extension to contribute an
+	 * element wins and the jobs finish in any order.
+	 */
+	private class ContributionJob extends Job {
+
+		private final ChildrenJob childrenJob;
+		private final NavigatorContentExtension extension;
+		private ContributorTrackingSet children;
+
+		ContributionJob(ChildrenJob aChildrenJob, NavigatorContentExtension anExtension) {
+			super(aChildrenJob.getName());
+			childrenJob = aChildrenJob;
+			extension = anExtension;
+			setSystem(true);
+		}
+
+		protected IStatus run(IProgressMonitor monitor) {
+			if (monitor.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+			SafeRunner.run(new NavigatorSafeRunnable() {
+				public void run() throws Exception {
+					ContributorTrackingSet localSet = new ContributorTrackingSet(contentService);
+					localSet.deferContributions();
+					if (collectChildren(extension, childrenJob.parentElement,
+							childrenJob.parentElementOrPath, childrenJob.enabledExtensions,
+							!ELEMENTS, localSet)) {
+						children = localSet;
+					}
+				}
+
+				public void handleException(Throwable e) {
+					NavigatorPlugin.logError(0, NLS.bind(
+							CommonNavigatorMessages.Exception_Invoking_Extension, new Object[] {
+									extension.getDescriptor().getId(), childrenJob.parentElement }), e);
+				}
+			});
+			return Status.OK_STATUS;
+		}
+
+		public boolean belongsTo(Object family) {
+			return family == childrenJob;
+		}
+	}
+
 	/**
 	 * Query each of <code>theOverridingExtensions</code> for children, and then
 	 * pipe them through the Pipeline content provider.
@@ -466,6 +770,10 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 	 * @see org.eclipse.jface.viewers.IContentProvider#dispose()
 	 */
 	public void dispose() {
+		if (computeChildrenInBackground) {
+			cancelChildrenJobs(null, false);
+			hookCollapseListener(null);
+		}
 		if (disposeContentService) {
 			contentService.dispose();
 		}
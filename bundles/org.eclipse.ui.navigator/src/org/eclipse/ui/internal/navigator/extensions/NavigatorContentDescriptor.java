@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2010 IBM Corporation and others.
+ * Copyright (c) 2003, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,8 +15,10 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.WeakHashMap;
 
 import org.eclipse.osgi.util.NLS;
 
@@ -56,6 +58,11 @@ public final class NavigatorContentDescriptor implements
 		INavigatorContentDescriptor, INavigatorContentExtPtConstants {
 
 	private static final int HASH_CODE_NOT_COMPUTED = -1;
+
+	private static final String EXPRESSION_INSTANCEOF = "instanceof"; //$NON-NLS-1$
+	private static final String EXPRESSION_AND = "and"; //$NON-NLS-1$
+	private static final String EXPRESSION_OR = "or"; //$NON-NLS-1$
+	private static final String EXPRESSION_NOT = "not"; //$NON-NLS-1$
 	private String id;
 
 	private String name;
@@ -99,6 +106,15 @@ public final class NavigatorContentDescriptor implements
 
 	private boolean providesSaveables;
 
+	/*
+	 * The results of the enablement and possible children expressions per
+	 * element class, or null if the expression does not only test the type of
+	 * the element.
+	 */
+	private Map enablementResultsByType;
+
+	private Map possibleChildrenResultsByType;
+
 	/**
 	 * Creates a new content descriptor from a configuration element.
 	 * 
@@ -264,6 +280,9 @@ public final class NavigatorContentDescriptor implements
 			children = configElement.getChildren(TAG_TRIGGER_POINTS);
 			if (children.length == 1) {
 				enablement = new CustomAndExpression(children[0]);
+				if (testsTypeOnly(children[0])) {
+					enablementResultsByType = new WeakHashMap();
+				}
 			} else {
 				throw new WorkbenchException(NLS.bind(
 						CommonNavigatorMessages.Attribute_Missing_Warning,
@@ -277,6 +296,9 @@ public final class NavigatorContentDescriptor implements
 			children = configElement.getChildren(TAG_POSSIBLE_CHILDREN);
 			if (children.length == 1) {
 				possibleChildren = new CustomAndExpression(children[0]);
+				if (testsTypeOnly(children[0])) {
+					possibleChildrenResultsByType = new WeakHashMap();
+				}
 			} else if(children.length > 1){
 				throw new WorkbenchException(NLS.bind(
 						CommonNavigatorMessages.Attribute_Missing_Warning,
@@ -290,6 +312,9 @@ public final class NavigatorContentDescriptor implements
 			try {
 				enablement = ElementHandler.getDefault().create(
 						ExpressionConverter.getDefault(), children[0]);
+				if (testsTypeOnly(children[0])) {
+					enablementResultsByType = new WeakHashMap();
+				}
 			} catch (CoreException e) {
 				NavigatorPlugin.log(IStatus.ERROR, 0, e.getMessage(), e);
 			}
@@ -422,8 +447,7 @@ public final class NavigatorContentDescriptor implements
 			return false;
 		}
 
-		IEvaluationContext context = NavigatorPlugin.getEvalContext(anElement);
-		return NavigatorPlugin.safeEvaluate(enablement, context) == EvaluationResult.TRUE;
+		return evaluate(enablement, enablementResultsByType, anElement);
 	}
 
 	/**
@@ -449,14 +473,85 @@ public final class NavigatorContentDescriptor implements
 			return arePossibleChildren((IStructuredSelection) anElement);
 		}
 
-		IEvaluationContext context = NavigatorPlugin.getEvalContext(anElement);
 		if (possibleChildren != null) {
-			return NavigatorPlugin.safeEvaluate(possibleChildren, context) == EvaluationResult.TRUE;
+			return evaluate(possibleChildren, possibleChildrenResultsByType, anElement);
 		} else if (enablement != null) {
-			return NavigatorPlugin.safeEvaluate(enablement, context) == EvaluationResult.TRUE;
+			return evaluate(enablement, enablementResultsByType, anElement);
 		}
 		return false;
 	}
+
+	/**
+	 * Returns whether the result of the trigger points or enablement
+	 * expression is kept per class of element. This method is public for use
+	 * by test cases.
+	 * 
+	 * @return true if the expression only tests the type of the element
+	 */
+	public boolean isTriggerPointCachedByType() {
+		return enablementResultsByType != null;
+	}
+
+	/**
+	 * Returns whether the result of the expression used by
+	 * {@link #isPossibleChild(Object)} is kept per class of element. This
+	 * method is public for use by test cases.
+	 * 
+	 * @return true if the expression only tests the type of the element
+	 */
+	public boolean isPossibleChildCachedByType() {
+		if (possibleChildren != null) {
+			return possibleChildrenResultsByType != null;
+		}
+		return enablementResultsByType != null;
+	}
+
+	/*
+	 * Evaluate the expression for the given element. If the expression only
+	 * tests the type of the element, the result is computed once per class.
+	 */
+	private boolean evaluate(Expression expression, Map resultsByType, Object anElement) {
+		if (resultsByType != null) {
+			Boolean result;
+			synchronized (resultsByType) {
+				result = (Boolean) resultsByType.get(anElement.getClass());
+			}
+			if (result != null) {
+				return result.booleanValue();
+			}
+		}
+		IEvaluationContext context = NavigatorPlugin.getEvalContext(anElement);
+		boolean result = NavigatorPlugin.safeEvaluate(expression, context) == EvaluationResult.TRUE;
+		if (resultsByType != null) {
+			synchronized (resultsByType) {
+				resultsByType.put(anElement.getClass(), Boolean.valueOf(result));
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * Return whether the expressions below the given element only combine
+	 * instanceof tests of the default variable, so that they evaluate the
+	 * same for all the elements of a class.
+	 */
+	private static boolean testsTypeOnly(IConfigurationElement element) {
+		IConfigurationElement[] children = element.getChildren();
+		for (int i = 0; i < children.length; i++) {
+			String name = children[i].getName();
+			if (EXPRESSION_INSTANCEOF.equals(name)) {
+				continue;
+			}
+			if (!EXPRESSION_AND.equals(name) && !EXPRESSION_OR.equals(name)
+					&& !EXPRESSION_NOT.equals(name)) {
+				return false;
+			}
+			if (!testsTypeOnly(children[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
 	
 	/**
 	 * A convenience method to check all elements in a selection.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2011 IBM Corporation and others.
+ * Copyright (c) 2003, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -49,6 +49,10 @@ public class NavigatorContentDescriptorManager {
 
 	private final Map allDescriptors = new HashMap();
 
+	/*
+	 * The cache is used by the jobs computing children in the background as
+	 * well as by the UI thread, so access to it is synchronized.
+	 */
 	private class EvaluationCache implements VisibilityListener {
 
 		private final Map evaluations/* <Object, NavigatorContentDescriptor[]> */= new HashMap();
@@ -58,15 +62,15 @@ public class NavigatorContentDescriptorManager {
 			anAssistant.addListener(this);
 		}
 
-		protected final NavigatorContentDescriptor[] getDescriptors(Object anElement) {
+		protected final synchronized NavigatorContentDescriptor[] getDescriptors(Object anElement) {
 			return getDescriptors(anElement, true);
 		}
 
-		protected final void setDescriptors(Object anElement, NavigatorContentDescriptor[] theDescriptors) {
+		protected final synchronized void setDescriptors(Object anElement, NavigatorContentDescriptor[] theDescriptors) {
 			setDescriptors(anElement, theDescriptors, true);
 		}
 
-		protected final NavigatorContentDescriptor[] getDescriptors(Object anElement, boolean toComputeOverrides) {
+		protected final synchronized NavigatorContentDescriptor[] getDescriptors(Object anElement, boolean toComputeOverrides) {
 
 			if (anElement == null)
 				return null;
@@ -85,7 +89,7 @@ public class NavigatorContentDescriptorManager {
 
 		}
 
-		protected final void setDescriptors(Object anElement, NavigatorContentDescriptor[] theDescriptors, boolean toComputeOverrides) {
+		protected final synchronized void setDescriptors(Object anElement, NavigatorContentDescriptor[] theDescriptors, boolean toComputeOverrides) {
 			if (anElement != null) {
 				if (toComputeOverrides)
 					evaluations.put(new EvalutationReference(anElement), new SoftReference(theDescriptors));
@@ -99,7 +103,7 @@ public class NavigatorContentDescriptorManager {
 		 * 
 		 * @see org.eclipse.ui.internal.navigator.VisibilityAssistant.VisibilityListener#onVisibilityOrActivationChange()
 		 */
-		public void onVisibilityOrActivationChange() {
+		public synchronized void onVisibilityOrActivationChange() {
 			evaluations.clear();
 			evaluationsWithOverrides.clear();
 		}
@@ -245,13 +249,15 @@ public class NavigatorContentDescriptorManager {
 
 	private EvaluationCache getEvaluationCache(Map anEvaluationMap,
 			VisibilityAssistant aVisibilityAssistant) {
-		EvaluationCache c = (EvaluationCache) anEvaluationMap
-				.get(aVisibilityAssistant);
-		if (c == null) {
-			anEvaluationMap.put(aVisibilityAssistant, c = new EvaluationCache(
-					aVisibilityAssistant));
+		synchronized (anEvaluationMap) {
+			EvaluationCache c = (EvaluationCache) anEvaluationMap
+					.get(aVisibilityAssistant);
+			if (c == null) {
+				anEvaluationMap.put(aVisibilityAssistant, c = new EvaluationCache(
+						aVisibilityAssistant));
+			}
+			return c;
 		}
-		return c;
 
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2010 IBM Corporation and others.
+ * Copyright (c) 2003, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -28,6 +28,7 @@ import org.eclipse.swt.events.DisposeEvent;
 import org.eclipse.swt.events.MouseAdapter;
 import org.eclipse.swt.events.MouseEvent;
 import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.events.TreeEvent;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Item;
@@ -35,6 +36,7 @@ import org.eclipse.swt.widgets.Widget;
 import org.eclipse.ui.internal.navigator.CommonNavigatorFrameSource;
 import org.eclipse.ui.internal.navigator.ContributorTrackingSet;
 import org.eclipse.ui.internal.navigator.NavigatorContentService;
+import org.eclipse.ui.internal.navigator.NavigatorContentServiceContentProvider;
 import org.eclipse.ui.internal.navigator.NavigatorDecoratingLabelProvider;
 import org.eclipse.ui.internal.navigator.NavigatorPipelineService;
 import org.eclipse.ui.internal.navigator.dnd.NavigatorDnDService;
@@ -239,6 +241,26 @@ public class CommonViewer extends TreeViewer {
 		dispose();
 		super.handleDispose(event);
 	}
+
+	/*
+	 * Let the content provider know which element the user is expanding, so
+	 * that it may compute its children in the background.
+	 * 
+	 * @see org.eclipse.jface.viewers.AbstractTreeViewer#handleTreeExpand(org.eclipse.swt.events.TreeEvent)
+	 */
+	protected void handleTreeExpand(TreeEvent event) {
+		if (!(getContentProvider() instanceof NavigatorContentServiceContentProvider)) {
+			super.handleTreeExpand(event);
+			return;
+		}
+		NavigatorContentServiceContentProvider provider = (NavigatorContentServiceContentProvider) getContentProvider();
+		provider.setExpandingElement(event.item.getData());
+		try {
+			super.handleTreeExpand(event);
+		} finally {
+			provider.setExpandingElement(null);
+		}
+	}
  
 	/**
 	 * <p>
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.internal.activities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the activities whose pattern bindings match an identifier without
+ * testing every pattern. Equality patterns are looked up in a map. Regular
+ * expressions are stored in a trie under their literal prefix, so that only
+ * the expressions whose prefix starts the identifier are tried.
+ * <p>
+ * Instances are immutable; a new one is built whenever the pattern bindings
+ * are read from the registry.
+ * </p>
+ *
+ * @since 3.105
+ */
+final class ActivityPatternMatcher {
+
+	/**
+	 * A node of the prefix trie.
+	 */
+	private static final class Node {
+
+		/**
+		 * The child nodes by character (<code>Character</code> to
+		 * <code>Node</code>), or <code>null</code> if there are none.
+		 */
+		Map children;
+
+		/**
+		 * The bindings whose literal prefix ends at this node, or
+		 * <code>null</code> if there are none.
+		 */
+		List bindings;
+
+		Node getChild(char c, boolean create) {
+			Character key = new Character(c);
+			Node child = children == null ? null : (Node) children.get(key);
+			if (child == null && create) {
+				if (children == null) {
+					children = new HashMap();
+				}
+				child = new Node();
+				children.put(key, child);
+			}
+			return child;
+		}
+	}
+
+	/**
+	 * The activity ids of the equality patterns (<code>String</code> to
+	 * <code>Set</code> of <code>String</code>).
+	 */
+	private final Map activityIdsByString = new HashMap();
+
+	private final Node root = new Node();
+
+	/**
+	 * Creates a matcher for the given bindings.
+	 *
+	 * @param activityPatternBindingsByActivityId
+	 *            the <code>Set</code>s of {@link ActivityPatternBinding}s by
+	 *            activity id
+	 */
+	ActivityPatternMatcher(Map activityPatternBindingsByActivityId) {
+		for (Iterator iterator = activityPatternBindingsByActivityId.values()
+				.iterator(); iterator.hasNext();) {
+			Set bindings = (Set) iterator.next();
+			for (Iterator iterator2 = bindings.iterator(); iterator2.hasNext();) {
+				add((ActivityPatternBinding) iterator2.next());
+			}
+		}
+	}
+
+	private void add(ActivityPatternBinding binding) {
+		if (binding.isEqualityPattern()) {
+			String string = binding.getString();
+			Set activityIds = (Set) activityIdsByString.get(string);
+			if (activityIds == null) {
+				activityIds = new HashSet();
+				activityIdsByString.put(string, activityIds);
+			}
+			activityIds.add(binding.getActivityId());
+			return;
+		}
+
+		String prefix = getLiteralPrefix(binding.getPattern().pattern());
+		Node node = root;
+		for (int i = 0; i < prefix.length(); i++) {
+			node = node.getChild(prefix.charAt(i), true);
+		}
+		if (node.bindings == null) {
+			node.bindings = new ArrayList(1);
+		}
+		node.bindings.add(binding);
+	}
+
+	/**
+	 * Returns the ids of the activities having a pattern binding that matches
+	 * the given identifier.
+	 *
+	 * @param identifierId
+	 *            the identifier
+	 * @return the <code>Set</code> of activity ids, never <code>null</code>
+	 */
+	Set getActivityIds(String identifierId) {
+		Set activityIds = null;
+		Set equalityIds = (Set) activityIdsByString.get(identifierId);
+		if (equalityIds != null) {
+			activityIds = new HashSet(equalityIds);
+		}
+
+		Node node = root;
+		for (int i = 0; node != null; i++) {
+			if (node.bindings != null) {
+				for (Iterator iterator = node.bindings.iterator(); iterator
+						.hasNext();) {
+					ActivityPatternBinding binding = (ActivityPatternBinding) iterator
+							.next();
+					if ((activityIds == null || !activityIds.contains(binding
+							.getActivityId()))
+							&& binding.isMatch(identifierId)) {
+						if (activityIds == null) {
+							activityIds = new HashSet();
+						}
+						activityIds.add(binding.getActivityId());
+					}
+				}
+			}
+			node = i < identifierId.length() ? node.getChild(identifierId
+					.charAt(i), false) : null;
+		}
+		return activityIds == null ? Collections.EMPTY_SET : activityIds;
+	}
+
+	/**
+	 * Returns the literal text every string matching the given regular
+	 * expression starts with. The analysis is conservative: it stops at the
+	 * first construct it does not understand, and gives up on alternations.
+	 *
+	 * @param regex
+	 *            the regular expression
+	 * @return the literal prefix, possibly empty
+	 */
+	static String getLiteralPrefix(String regex) {
+		if (regex.indexOf('|') != -1) {
+			return ""; //$NON-NLS-1$
+		}
+		StringBuffer prefix = new StringBuffer();
+		int length = regex.length();
+		int i = 0;
+		while (i < length) {
+			char c = regex.charAt(i);
+			int next;
+			if (c == '\\') {
+				if (i + 1 >= length) {
+					break;
+				}
+				char escaped = regex.charAt(i + 1);
+				if (escaped == 'Q') {
+					int end = regex.indexOf("\\E", i + 2); //$NON-NLS-1$
+					String quoted = end == -1 ? regex.substring(i + 2) : regex
+							.substring(i + 2, end);
+					if (end != -1 && end + 2 < length
+							&& isQuantifier(regex.charAt(end + 2))) {
+						// the quantifier applies to the last quoted character
+						if (quoted.length() > 0) {
+							prefix.append(quoted.substring(0,
+									quoted.length() - 1));
+						}
+						break;
+					}
+					prefix.append(quoted);
+					if (end == -1) {
+						break;
+					}
+					i = end + 2;
+					continue;
+				}
+				if (Character.isLetterOrDigit(escaped)) {
+					// a character class, a back reference or a boundary
+					break;
+				}
+				c = escaped;
+				next = i + 2;
+			} else if (".[](){}*+?^$".indexOf(c) != -1) { //$NON-NLS-1$
+				break;
+			} else {
+				next = i + 1;
+			}
+			if (next < length && isQuantifier(regex.charAt(next))) {
+				// the character is optional or repeated
+				break;
+			}
+			prefix.append(c);
+			i = next;
+		}
+		return prefix.toString();
+	}
+
+	private static boolean isQuantifier(char c) {
+		return c == '*' || c == '+' || c == '?' || c == '{';
+	}
+}
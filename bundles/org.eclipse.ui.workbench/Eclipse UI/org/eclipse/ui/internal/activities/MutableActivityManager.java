@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -64,6 +64,13 @@ public final class MutableActivityManager extends AbstractActivityManager
 
     private Map activityPatternBindingsByActivityId = new HashMap();
 
+    /**
+     * Matches identifiers against the pattern bindings above.  Replaced
+     * whenever the bindings are read from the registry.
+     */
+    private volatile ActivityPatternMatcher patternMatcher = new ActivityPatternMatcher(
+            Collections.EMPTY_MAP);
+
     private IActivityRegistry activityRegistry;
 
     private Map categoriesById = new HashMap();
@@ -425,6 +432,7 @@ public final class MutableActivityManager extends AbstractActivityManager
         this.activityRequirementBindingsByActivityId = activityRequirementBindingsByActivityId;
         this.activityDefinitionsById = activityDefinitionsById;
         this.activityPatternBindingsByActivityId = activityPatternBindingsByActivityId;
+        this.patternMatcher = new ActivityPatternMatcher(activityPatternBindingsByActivityId);
         this.categoryActivityBindingsByCategoryId = categoryActivityBindingsByCategoryId;
         this.categoryDefinitionsById = categoryDefinitionsById;
         boolean definedActivityIdsChanged = false;
@@ -839,18 +847,20 @@ public final class MutableActivityManager extends AbstractActivityManager
                         enabledChanged);
 			}
         } else {
-            Set activityIdsToUpdate = new HashSet(changedActivityIds);
-            if (identifier.getActivityIds() != null) {
-                activityIdsToUpdate.addAll(identifier.getActivityIds());
-            }
-            for (Iterator iterator = activityIdsToUpdate.iterator(); iterator
-                    .hasNext();) {
+            createActivities(changedActivityIds);
+
+            // only the changed activities and those the identifier was
+            // bound to need to be reconsidered
+            Set previousActivityIds = identifier.getActivityIds();
+            for (Iterator iterator = patternMatcher.getActivityIds(id)
+                    .iterator(); iterator.hasNext();) {
                 String activityId = (String) iterator.next();
-                Activity activity = (Activity) getActivity(activityId);
-    
-                if (activity.isMatch(id)) {
+
+                if (changedActivityIds.contains(activityId)
+                        || (previousActivityIds != null && previousActivityIds
+                                .contains(activityId))) {
                     activityIds.add(activityId);
-               }
+                }
             }
             
             activityIdsChanged = identifier.setActivityIds(activityIds);
@@ -868,6 +878,20 @@ public final class MutableActivityManager extends AbstractActivityManager
         return null;
     }
 
+    /**
+     * Activities are created on demand, and creating one hooks its enabledWhen
+     * expression.  Make sure the given activities exist.
+     * 
+     * @param activityIds the activity ids
+     */
+    synchronized private void createActivities(Collection activityIds) {
+        if (!activitiesById.keySet().containsAll(activityIds)) {
+            for (Iterator iterator = activityIds.iterator(); iterator.hasNext();) {
+                getActivity((String) iterator.next());
+            }
+        }
+    }
+
     private Map updateIdentifiers(Collection identifierIds) {
         return updateIdentifiers(identifierIds, definedActivityIds);
     }
@@ -927,16 +951,10 @@ public final class MutableActivityManager extends AbstractActivityManager
                 protected IStatus run(IProgressMonitor monitor) {
                     while (!deferredIdentifiers.isEmpty()) {
                         Identifier identifier = (Identifier) deferredIdentifiers.remove(0);
-                        Set activityIds = new HashSet();
-                        for (Iterator iterator = definedActivityIds.iterator(); iterator
-                                .hasNext();) {
-                            String activityId = (String) iterator.next();
-                            Activity activity = (Activity) getActivity(activityId);
-
-                            if (activity.isMatch(identifier.getId())) {
-                                activityIds.add(activityId);
-                            }
-                        }
+                        createActivities(definedActivityIds);
+                        Set activityIds = new HashSet(patternMatcher
+                                .getActivityIds(identifier.getId()));
+                        activityIds.retainAll(definedActivityIds);
                         
                         boolean activityIdsChanged = identifier.setActivityIds(activityIds);
                         if (activityIdsChanged) {
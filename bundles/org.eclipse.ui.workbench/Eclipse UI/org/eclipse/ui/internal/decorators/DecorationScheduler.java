@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,11 +12,11 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.decorators;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -51,8 +51,9 @@ public class DecorationScheduler {
 	// decorated() method
 	Map resultCache = new HashMap();
 
-	// Objects that need an icon and text computed for display to the user
-	List awaitingDecoration = new ArrayList();
+	// Objects that need an icon and text computed for display to the user.
+	// Requests are taken from the head so use a linked list.
+	List awaitingDecoration = new LinkedList();
 
 	// Objects that are awaiting a label update.
 	Set pendingUpdate = new HashSet();
@@ -81,6 +82,21 @@ public class DecorationScheduler {
 	/** Amount of time to delay the update notification when max reached. */
 	static final int UPDATE_DELAY = 100;
 
+	/**
+	 * Maximum number of elements sent to a listener in one label provider
+	 * changed event, so that the update job can yield between batches.
+	 */
+	static final int UPDATE_BATCH_SIZE = 500;
+
+	// Decoration requests merged into one already queued for the element
+	private int mergedRequests;
+
+	// Label updates merged into one already pending for the element
+	private int mergedUpdates;
+
+	// Decorations that did not produce a label update
+	private int droppedUpdates;
+
 	/**
 	 * Return a new instance of the receiver configured for the supplied
 	 * DecoratorManager.
@@ -142,6 +158,7 @@ public class DecorationScheduler {
 		DecorationReference reference = (DecorationReference) awaitingDecorationValues
 				.get(element);
 		if (reference != null) {
+			mergedRequests++;
 			if (forceUpdate) {// Make sure we don't loose a force
 				reference.setForceUpdate(forceUpdate);
 			}
@@ -358,10 +375,7 @@ public class DecorationScheduler {
 					IDecorationContext context) {
 				boolean elementIsCached = internalGetResult(element, context) != null;
 				if (elementIsCached) {
-					synchronized (pendingKey) {
-						pendingUpdate.add(element);
-					}
-
+					addPendingUpdate(element);
 				}
 
 				if (!elementIsCached) {
@@ -390,11 +404,19 @@ public class DecorationScheduler {
 						// Add an update for only the original element
 						// to
 						// prevent multiple updates and clear the cache.
+						addPendingUpdate(element);
+					} else {
 						synchronized (pendingKey) {
-							pendingUpdate.add(element);
+							droppedUpdates++;
 						}
-						
+					}
+				}
+			}
 
+			private void addPendingUpdate(Object element) {
+				synchronized (pendingKey) {
+					if (!pendingUpdate.add(element)) {
+						mergedUpdates++;
 					}
 				}
 			}
@@ -489,6 +511,11 @@ public class DecorationScheduler {
 
 			int currentIndex = NEEDS_INIT;
 
+			// The elements being updated and the start of the current batch
+			Object[] elements;
+
+			int batchStart;
+
 			LabelProviderChangedEvent labelProviderChangedEvent;
 
 			ILabelProviderListener[] listeners;
@@ -521,14 +548,20 @@ public class DecorationScheduler {
 						IProgressMonitor.UNKNOWN);
 
 				long startTime = System.currentTimeMillis();
-				while (currentIndex < listeners.length) {
+				while (batchStart < elements.length) {
 					ILabelProviderListener listener = listeners[currentIndex];
 					currentIndex++;
 
 					// If it was removed in the meantime then skip it.
 					if (!removedListeners.contains(listener)) {
-						decoratorManager.fireListener(
-								labelProviderChangedEvent, listener);
+						decoratorManager.fireListener(getBatchEvent(), listener);
+					}
+
+					// Every listener has the current batch, move to the next
+					if (currentIndex >= listeners.length) {
+						currentIndex = 0;
+						batchStart += UPDATE_BATCH_SIZE;
+						labelProviderChangedEvent = null;
 					}
 
 					// If it is taking long enough for the user to notice then
@@ -541,12 +574,13 @@ public class DecorationScheduler {
 
 				monitor.done();
 
-				if (currentIndex >= listeners.length) {
+				if (batchStart >= elements.length) {
 				    resetState();
 					if (!hasPendingUpdates()) {
 						decorated();
 					}
 					labelProviderChangedEvent = null;
+					elements = null;
 					listeners = EMPTY_LISTENER_LIST;
 				} else {
 					schedule(UPDATE_DELAY);// Reschedule if we are not done
@@ -573,16 +607,35 @@ public class DecorationScheduler {
 				// clear the list
 				removedListeners.clear();
 				currentIndex = 0;
+				batchStart = 0;
+				labelProviderChangedEvent = null;
 				synchronized (pendingKey) {
-					Object[] elements = pendingUpdate
+					elements = pendingUpdate
 							.toArray(new Object[pendingUpdate.size()]);
 					pendingUpdate.clear();
-					labelProviderChangedEvent = new LabelProviderChangedEvent(
-							decoratorManager, elements);
 				}
 				listeners = decoratorManager.getListeners();
 			}
 
+			/**
+			 * Return the event for the batch of elements starting at
+			 * batchStart, creating it if required.
+			 */
+			private LabelProviderChangedEvent getBatchEvent() {
+				if (labelProviderChangedEvent == null) {
+					Object[] batch = elements;
+					if (batchStart > 0 || elements.length > UPDATE_BATCH_SIZE) {
+						batch = new Object[Math.min(UPDATE_BATCH_SIZE,
+								elements.length - batchStart)];
+						System.arraycopy(elements, batchStart, batch, 0,
+								batch.length);
+					}
+					labelProviderChangedEvent = new LabelProviderChangedEvent(
+							decoratorManager, batch);
+				}
+				return labelProviderChangedEvent;
+			}
+
 			/*
 			 * (non-Javadoc)
 			 * 
@@ -714,4 +767,58 @@ public class DecorationScheduler {
 		}
 
 	}
+
+	/**
+	 * Return the number of elements waiting to be decorated.
+	 * 
+	 * @return int
+	 */
+	public synchronized int getQueueDepth() {
+		return awaitingDecoration.size();
+	}
+
+	/**
+	 * Return the number of elements waiting for a label update.
+	 * 
+	 * @return int
+	 */
+	public int getPendingUpdateCount() {
+		synchronized (pendingKey) {
+			return pendingUpdate.size();
+		}
+	}
+
+	/**
+	 * Return the number of decoration requests that were merged into a
+	 * request already queued for the same element.
+	 * 
+	 * @return int
+	 */
+	public synchronized int getMergedRequestCount() {
+		return mergedRequests;
+	}
+
+	/**
+	 * Return the number of label updates that were merged into an update
+	 * already pending for the same element.
+	 * 
+	 * @return int
+	 */
+	public int getMergedUpdateCount() {
+		synchronized (pendingKey) {
+			return mergedUpdates;
+		}
+	}
+
+	/**
+	 * Return the number of decorations that did not result in a label update
+	 * as they had no value and no update was forced.
+	 * 
+	 * @return int
+	 */
+	public int getDroppedUpdateCount() {
+		synchronized (pendingKey) {
+			return droppedUpdates;
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2010 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -1085,6 +1085,17 @@ public class DecoratorManager implements ILabelProviderListener,
 		return decoratorArray;
 	}
 
+	/**
+	 * Returns the scheduler that computes the lightweight decorations. This
+	 * method is public for use by test cases. No other classes outside of this
+	 * package should use this method.
+	 * 
+	 * @return DecorationScheduler
+	 */
+	public DecorationScheduler getDecorationScheduler() {
+		return scheduler;
+	}
+
 	/**
 	 * Returns the lightweightManager. This method is public for use by test
 	 * cases. No other classes outside of this package should use this method.
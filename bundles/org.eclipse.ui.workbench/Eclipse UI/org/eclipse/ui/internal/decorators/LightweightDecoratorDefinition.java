@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -90,6 +90,11 @@ class LightweightDecoratorDefinition extends DecoratorDefinition implements
 
 	private String[] objectClasses;
 
+	// Statistics of the decorations computed by this definition
+	private volatile long decorationTime;
+
+	private volatile int decorationCount;
+
 	LightweightDecoratorDefinition(String identifier,
 			IConfigurationElement element) {
 		super(identifier, element);
@@ -275,6 +280,36 @@ class LightweightDecoratorDefinition extends DecoratorDefinition implements
 
 	}
 
+	/**
+	 * Record the time spent decorating one element with this definition.
+	 * Only called from the decoration thread.
+	 * 
+	 * @param nanos
+	 *            the elapsed time in nanoseconds
+	 */
+	void addDecorationTime(long nanos) {
+		decorationTime += nanos;
+		decorationCount++;
+	}
+
+	/**
+	 * Return the total time spent in this decorator.
+	 * 
+	 * @return the time in nanoseconds
+	 */
+	public long getDecorationTime() {
+		return decorationTime;
+	}
+
+	/**
+	 * Return the number of elements this decorator has been applied to.
+	 * 
+	 * @return int
+	 */
+	public int getDecorationCount() {
+		return decorationCount;
+	}
+
 	/**
 	 * Returns the lightweight decorator, or <code>null</code> if not enabled.
 	 * 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -298,6 +298,34 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 		return null;
 	}
 
+	/**
+	 * Return the total time spent decorating elements with the lightweight
+	 * decorator with the supplied id. This method is public for use by test
+	 * cases. No other classes outside of this package should use this method.
+	 *
+	 * @param decoratorId
+	 *            String
+	 * @return the time in nanoseconds, or 0 if there is no such decorator
+	 */
+	public long getDecorationTime(String decoratorId) {
+		LightweightDecoratorDefinition decorator = getDecoratorDefinition(decoratorId);
+		return decorator == null ? 0 : decorator.getDecorationTime();
+	}
+
+	/**
+	 * Return the number of elements decorated by the lightweight decorator
+	 * with the supplied id. This method is public for use by test cases. No
+	 * other classes outside of this package should use this method.
+	 *
+	 * @param decoratorId
+	 *            String
+	 * @return int
+	 */
+	public int getDecorationCount(String decoratorId) {
+		LightweightDecoratorDefinition decorator = getDecoratorDefinition(decoratorId);
+		return decorator == null ? 0 : decorator.getDecorationCount();
+	}
+
 	/**
 	 * Get the lightweight registered for elements of this type.
 	 */
@@ -362,7 +390,9 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 			LightweightDecoratorDefinition decorator) {
 
 		runnable.setValues(element, decoration, decorator);
+		long start = System.nanoTime();
 		SafeRunner.run(runnable);
+		decorator.addDecorationTime(System.nanoTime() - start);
 	}
 
 	
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2006 IBM Corporation and others.
+ * Copyright (c) 2003, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -157,6 +157,15 @@ public class AnimationManager {
 				}
             }
 
+            /*
+             * (non-Javadoc)
+             * 
+             * @see org.eclipse.ui.internal.progress.IJobProgressManagerListener#refreshProgress(org.eclipse.ui.internal.progress.JobInfo)
+             */
+            public void refreshProgress(JobInfo info) {
+                // the animation does not show the amount of work done
+            }
+
             /*
              * (non-Javadoc)
              * 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2010 IBM Corporation and others.
+ * Copyright (c) 2003, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -80,6 +80,9 @@ public class FinishedJobs extends EventManager {
 				checkTasks(info);
 			}
 
+			public void refreshProgress(JobInfo info) {
+			}
+
 			public void refreshGroup(GroupInfo info) {
 			}
 
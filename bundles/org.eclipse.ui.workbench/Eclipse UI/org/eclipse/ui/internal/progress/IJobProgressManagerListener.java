@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2006 IBM Corporation and others.
+ * Copyright (c) 2003, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -33,6 +33,14 @@ interface IJobProgressManagerListener {
      */
     public void refreshJobInfo(JobInfo info);
 
+    /**
+     * Refresh the IJobProgressManagerListeners as a result of a change in the
+     * progress of info only. This is called from the thread running the job,
+     * possibly very often, and must not block.
+     * @param info
+     */
+    public void refreshProgress(JobInfo info);
+
     /**
      * Refresh the IJobProgressManagerListeners as a result of a change in groups.
      * @param info
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2010 IBM Corporation and others.
+ * Copyright (c) 2003, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -238,7 +238,7 @@ public class ProgressManager extends ProgressProvider implements
 			JobInfo info = getJobInfo(job);
 			if (info.hasTaskInfo()) {
 				info.addWork(work);
-				refreshJobInfo(info);
+				refreshProgress(info);
 			}
 			if (listener != null) {
 				listener.internalWorked(work);
@@ -309,7 +309,7 @@ public class ProgressManager extends ProgressProvider implements
 			JobInfo info = getJobInfo(job);
 			info.clearChildren();
 			info.addSubTask(name);
-			refreshJobInfo(info);
+			refreshProgress(info);
 			if (listener != null) {
 				listener.subTask(name);
 			}
@@ -714,6 +714,24 @@ public class ProgressManager extends ProgressProvider implements
 		}
 	}
 
+	/**
+	 * Refresh the IJobProgressManagerListeners as a result of a change in the
+	 * progress of info only, that is the work done or the sub task. Unlike
+	 * {@link #refreshJobInfo(JobInfo)} this does not lock and is meant to be
+	 * called from the job as often as it reports progress.
+	 * 
+	 * @param info
+	 */
+	void refreshProgress(JobInfo info) {
+		Object[] listenersArray = listeners.getListeners();
+		for (int i = 0; i < listenersArray.length; i++) {
+			IJobProgressManagerListener listener = (IJobProgressManagerListener) listenersArray[i];
+			if (!isCurrentDisplaying(info.getJob(), listener.showsDebug())) {
+				listener.refreshProgress(info);
+			}
+		}
+	}
+
 	/**
 	 * Refresh the IJobProgressManagerListeners as a result of a change in info.
 	 * 
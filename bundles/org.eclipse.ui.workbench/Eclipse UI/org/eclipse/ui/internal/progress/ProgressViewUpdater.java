@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2013 IBM Corporation and others.
+ * Copyright (c) 2003, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,9 @@ package org.eclipse.ui.internal.progress;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -37,15 +40,18 @@ class ProgressViewUpdater implements IJobProgressManagerListener {
 
     Object updateLock = new Object();
 
-	class MutableBoolean {
-		boolean value;
-	}
-
 	/*
 	 * True when update job is scheduled or running. This is used to limit the
 	 * update job to no more than once every 100 ms. See bug 258352 and 395645.
 	 */
-	MutableBoolean updateScheduled = new MutableBoolean();
+	AtomicBoolean updateScheduled = new AtomicBoolean();
+
+	/*
+	 * The jobs whose progress changed since the update job last ran, used as
+	 * a set. Jobs report progress far more often than the viewers are
+	 * updated, so the reports are folded here without locking.
+	 */
+	private final Map progressChanges = new ConcurrentHashMap();
 
     boolean debug;
     
@@ -232,14 +238,10 @@ class ProgressViewUpdater implements IJobProgressManagerListener {
     void scheduleUpdate() {
         if (PlatformUI.isWorkbenchRunning()) {
             // make sure we don't schedule too often
-			boolean scheduleUpdate = false;
-			synchronized (updateScheduled) {
-				if (!updateScheduled.value || updateJob.getState() == Job.NONE) {
-					updateScheduled.value = scheduleUpdate = true;
-				}
-        	}
-			if (scheduleUpdate)
+			if (updateScheduled.compareAndSet(false, true)
+					|| updateJob.getState() == Job.NONE) {
 				updateJob.schedule(100);
+			}
         }
     }
 
@@ -254,11 +256,9 @@ class ProgressViewUpdater implements IJobProgressManagerListener {
              * @see org.eclipse.ui.progress.UIJob#runInUIThread(org.eclipse.core.runtime.IProgressMonitor)
              */
             public IStatus runInUIThread(IProgressMonitor monitor) {
-				synchronized (updateScheduled) {
-					// updates requested while we are running should cause it to
-					// be rescheduled
-					updateScheduled.value = false;
-				}
+				// updates requested while we are running should cause it to
+				// be rescheduled
+				updateScheduled.set(false);
 				// Abort the job if there isn't anything
 				if (collectors.length == 0) {
 					return Status.CANCEL_STATUS;
@@ -266,6 +266,7 @@ class ProgressViewUpdater implements IJobProgressManagerListener {
 
 				if (currentInfo.updateAll) {
 					synchronized (updateLock) {
+						progressChanges.clear();
 						currentInfo.reset();
 					}
 					for (int i = 0; i < collectors.length; i++) {
@@ -278,6 +279,7 @@ class ProgressViewUpdater implements IJobProgressManagerListener {
 					Object[] additionItems;
 					Object[] deletionItems;
 					synchronized (updateLock) {
+						takeProgressChanges();
 						currentInfo.processForUpdate();
 
 						updateItems = currentInfo.refreshes.toArray();
@@ -311,9 +313,7 @@ class ProgressViewUpdater implements IJobProgressManagerListener {
 			 * @see org.eclipse.core.runtime.jobs.Job#canceling()
 			 */
 			protected void canceling() {
-				synchronized (updateScheduled) {
-					updateScheduled.value = false;
-				}
+				updateScheduled.set(false);
             }
         };
         updateJob.setSystem(true);
@@ -322,6 +322,24 @@ class ProgressViewUpdater implements IJobProgressManagerListener {
 
     }
 
+    /**
+     * Move the progress changes into the current updates info. Must be called
+     * with the updateLock held.
+     */
+    private void takeProgressChanges() {
+        Iterator iterator = progressChanges.keySet().iterator();
+        while (iterator.hasNext()) {
+            JobInfo info = (JobInfo) iterator.next();
+            // remove it first so that later changes are reported again
+            iterator.remove();
+            currentInfo.refresh(info);
+            GroupInfo group = info.getGroupInfo();
+            if (group != null) {
+                currentInfo.refresh(group);
+            }
+        }
+    }
+
     /**
      * Get the updates info that we are using in the receiver.
      * 
@@ -370,6 +388,20 @@ class ProgressViewUpdater implements IJobProgressManagerListener {
 
     }
 
+    /* (non-Javadoc)
+     * @see org.eclipse.ui.internal.progress.IJobProgressManagerListener#refreshProgress(org.eclipse.ui.internal.progress.JobInfo)
+     */
+    public void refreshProgress(JobInfo info) {
+        // only the first report until the next update needs to schedule it,
+        // containsKey neither locks nor allocates
+        if (progressChanges.containsKey(info) || isUpdateJob(info.getJob())) {
+            return;
+        }
+        if (progressChanges.put(info, info) == null) {
+            scheduleUpdate();
+        }
+    }
+
     /* (non-Javadoc)
      * @see org.eclipse.ui.internal.progress.IJobProgressManagerListener#refreshGroup(org.eclipse.ui.internal.progress.GroupInfo)
      */
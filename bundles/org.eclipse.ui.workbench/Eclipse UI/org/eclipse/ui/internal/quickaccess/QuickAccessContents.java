@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2013 IBM Corporation and others.
+ * Copyright (c) 2005, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -98,6 +98,17 @@ public abstract class QuickAccessContents {
 	protected boolean resized = false;
 	private TriggerSequence keySequence;
 
+	/**
+	 * The filter of the last refresh and, per provider, the sorted elements
+	 * it was applied to along with the elements that may still match a longer
+	 * filter: the ones that matched and the ones that were not looked at.
+	 * Every way of matching an element tests whether some string contains the
+	 * filter, so typing more characters can only remove matches.
+	 */
+	private String lastFilter;
+	private QuickAccessElement[][] lastSortedElements;
+	private QuickAccessElement[][] lastCandidates;
+
 	public QuickAccessContents(QuickAccessProvider[] providers) {
 		this.providers = providers;
 	}
@@ -302,6 +313,12 @@ public abstract class QuickAccessContents {
 		int countPerProvider = Math.min(maxCount / 4,
 				INITIAL_COUNT_PER_PROVIDER);
 		int countTotal = 0;
+		QuickAccessElement[][] sortedElementsPerProvider = new QuickAccessElement[providers.length][];
+		QuickAccessElement[][] candidatesPerProvider = new QuickAccessElement[providers.length][];
+		@SuppressWarnings("unchecked")
+		List<QuickAccessElement>[] matchesPerProvider = new List[providers.length];
+		boolean narrow = lastFilter != null && filter.length() > 0
+				&& filter.startsWith(lastFilter);
 		boolean perfectMatchAdded = true;
 		if (perfectMatch != null) {
 			// reserve one entry for the perfect match
@@ -322,7 +339,15 @@ public abstract class QuickAccessContents {
 				int count = 0;
 				QuickAccessProvider provider = providers[i];
 				if (filter.length() > 0 || provider.isAlwaysPresent() || showAllMatches) {
-					QuickAccessElement[] sortedElements = provider.getElementsSorted();
+					if (candidatesPerProvider[i] == null) {
+						QuickAccessElement[] allElements = provider.getElementsSorted();
+						sortedElementsPerProvider[i] = allElements;
+						candidatesPerProvider[i] = narrow
+								&& lastSortedElements[i] == allElements
+								&& lastCandidates[i] != null ? lastCandidates[i] : allElements;
+						matchesPerProvider[i] = new ArrayList<QuickAccessElement>();
+					}
+					QuickAccessElement[] sortedElements = candidatesPerProvider[i];
 					List<QuickAccessEntry> poorFilterMatches = new ArrayList<QuickAccessEntry>();
 					
 					int j = indexPerProvider[i];
@@ -342,6 +367,7 @@ public abstract class QuickAccessContents {
 							// We only have limited space so only display
 							// excellent filter matches (Bug 398455)
 							if (possibleMatch != null) {
+								matchesPerProvider[i].add(element);
 								if (possibleMatch.getMatchQuality() <= QuickAccessEntry.MATCH_EXCELLENT) {
 									entry = possibleMatch;
 								} else {
@@ -396,9 +422,40 @@ public abstract class QuickAccessContents {
 				entries[0].add(entry);
 			}
 		}
+		rememberCandidates(filter, sortedElementsPerProvider, candidatesPerProvider,
+				matchesPerProvider, indexPerProvider);
 		return entries;
 	}
 
+	/**
+	 * Remembers the elements that may still match when the given filter is
+	 * extended, so that the next refresh does not need to look at all the
+	 * elements again.
+	 */
+	private void rememberCandidates(String filter, QuickAccessElement[][] sortedElements,
+			QuickAccessElement[][] candidates, List<QuickAccessElement>[] matches,
+			int[] indexPerProvider) {
+		if (filter.length() == 0) {
+			lastFilter = null;
+			lastSortedElements = null;
+			lastCandidates = null;
+			return;
+		}
+		for (int i = 0; i < providers.length; i++) {
+			if (candidates[i] != null) {
+				int next = indexPerProvider[i];
+				List<QuickAccessElement> remaining = matches[i];
+				for (int j = next; j < candidates[i].length; j++) {
+					remaining.add(candidates[i][j]);
+				}
+				candidates[i] = remaining.toArray(new QuickAccessElement[remaining.size()]);
+			}
+		}
+		lastFilter = filter;
+		lastSortedElements = sortedElements;
+		lastCandidates = candidates;
+	}
+
 	/**
 	 * @param provider
 	 * @param entry
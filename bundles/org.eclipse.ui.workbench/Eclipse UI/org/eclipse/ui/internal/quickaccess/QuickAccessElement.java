@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2013 IBM Corporation and others.
+ * Copyright (c) 2006, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,6 +25,14 @@ public abstract class QuickAccessElement {
 	private static final int[][] EMPTY_INDICES = new int[0][0];
 	private QuickAccessProvider provider;
 
+	private String matchedLabel;
+	private String matchedProviderName;
+	private String labelLowerCase;
+	private String labelCamelCase;
+	private String combinedLabelLowerCase;
+	private String combinedCamelCase;
+	private String providerCamelCase;
+
 	/**
 	 * @param provider
 	 */
@@ -90,17 +98,17 @@ public abstract class QuickAccessElement {
 	public QuickAccessEntry match(String filter,
 			QuickAccessProvider providerForMatching) {
 		String sortLabel = getLabel();
-		int index = sortLabel.toLowerCase().indexOf(filter);
+		updateMatchingStrings(sortLabel, providerForMatching.getName());
+		int index = labelLowerCase.indexOf(filter);
 		if (index != -1) {
-			int quality = sortLabel.toLowerCase().equals(filter) ? QuickAccessEntry.MATCH_PERFECT
-					: (sortLabel.toLowerCase().startsWith(filter) ? QuickAccessEntry.MATCH_EXCELLENT
+			int quality = labelLowerCase.equals(filter) ? QuickAccessEntry.MATCH_PERFECT
+					: (labelLowerCase.startsWith(filter) ? QuickAccessEntry.MATCH_EXCELLENT
 							: QuickAccessEntry.MATCH_GOOD);
 			return new QuickAccessEntry(this, providerForMatching,
 					new int[][] { { index, index + filter.length() - 1 } },
  EMPTY_INDICES, quality);
 		}
-		String combinedLabel = (providerForMatching.getName() + " " + getLabel()); //$NON-NLS-1$
-		index = combinedLabel.toLowerCase().indexOf(filter);
+		index = combinedLabelLowerCase.indexOf(filter);
 		if (index != -1) {
 			int lengthOfElementMatch = index + filter.length()
 					- providerForMatching.getName().length() - 1;
@@ -114,8 +122,7 @@ public abstract class QuickAccessElement {
 					EMPTY_INDICES, new int[][] { { index,
  index + filter.length() - 1 } }, QuickAccessEntry.MATCH_GOOD);
 		}
-		String camelCase = CamelUtil.getCamelCase(sortLabel);
-		index = camelCase.indexOf(filter);
+		index = labelCamelCase.indexOf(filter);
 		if (index != -1) {
 			int[][] indices = CamelUtil.getCamelCaseIndices(sortLabel, index, filter
 					.length());
@@ -123,11 +130,8 @@ public abstract class QuickAccessElement {
  EMPTY_INDICES,
 					QuickAccessEntry.MATCH_GOOD);
 		}
-		String combinedCamelCase = CamelUtil.getCamelCase(combinedLabel);
 		index = combinedCamelCase.indexOf(filter);
 		if (index != -1) {
-			String providerCamelCase = CamelUtil.getCamelCase(providerForMatching
-					.getName());
 			int lengthOfElementMatch = index + filter.length()
 					- providerCamelCase.length();
 			if (lengthOfElementMatch > 0) {
@@ -147,4 +151,24 @@ public abstract class QuickAccessElement {
 		}
 		return null;
 	}
+
+	/**
+	 * Computes the lower case and camel case forms of the label and of the
+	 * label prefixed with the provider name, unless they are still valid for
+	 * the given label and provider name. Matching is done on every keystroke,
+	 * so these are kept instead of being derived again for every filter.
+	 */
+	private void updateMatchingStrings(String label, String providerName) {
+		if (label.equals(matchedLabel) && providerName.equals(matchedProviderName)) {
+			return;
+		}
+		String combinedLabel = providerName + " " + label; //$NON-NLS-1$
+		labelLowerCase = label.toLowerCase();
+		labelCamelCase = CamelUtil.getCamelCase(label);
+		combinedLabelLowerCase = combinedLabel.toLowerCase();
+		combinedCamelCase = CamelUtil.getCamelCase(combinedLabel);
+		providerCamelCase = CamelUtil.getCamelCase(providerName);
+		matchedLabel = label;
+		matchedProviderName = providerName;
+	}
 }
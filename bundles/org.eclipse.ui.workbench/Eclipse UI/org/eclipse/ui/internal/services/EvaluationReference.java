@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 IBM Corporation and others.
+ * Copyright (c) 2007, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,6 +23,7 @@ import org.eclipse.e4.ui.internal.workbench.Activator;
 import org.eclipse.e4.ui.internal.workbench.Policy;
 import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.util.PropertyChangeEvent;
+import org.eclipse.ui.internal.misc.UIStats;
 import org.eclipse.ui.services.IEvaluationReference;
 
 /**
@@ -39,6 +40,7 @@ public class EvaluationReference extends RunAndTrack implements IEvaluationRefer
 	boolean participating = true;
 	boolean postingChanges = true;
 	boolean hasRun = false;
+	SharedEvaluationResults sharedResults;
 
 	public EvaluationReference(IEclipseContext context, Expression expression,
 			IPropertyChangeListener listener, String property) {
@@ -91,7 +93,7 @@ public class EvaluationReference extends RunAndTrack implements IEvaluationRefer
 			cache = true;
 		} else {
 			try {
-				cache = expression.evaluate(context) != EvaluationResult.FALSE;
+				cache = evaluateExpression(context) != EvaluationResult.FALSE;
 			} catch (CoreException e) {
 				Activator.trace(Policy.DEBUG_CMDS, "Failed to calculate active", e); //$NON-NLS-1$
 			}
@@ -99,6 +101,29 @@ public class EvaluationReference extends RunAndTrack implements IEvaluationRefer
 		return cache;
 	}
 
+	/**
+	 * Evaluates the expression, reporting the time spent to the
+	 * {@link UIStats#EVALUATE_EXPRESSION} performance event.
+	 * 
+	 * @param context
+	 *            the context to evaluate the expression in
+	 * @return the result of the evaluation
+	 * @throws CoreException
+	 *             if the evaluation failed
+	 */
+	EvaluationResult evaluateExpression(IEvaluationContext context) throws CoreException {
+		if (!UIStats.isDebugging(UIStats.EVALUATE_EXPRESSION)) {
+			return expression.evaluate(context);
+		}
+		String label = property + ' ' + expression;
+		UIStats.start(UIStats.EVALUATE_EXPRESSION, label);
+		try {
+			return expression.evaluate(context);
+		} finally {
+			UIStats.end(UIStats.EVALUATE_EXPRESSION, listener, label);
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -128,7 +153,11 @@ public class EvaluationReference extends RunAndTrack implements IEvaluationRefer
 
 	public void evaluate() {
 		boolean value = cache;
-		evaluate(new ExpressionContext(context));
+		if (sharedResults != null && expression != null) {
+			sharedResults.evaluate(this);
+		} else {
+			evaluate(new ExpressionContext(context));
+		}
 		if (!postingChanges) {
 			return;
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 IBM Corporation and others.
+ * Copyright (c) 2007, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,10 +14,13 @@ package org.eclipse.ui.internal.services;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.Set;
 import java.util.Map.Entry;
 import org.eclipse.core.expressions.Expression;
 import org.eclipse.core.expressions.ExpressionInfo;
@@ -59,11 +62,21 @@ public final class EvaluationService implements IEvaluationService {
 	LinkedList<EvaluationReference> refs = new LinkedList<EvaluationReference>();
 	private ISourceProviderListener contextUpdater;
 
+	/**
+	 * The references by the names of the variables and properties their
+	 * expressions access, to find the ones to evaluate in
+	 * {@link #requestEvaluation(String)}.
+	 */
+	private HashMap<String, Set<EvaluationReference>> refsBySource = new HashMap<String, Set<EvaluationReference>>();
+
+	private SharedEvaluationResults sharedResults;
+
 	private HashSet<String> ratVariables = new HashSet<String>();
 	private RunAndTrack ratUpdater = new RunAndTrack() {
 		@Override
 		public boolean changed(IEclipseContext context) {
 			context.get(RE_EVAL);
+			sharedResults.clear();
 			String[] vars = ratVariables.toArray(new String[ratVariables.size()]);
 			for (String var : vars) {
 				Object value = context.getActive(var);
@@ -82,6 +95,7 @@ public final class EvaluationService implements IEvaluationService {
 	public EvaluationService(IEclipseContext c) {
 		context = c;
 		ratContext = context.getParent().createChild(getClass().getName());
+		sharedResults = new SharedEvaluationResults(ratContext);
 		legacyContext = new ExpressionContext(context);
 		ExpressionContext.defaultVariableConverter = new ContextFunction() {
 			@Override
@@ -201,6 +215,8 @@ public final class EvaluationService implements IEvaluationService {
 			invalidate(ref, false);
 		}
 		refs.clear();
+		refsBySource.clear();
+		sharedResults.clear();
 		serviceListeners.clear();
 	}
 
@@ -260,6 +276,10 @@ public final class EvaluationService implements IEvaluationService {
 				if (ratVariables.add(varName)) {
 					changed = true;
 				}
+				addSource(varName, eref);
+			}
+			for (String propertyName : info.getAccessedPropertyNames()) {
+				addSource(propertyName, eref);
 			}
 
 			if (info.hasDefaultVariableAccess()
@@ -271,12 +291,41 @@ public final class EvaluationService implements IEvaluationService {
 			contextEvaluate();
 		}
 		eref.participating = true;
+		eref.sharedResults = sharedResults;
 		ratContext.runAndTrack(eref);
 	}
 
+	private void addSource(String name, EvaluationReference ref) {
+		Set<EvaluationReference> sourceRefs = refsBySource.get(name);
+		if (sourceRefs == null) {
+			sourceRefs = new LinkedHashSet<EvaluationReference>();
+			refsBySource.put(name, sourceRefs);
+		}
+		sourceRefs.add(ref);
+	}
+
+	private void removeSources(EvaluationReference ref) {
+		if (ref.getExpression() == null) {
+			return;
+		}
+		ExpressionInfo info = ref.getExpression().computeExpressionInfo();
+		removeSource(info.getAccessedVariableNames(), ref);
+		removeSource(info.getAccessedPropertyNames(), ref);
+	}
+
+	private void removeSource(String[] names, EvaluationReference ref) {
+		for (String name : names) {
+			Set<EvaluationReference> sourceRefs = refsBySource.get(name);
+			if (sourceRefs != null && sourceRefs.remove(ref) && sourceRefs.isEmpty()) {
+				refsBySource.remove(name);
+			}
+		}
+	}
+
 	private void invalidate(IEvaluationReference ref, boolean remove) {
 		if (remove) {
 			refs.remove(ref);
+			removeSources((EvaluationReference) ref);
 		}
 		EvaluationReference eref = (EvaluationReference) ref;
 		eref.participating = false;
@@ -316,29 +365,14 @@ public final class EvaluationService implements IEvaluationService {
 
 		String[] sourceNames = new String[] { propertyName };
 		startSourceChange(sourceNames);
-		for (EvaluationReference ref : refs) {
-			Expression expr = ref.getExpression();
-			if (expr != null) {
-				boolean evaluated = false;
-				ExpressionInfo info = expr.computeExpressionInfo();
-				String[] names = info.getAccessedPropertyNames();
-				for (String name : names) {
-					if (propertyName.equals(name)) {
-						evaluated = true;
-						ref.evaluate();
-						break;
-					}
-				}
-				if (!evaluated) {
-					names = info.getAccessedVariableNames();
-					for (String name : names) {
-						if (propertyName.equals(name)) {
-							evaluated = true;
-							ref.evaluate();
-							break;
-						}
-					}
-				}
+		// property testers may answer differently now
+		sharedResults.clear();
+		Set<EvaluationReference> sourceRefs = refsBySource.get(propertyName);
+		if (sourceRefs != null) {
+			EvaluationReference[] toEvaluate = sourceRefs
+					.toArray(new EvaluationReference[sourceRefs.size()]);
+			for (EvaluationReference ref : toEvaluate) {
+				ref.evaluate();
 			}
 		}
 		endSourceChange(sourceNames);
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.internal.services;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.eclipse.core.expressions.EvaluationResult;
+import org.eclipse.core.expressions.Expression;
+import org.eclipse.core.expressions.IEvaluationContext;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.e4.core.commands.ExpressionContext;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.ui.internal.workbench.Activator;
+import org.eclipse.e4.ui.internal.workbench.Policy;
+import org.eclipse.e4.ui.services.IServiceConstants;
+
+/**
+ * The results of the expressions evaluated by an {@link EvaluationService},
+ * shared between the references having equal expressions. A result records
+ * the variables read while computing it, and is reused as long as these
+ * variables have the same values. The results are cleared whenever the
+ * service starts processing a new change, so that property testers are asked
+ * again.
+ *
+ * @since 3.105
+ */
+class SharedEvaluationResults {
+
+	private static class Result {
+		final Map<String, Object> variables;
+		final boolean value;
+
+		Result(Map<String, Object> variables, boolean value) {
+			this.variables = variables;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * An expression context recording the variables read from it. Reading the
+	 * eclipse context itself or walking up to the parent contexts makes the
+	 * result impossible to share.
+	 */
+	private static class RecordingContext extends ExpressionContext {
+		final Map<String, Object> variables = new LinkedHashMap<String, Object>();
+		boolean shareable = true;
+
+		RecordingContext(IEclipseContext eclipseContext) {
+			super(eclipseContext);
+		}
+
+		@Override
+		public Object getVariable(String name) {
+			if (IEclipseContext.class.getName().equals(name)) {
+				shareable = false;
+			} else if (!variables.containsKey(name)) {
+				variables.put(name, eclipseContext.getActive(name));
+			}
+			return super.getVariable(name);
+		}
+
+		@Override
+		public Object getDefaultVariable() {
+			if (!variables.containsKey(IServiceConstants.ACTIVE_SELECTION)) {
+				variables.put(IServiceConstants.ACTIVE_SELECTION,
+						eclipseContext.getActive(IServiceConstants.ACTIVE_SELECTION));
+			}
+			return super.getDefaultVariable();
+		}
+
+		@Override
+		public IEvaluationContext getParent() {
+			shareable = false;
+			return super.getParent();
+		}
+
+		@Override
+		public IEvaluationContext getRoot() {
+			shareable = false;
+			return super.getRoot();
+		}
+	}
+
+	private final IEclipseContext context;
+	private final Map<Expression, Result> results = new HashMap<Expression, Result>();
+
+	SharedEvaluationResults(IEclipseContext context) {
+		this.context = context;
+	}
+
+	/**
+	 * Evaluates the expression of the given reference, reusing the result of
+	 * an equal expression if none of the variables it read has changed since.
+	 *
+	 * @param ref
+	 *            the reference to evaluate; its expression must not be
+	 *            <code>null</code>
+	 * @return the result of the evaluation
+	 */
+	boolean evaluate(EvaluationReference ref) {
+		Expression expression = ref.getExpression();
+		Result result = results.get(expression);
+		if (result != null && isValid(result)) {
+			ref.setResult(result.value);
+			return result.value;
+		}
+		RecordingContext recordingContext = new RecordingContext(context);
+		boolean value;
+		try {
+			value = ref.evaluateExpression(recordingContext) != EvaluationResult.FALSE;
+		} catch (CoreException e) {
+			// keep the previous result, as EvaluationReference does
+			Activator.trace(Policy.DEBUG_CMDS, "Failed to calculate active", e); //$NON-NLS-1$
+			results.remove(expression);
+			return ref.cache;
+		}
+		ref.setResult(value);
+		if (recordingContext.shareable) {
+			results.put(expression, new Result(recordingContext.variables, value));
+		} else {
+			results.remove(expression);
+		}
+		return value;
+	}
+
+	/**
+	 * Forgets all the results.
+	 */
+	void clear() {
+		results.clear();
+	}
+
+	/*
+	 * Reading all the variables, even once a change has been found, keeps the
+	 * dependencies of the running RunAndTrack identical to those of an actual
+	 * evaluation.
+	 */
+	private boolean isValid(Result result) {
+		boolean valid = true;
+		for (Map.Entry<String, Object> entry : result.variables.entrySet()) {
+			if (context.getActive(entry.getKey()) != entry.getValue()) {
+				valid = false;
+			}
+		}
+		return valid;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 IBM Corporation and others.
+ * Copyright (c) 2013, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -52,6 +52,9 @@ public class BindingTableTests extends TestCase {
 	private static final String CORR_INDENT_ID = "org.eclipse.jdt.ui.correctIndentation";
 	private static final String INDENT_LINE_ID = "org.eclipse.wst.jsdt.ui.indentLine";
 
+	private static final String DEFAULT_SCHEME_ID = "org.eclipse.ui.defaultAcceleratorConfiguration";
+	private static final String EMACS_SCHEME_ID = "org.eclipse.ui.emacsAcceleratorConfiguration";
+
 	final static String[] CONTEXTS = { ID_DIALOG_AND_WINDOW, "DAW", null,
 			ID_DIALOG, "Dialog", ID_DIALOG_AND_WINDOW, ID_WINDOW, "Window",
 			ID_DIALOG_AND_WINDOW, ID_TEXT, "Text Scope", ID_WINDOW, ID_JAVA,
@@ -104,7 +107,7 @@ public class BindingTableTests extends TestCase {
 				Command cmd = commandManager.getCommand(BINDINGS[i]);
 				loadedBindings.add(new KeyBinding(seq,
 						new ParameterizedCommand(cmd, null),
-						"org.eclipse.ui.defaultAcceleratorConfiguration",
+						DEFAULT_SCHEME_ID,
 						BINDINGS[i + 2], null, null, null, Binding.SYSTEM));
 			}
 		}
@@ -178,6 +181,27 @@ public class BindingTableTests extends TestCase {
 		assertFalse(table.isPartialMatch(ctrl8));
 	}
 
+	public void testPartialMatchAfterRemove() throws Exception {
+		BindingTable table = loadTable(ID_DIALOG_AND_WINDOW);
+		Binding about = getTestBinding(ABOUT_ID);
+		KeySequence ctrl5 = KeySequence.getInstance("CTRL+5");
+		assertTrue(table.isPartialMatch(ctrl5));
+
+		table.removeBinding(about);
+		assertFalse(table.isPartialMatch(ctrl5));
+		assertNull(table.getPartialMatches(ctrl5));
+		assertNull(table.getPerfectMatch(about.getTriggerSequence()));
+		assertTrue(table.getSequencesFor(about.getParameterizedCommand())
+				.isEmpty());
+		assertFalse(table.getBindings().contains(about));
+
+		table.addBinding(about);
+		assertTrue(table.isPartialMatch(ctrl5));
+		assertEquals(about, table.getPerfectMatch(about.getTriggerSequence()));
+		assertEquals(about,
+				table.getBestSequenceFor(about.getParameterizedCommand()));
+	}
+
 	public void testContextSet() throws Exception {
 		BindingTableManager manager = (BindingTableManager) ContextInjectionFactory
 				.make(BindingTableManager.class, workbenchContext);
@@ -321,6 +345,34 @@ public class BindingTableTests extends TestCase {
 		assertEquals(paste, match);
 	}
 
+	public void testManagerLookupShortcutAfterSchemeChange() throws Exception {
+		BindingTableManager manager = createManager();
+		Binding paste = getTestBinding(PASTE_ID);
+		ParameterizedCommand pasteCmd = paste.getParameterizedCommand();
+		BindingTable table = manager.getTable(ID_WINDOW);
+		Binding emacsPaste = new KeyBinding(KeySequence.getInstance("CTRL+Y"),
+				pasteCmd, EMACS_SCHEME_ID, ID_WINDOW, null, null, null,
+				Binding.SYSTEM);
+		try {
+			manager.setActiveSchemes(new String[] { EMACS_SCHEME_ID,
+					DEFAULT_SCHEME_ID });
+			table.addBinding(emacsPaste);
+			assertEquals(emacsPaste, table.getBestSequenceFor(pasteCmd));
+
+			manager.setActiveSchemes(new String[] { DEFAULT_SCHEME_ID });
+			assertEquals(paste, table.getBestSequenceFor(pasteCmd));
+			Collection<Binding> sequences = table.getSequencesFor(pasteCmd);
+			assertEquals(3, sequences.size());
+			Iterator<Binding> it = sequences.iterator();
+			assertEquals(paste, it.next());
+			assertEquals(KeySequence.getInstance("SHIFT+INSERT"), it.next()
+					.getTriggerSequence());
+			assertEquals(emacsPaste, it.next());
+		} finally {
+			manager.setActiveSchemes(null);
+		}
+	}
+
 	public void testManagerLookupAllShortcuts() throws Exception {
 		BindingTableManager manager = createManager();
 		Binding paste = getTestBinding(PASTE_ID);
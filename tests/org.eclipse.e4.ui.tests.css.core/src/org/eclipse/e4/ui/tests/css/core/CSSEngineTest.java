@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 IBM Corporation and others.
+ * Copyright (c) 2013, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.e4.ui.tests.css.core;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.AbstractCollection;
 import java.util.AbstractSet;
 import java.util.ArrayList;
@@ -25,10 +27,16 @@ import org.eclipse.e4.ui.css.core.dom.IElementProvider;
 import org.eclipse.e4.ui.css.core.engine.CSSEngine;
 import org.eclipse.e4.ui.css.core.impl.engine.CSSEngineImpl;
 import org.eclipse.e4.ui.tests.css.core.util.TestElement;
+import org.w3c.css.sac.InputSource;
 import org.w3c.css.sac.SelectorList;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.w3c.dom.css.CSSPrimitiveValue;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleRule;
+import org.w3c.dom.css.CSSStyleSheet;
+import org.w3c.dom.css.CSSValue;
 
 public class CSSEngineTest extends TestCase {
 	private static class TestCSSEngine extends CSSEngineImpl {
@@ -128,4 +136,38 @@ public class CSSEngineTest extends TestCase {
 		assertTrue(engine.matches(list.item(0), new Date(), null));
 	}
 
+	public void testStyleSheetParsedOnce() throws Exception {
+		String uri = "platform:/test/" + getName() + ".css";
+		CSSRuleList rules1 = parse(new TestCSSEngine(), uri, "Date { color: red; }");
+		CSSRuleList rules2 = parse(new TestCSSEngine(), uri, "Date { color: red; }");
+		assertEquals(1, rules1.getLength());
+		assertSame(rules1.item(0), rules2.item(0));
+
+		CSSRuleList rules3 = parse(new TestCSSEngine(), uri, "Date { color: blue; }");
+		assertEquals(1, rules3.getLength());
+		assertNotSame(rules1.item(0), rules3.item(0));
+		CSSValue value = ((CSSStyleRule) rules3.item(0)).getStyle()
+				.getPropertyCSSValue("color");
+		assertEquals("blue", ((CSSPrimitiveValue) value).getStringValue());
+	}
+
+	public void testStyleSheetCacheBounded() throws Exception {
+		String uri = "platform:/test/" + getName() + ".css";
+		CSSRuleList rules1 = parse(new TestCSSEngine(), uri, "Date { color: red; }");
+		// parse enough other style sheets to push the first one out
+		for (int i = 0; i < 100; i++) {
+			parse(new TestCSSEngine(), uri + i, "Date { color: red; }");
+		}
+		CSSRuleList rules2 = parse(new TestCSSEngine(), uri, "Date { color: red; }");
+		assertEquals(1, rules2.getLength());
+		assertNotSame(rules1.item(0), rules2.item(0));
+	}
+
+	private CSSRuleList parse(CSSEngine engine, String uri, String css)
+			throws IOException {
+		InputSource source = new InputSource();
+		source.setURI(uri);
+		source.setByteStream(new ByteArrayInputStream(css.getBytes("UTF-8")));
+		return ((CSSStyleSheet) engine.parseStyleSheet(source)).getCssRules();
+	}
 }
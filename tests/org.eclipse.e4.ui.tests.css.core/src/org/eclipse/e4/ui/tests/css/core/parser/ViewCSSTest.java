@@ -57,6 +57,47 @@ public class ViewCSSTest extends TestCase {
 		assertEquals( 2, buttonStyle.getLength() );
 	}
 
+	public void testGetComputedStyleForClassAndId() throws Exception {
+		String css = "Button { color: black; }\n"
+				+ ".primary { font-weight: bold; }\n"
+				+ "#ok { font-style: italic; }\n"
+				+ "* { background-color: white; }\n";
+		ViewCSS viewCSS = createViewCss(css);
+
+		TestElement button = new TestElement("Button", engine);
+		assertEquals(2, viewCSS.getComputedStyle(button, null).getLength());
+
+		TestElement primary = new TestElement("Button", engine);
+		primary.setClass("large primary");
+		assertEquals(3, viewCSS.getComputedStyle(primary, null).getLength());
+
+		TestElement ok = new TestElement("Button", engine);
+		ok.setClass("primary");
+		ok.setId("ok");
+		CSSStyleDeclaration okStyle = viewCSS.getComputedStyle(ok, null);
+		assertEquals(4, okStyle.getLength());
+		assertEquals("italic", okStyle.getPropertyCSSValue("font-style")
+				.getCssText());
+	}
+
+	public void testGetComputedStyleAfterStyleSheetChange() throws Exception {
+		DocumentCSSImpl docCss = new DocumentCSSImpl();
+		docCss.addStyleSheet(ParserTestUtil.parseCss("Label { color: black; }"));
+		ViewCSS viewCSS = new ViewCSSImpl(docCss);
+
+		TestElement button = new TestElement("Button", engine);
+		assertNull(viewCSS.getComputedStyle(button, null));
+
+		docCss.removeAllStyleSheets();
+		docCss.addStyleSheet(ParserTestUtil.parseCss("Button { color: blue; }"));
+		CSSStyleDeclaration buttonStyle = viewCSS.getComputedStyle(button, null);
+		assertNotNull(buttonStyle);
+		assertEquals(1, buttonStyle.getLength());
+
+		docCss.removeAllStyleSheets();
+		assertNull(viewCSS.getComputedStyle(button, null));
+	}
+
 	private static ViewCSS createViewCss(String css) throws IOException {
 		CSSStyleSheet styleSheet = ParserTestUtil.parseCss(css);
 		DocumentCSSImpl docCss = new DocumentCSSImpl();
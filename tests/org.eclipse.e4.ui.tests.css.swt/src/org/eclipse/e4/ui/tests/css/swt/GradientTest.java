@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2012 IBM Corporation and others. All rights reserved. This
+ * Copyright (c) 2009, 2014 IBM Corporation and others. All rights reserved. This
  * program and the accompanying materials are made available under the terms of
  * the Eclipse Public License v1.0 which accompanies this distribution, and is
  * available at http://www.eclipse.org/legal/epl-v10.html
@@ -12,10 +12,12 @@ package org.eclipse.e4.ui.tests.css.swt;
 import java.lang.reflect.Field;
 
 import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.eclipse.e4.ui.css.swt.properties.GradientImageCache;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.CTabFolder;
 import org.eclipse.swt.custom.CTabItem;
 import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.RGB;
 import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.widgets.Composite;
@@ -155,6 +157,35 @@ public class GradientTest extends CSSSWTTestCase {
 	
 
 	
+	public void testGradientImageShared() throws Exception {
+		Display display = Display.getDefault();
+		engine = createEngine(
+				"Composite { background-color: #FF0000 #0000FF}", display);
+		Shell shell = new Shell(display, SWT.SHELL_TRIM);
+		try {
+			Composite first = new Composite(shell, SWT.NONE);
+			first.setBounds(0, 0, 100, 30);
+			Composite second = new Composite(shell, SWT.NONE);
+			second.setBounds(0, 40, 100, 30);
+			GradientImageCache cache = GradientImageCache.getCache(display);
+			int created = cache.getCreatedImageCount();
+			engine.applyStyles(first, true);
+			engine.applyStyles(second, true);
+			assertEquals(created + 1, cache.getCreatedImageCount());
+
+			Image image = first.getBackgroundImage();
+			assertNotNull(image);
+			assertSame(image, second.getBackgroundImage());
+
+			// the image remains in use by the second composite
+			first.dispose();
+			assertFalse(image.isDisposed());
+			assertSame(image, second.getBackgroundImage());
+		} finally {
+			shell.dispose();
+		}
+	}
+
 	//CTabFolder doesn't provide getter for these so we need to dig via reflection
 	
 	Color getSelectionBackgroundBegin(CTabFolder folder) {
@@ -0,0 +1,25 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.ui.tests.application;
+
+import org.eclipse.e4.ui.internal.workbench.E4Workbench;
+
+/**
+ * Runs the {@link EModelServiceFindTest} tests with the model index enabled.
+ */
+public class EModelServiceFindIndexedTest extends EModelServiceFindTest {
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		applicationContext.set(E4Workbench.MODEL_INDEX, Boolean.TRUE);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2011 IBM Corporation and others.
+ * Copyright (c) 2009, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -32,7 +32,7 @@ import org.eclipse.e4.ui.workbench.modeling.EModelService;
 
 public class EModelServiceFindTest extends TestCase {
 
-	private IEclipseContext applicationContext;
+	protected IEclipseContext applicationContext;
 
 	MApplication app = null;
 
@@ -277,4 +277,114 @@ public class EModelServiceFindTest extends TestCase {
 		assertEquals(1, elements.size());
 		assertEquals(part, elements.get(0));
 	}
+
+	public void testFindElementsAfterModelChanges() {
+		MApplication application = createApplication();
+
+		EModelService modelService = (EModelService) application.getContext()
+				.get(EModelService.class.getName());
+		assertNotNull(modelService);
+
+		List<MPart> parts = modelService.findElements(application,
+				"twoValidIds", MPart.class, null);
+		assertEquals(1, parts.size());
+		MPart part = parts.get(0);
+
+		part.setElementId("changedId");
+		assertEquals(0,
+				modelService.findElements(application, "twoValidIds",
+						MPart.class, null).size());
+		assertEquals(1,
+				modelService.findElements(application, "changedId", null, null)
+						.size());
+
+		List<String> tags = new ArrayList<String>();
+		tags.add("newTag");
+		assertEquals(0,
+				modelService.findElements(application, null, null, tags)
+						.size());
+		part.getTags().add("newTag");
+		assertEquals(1,
+				modelService.findElements(application, null, null, tags)
+						.size());
+
+		MPart newPart = BasicFactoryImpl.eINSTANCE.createPart();
+		newPart.setElementId("changedId");
+		part.getParent().getChildren().add(newPart);
+		assertEquals(2,
+				modelService.findElements(application, "changedId", null, null)
+						.size());
+
+		part.getParent().getChildren().remove(part);
+		List<MUIElement> elements = modelService.findElements(application,
+				"changedId", null, null);
+		assertEquals(1, elements.size());
+		assertEquals(newPart, elements.get(0));
+		assertEquals(0,
+				modelService.findElements(application, null, null, tags)
+						.size());
+	}
+
+	public void testFindElementsInActivePerspective() {
+		MApplication application = createApplication();
+
+		MWindow window = BasicFactoryImpl.eINSTANCE.createWindow();
+		application.getChildren().add(window);
+
+		MPerspectiveStack perspectiveStack = AdvancedFactoryImpl.eINSTANCE
+				.createPerspectiveStack();
+		window.getChildren().add(perspectiveStack);
+
+		MPerspective perspectiveA = AdvancedFactoryImpl.eINSTANCE
+				.createPerspective();
+		perspectiveStack.getChildren().add(perspectiveA);
+
+		MPerspective perspectiveB = AdvancedFactoryImpl.eINSTANCE
+				.createPerspective();
+		perspectiveStack.getChildren().add(perspectiveB);
+		perspectiveStack.setSelectedElement(perspectiveA);
+
+		MPart partA = BasicFactoryImpl.eINSTANCE.createPart();
+		partA.setElementId("perspectivePart");
+		perspectiveA.getChildren().add(partA);
+
+		MPart partB = BasicFactoryImpl.eINSTANCE.createPart();
+		partB.setElementId("perspectivePart");
+		perspectiveB.getChildren().add(partB);
+
+		MPart sharedPart = BasicFactoryImpl.eINSTANCE.createPart();
+		sharedPart.setElementId("perspectivePart");
+		window.getSharedElements().add(sharedPart);
+
+		MPlaceholder placeholder = AdvancedFactoryImpl.eINSTANCE
+				.createPlaceholder();
+		placeholder.setRef(sharedPart);
+		perspectiveB.getChildren().add(placeholder);
+
+		EModelService modelService = (EModelService) application.getContext()
+				.get(EModelService.class.getName());
+		assertNotNull(modelService);
+
+		List<MPart> elements = modelService.findElements(window,
+				"perspectivePart", MPart.class, null,
+				EModelService.IN_ACTIVE_PERSPECTIVE);
+		assertEquals(1, elements.size());
+		assertEquals(partA, elements.get(0));
+
+		perspectiveStack.setSelectedElement(perspectiveB);
+		elements = modelService.findElements(window, "perspectivePart",
+				MPart.class, null, EModelService.IN_ACTIVE_PERSPECTIVE);
+		assertEquals(2, elements.size());
+		assertEquals(partB, elements.get(0));
+		assertEquals(sharedPart, elements.get(1));
+
+		elements = modelService.findElements(window, "perspectivePart",
+				MPart.class, null, EModelService.ANYWHERE);
+		assertEquals(3, elements.size());
+
+		elements = modelService.findElements(perspectiveA, "perspectivePart",
+				MPart.class, null, EModelService.ANYWHERE);
+		assertEquals(1, elements.size());
+		assertEquals(partA, elements.get(0));
+	}
 }
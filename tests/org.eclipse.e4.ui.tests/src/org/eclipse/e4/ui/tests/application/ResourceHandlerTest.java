@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2013 IBM Corporation and others.
+ * Copyright (c) 2010, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,12 +11,14 @@
 
 package org.eclipse.e4.ui.tests.application;
 
+import java.io.File;
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.ui.internal.workbench.E4Workbench;
 import org.eclipse.e4.ui.internal.workbench.E4XMIResource;
 import org.eclipse.e4.ui.internal.workbench.ResourceHandler;
 import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
@@ -28,6 +30,9 @@ import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.util.tracker.ServiceTracker;
 
 public class ResourceHandlerTest extends HeadlessStartupTest {
+	// a time stamp no save can produce, multiple of a second for coarse file systems
+	private static final long UNWRITTEN = 1000000000000L;
+
 	private ServiceTracker locationTracker;
 
 	public Location getInstanceLocation() {
@@ -48,10 +53,15 @@ public class ResourceHandlerTest extends HeadlessStartupTest {
 	}
 
 	private ResourceHandler createHandler(URI uri) {
+		return createHandler(uri, true);
+	}
+
+	private ResourceHandler createHandler(URI uri, boolean clearPersistedState) {
 		IEclipseContext localContext = applicationContext.createChild();
 		localContext.set(E4Workbench.INSTANCE_LOCATION, getInstanceLocation());
 		localContext.set(E4Workbench.PERSIST_STATE, Boolean.TRUE);
-		localContext.set(E4Workbench.CLEAR_PERSISTED_STATE, Boolean.TRUE);
+		localContext.set(E4Workbench.CLEAR_PERSISTED_STATE,
+				Boolean.valueOf(clearPersistedState));
 		localContext.set(E4Workbench.DELTA_RESTORE, Boolean.TRUE);
 
 		localContext.set(E4Workbench.INITIAL_WORKBENCH_MODEL_URI, uri);
@@ -158,4 +168,43 @@ public class ResourceHandlerTest extends HeadlessStartupTest {
 				.getChildren().get(0).getChildren().get(7).getElementId());
 	}
 
+	public void testSaveSkippedWhenUnchanged() throws Exception {
+		URI uri = URI.createPlatformPluginURI(
+				"org.eclipse.e4.ui.tests/xmi/modelprocessor/base.e4xmi", true);
+
+		ResourceHandler handler = createHandler(uri);
+		Resource resource = handler.loadMostRecentModel();
+		File file = new File(resource.getURI().toFileString());
+		handler.save();
+		assertTrue(file.exists());
+
+		// the model processors change the restored model while it is loaded
+		handler = createHandler(uri, false);
+		resource = handler.loadMostRecentModel();
+		assertEquals(file, new File(resource.getURI().toFileString()));
+		assertSaveWrites(handler, file, true);
+
+		// nothing changed since the last save
+		assertSaveWrites(handler, file, false);
+
+		// transient features are not saved
+		MApplication application = (MApplication) resource.getContents().get(0);
+		MWindow window = application.getChildren().get(0);
+		window.setWidget(new Object());
+		assertSaveWrites(handler, file, false);
+		window.setWidget(null);
+
+		window.setLabel("changed");
+		assertSaveWrites(handler, file, true);
+		assertSaveWrites(handler, file, false);
+		file.delete();
+	}
+
+	private void assertSaveWrites(ResourceHandler handler, File file,
+			boolean written) throws Exception {
+		assertTrue(file.setLastModified(UNWRITTEN));
+		handler.save();
+		assertEquals(written, file.lastModified() != UNWRITTEN);
+	}
+
 }
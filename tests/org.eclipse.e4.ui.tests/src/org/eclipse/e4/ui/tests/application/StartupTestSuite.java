@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2012 IBM Corporation and others.
+ * Copyright (c) 2009, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,6 +21,7 @@ public class StartupTestSuite extends TestSuite {
 
 		suite.addTestSuite(EModelServiceTest.class);
 		suite.addTestSuite(EModelServiceFindTest.class);
+		suite.addTestSuite(EModelServiceFindIndexedTest.class);
 		suite.addTestSuite(EModelServiceInsertTest.class);
 		suite.addTestSuite(EPartServiceTest.class);
 		suite.addTestSuite(ESelectionServiceTest.class);
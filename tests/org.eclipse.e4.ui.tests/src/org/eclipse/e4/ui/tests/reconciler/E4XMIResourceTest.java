@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.tests.reconciler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import junit.framework.TestCase;
+import org.eclipse.e4.ui.internal.workbench.E4XMIResource;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.impl.ApplicationFactoryImpl;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
+import org.eclipse.e4.ui.model.application.ui.advanced.impl.AdvancedFactoryImpl;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
+import org.eclipse.e4.ui.model.application.ui.basic.impl.BasicFactoryImpl;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+
+public class E4XMIResourceTest extends TestCase {
+
+	private static final Map<String, Object> BINARY = Collections
+			.<String, Object> singletonMap(E4XMIResource.OPTION_BINARY_FORMAT,
+					Boolean.TRUE);
+
+	private E4XMIResource createResource() {
+		E4XMIResource resource = new E4XMIResource(
+				URI.createURI("workbench.xmi"));
+		new ResourceSetImpl().getResources().add(resource);
+		return resource;
+	}
+
+	private MApplication createApplication(E4XMIResource resource) {
+		MApplication application = ApplicationFactoryImpl.eINSTANCE
+				.createApplication();
+		resource.getContents().add((EObject) application);
+
+		MWindow window = BasicFactoryImpl.eINSTANCE.createWindow();
+		window.setElementId("window");
+		application.getChildren().add(window);
+
+		MPartStack stack = BasicFactoryImpl.eINSTANCE.createPartStack();
+		stack.setElementId("stack");
+		stack.getTags().add("tag");
+		window.getSharedElements().add(stack);
+
+		MPart part = BasicFactoryImpl.eINSTANCE.createPart();
+		part.setElementId("part");
+		part.getPersistedState().put("key", "value");
+		stack.getChildren().add(part);
+		stack.setSelectedElement(part);
+
+		MPlaceholder placeholder = AdvancedFactoryImpl.eINSTANCE
+				.createPlaceholder();
+		placeholder.setRef(stack);
+		window.getChildren().add(placeholder);
+
+		resource.setID((EObject) window, "windowId");
+		return application;
+	}
+
+	private E4XMIResource reload(E4XMIResource resource,
+			Map<String, Object> options) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		resource.save(out, options);
+
+		E4XMIResource loaded = createResource();
+		loaded.load(new ByteArrayInputStream(out.toByteArray()), null);
+		return loaded;
+	}
+
+	private void checkModel(E4XMIResource original, E4XMIResource loaded) {
+		assertEquals(1, loaded.getContents().size());
+		MApplication application = (MApplication) loaded.getContents().get(0);
+		assertEquals(1, application.getChildren().size());
+
+		MWindow window = application.getChildren().get(0);
+		assertEquals("window", window.getElementId());
+		assertEquals("windowId", loaded.getID((EObject) window));
+
+		MPartStack stack = (MPartStack) window.getSharedElements().get(0);
+		assertEquals("tag", stack.getTags().get(0));
+		MPart part = (MPart) stack.getChildren().get(0);
+		assertEquals("value", part.getPersistedState().get("key"));
+		assertSame(part, stack.getSelectedElement());
+		assertSame(stack, ((MPlaceholder) window.getChildren().get(0)).getRef());
+
+		MApplication originalApplication = (MApplication) original
+				.getContents().get(0);
+		assertEquals(original.getID((EObject) originalApplication),
+				loaded.getID((EObject) application));
+		assertEquals(
+				original.getID((EObject) originalApplication.getChildren()
+						.get(0).getSharedElements().get(0)),
+				loaded.getID((EObject) stack));
+		assertEquals(loaded.getID((EObject) stack),
+				loaded.getInternalId((EObject) stack));
+	}
+
+	public void testXMIRoundTrip() throws IOException {
+		E4XMIResource resource = createResource();
+		createApplication(resource);
+		checkModel(resource, reload(resource, null));
+	}
+
+	public void testBinaryRoundTrip() throws IOException {
+		E4XMIResource resource = createResource();
+		createApplication(resource);
+		checkModel(resource, reload(resource, BINARY));
+	}
+
+	public void testBinaryToXMI() throws IOException {
+		E4XMIResource resource = createResource();
+		createApplication(resource);
+		E4XMIResource binary = reload(resource, BINARY);
+		checkModel(resource, reload(binary, null));
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2010 IBM Corporation and others.
+ * Copyright (c) 2009, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,6 +23,7 @@ public class ModelReconcilerTestSuite extends TestSuite {
 
 	public ModelReconcilerTestSuite() {
 		addTestSuite(E4XMIResourceFactoryTest.class);
+		addTestSuite(E4XMIResourceTest.class);
 		addTest(XMLModelReconcilerTestSuite.suite());
 	}
 
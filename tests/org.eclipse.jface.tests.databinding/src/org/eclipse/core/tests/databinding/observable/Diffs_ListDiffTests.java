@@ -15,6 +15,7 @@ package org.eclipse.core.tests.databinding.observable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import junit.framework.TestCase;
 
@@ -256,8 +257,92 @@ public class Diffs_ListDiffTests extends TestCase {
 				Arrays.asList(new Object[] { "c", "a", "b" }));
 	}
 
+	public void testComputeListDiffHashed_SingleInsert() {
+		ListDiff diff = hashedDiff(new String[] { "a", "c" }, new String[] {
+				"a", "b", "c" });
+		assertEquals(1, diff.getDifferences().length);
+		assertEntry(diff.getDifferences()[0], true, 1, "b");
+	}
+
+	public void testComputeListDiffHashed_SingleRemove() {
+		ListDiff diff = hashedDiff(new String[] { "a", "b", "c" },
+				new String[] { "a", "c" });
+		assertEquals(1, diff.getDifferences().length);
+		assertEntry(diff.getDifferences()[0], false, 1, "b");
+	}
+
+	public void testComputeListDiffHashed_MoveFirstToLast() {
+		ListDiff diff = hashedDiff(new String[] { "a", "b", "c", "d" },
+				new String[] { "b", "c", "d", "a" });
+		assertEquals(2, diff.getDifferences().length);
+		assertEntry(diff.getDifferences()[0], false, 0, "a");
+		assertEntry(diff.getDifferences()[1], true, 3, "a");
+	}
+
+	public void testComputeListDiffHashed_Reverse() {
+		ListDiff diff = hashedDiff(new String[] { "a", "b", "c" },
+				new String[] { "c", "b", "a" });
+		assertEquals(4, diff.getDifferences().length);
+		assertEntry(diff.getDifferences()[0], false, 2, "c");
+		assertEntry(diff.getDifferences()[1], true, 0, "c");
+		assertEntry(diff.getDifferences()[2], false, 2, "b");
+		assertEntry(diff.getDifferences()[3], true, 1, "b");
+	}
+
+	public void testComputeListDiffHashed_ReportsMoves() {
+		ListDiff diff = hashedDiff(new String[] { "a", "b", "c", "d", "e" },
+				new String[] { "e", "a", "b", "c", "d" });
+		final int[] moves = new int[1];
+		diff.accept(new ListDiffVisitor() {
+			public void handleAdd(int index, Object element) {
+				fail("Unexpected addition of " + element);
+			}
+
+			public void handleRemove(int index, Object element) {
+				fail("Unexpected removal of " + element);
+			}
+
+			public void handleMove(int oldIndex, int newIndex, Object element) {
+				assertEquals(4, oldIndex);
+				assertEquals(0, newIndex);
+				assertEquals("e", element);
+				moves[0]++;
+			}
+		});
+		assertEquals(1, moves[0]);
+	}
+
+	public void testComputeListDiffHashed_RandomLists() {
+		Random random = new Random(0);
+		for (int i = 0; i < 500; i++) {
+			List oldList = new ArrayList();
+			List newList = new ArrayList();
+			int oldSize = random.nextInt(20);
+			int newSize = random.nextInt(20);
+			for (int j = 0; j < oldSize; j++) {
+				oldList.add(random.nextInt(8) == 0 ? null : String
+						.valueOf(random.nextInt(10)));
+			}
+			for (int j = 0; j < newSize; j++) {
+				newList.add(random.nextInt(8) == 0 ? null : String
+						.valueOf(random.nextInt(10)));
+			}
+			checkComputedListDiff(oldList, newList, Diffs.LIST_DIFF_HASHED);
+		}
+	}
+
+	private ListDiff hashedDiff(String[] oldArray, String[] newArray) {
+		return Diffs.computeListDiff(Arrays.asList(oldArray), Arrays
+				.asList(newArray), Diffs.LIST_DIFF_HASHED);
+	}
+
 	private static void checkComputedListDiff(List oldList, List newList) {
-		ListDiff diff = Diffs.computeListDiff(oldList, newList);
+		checkComputedListDiff(oldList, newList, Diffs.LIST_DIFF_DEFAULT);
+	}
+
+	private static void checkComputedListDiff(List oldList, List newList,
+			int algorithm) {
+		ListDiff diff = Diffs.computeListDiff(oldList, newList, algorithm);
 
 		final List list = new ArrayList(oldList);
 		diff.accept(new ListDiffVisitor() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007 IBM Corporation and others.
+ * Copyright (c) 2007, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,7 @@ import junit.framework.TestSuite;
 
 import org.eclipse.ui.tests.forms.layout.AllLayoutTests;
 import org.eclipse.ui.tests.forms.util.AllUtilityTests;
+import org.eclipse.ui.tests.forms.widgets.AllWidgetsTests;
 
 /*
  * Tests all cheat sheet functionality (automated).
@@ -35,5 +36,6 @@ public class AllFormsTests extends TestSuite {
 	public AllFormsTests() {
 		addTest(AllLayoutTests.suite());
 		addTest(AllUtilityTests.suite());
+		addTest(AllWidgetsTests.suite());
 	}
 }
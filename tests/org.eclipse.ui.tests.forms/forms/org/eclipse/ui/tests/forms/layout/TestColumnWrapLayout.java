@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011 IBM Corporation and others.
+ * Copyright (c) 2011, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,12 +15,18 @@ import junit.framework.TestCase;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.forms.widgets.ColumnLayout;
+import org.eclipse.ui.forms.widgets.ColumnLayoutData;
+import org.eclipse.ui.forms.widgets.FormToolkit;
+import org.eclipse.ui.forms.widgets.ScrolledForm;
+import org.eclipse.ui.forms.widgets.Section;
 import org.eclipse.ui.internal.forms.widgets.ColumnLayoutUtils;
 
 public class TestColumnWrapLayout extends TestCase {
@@ -31,6 +37,41 @@ public class TestColumnWrapLayout extends TestCase {
 	private final Point p100 = new Point(100, 100);
 	private final Point p200 = new Point(100, 200);
 
+	private Shell shell;
+
+	private Composite inner;
+
+	private SizedComposite first;
+
+	private SizedComposite second;
+
+	/**
+	 * Lays out two children of 30 and 40 pixels in a single column.
+	 */
+	protected void setUp() throws Exception {
+		super.setUp();
+		shell = new Shell(PlatformUI.getWorkbench().getDisplay());
+		shell.setSize(100, 300);
+		shell.setLayout(new GridLayout());
+		inner = new Composite(shell, SWT.NULL);
+		ColumnLayout layout = new ColumnLayout();
+		layout.verticalSpacing = 5;
+		layout.maxNumColumns = 1;
+		layout.topMargin = 2;
+		inner.setLayout(layout);
+		first = new SizedComposite(inner, SWT.NULL, 30);
+		second = new SizedComposite(inner, SWT.NULL, 40);
+		// the same hints when the parent is measured and laid out
+		first.setLayoutData(new ColumnLayoutData(20));
+		second.setLayoutData(new ColumnLayoutData(20));
+		shell.layout(true);
+	}
+
+	protected void tearDown() throws Exception {
+		shell.dispose();
+		super.tearDown();
+	}
+
 	public void testEqualSizeColumns() {
 		Point[] sizes = { p20, p30, p30, p20, p20, p30 };
 		assertEquals(50, ColumnLayoutUtils.computeColumnHeight(3, sizes, 237, 0));
@@ -60,12 +101,15 @@ public class TestColumnWrapLayout extends TestCase {
 		
 		int height;
 
+		int computeSizeCalls;
+
 		public SizedComposite(Composite parent, int style, int height) {
 			super(parent, style);
 			this.height = height;
 		}
 		
 		public Point computeSize(int wHint, int hHint, boolean changed) {
+			computeSizeCalls++;
 			return new Point( 20, height); 
 		}		
 	}
@@ -94,4 +138,96 @@ public class TestColumnWrapLayout extends TestCase {
 		shell.dispose();
 	}
 
+	/**
+	 * Test that laying out a single changed child moves its siblings and
+	 * measures them only once for the whole pass.
+	 */
+	public void testFlushCacheChild() {
+		first.height = 50;
+		second.computeSizeCalls = 0;
+		shell.layout(new Control[] { first });
+		assertEquals(50, first.getSize().y);
+		assertEquals(57, second.getLocation().y);
+		assertEquals("The size of the sibling should be reused", 1,
+				second.computeSizeCalls);
+	}
+
+	/**
+	 * Test that the sizes reused for a changed child are dropped once the
+	 * parent has been laid out, so that a later layout(false) is not stale.
+	 */
+	public void testLayoutAfterFlushCacheChild() {
+		first.height = 50;
+		shell.layout(new Control[] { first });
+		second.height = 60;
+		inner.layout(false);
+		assertEquals(60, second.getSize().y);
+		second.computeSizeCalls = 0;
+		inner.computeSize(inner.getClientArea().width, SWT.DEFAULT, false);
+		assertEquals(1, second.computeSizeCalls);
+	}
+
+	/**
+	 * Test that layout(true) measures all the children again after their
+	 * content has changed.
+	 */
+	public void testLayoutChangedAfterContentChange() {
+		first.height = 50;
+		inner.layout(new Control[] { first });
+		second.height = 60;
+		inner.layout(true);
+		assertEquals(50, first.getSize().y);
+		assertEquals(60, second.getSize().y);
+		assertEquals(57, second.getLocation().y);
+	}
+
+	/**
+	 * Test that the disposed children are dropped from the layout.
+	 */
+	public void testLayoutAfterChildDisposed() {
+		second.height = 50;
+		inner.layout(new Control[] { second });
+		first.dispose();
+		inner.layout(false);
+		assertEquals(2, second.getLocation().y);
+		assertEquals(50, second.getSize().y);
+	}
+
+	/**
+	 * Test that a section in a column layout grows when it is expanded.
+	 */
+	public void testExpandedSectionResizes() {
+		Display display = PlatformUI.getWorkbench().getDisplay();
+		FormToolkit toolkit = new FormToolkit(display);
+		Shell shell = new Shell(display);
+		shell.setSize(300, 600);
+		shell.setLayout(new FillLayout());
+		ScrolledForm form = toolkit.createScrolledForm(shell);
+		ColumnLayout layout = new ColumnLayout();
+		layout.maxNumColumns = 1;
+		form.getBody().setLayout(layout);
+		Section[] sections = new Section[3];
+		for (int i = 0; i < sections.length; i++) {
+			sections[i] = toolkit.createSection(form.getBody(), Section.TWISTIE);
+			sections[i].setText("Section " + i);
+			sections[i].setClient(new SizedComposite(sections[i], SWT.NULL, 100));
+		}
+		shell.open();
+		form.reflow(true);
+		while (display.readAndDispatch()) {
+			// empty
+		}
+		int collapsedHeight = sections[1].getSize().y;
+		int nextY = sections[2].getLocation().y;
+		sections[1].setExpanded(true);
+		assertTrue(sections[1].getSize().y >= collapsedHeight + 100);
+		assertTrue(sections[2].getLocation().y >= nextY + 100);
+		assertEquals(collapsedHeight, sections[0].getSize().y);
+		sections[1].setExpanded(false);
+		assertEquals(collapsedHeight, sections[1].getSize().y);
+		assertEquals(nextY, sections[2].getLocation().y);
+		shell.dispose();
+		toolkit.dispose();
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007 IBM Corporation and others.
+ * Copyright (c) 2007, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,10 +15,12 @@ import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.forms.widgets.Section;
 import org.eclipse.ui.forms.widgets.TableWrapData;
 import org.eclipse.ui.forms.widgets.TableWrapLayout;
 
@@ -207,4 +209,86 @@ public class TestTableWrapLayout extends TestCase {
 		shell.dispose();
 	}
 
+	/**
+	 * Test that laying out a single changed child resizes it and moves the
+	 * children below it.
+	 */
+	public void testFlushCacheChild() {
+		Display display = PlatformUI.getWorkbench().getDisplay();
+		Shell shell = new Shell(display);
+		shell.setSize(300, 300);
+		shell.setLayout(new FillLayout());
+		Composite inner = new Composite(shell, SWT.NULL);
+		inner.setLayout(new TableWrapLayout());
+		Label l1 = new Label(inner, SWT.NULL);
+		l1.setText(A1);
+		Label l2 = new Label(inner, SWT.NULL);
+		l2.setText(A1);
+		shell.layout(true);
+		int width = l1.getSize().x;
+		int y = l2.getLocation().y;
+		l1.setText(A1 + "\n" + A10);
+		inner.layout(new Control[] { l1 });
+		assertTrue(l1.getSize().x > width);
+		assertTrue(l2.getLocation().y > y);
+		shell.dispose();
+	}
+
+	/**
+	 * Test that layout(true) measures all the children again after their
+	 * content has changed.
+	 */
+	public void testLayoutChangedAfterContentChange() {
+		Display display = PlatformUI.getWorkbench().getDisplay();
+		Shell shell = new Shell(display);
+		shell.setSize(300, 300);
+		shell.setLayout(new FillLayout());
+		Composite inner = new Composite(shell, SWT.NULL);
+		inner.setLayout(new TableWrapLayout());
+		Label l1 = new Label(inner, SWT.NULL);
+		l1.setText(A1);
+		Label l2 = new Label(inner, SWT.NULL);
+		l2.setText(A1);
+		shell.layout(true);
+		int width = l2.getSize().x;
+		int y = l2.getLocation().y;
+		l1.setText(A1 + "\n" + A1);
+		l2.setText(A10);
+		inner.layout(true);
+		assertTrue(l2.getSize().x > width);
+		assertTrue(l2.getLocation().y > y);
+		shell.dispose();
+	}
+
+	/**
+	 * Test that a section in a table wrap layout grows when it is expanded.
+	 */
+	public void testExpandedSectionResizes() {
+		Display display = PlatformUI.getWorkbench().getDisplay();
+		Shell shell = new Shell(display);
+		shell.setSize(300, 300);
+		shell.setLayout(new FillLayout());
+		Composite inner = new Composite(shell, SWT.NULL);
+		inner.setLayout(new TableWrapLayout());
+		Section section = new Section(inner, Section.TWISTIE);
+		section.setText(A1);
+		section.setLayoutData(new TableWrapData(TableWrapData.FILL_GRAB));
+		Label client = new Label(section, SWT.WRAP);
+		client.setText(A80);
+		section.setClient(client);
+		Label below = new Label(inner, SWT.NULL);
+		below.setText(A1);
+		shell.layout(true);
+		int collapsedHeight = section.getSize().y;
+		int y = below.getLocation().y;
+		section.setExpanded(true);
+		assertTrue(section.getSize().y > collapsedHeight);
+		assertTrue(below.getLocation().y > y);
+		assertTrue(client.getSize().x <= inner.getClientArea().width);
+		section.setExpanded(false);
+		assertEquals(collapsedHeight, section.getSize().y);
+		assertEquals(y, below.getLocation().y);
+		shell.dispose();
+	}
+
 }
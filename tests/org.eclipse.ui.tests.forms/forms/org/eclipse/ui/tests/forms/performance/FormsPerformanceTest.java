@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007 IBM Corporation and others.
+ * Copyright (c) 2007, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@ package org.eclipse.ui.tests.forms.performance;
 
 import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
@@ -29,6 +30,7 @@ import org.eclipse.ui.forms.events.ExpansionAdapter;
 import org.eclipse.ui.forms.events.ExpansionEvent;
 import org.eclipse.ui.forms.events.HyperlinkAdapter;
 import org.eclipse.ui.forms.events.HyperlinkEvent;
+import org.eclipse.ui.forms.widgets.ColumnLayout;
 import org.eclipse.ui.forms.widgets.ExpandableComposite;
 import org.eclipse.ui.forms.widgets.FormText;
 import org.eclipse.ui.forms.widgets.FormToolkit;
@@ -92,6 +94,131 @@ public class FormsPerformanceTest extends PerformanceTestCase {
 		assertPerformance();
 	}
 	
+	public void test_setFormText() {
+		tagAsSummary("Set Form Text", Dimension.ELAPSED_PROCESS);
+
+		Display display = PlatformUI.getWorkbench().getDisplay();
+		FormToolkit toolkit = new FormToolkit(display);
+		Shell shell = new Shell(display);
+		shell.setSize(400, 600);
+		shell.setLayout(new FillLayout());
+		ScrolledForm form = toolkit.createScrolledForm(shell);
+		form.getBody().setLayout(new TableWrapLayout());
+		FormText[] texts = new FormText[20];
+		for (int i = 0; i < texts.length; i++) {
+			texts[i] = toolkit.createFormText(form.getBody(), false);
+			texts[i].setLayoutData(new TableWrapData(TableWrapData.FILL));
+		}
+		shell.open();
+
+		// Warm up.
+		for (int samples = 0; samples < 2; samples++) {
+			refreshFormTexts(texts, form, samples);
+			while(display.readAndDispatch()){/*empty*/}
+		}
+
+		for (int samples = 0; samples < 50; samples++) {
+			startMeasuring();
+			for (int i = 0; i < 5; i++) {
+				// like an overview page refreshing, mostly with the same text
+				refreshFormTexts(texts, form, i % 2);
+			}
+			stopMeasuring();
+			while(display.readAndDispatch()){/*empty*/}
+		}
+		shell.dispose();
+		toolkit.dispose();
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	public void test_expandSection() {
+		tagAsSummary("Expand Section", Dimension.ELAPSED_PROCESS);
+
+		Display display = PlatformUI.getWorkbench().getDisplay();
+		FormToolkit toolkit = new FormToolkit(display);
+		Shell shell = new Shell(display);
+		shell.setSize(500, 400);
+		shell.setLayout(new FillLayout());
+		ScrolledForm form = toolkit.createScrolledForm(shell);
+		ColumnLayout layout = new ColumnLayout();
+		layout.maxNumColumns = 1;
+		form.getBody().setLayout(layout);
+		Section[] sections = new Section[20];
+		CountingComposite[] clients = new CountingComposite[sections.length];
+		for (int i = 0; i < sections.length; i++) {
+			sections[i] = toolkit.createSection(form.getBody(),
+					Section.TWISTIE | Section.EXPANDED);
+			sections[i].setText("Section " + i);
+			clients[i] = new CountingComposite(sections[i]);
+			clients[i].setLayout(new TableWrapLayout());
+			for (int j = 0; j < 3; j++) {
+				Label label = toolkit.createLabel(clients[i],
+						"A label with some text that should wrap in the section client.", SWT.WRAP);
+				label.setLayoutData(new TableWrapData(TableWrapData.FILL_GRAB));
+			}
+			sections[i].setClient(clients[i]);
+		}
+		shell.open();
+		form.reflow(true);
+		while(display.readAndDispatch()){/*empty*/}
+
+		// Warm up.
+		for (int samples = 0; samples < 2; samples++) {
+			sections[0].setExpanded(!sections[0].isExpanded());
+			while(display.readAndDispatch()){/*empty*/}
+		}
+
+		for (int samples = 0; samples < 50; samples++) {
+			for (int i = 0; i < clients.length; i++) {
+				clients[i].computeSizeCalls = 0;
+			}
+			startMeasuring();
+			sections[0].setExpanded(!sections[0].isExpanded());
+			stopMeasuring();
+			while(display.readAndDispatch()){/*empty*/}
+			// only the parents of the expanded section should be measured again
+			for (int i = 1; i < clients.length; i++) {
+				assertEquals("computeSize calls on section " + i, 0, clients[i].computeSizeCalls);
+			}
+		}
+		shell.dispose();
+		toolkit.dispose();
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * A section client counting how many times it is measured.
+	 */
+	private static class CountingComposite extends Composite {
+
+		int computeSizeCalls;
+
+		public CountingComposite(Composite parent) {
+			super(parent, SWT.NULL);
+		}
+
+		public Point computeSize(int wHint, int hHint, boolean changed) {
+			computeSizeCalls++;
+			return super.computeSize(wHint, hHint, changed);
+		}
+	}
+
+	private void refreshFormTexts(FormText[] texts, ScrolledForm form, int variant) {
+		for (int i = 0; i < texts.length; i++) {
+			StringBuffer buf = new StringBuffer();
+			buf.append("<form>");
+			buf.append("<p>Item <b>" + i + "</b> is in state " + variant + ", see ");
+			buf.append("<a href=\"http://www.eclipse.org\">the web site</a> for details.</p>");
+			buf.append("<li>A default (bulleted) list item with some text that should wrap.</li>");
+			buf.append("<li style=\"text\" value=\"1.\">A list item with <span font=\"code\">source</span> text.</li>");
+			buf.append("</form>");
+			texts[i].setText(buf.toString(), true, false);
+		}
+		form.reflow(true);
+	}
+
 	public void createPartControl(Composite parent, FormToolkit toolkit) {
 		//Label l = new Label(parent, SWT.NULL);
 		//l.setText ("a label");
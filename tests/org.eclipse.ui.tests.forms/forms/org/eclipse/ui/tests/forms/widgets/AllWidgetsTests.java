@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.forms.widgets;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/*
+ * Tests forms widgets (automated).
+ */
+public class AllWidgetsTests extends TestSuite {
+
+	/*
+	 * Returns the entire test suite.
+	 */
+	public static Test suite() {
+		return new AllWidgetsTests();
+	}
+
+	/*
+	 * Constructs a new widgets test suite.
+	 */
+	public AllWidgetsTests() {
+		addTestSuite(FormTextModelTest.class);
+	}
+}
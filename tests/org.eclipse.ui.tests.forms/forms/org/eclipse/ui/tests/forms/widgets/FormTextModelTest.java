@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.forms.widgets;
+
+import java.io.ByteArrayInputStream;
+
+import junit.framework.TestCase;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.ui.internal.forms.widgets.AggregateHyperlinkSegment;
+import org.eclipse.ui.internal.forms.widgets.BreakSegment;
+import org.eclipse.ui.internal.forms.widgets.BulletParagraph;
+import org.eclipse.ui.internal.forms.widgets.FormTextModel;
+import org.eclipse.ui.internal.forms.widgets.ImageHyperlinkSegment;
+import org.eclipse.ui.internal.forms.widgets.ImageSegment;
+import org.eclipse.ui.internal.forms.widgets.Paragraph;
+import org.eclipse.ui.internal.forms.widgets.ParagraphSegment;
+import org.eclipse.ui.internal.forms.widgets.TextHyperlinkSegment;
+import org.eclipse.ui.internal.forms.widgets.TextSegment;
+
+/*
+ * Tests the model built by FormText from its markup.
+ */
+public class FormTextModelTest extends TestCase {
+
+	private FormTextModel model;
+
+	protected void setUp() throws Exception {
+		model = new FormTextModel();
+	}
+
+	protected void tearDown() throws Exception {
+		model.dispose();
+	}
+
+	private Paragraph[] parse(String markup) {
+		model.parseTaggedText(markup, false);
+		return model.getParagraphs();
+	}
+
+	private Paragraph parseParagraph(String markup) {
+		Paragraph[] paragraphs = parse(markup);
+		assertEquals(1, paragraphs.length);
+		return paragraphs[0];
+	}
+
+	private ParagraphSegment parseSegment(String markup) {
+		ParagraphSegment[] segments = parseParagraph(markup).getSegments();
+		assertEquals(1, segments.length);
+		return segments[0];
+	}
+
+	/*
+	 * Returns the text of the text segments of the paragraph.
+	 */
+	private static String getText(Paragraph paragraph) {
+		StringBuffer buf = new StringBuffer();
+		ParagraphSegment[] segments = paragraph.getSegments();
+		for (int i = 0; i < segments.length; i++) {
+			if (segments[i] instanceof TextSegment)
+				buf.append(((TextSegment) segments[i]).getText());
+		}
+		return buf.toString();
+	}
+
+	public void testParagraphs() {
+		Paragraph[] paragraphs = parse("<form>\n<p>a</p>\n<p vspace=\"false\">b</p>\n  text\n</form>");
+		assertEquals(3, paragraphs.length);
+		assertEquals("a", getText(paragraphs[0]));
+		assertTrue(paragraphs[0].getAddVerticalSpace());
+		assertEquals("b", getText(paragraphs[1]));
+		assertFalse(paragraphs[1].getAddVerticalSpace());
+		// text outside of paragraphs makes an implicit one
+		assertEquals(" text ", getText(paragraphs[2]));
+	}
+
+	public void testWhitespaceNormalized() {
+		assertEquals("a b c", getText(parseParagraph("<form><p>a  \t b\n\n c</p></form>")));
+		model.setWhitespaceNormalized(false);
+		assertEquals("a  \t b   c", getText(parseParagraph("<form><p>a  \t b\n\n c</p></form>")));
+	}
+
+	public void testCommentsAndCDATA() {
+		assertEquals("abd", getText(parseParagraph("<form><p>a<!-- comment -->b<![CDATA[c]]>d</p></form>")));
+		assertEquals(0, parse("<form><!-- comment --><![CDATA[c]]></form>").length);
+	}
+
+	public void testEntities() {
+		assertEquals("a & b <c> \"d\" \u00a9", getText(parseParagraph("<form><p>a &amp; b &lt;c&gt; &quot;d&quot; &#169;</p></form>")));
+	}
+
+	public void testListItems() {
+		Paragraph[] paragraphs = parse("<form>"
+				+ "<li>a</li>"
+				+ "<li style=\"text\" value=\"1.\" indent=\"30\" bindent=\"5\" addVerticalSpace=\"false\">b</li>"
+				+ "<li style=\"image\" value=\"bullet\">c</li>"
+				+ "<li style=\"bullet\" indent=\"x\" bindent=\"y\">d</li>"
+				+ "</form>");
+		assertEquals(4, paragraphs.length);
+
+		BulletParagraph bullet = (BulletParagraph) paragraphs[0];
+		assertEquals(BulletParagraph.CIRCLE, bullet.getBulletStyle());
+		assertNull(bullet.getBulletText());
+		assertEquals(0, bullet.getBulletIndent());
+		assertTrue(bullet.getAddVerticalSpace());
+		assertEquals("a", getText(bullet));
+		int defaultIndent = bullet.getIndent();
+
+		bullet = (BulletParagraph) paragraphs[1];
+		assertEquals(BulletParagraph.TEXT, bullet.getBulletStyle());
+		assertEquals("1.", bullet.getBulletText());
+		assertEquals(30, bullet.getIndent());
+		assertEquals(5, bullet.getBulletIndent());
+		assertFalse(bullet.getAddVerticalSpace());
+
+		bullet = (BulletParagraph) paragraphs[2];
+		assertEquals(BulletParagraph.IMAGE, bullet.getBulletStyle());
+		assertEquals("i.bullet", bullet.getBulletText());
+
+		// invalid indents are ignored
+		bullet = (BulletParagraph) paragraphs[3];
+		assertEquals(BulletParagraph.CIRCLE, bullet.getBulletStyle());
+		assertEquals(defaultIndent, bullet.getIndent());
+		assertEquals(0, bullet.getBulletIndent());
+	}
+
+	public void testTextLink() {
+		TextHyperlinkSegment link = (TextHyperlinkSegment) parseSegment("<form><p><a href=\"h\" alt=\"tip\">some\n link</a></p></form>");
+		assertEquals("h", link.getHref());
+		assertEquals("some link", link.getText());
+		assertEquals("tip", link.getTooltipText());
+		assertNull(link.getFontId());
+		assertTrue(link.isWordWrapAllowed());
+
+		link = (TextHyperlinkSegment) parseSegment("<form><p><a href=\"h\" bold=\"true\" nowrap=\"true\">link</a></p></form>");
+		assertEquals(FormTextModel.BOLD_FONT_ID, link.getFontId());
+		assertFalse(link.isWordWrapAllowed());
+	}
+
+	public void testImageLink() {
+		ImageHyperlinkSegment link = (ImageHyperlinkSegment) parseSegment("<form><p><a href=\"h\" nowrap=\"true\"><img href=\"image\" alt=\"tip\" text=\"label\" align=\"middle\"/></a></p></form>");
+		assertEquals("h", link.getHref());
+		assertEquals("i.image", link.getObjectId());
+		assertEquals("tip", link.getTooltipText());
+		assertEquals("label", link.getText());
+		assertEquals(ImageSegment.MIDDLE, link.getVerticalAlignment());
+		assertFalse(link.isWordWrapAllowed());
+	}
+
+	public void testTextAndImageLink() {
+		AggregateHyperlinkSegment link = (AggregateHyperlinkSegment) parseSegment("<form><p><a href=\"h\">go <img href=\"image\"/> there</a></p></form>");
+		assertEquals("h", link.getHref());
+		assertEquals("go  there", link.getText());
+	}
+
+	public void testTextSegments() {
+		Paragraph paragraph = parseParagraph("<form><p><b>bold\n text</b><br/><span font=\"f\" color=\"c\" nowrap=\"true\">span</span><img href=\"image\"/></p></form>");
+		ParagraphSegment[] segments = paragraph.getSegments();
+		assertEquals(4, segments.length);
+
+		TextSegment text = (TextSegment) segments[0];
+		assertEquals("bold text", text.getText());
+		assertEquals(FormTextModel.BOLD_FONT_ID, text.getFontId());
+		assertTrue(text.isWordWrapAllowed());
+
+		assertTrue(segments[1] instanceof BreakSegment);
+
+		text = (TextSegment) segments[2];
+		assertEquals("span", text.getText());
+		assertEquals("f.f", text.getFontId());
+		assertEquals("c.c", text.getColorId());
+		assertFalse(text.isWordWrapAllowed());
+
+		assertEquals("i.image", ((ImageSegment) segments[3]).getObjectId());
+	}
+
+	public void testInputStream() throws Exception {
+		model.parseInputStream(new ByteArrayInputStream("<form><p>a &amp; b</p></form>".getBytes("UTF8")), false);
+		Paragraph[] paragraphs = model.getParagraphs();
+		assertEquals(1, paragraphs.length);
+		assertEquals("a & b", getText(paragraphs[0]));
+	}
+
+	public void testMalformedMarkup() {
+		String[] markups = new String[] { "<form><p>a</form>", "<form><p>a</p>", "<form>a & b</form>", "text" };
+		for (int i = 0; i < markups.length; i++) {
+			parse("<form><p>a</p></form>");
+			try {
+				model.parseTaggedText(markups[i], false);
+				fail("Malformed markup should be rejected: " + markups[i]);
+			} catch (IllegalArgumentException e) {
+				assertTrue(e.getMessage().startsWith(SWT.findErrorText(SWT.ERROR_INVALID_ARGUMENT)));
+			}
+			assertEquals(0, model.getParagraphs().length);
+		}
+	}
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.navigator;
+
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.TreeItem;
+import org.eclipse.ui.internal.navigator.NavigatorContentService;
+import org.eclipse.ui.internal.navigator.extensions.NavigatorContentDescriptor;
+import org.eclipse.ui.progress.PendingUpdateAdapter;
+import org.eclipse.ui.tests.harness.util.DisplayHelper;
+import org.eclipse.ui.tests.navigator.extension.TestBlockingContentProvider;
+import org.eclipse.ui.tests.navigator.extension.TestSimpleChildrenContentProvider;
+
+public class BackgroundChildrenTest extends NavigatorTestBase {
+
+	private static final long TIMEOUT = 10000;
+
+	public BackgroundChildrenTest() {
+		_navigatorInstanceId = TEST_VIEWER_BACKGROUND_CHILDREN;
+	}
+
+	protected void tearDown() throws Exception {
+		TestBlockingContentProvider.resetTest();
+		waitForChildrenJobs();
+		super.tearDown();
+	}
+
+	/**
+	 * Expand the item the way the user does, which sends the expand event
+	 * before the item is expanded.
+	 */
+	private void userExpand(TreeItem item) {
+		Event event = new Event();
+		event.item = item;
+		_viewer.getTree().notifyListeners(SWT.Expand, event);
+		item.setExpanded(true);
+	}
+
+	private void userCollapse(TreeItem item) {
+		Event event = new Event();
+		event.item = item;
+		_viewer.getTree().notifyListeners(SWT.Collapse, event);
+		item.setExpanded(false);
+	}
+
+	private TreeItem getProjectItem() {
+		return (TreeItem) _viewer.testFindItem(_project);
+	}
+
+	private static boolean hasPlaceholder(TreeItem item) {
+		TreeItem[] items = item.getItems();
+		for (int i = 0; i < items.length; i++) {
+			if (items[i].getData() instanceof PendingUpdateAdapter) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int countChildren(TreeItem item) {
+		int count = 0;
+		TreeItem[] items = item.getItems();
+		for (int i = 0; i < items.length; i++) {
+			if (items[i].getData() instanceof TestSimpleChildrenContentProvider.SimpleChild) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private void waitForChildrenJobs() {
+		new DisplayHelper() {
+			protected boolean condition() {
+				return Job.getJobManager().find(_viewer.getContentProvider()).length == 0;
+			}
+		}.waitForCondition(Display.getCurrent(), TIMEOUT);
+		DisplayHelper.runEventLoop(Display.getCurrent(), 10);
+	}
+
+	private void waitForChildren(final TreeItem item) {
+		assertTrue(new DisplayHelper() {
+			protected boolean condition() {
+				return !hasPlaceholder(item) && countChildren(item) > 0;
+			}
+		}.waitForCondition(Display.getCurrent(), TIMEOUT));
+	}
+
+	public void testPlaceholderReplaced() throws Exception {
+		TreeItem item = getProjectItem();
+		TestBlockingContentProvider.block();
+		userExpand(item);
+
+		assertTrue(hasPlaceholder(item));
+		assertEquals(0, countChildren(item));
+
+		TestBlockingContentProvider.release();
+		waitForChildren(item);
+
+		assertEquals(TestSimpleChildrenContentProvider.NUM_ITEMS, countChildren(item));
+		assertTrue(_viewer.getExpandedState(_project));
+	}
+
+	public void testRefreshOfExpandedNode() throws Exception {
+		TreeItem item = getProjectItem();
+		userExpand(item);
+		waitForChildren(item);
+
+		_viewer.refresh();
+
+		// the children are there right away, no placeholder is shown again
+		item = getProjectItem();
+		assertTrue(_viewer.getExpandedState(_project));
+		assertFalse(hasPlaceholder(item));
+		assertEquals(TestSimpleChildrenContentProvider.NUM_ITEMS, countChildren(item));
+
+		waitForChildrenJobs();
+		assertEquals(TestSimpleChildrenContentProvider.NUM_ITEMS, countChildren(item));
+	}
+
+	public void testProgrammaticExpansion() throws Exception {
+		_viewer.setExpandedElements(new Object[] { _p1 });
+
+		TreeItem item = (TreeItem) _viewer.testFindItem(_p1);
+		assertTrue(item.getExpanded());
+		assertFalse(hasPlaceholder(item));
+		assertEquals(TestSimpleChildrenContentProvider.NUM_ITEMS, countChildren(item));
+	}
+
+	public void testCollapseCancels() throws Exception {
+		final TreeItem item = getProjectItem();
+		TestBlockingContentProvider.block();
+		userExpand(item);
+		assertTrue(hasPlaceholder(item));
+
+		userCollapse(item);
+		TestBlockingContentProvider.release();
+		assertTrue(new DisplayHelper() {
+			protected boolean condition() {
+				return !hasPlaceholder(item);
+			}
+		}.waitForCondition(Display.getCurrent(), TIMEOUT));
+		waitForChildrenJobs();
+
+		assertFalse(_viewer.getExpandedState(_project));
+		assertFalse(hasPlaceholder(item));
+		assertEquals(0, countChildren(item));
+
+		// the children are asked for again on the next expansion
+		userExpand(item);
+		waitForChildren(item);
+		assertEquals(TestSimpleChildrenContentProvider.NUM_ITEMS, countChildren(item));
+	}
+
+	public void testContributionsRememberedOnMerge() throws Exception {
+		NavigatorContentService contentService = (NavigatorContentService) _contentService;
+		TreeItem item = getProjectItem();
+		TestBlockingContentProvider.block();
+		userExpand(item);
+		int remembered = contentService.getContributionMemorySize();
+
+		// the contributions are only remembered when they are merged on the
+		// UI thread, in the order of the extensions
+		TestBlockingContentProvider.release();
+		Job.getJobManager().join(_viewer.getContentProvider(), null);
+		assertEquals(remembered, contentService.getContributionMemorySize());
+
+		waitForChildren(item);
+		TreeItem[] items = item.getItems();
+		for (int i = 0; i < items.length; i++) {
+			if (items[i].getData() instanceof TestSimpleChildrenContentProvider.SimpleChild) {
+				NavigatorContentDescriptor source = contentService.getContribution(items[i]
+						.getData());
+				assertNotNull(source);
+				assertEquals(TEST_CONTENT_BLOCKING, source.getId());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.navigator;
+
+import org.eclipse.ui.internal.navigator.extensions.NavigatorContentDescriptor;
+import org.eclipse.ui.internal.navigator.extensions.NavigatorContentDescriptorManager;
+import org.eclipse.ui.tests.navigator.extension.TestCountingPropertyTester;
+
+public class ExpressionCacheTest extends NavigatorTestBase {
+
+	public ExpressionCacheTest() {
+		_navigatorInstanceId = TEST_VIEWER;
+		_initTestData = false;
+	}
+
+	private NavigatorContentDescriptor getDescriptor(String id) {
+		return NavigatorContentDescriptorManager.getInstance()
+				.getContentDescriptor(id);
+	}
+
+	public void testTypeOnlyExpressionsCachedByType() throws Exception {
+		NavigatorContentDescriptor descriptor = getDescriptor(TEST_CONTENT_TYPE_ONLY);
+		assertTrue(descriptor.isTriggerPointCachedByType());
+		assertTrue(descriptor.isPossibleChildCachedByType());
+
+		for (int i = 0; i < 2; i++) {
+			assertTrue(descriptor.isTriggerPoint("a" + i));
+			assertTrue(descriptor.isTriggerPoint(new StringBuffer("b" + i)));
+			assertTrue(descriptor.isTriggerPoint(new Long(i)));
+			assertFalse(descriptor.isTriggerPoint(new Integer(i)));
+			assertFalse(descriptor.isTriggerPoint(new Object()));
+
+			assertTrue(descriptor.isPossibleChild("a" + i));
+			assertFalse(descriptor.isPossibleChild(new StringBuffer("b" + i)));
+		}
+	}
+
+	public void testOtherExpressionsEvaluatedPerElement() throws Exception {
+		NavigatorContentDescriptor descriptor = getDescriptor(TEST_CONTENT_TYPE_AND_TEST);
+		assertFalse(descriptor.isTriggerPointCachedByType());
+		assertFalse(descriptor.isPossibleChildCachedByType());
+
+		TestCountingPropertyTester.resetTest();
+		for (int i = 0; i < 5; i++) {
+			assertTrue(descriptor.isTriggerPoint("a" + i));
+		}
+		assertEquals(5, TestCountingPropertyTester._count);
+		// same class, different result
+		assertFalse(descriptor.isTriggerPoint("x"));
+		assertEquals(6, TestCountingPropertyTester._count);
+		// not a string so the test is not reached
+		assertFalse(descriptor.isTriggerPoint(new Integer(1)));
+		assertEquals(6, TestCountingPropertyTester._count);
+
+		assertTrue(descriptor.isPossibleChild("a"));
+		assertFalse(descriptor.isPossibleChild(new Integer(1)));
+
+		descriptor = getDescriptor(TEST_CONTENT_WITH);
+		assertFalse(descriptor.isTriggerPointCachedByType());
+	}
+
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.navigator.extension;
+
+/**
+ * Provides some children for a given resource, optionally waiting until the
+ * test lets it go.
+ */
+public class TestBlockingContentProvider extends TestSimpleChildrenContentProvider {
+
+	private static final Object _lock = new Object();
+
+	private static boolean _block;
+
+	public TestBlockingContentProvider() {
+		_name = "blocked";
+	}
+
+	public static void resetTest() {
+		release();
+	}
+
+	/**
+	 * Make the following requests for children wait until {@link #release()}
+	 * is called.
+	 */
+	public static void block() {
+		synchronized (_lock) {
+			_block = true;
+		}
+	}
+
+	public static void release() {
+		synchronized (_lock) {
+			_block = false;
+			_lock.notifyAll();
+		}
+	}
+
+	public Object[] getChildren(Object parentElement) {
+		synchronized (_lock) {
+			while (_block) {
+				try {
+					_lock.wait();
+				} catch (InterruptedException e) {
+					break;
+				}
+			}
+		}
+		return super.getChildren(parentElement);
+	}
+
+}
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.navigator.extension;
+
+import org.eclipse.core.expressions.PropertyTester;
+
+/**
+ * Counts how many times it is evaluated. Elements whose text starts with "x"
+ * do not pass the test.
+ */
+public class TestCountingPropertyTester extends PropertyTester {
+
+	public static int _count;
+
+	public static void resetTest() {
+		_count = 0;
+	}
+
+	public boolean test(Object receiver, String property, Object[] args,
+			Object expectedValue) {
+		_count++;
+		return !receiver.toString().startsWith("x");
+	}
+
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.performance;
+
+import java.util.Comparator;
+
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.deferred.DeferredContentProvider;
+import org.eclipse.jface.viewers.deferred.SetModel;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.ui.tests.performance.TestRunnable;
+
+/**
+ * Measures the time and heap needed by a {@link DeferredContentProvider} to
+ * sort a large {@link SetModel} and show its first page in a virtual table.
+ *
+ * @since 3.5
+ */
+public class DeferredContentProviderTest extends ViewerTest {
+
+	private static final long TIMEOUT = 120000;
+
+	private SetModel model;
+
+	private TableViewer viewer;
+
+	public DeferredContentProviderTest(String testName, int tagging) {
+		super(testName, tagging);
+	}
+
+	public DeferredContentProviderTest(String testName) {
+		super(testName);
+	}
+
+	protected StructuredViewer createViewer(Shell shell) {
+		viewer = new TableViewer(shell, SWT.VIRTUAL);
+		viewer.setContentProvider(new DeferredContentProvider(new Comparator() {
+			public int compare(Object o1, Object o2) {
+				return ((Integer) o1).compareTo((Integer) o2);
+			}
+		}));
+		viewer.setLabelProvider(new LabelProvider());
+		return viewer;
+	}
+
+	protected Object getInitialInput() {
+		model = new SetModel();
+		return model;
+	}
+
+	public void testSetOneMillion() throws Throwable {
+		doTestSet(1000000);
+	}
+
+	public void testSetFiveMillion() throws Throwable {
+		doTestSet(5000000);
+	}
+
+	public void testSetTenMillion() throws Throwable {
+		doTestSet(10000000);
+	}
+
+	private void doTestSet(final int size) throws Throwable {
+		openBrowser();
+
+		// Unique values in scrambled order so that the collection has to sort
+		final Object[] elements = new Object[size];
+		for (int i = 0; i < size; i++) {
+			elements[i] = new Integer((int) ((long) i * 7919 % size));
+		}
+
+		exercise(new TestRunnable() {
+			public void run() throws Exception {
+				model.clear();
+				waitForItemCount(0);
+				System.gc();
+
+				startMeasuring();
+				model.set(elements);
+				waitForItemCount(size);
+				stopMeasuring();
+			}
+		}, 1, 5, JFacePerformanceSuite.MAX_TIME);
+
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Processes events until the table shows the given number of items and
+	 * the first one has been filled in.
+	 */
+	private void waitForItemCount(int count) {
+		Table table = viewer.getTable();
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (table.getItemCount() != count
+				|| (count > 0 && table.getItem(0).getData() == null)) {
+			if (System.currentTimeMillis() > end) {
+				fail("Timed out waiting for " + count + " items");
+			}
+			processEvents();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2009 IBM Corporation and others.
+ * Copyright (c) 2005, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -48,6 +48,11 @@ public class JFacePerformanceSuite extends FilteredTestSuite {
 		addTest(new ProgressMonitorDialogPerformanceTest("testLongNames"));
 		addTest(new ShrinkingTreeTest("testTreeViewerRefresh"));
 		addTest(new CollatorPerformanceTest("testCollator"));
+		addTest(new DeferredContentProviderTest("testSetOneMillion"));
+		addTest(new DeferredContentProviderTest("testSetFiveMillion"));
+		addTest(new DeferredContentProviderTest("testSetTenMillion"));
+		addTest(new ViewerComparatorPerformanceTest("testSort"));
+		addTest(new ViewerComparatorPerformanceTest("testSortKeys"));
 
 	}
 }
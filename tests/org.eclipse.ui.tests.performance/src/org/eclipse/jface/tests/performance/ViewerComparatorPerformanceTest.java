@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.jface.tests.performance;
+
+import java.util.Arrays;
+
+import org.eclipse.jface.viewers.ViewerComparator;
+import org.eclipse.jface.viewers.ViewerSorter;
+import org.eclipse.ui.tests.performance.BasicPerformanceTest;
+
+/**
+ * Measures the time needed by a {@link ViewerComparator} to sort a large
+ * array, comparing elements directly or through precomputed sort keys.
+ *
+ * @since 3.5
+ */
+public class ViewerComparatorPerformanceTest extends BasicPerformanceTest {
+
+	private static final int ARRAYSIZE = 100000;
+
+	private static Object[] fArray;
+
+	/**
+	 * @param testName
+	 */
+	public ViewerComparatorPerformanceTest(String testName) {
+		super(testName);
+		generateArray();
+	}
+
+	/**
+	 * Sort with the default compare on every comparison.
+	 */
+	public void testSort() {
+		doTestSort(false);
+	}
+
+	/**
+	 * Sort on the category and collation key of each element.
+	 */
+	public void testSortKeys() {
+		doTestSort(true);
+	}
+
+	private void doTestSort(boolean useSortKeys) {
+		ViewerComparator comparator = new ViewerSorter();
+		comparator.setUseSortKeys(useSortKeys);
+		for (int i = 0; i < 15; i++) {
+			Object[] array = (Object[]) fArray.clone();
+			startMeasuring();
+			comparator.sort(null, array);
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+
+		// Both modes must produce the same order
+		Object[] sorted = (Object[]) fArray.clone();
+		comparator.sort(null, sorted);
+		Object[] expected = (Object[]) fArray.clone();
+		new ViewerSorter().sort(null, expected);
+		assertTrue(Arrays.equals(expected, sorted));
+	}
+
+	/**
+	 * Generate a large array of mixed case labels in scrambled order
+	 */
+	private void generateArray() {
+		if (fArray == null) {
+			fArray = new Object[ARRAYSIZE];
+			for (int i = 0; i < ARRAYSIZE; i++) {
+				int n = (int) ((long) i * 7919 % ARRAYSIZE);
+				StringBuffer label = new StringBuffer();
+				for (int j = 0; j < 4; j++) {
+					char c = (char) ('a' + n % 26);
+					label.append(j % 2 == n % 2 ? Character.toUpperCase(c) : c);
+					n /= 26;
+				}
+				fArray[i] = label.toString();
+			}
+		}
+	}
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Random;
+import java.util.zip.ZipFile;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jface.tests.performance.JFacePerformanceSuite;
+import org.eclipse.ui.dialogs.IOverwriteQuery;
+import org.eclipse.ui.internal.wizards.datatransfer.ArchiveFileExportOperation;
+import org.eclipse.ui.internal.wizards.datatransfer.ZipLeveledStructureProvider;
+import org.eclipse.ui.wizards.datatransfer.ImportOperation;
+
+/**
+ * Measures the time needed to export a project to a .zip and a .tar.gz
+ * archive, and to import a .zip archive into the workspace.
+ *
+ * @since 3.5
+ */
+public class ArchiveTransferTest extends BasicPerformanceTest {
+
+	private static final int FOLDER_COUNT = 20;
+
+	private static final int FILE_COUNT = 100;
+
+	private static final int FILE_SIZE = 16 * 1024;
+
+	private IProject project;
+
+	private File archive;
+
+	/**
+	 * @param testName
+	 */
+	public ArchiveTransferTest(String testName) {
+		super(testName);
+	}
+
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject(
+				"archiveTransferProject");
+		project.create(null);
+		project.open(null);
+
+		// compressible but not uniform contents
+		Random random = new Random(0);
+		byte[] contents = new byte[FILE_SIZE];
+		for (int i = 0; i < FOLDER_COUNT; i++) {
+			IFolder folder = project.getFolder("folder" + i);
+			folder.create(true, true, null);
+			for (int j = 0; j < FILE_COUNT; j++) {
+				for (int k = 0; k < contents.length; k++) {
+					contents[k] = (byte) ('a' + random.nextInt(16));
+				}
+				folder.getFile("file" + j + ".txt").create(
+						new ByteArrayInputStream(contents), true, null);
+			}
+		}
+		archive = File.createTempFile("archiveTransferTest", ".zip");
+	}
+
+	protected void doTearDown() throws Exception {
+		archive.delete();
+		project.delete(true, true, null);
+		super.doTearDown();
+	}
+
+	public void testExportZip() throws Throwable {
+		doTestExport(false);
+	}
+
+	public void testExportTarGz() throws Throwable {
+		doTestExport(true);
+	}
+
+	public void testImportZip() throws Throwable {
+		export(false);
+		final IProject target = ResourcesPlugin.getWorkspace().getRoot()
+				.getProject("archiveTransferTarget");
+
+		try {
+			exercise(new TestRunnable() {
+				public void run() throws Exception {
+					target.delete(true, true, null);
+					target.create(null);
+					target.open(null);
+
+					ZipFile zipFile = new ZipFile(archive);
+					try {
+						ZipLeveledStructureProvider provider = new ZipLeveledStructureProvider(
+								zipFile);
+						ImportOperation operation = new ImportOperation(target
+								.getFullPath(), provider.getRoot(), provider,
+								new IOverwriteQuery() {
+									public String queryOverwrite(String path) {
+										return ALL;
+									}
+								});
+
+						startMeasuring();
+						operation.run(new NullProgressMonitor());
+						stopMeasuring();
+					} finally {
+						zipFile.close();
+					}
+				}
+			}, 1, 5, JFacePerformanceSuite.MAX_TIME);
+		} finally {
+			target.delete(true, true, null);
+		}
+
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private void doTestExport(final boolean tar) throws Throwable {
+		exercise(new TestRunnable() {
+			public void run() throws Exception {
+				archive.delete();
+
+				startMeasuring();
+				export(tar);
+				stopMeasuring();
+			}
+		}, 1, 5, JFacePerformanceSuite.MAX_TIME);
+
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private void export(boolean tar) throws Exception {
+		ArchiveFileExportOperation operation = new ArchiveFileExportOperation(
+				project, archive.getAbsolutePath());
+		operation.setUseTarFormat(tar);
+		operation.run(new NullProgressMonitor());
+		assertTrue(operation.getStatus().getMessage(), operation.getStatus()
+				.isOK());
+	}
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import org.eclipse.e4.ui.workbench.renderers.swt.HandledContributionItem;
+import org.eclipse.e4.ui.workbench.renderers.swt.HandledContributionItem.ToolItemUpdateTimer;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.IWorkbenchWindow;
+
+/**
+ * Checks that idle workbench windows only keep the enablement of the tool
+ * items that can be seen up to date.
+ */
+public class IdleWorkbenchTest extends BasicPerformanceTest {
+
+	private static final int WINDOW_COUNT = 3;
+
+	private static final long TIMEOUT = 5000;
+
+	/**
+	 * @param testName
+	 */
+	public IdleWorkbenchTest(String testName) {
+		super(testName);
+	}
+
+	public void testIdleWindows() throws Throwable {
+		ToolItemUpdateTimer updater = HandledContributionItem.toolItemUpdater;
+		IWorkbenchWindow[] windows = new IWorkbenchWindow[WINDOW_COUNT];
+		for (int i = 0; i < WINDOW_COUNT; i++) {
+			windows[i] = openTestWindow(UIPerformanceTestSetup.PERSPECTIVE1);
+			setMinimized(windows[i].getShell(), true);
+		}
+		// the items of the minimized windows are skipped
+		countUpdates(updater);
+		int otherWindows = countUpdates(updater);
+
+		// items that can be seen again are updated without waiting for the
+		// next update
+		int before = updater.getUpdateCount();
+		setMinimized(windows[0].getShell(), false);
+		int shown = updater.getUpdateCount() - before;
+
+		int oneWindow = countUpdates(updater) - otherWindows;
+		assertTrue("No tool item updated", oneWindow > 0);
+		assertTrue("Tool items not updated when shown", shown >= oneWindow);
+
+		for (int i = 1; i < WINDOW_COUNT; i++) {
+			setMinimized(windows[i].getShell(), false);
+		}
+		assertEquals(WINDOW_COUNT * oneWindow, countUpdates(updater)
+				- otherWindows);
+	}
+
+	/**
+	 * Runs one update of the tool items and returns the number of items
+	 * updated.
+	 */
+	private static int countUpdates(ToolItemUpdateTimer updater) {
+		int count = updater.getUpdateCount();
+		updater.run();
+		return updater.getUpdateCount() - count;
+	}
+
+	private void setMinimized(final Shell shell, final boolean minimized) {
+		shell.setMinimized(minimized);
+		processEventsUntil(new Condition() {
+			public boolean compute() {
+				return shell.getMinimized() == minimized;
+			}
+		}, TIMEOUT);
+		processEvents();
+	}
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.core.databinding.observable.Diffs;
+
+/**
+ * Compares the list diff algorithms of {@link Diffs}. The default algorithm
+ * is quadratic and is therefore only measured up to 100k elements.
+ * 
+ * @since 3.5
+ */
+public class ListDiffPerformanceSuite extends TestSuite {
+
+	public static Test suite() {
+		return new ListDiffPerformanceSuite();
+	}
+
+	public ListDiffPerformanceSuite() {
+		for (int size = 1000; size <= 100000; size *= 10) {
+			addTest(new ListDiffPerformanceTest("default",
+					Diffs.LIST_DIFF_DEFAULT, size));
+		}
+		for (int size = 1000; size <= 1000000; size *= 10) {
+			addTest(new ListDiffPerformanceTest("hashed",
+					Diffs.LIST_DIFF_HASHED, size));
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.core.databinding.observable.Diffs;
+
+/**
+ * Measures {@link Diffs#computeListDiff(List, List, int)} on a list where one
+ * percent of the elements has been reordered, removed and inserted.
+ * 
+ * @since 3.5
+ */
+public class ListDiffPerformanceTest extends BasicPerformanceTest {
+
+	private int algorithm;
+
+	private int size;
+
+	public ListDiffPerformanceTest(String algorithmName, int algorithm,
+			int size) {
+		super("computeListDiff " + algorithmName + " " + size + " elements");
+		this.algorithm = algorithm;
+		this.size = size;
+	}
+
+	protected void runTest() throws Throwable {
+		final List oldList = new ArrayList(size);
+		for (int i = 0; i < size; i++) {
+			oldList.add("element" + i);
+		}
+		final List newList = new ArrayList(oldList);
+		Random random = new Random(size);
+		int changes = Math.max(1, size / 100);
+		Collections.shuffle(newList.subList(0, changes), random);
+		for (int i = 0; i < changes; i++) {
+			newList.remove(random.nextInt(newList.size()));
+			newList.add(random.nextInt(newList.size()), "added" + i);
+		}
+
+		exercise(new TestRunnable() {
+			public void run() throws Exception {
+				startMeasuring();
+				Diffs.computeListDiff(oldList, newList, algorithm)
+						.getDifferences();
+				stopMeasuring();
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006 IBM Corporation and others.
+ * Copyright (c) 2006, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,12 +17,19 @@ import java.util.Map;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.test.performance.Dimension;
+import org.eclipse.ui.IPageLayout;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.PartInitException;
+import org.eclipse.ui.internal.ide.IDEInternalPreferences;
+import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
+import org.eclipse.ui.part.ViewPart;
 import org.eclipse.ui.tests.performance.parts.PerformanceProblemsView;
 import org.eclipse.ui.texteditor.MarkerUtilities;
 
@@ -38,6 +45,8 @@ public class ProblemsViewPerformanceTest extends BasicPerformanceTest {
 
 	private String PROBLEMS_VIEW_ID = "org.eclipse.ui.tests.performance.problemsView";
 
+	private static final long TIMEOUT = 60000;
+
 	/**
 	 * Create a new instance of the receiver.
 	 * 
@@ -83,6 +92,113 @@ public class ProblemsViewPerformanceTest extends BasicPerformanceTest {
 
 	}
 
+	/**
+	 * Test the update of the problems view when a few markers are added to
+	 * and removed from many existing ones.
+	 */
+	public void testIncrementalUpdate() throws CoreException {
+		IWorkbenchWindow window = openTestWindow(EMPTY_PERSPECTIVE_ID);
+		final IWorkbenchPage page = window.getActivePage();
+
+		ViewPart view;
+
+		IDEWorkbenchPlugin.getDefault().getPreferenceStore().setValue(
+				IDEInternalPreferences.INCREMENTAL_MARKER_UPDATES, true);
+		try {
+			view = (ViewPart) page.showView(IPageLayout.ID_PROBLEM_VIEW);
+		} catch (PartInitException e) {
+			e.printStackTrace();
+			fail();
+			return;
+		} finally {
+			IDEWorkbenchPlugin.getDefault().getPreferenceStore().setToDefault(
+					IDEInternalPreferences.INCREMENTAL_MARKER_UPDATES);
+		}
+
+		String description = view.getContentDescription();
+		IMarker[] markers = createMarkers(0, 10000);
+		try {
+			description = waitForUpdate(view, description);
+
+			for (int i = 0; i < 20; i++) {
+				startMeasuring();
+				IMarker[] added = createMarkers(10000, 10);
+				description = waitForUpdate(view, description);
+				stopMeasuring();
+				deleteMarkers(added);
+				description = waitForUpdate(view, description);
+			}
+			commitMeasurements();
+			assertPerformance();
+		} finally {
+			deleteMarkers(markers);
+		}
+	}
+
+	/**
+	 * Create problem markers on the workspace root in a single operation and
+	 * report a build so that the views pick them up without delay. The
+	 * markers are errors and warnings in turn.
+	 * 
+	 * @param first
+	 *            the number of the first marker
+	 * @param count
+	 *            the number of markers to create
+	 * @return the new markers
+	 */
+	private IMarker[] createMarkers(final int first, final int count)
+			throws CoreException {
+		final IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		final IMarker[] markers = new IMarker[count];
+		ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) throws CoreException {
+				for (int i = 0; i < count; i++) {
+					markers[i] = root.createMarker(IMarker.PROBLEM);
+					markers[i].setAttribute(IMarker.SEVERITY,
+							(first + i) % 2 == 0 ? IMarker.SEVERITY_ERROR
+									: IMarker.SEVERITY_WARNING);
+					markers[i].setAttribute(IMarker.MESSAGE, "this is a test "
+							+ (first + i));
+				}
+			}
+		}, null);
+		build();
+		return markers;
+	}
+
+	/**
+	 * Delete the given markers and report a build.
+	 */
+	private void deleteMarkers(IMarker[] markers) throws CoreException {
+		ResourcesPlugin.getWorkspace().deleteMarkers(markers);
+		build();
+	}
+
+	/**
+	 * The markers views batch up marker changes outside of builds.
+	 */
+	private void build() throws CoreException {
+		ResourcesPlugin.getWorkspace().build(
+				IncrementalProjectBuilder.INCREMENTAL_BUILD, null);
+	}
+
+	/**
+	 * Process events until the content description of the view, which shows
+	 * the marker counts, differs from the given one.
+	 * 
+	 * @return the new description
+	 */
+	private String waitForUpdate(ViewPart view, String description) {
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (description.equals(view.getContentDescription())) {
+			if (System.currentTimeMillis() > end) {
+				fail("Timed out waiting for the view to update");
+			}
+			processEvents();
+		}
+		return view.getContentDescription();
+	}
+
 	/**
 	 * Remove the created markers
 	 */
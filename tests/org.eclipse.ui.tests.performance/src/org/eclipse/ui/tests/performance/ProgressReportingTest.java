@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.tests.performance.JFacePerformanceSuite;
+import org.eclipse.ui.IPageLayout;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PartInitException;
+
+/**
+ * Measures the time needed by concurrent jobs reporting fine grained progress
+ * while the progress view is open.
+ *
+ * @since 3.5
+ */
+public class ProgressReportingTest extends BasicPerformanceTest {
+
+	private static final int JOB_COUNT = 8;
+
+	private static final int WORK = 200000;
+
+	private static final Object FAMILY = new Object();
+
+	/**
+	 * @param testName
+	 */
+	public ProgressReportingTest(String testName) {
+		super(testName);
+	}
+
+	public void testConcurrentJobs() throws Throwable {
+		IWorkbenchWindow window = openTestWindow();
+		try {
+			window.getActivePage().showView(IPageLayout.ID_PROGRESS_VIEW);
+		} catch (PartInitException e) {
+			fail(e.getMessage());
+		}
+
+		exercise(new TestRunnable() {
+			public void run() throws Exception {
+				Job[] jobs = new Job[JOB_COUNT];
+				for (int i = 0; i < jobs.length; i++) {
+					jobs[i] = new ReportingJob("Reporting job " + i);
+				}
+				processEvents();
+
+				startMeasuring();
+				for (int i = 0; i < jobs.length; i++) {
+					jobs[i].schedule();
+				}
+				while (Job.getJobManager().find(FAMILY).length > 0) {
+					processEvents();
+				}
+				stopMeasuring();
+			}
+		}, 1, 5, JFacePerformanceSuite.MAX_TIME);
+
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * A job that reports a unit of work at a time and a sub task every
+	 * thousand units.
+	 */
+	private static class ReportingJob extends Job {
+
+		ReportingJob(String name) {
+			super(name);
+		}
+
+		protected IStatus run(IProgressMonitor monitor) {
+			monitor.beginTask(getName(), WORK);
+			try {
+				for (int i = 0; i < WORK; i++) {
+					if (i % 1000 == 0) {
+						monitor.subTask(getName());
+					}
+					monitor.worked(1);
+				}
+			} finally {
+				monitor.done();
+			}
+			return Status.OK_STATUS;
+		}
+
+		public boolean belongsTo(Object family) {
+			return family == FAMILY;
+		}
+	}
+}
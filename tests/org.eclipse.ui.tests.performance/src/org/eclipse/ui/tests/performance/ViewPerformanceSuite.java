@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2009 IBM Corporation and others.
+ * Copyright (c) 2004, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -46,6 +46,7 @@ public class ViewPerformanceSuite extends TestSuite {
 		addOpenCloseTests();
 		addResizeTests();
 		addTestSuite(OpenNavigatorFolderTest.class);
+		addTest(new ProblemsViewPerformanceTest("testIncrementalUpdate"));
 	}
 
 	/**
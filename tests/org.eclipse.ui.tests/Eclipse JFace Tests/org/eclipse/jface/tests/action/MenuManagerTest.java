@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2009 IBM Corporation and others.
+ * Copyright (c) 2004, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,9 +15,14 @@ import org.eclipse.jface.action.GroupMarker;
 import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.action.IContributionItem;
 import org.eclipse.jface.action.IContributionManager;
+import org.eclipse.jface.action.IMenuListener;
+import org.eclipse.jface.action.IMenuManager;
 import org.eclipse.jface.action.MenuManager;
 import org.eclipse.jface.action.Separator;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Menu;
+import org.eclipse.swt.widgets.MenuItem;
 import org.eclipse.swt.widgets.Shell;
 
 /**
@@ -110,6 +115,48 @@ public class MenuManagerTest extends JFaceActionTest {
     	manager.fill(menu, -1);
     }
 
+    /**
+     * Tests that a menu refilled every time it is shown keeps the menu items
+     * of the contributions added again, and only replaces the others.
+     */
+    public void testRefilledMenuKeepsMenuItems() {
+        final IAction first = new DummyAction();
+        final IAction second = new DummyAction();
+        final IAction[] last = { new DummyAction() };
+        MenuManager menuMgr = new MenuManager();
+        menuMgr.setRemoveAllWhenShown(true);
+        menuMgr.addMenuListener(new IMenuListener() {
+            public void menuAboutToShow(IMenuManager manager) {
+                manager.add(first);
+                manager.add(new Separator());
+                manager.add(second);
+                manager.add(last[0]);
+            }
+        });
+        Menu menu = menuMgr.createContextMenu(getShell());
+
+        menu.notifyListeners(SWT.Show, new Event());
+        MenuItem[] items = menu.getItems();
+        assertEquals(4, items.length);
+
+        menu.notifyListeners(SWT.Show, new Event());
+        MenuItem[] shownAgain = menu.getItems();
+        assertEquals(4, shownAgain.length);
+        for (int i = 0; i < items.length; i++) {
+            assertSame(items[i], shownAgain[i]);
+        }
+
+        last[0] = new DummyAction();
+        menu.notifyListeners(SWT.Show, new Event());
+        MenuItem[] changed = menu.getItems();
+        assertEquals(4, changed.length);
+        for (int i = 0; i < 3; i++) {
+            assertSame(items[i], changed[i]);
+        }
+        assertTrue(items[3].isDisposed());
+        assertSame(last[0], ((ActionContributionItem) changed[3].getData()).getAction());
+    }
+
     /**
      * Creates a menu manager with the given name, adding items based on the given template.
      * 
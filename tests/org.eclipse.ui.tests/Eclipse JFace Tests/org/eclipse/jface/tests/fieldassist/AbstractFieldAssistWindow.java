@@ -36,6 +36,7 @@ public abstract class AbstractFieldAssistWindow extends Window {
 	private boolean propagateKeys = true;
 	private int acceptance = ContentProposalAdapter.PROPOSAL_INSERT;
 	private int autoActivationDelay = 0;
+	private boolean computeProposalsInBackground = false;
 	private ContentProposalAdapter adapter;
 
 	public AbstractFieldAssistWindow() {
@@ -55,6 +56,7 @@ public abstract class AbstractFieldAssistWindow extends Window {
 
 		adapter = createContentProposalAdapter(fieldAssistControl);
 		adapter.setAutoActivationDelay(autoActivationDelay);
+		adapter.setComputeProposalsInBackground(computeProposalsInBackground);
 		adapter.setFilterStyle(filterStyle);
 		adapter.setPropagateKeys(propagateKeys);
 		adapter.setProposalAcceptanceStyle(acceptance);
@@ -102,6 +104,10 @@ public abstract class AbstractFieldAssistWindow extends Window {
 		return autoActivationDelay;
 	}
 
+	public void setComputeProposalsInBackground(boolean computeInBackground) {
+		this.computeProposalsInBackground = computeInBackground;
+	}
+
 	protected boolean shouldFilterProposals() {
 		return true;
 	}
@@ -57,6 +57,24 @@ public abstract class FieldAssistTestCase extends AbstractFieldAssistTestCase {
 		assertTwoShellsUp();
 	}	
 	
+	public void testAutoactivateInBackground() {
+		AbstractFieldAssistWindow window = getFieldAssistWindow();
+		window.setPropagateKeys(false);
+		window.setAutoActivationDelay(0);
+		window.setComputeProposalsInBackground(true);
+		window.setAutoActivationCharacters(new char [] {ACTIVATE_CHAR});
+		window.open();
+		setControlContent(SAMPLE_CONTENT);
+		sendKeyDownToControl(ACTIVATE_CHAR);
+		// the proposals arrive in an asyncExec once computed
+		long end = System.currentTimeMillis() + 5000;
+		while (!window.getContentProposalAdapter().isProposalPopupOpen()
+				&& System.currentTimeMillis() < end) {
+			spinEventLoop();
+		}
+		assertTwoShellsUp();
+	}	
+	
 	public void testExplicitActivate() {
 		AbstractFieldAssistWindow window = getFieldAssistWindow();
 		window.setPropagateKeys(false);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2006 IBM Corporation and others.
+ * Copyright (c) 2004, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@ package org.eclipse.jface.tests.viewers;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Random;
 import java.util.TreeSet;
 
 import junit.framework.Assert;
@@ -498,6 +499,71 @@ public class LazySortedCollectionTest extends TestCase {
         assertContentsValid();
     }
     
+    /**
+     * Looks up elements by equality after the collection has been packed and its
+     * index of elements has been dropped.
+     */
+    public void testContainsEqualElementAfterPack() {
+        removeRange(0, se.length * 3 / 4);
+        Object remaining = comparisonCollection.first();
+        Assert.assertTrue(collection.contains(new String((String) remaining)));
+        remove(new String((String) remaining));
+        assertContentsValid();
+        Assert.assertFalse(collection.contains(remaining));
+    }
+    
+    /**
+     * Mixes additions, removals and range queries. Removals of nodes with two
+     * children, of lazily removed nodes and of unsorted nodes all happen along
+     * the way.
+     */
+    public void testRandomOperations() {
+        doTestRandomOperations(true);
+    }
+    
+    /**
+     * Same as testRandomOperations, but with pivots being chosen
+     * pseudorandomly as they are outside of test suites.
+     */
+    public void testRandomOperationsWithRandomPivots() {
+        doTestRandomOperations(false);
+    }
+    
+    private void doTestRandomOperations(boolean debug) {
+        clear();
+        collection.enableDebug = debug;
+        Random random = new Random(0);
+        for (int i = 0; i < 5000; i++) {
+            String element = "element" + random.nextInt(500);
+            switch (random.nextInt(6)) {
+            case 0:
+            case 1:
+                if (!comparisonCollection.contains(element)) {
+                    add(element);
+                }
+                break;
+            case 2:
+                remove(element);
+                break;
+            case 3:
+                if (random.nextInt(10) == 0) {
+                    int start = random.nextInt(comparisonCollection.size() + 1);
+                    removeRange(start, random.nextInt(comparisonCollection.size() - start + 1));
+                }
+                break;
+            default:
+                int size = comparisonCollection.size();
+                if (size > 0) {
+                    int start = random.nextInt(size);
+                    queryRange(start, Math.min(10, size - start), true);
+                }
+            }
+            Assert.assertEquals(comparisonCollection.contains(element), collection.contains(element));
+            Assert.assertEquals(comparisonCollection.size(), collection.size());
+        }
+        assertArrayEquals(comparisonCollection.toArray(), collection.getItems(true));
+    }
+    
     public void testClear() {
         clear();
         assertContentsValid();
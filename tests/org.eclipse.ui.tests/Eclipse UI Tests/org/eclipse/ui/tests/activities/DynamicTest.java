@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2009 IBM Corporation and others.
+ * Copyright (c) 2003, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -201,6 +201,29 @@ public class DynamicTest extends UITestCase {
         assertTrue(manipulatedIdentifiers.size() == 1);
     }
 
+    /**
+     * Test identifiers matching patterns with and without literal prefixes.
+     *  
+     */
+    public void testIdentifierPatternPrefixes() {
+        fixedModelRegistry.addActivityPatternBinding("org.eclipse.activity1", //$NON-NLS-1$
+                "org\\.eclipse\\.prefix/.*"); //$NON-NLS-1$
+        fixedModelRegistry.addActivityPatternBinding("org.eclipse.activity2", //$NON-NLS-1$
+                "org\\.eclipse\\.pre(fix|amble)/view"); //$NON-NLS-1$
+        Set activityIds = activityManager.getIdentifier(
+                "org.eclipse.prefix/view").getActivityIds(); //$NON-NLS-1$
+        assertEquals(2, activityIds.size());
+        assertTrue(activityIds.contains("org.eclipse.activity1")); //$NON-NLS-1$
+        assertTrue(activityIds.contains("org.eclipse.activity2")); //$NON-NLS-1$
+        activityIds = activityManager.getIdentifier(
+                "org.eclipse.preamble/view").getActivityIds(); //$NON-NLS-1$
+        assertEquals(1, activityIds.size());
+        assertTrue(activityIds.contains("org.eclipse.activity2")); //$NON-NLS-1$
+        activityIds = activityManager.getIdentifier("org.eclipse.prefix") //$NON-NLS-1$
+                .getActivityIds();
+        assertTrue(activityIds.isEmpty());
+    }
+
     /**
      * Test the activity manager listener.
      *  
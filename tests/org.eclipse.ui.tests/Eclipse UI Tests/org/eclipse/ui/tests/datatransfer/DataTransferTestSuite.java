@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -36,5 +36,6 @@ public class DataTransferTestSuite extends TestSuite {
         addTest(new TestSuite(ExportArchiveFileOperationTest.class));
         addTest(ImportExistingProjectsWizardTest.suite());
         addTest(new TestSuite(ImportExportWizardsCategoryTests.class));
+        addTest(new TestSuite(ProjectFilesScannerTest.class));
     }
 }
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.datatransfer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.tests.harness.FileSystemHelper;
+import org.eclipse.ui.internal.wizards.datatransfer.ProjectFilesScanner;
+
+/**
+ * Tests the search for project description files done by the existing
+ * projects import wizard.
+ */
+public class ProjectFilesScannerTest extends TestCase {
+
+	private static final long TIMEOUT = 10000;
+
+	private File root;
+
+	public ProjectFilesScannerTest(String testName) {
+		super(testName);
+	}
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		root = new File(FileSystemHelper.getRandomLocation(
+				FileSystemHelper.getTempDir()).toOSString());
+		assertTrue(root.mkdirs());
+	}
+
+	protected void tearDown() throws Exception {
+		FileSystemHelper.clear(root);
+		super.tearDown();
+	}
+
+	private File createProject(String path) throws IOException {
+		File directory = new File(root, path);
+		directory.mkdirs();
+		File file = new File(directory, ".project");
+		assertTrue(file.createNewFile());
+		return file;
+	}
+
+	/**
+	 * Run the scanner to its end and return the names of the directories of
+	 * the projects found, relative to the root.
+	 */
+	private Set scan(boolean nestedProjects) throws Exception {
+		ProjectFilesScanner scanner = new ProjectFilesScanner(root,
+				nestedProjects);
+		scanner.start();
+		Set found = new HashSet();
+		long end = System.currentTimeMillis() + TIMEOUT;
+		try {
+			File[] files;
+			while ((files = scanner.takeProjectFiles(100)) != null) {
+				for (int i = 0; i < files.length; i++) {
+					String path = files[i].getParentFile().getPath().substring(
+							root.getPath().length());
+					assertTrue("Project found twice: " + path, found.add(path
+							.replace(File.separatorChar, '/')));
+				}
+				assertTrue("Search did not end", System.currentTimeMillis() < end);
+			}
+		} finally {
+			scanner.cancel();
+		}
+		return found;
+	}
+
+	private static Set paths(String[] paths) {
+		Set set = new HashSet();
+		for (int i = 0; i < paths.length; i++) {
+			set.add(paths[i]);
+		}
+		return set;
+	}
+
+	public void testFindProjects() throws Exception {
+		createProject("a");
+		createProject("b/c");
+		createProject("b/d/e");
+		new File(root, "f/g").mkdirs();
+
+		assertEquals(paths(new String[] { "/a", "/b/c", "/b/d/e" }),
+				scan(false));
+	}
+
+	public void testPrunedFolders() throws Exception {
+		createProject("a");
+		createProject(".metadata/.plugins/b");
+		createProject(".git/c");
+		createProject(".hg/d");
+		createProject(".svn/e");
+		createProject(".bzr/f");
+		createProject("g/CVS/h");
+
+		assertEquals(paths(new String[] { "/a" }), scan(true));
+	}
+
+	public void testNestedProjects() throws Exception {
+		createProject("a");
+		createProject("a/b");
+		createProject("a/c/d");
+
+		assertEquals(paths(new String[] { "/a" }), scan(false));
+		assertEquals(paths(new String[] { "/a", "/a/b", "/a/c/d" }),
+				scan(true));
+	}
+
+	public void testSymbolicLinks() throws Exception {
+		if (Platform.getOS().equals(Platform.OS_WIN32)) {
+			// no symbolic links
+			return;
+		}
+		createProject("a/b");
+		createProject("c");
+		// a link back to the root and a link to a project already searched
+		File loop = new File(root, "a/loop");
+		File link = new File(root, "d");
+		createSymbolicLink(root, loop);
+		createSymbolicLink(new File(root, "c"), link);
+
+		try {
+			Set found = scan(true);
+			assertEquals(2, found.size());
+			assertTrue(found.contains("/a/b"));
+			assertTrue(found.contains("/c") || found.contains("/d"));
+		} finally {
+			// remove the links so that cleaning up does not follow them
+			loop.delete();
+			link.delete();
+		}
+	}
+
+	private static void createSymbolicLink(File target, File link)
+			throws Exception {
+		Process process = Runtime.getRuntime().exec(
+				new String[] { "ln", "-s", target.getAbsolutePath(),
+						link.getAbsolutePath() });
+		assertEquals(0, process.waitFor());
+		assertTrue(link.exists());
+	}
+
+	public void testCancel() throws Exception {
+		for (int i = 0; i < 20; i++) {
+			for (int j = 0; j < 20; j++) {
+				createProject("a" + i + "/b" + j);
+			}
+		}
+		ProjectFilesScanner scanner = new ProjectFilesScanner(root, true);
+		scanner.start();
+		scanner.cancel();
+
+		// the projects found before the cancellation may still be taken
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (scanner.takeProjectFiles(100) != null) {
+			assertTrue("Search did not end", System.currentTimeMillis() < end);
+		}
+		Job.getJobManager().join(scanner, null);
+		assertEquals(0, Job.getJobManager().find(scanner).length);
+	}
+
+}
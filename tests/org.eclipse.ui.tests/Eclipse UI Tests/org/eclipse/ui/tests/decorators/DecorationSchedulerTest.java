@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.decorators;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.jface.viewers.DecorationContext;
+import org.eclipse.jface.viewers.IDecorationContext;
+import org.eclipse.jface.viewers.LabelProviderChangedEvent;
+import org.eclipse.ui.internal.decorators.DecorationScheduler;
+import org.eclipse.ui.internal.decorators.LightweightDecoratorManager;
+
+/**
+ * Tests that the scheduler merges duplicate decoration requests and label
+ * updates, and sends large label updates in batches.
+ */
+public class DecorationSchedulerTest extends DecoratorEnablementTestCase {
+
+	private static final long TIMEOUT = 10000;
+
+	private Object element;
+
+	private int elementUpdates;
+
+	private Set updatedElements = new HashSet();
+
+	private int largestUpdate;
+
+	/**
+	 * @param testName
+	 */
+	public DecorationSchedulerTest(String testName) {
+		super(testName);
+	}
+
+	/**
+	 * Queue the same element several times and check that it is decorated
+	 * and updated only once.
+	 */
+	public void testDuplicateRequestsMerged() throws Exception {
+		definition.setEnabled(true);
+		getDecoratorManager().updateForEnablementChange();
+
+		DecorationScheduler scheduler = getDecoratorManager()
+				.getDecorationScheduler();
+		IDecorationContext context = DecorationContext.DEFAULT_CONTEXT;
+		element = new Object();
+		elementUpdates = 0;
+
+		int mergedRequests = scheduler.getMergedRequestCount();
+		// Hold the scheduler so that the decoration job cannot take the
+		// element before all the requests are queued
+		synchronized (scheduler) {
+			int queueDepth = scheduler.getQueueDepth();
+			for (int i = 0; i < 3; i++) {
+				assertFalse("Decoration should be queued", getDecoratorManager()
+						.prepareDecoration(element, "element", context));
+			}
+			assertEquals("Element should be queued once", queueDepth + 1,
+					scheduler.getQueueDepth());
+			assertEquals("Requests should be merged", mergedRequests + 2,
+					scheduler.getMergedRequestCount());
+		}
+
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (elementUpdates == 0 && System.currentTimeMillis() < end) {
+			processEvents();
+			Thread.sleep(10);
+		}
+		// Give a duplicate update the time to arrive
+		end = System.currentTimeMillis() + 500;
+		while (System.currentTimeMillis() < end) {
+			processEvents();
+			Thread.sleep(10);
+		}
+
+		assertTrue("Element should be decorated", scheduler.isDecorationReady(
+				element, context));
+		assertEquals("Label should be updated once", 1, elementUpdates);
+	}
+
+	/**
+	 * Decorate the same element in two contexts and check that the label
+	 * updates are merged and the decorator statistics are kept.
+	 */
+	public void testUpdatesMerged() throws Exception {
+		definition.setEnabled(true);
+		getDecoratorManager().updateForEnablementChange();
+
+		DecorationScheduler scheduler = getDecoratorManager()
+				.getDecorationScheduler();
+		LightweightDecoratorManager lightweightManager = getDecoratorManager()
+				.getLightweightManager();
+		String id = definition.getId();
+		element = new Object();
+		elementUpdates = 0;
+
+		int mergedUpdates = scheduler.getMergedUpdateCount();
+		int decorationCount = lightweightManager.getDecorationCount(id);
+		long decorationTime = lightweightManager.getDecorationTime(id);
+		synchronized (scheduler) {
+			getDecoratorManager().prepareDecoration(element, "element",
+					DecorationContext.DEFAULT_CONTEXT);
+			getDecoratorManager().prepareDecoration(element, "element",
+					new DecorationContext());
+		}
+
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (elementUpdates == 0 && System.currentTimeMillis() < end) {
+			processEvents();
+			Thread.sleep(10);
+		}
+		// Give a duplicate update the time to arrive
+		end = System.currentTimeMillis() + 500;
+		while (System.currentTimeMillis() < end) {
+			processEvents();
+			Thread.sleep(10);
+		}
+
+		// Other elements may be decorated in the meantime
+		assertEquals("Label should be updated once", 1, elementUpdates);
+		assertTrue("Updates should be merged",
+				scheduler.getMergedUpdateCount() > mergedUpdates);
+		assertTrue("Element should be decorated in both contexts",
+				lightweightManager.getDecorationCount(id) >= decorationCount + 2);
+		assertTrue(lightweightManager.getDecorationTime(id) >= decorationTime);
+	}
+
+	/**
+	 * Decorate more elements than fit in one label provider changed event and
+	 * check that all of them are updated, in batches.
+	 */
+	public void testLargeUpdateBatched() throws Exception {
+		definition.setEnabled(true);
+		getDecoratorManager().updateForEnablementChange();
+
+		DecorationScheduler scheduler = getDecoratorManager()
+				.getDecorationScheduler();
+		IDecorationContext context = DecorationContext.DEFAULT_CONTEXT;
+		// More than the 500 elements of DecorationScheduler.UPDATE_BATCH_SIZE
+		Object[] elements = new Object[1200];
+		updatedElements.clear();
+		largestUpdate = 0;
+		synchronized (scheduler) {
+			for (int i = 0; i < elements.length; i++) {
+				elements[i] = new Object();
+				getDecoratorManager().prepareDecoration(elements[i],
+						"element", context);
+			}
+		}
+
+		Set expected = new HashSet();
+		for (int i = 0; i < elements.length; i++) {
+			expected.add(elements[i]);
+		}
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (!updatedElements.containsAll(expected)
+				&& System.currentTimeMillis() < end) {
+			processEvents();
+			Thread.sleep(10);
+		}
+
+		assertTrue("All labels should be updated", updatedElements
+				.containsAll(expected));
+		assertTrue("Updates should be batched", largestUpdate <= 500);
+	}
+
+	/*
+	 * @see ILabelProviderListener#labelProviderChanged(LabelProviderChangedEvent)
+	 */
+	public void labelProviderChanged(LabelProviderChangedEvent event) {
+		super.labelProviderChanged(event);
+		Object[] elements = event.getElements();
+		if (elements == null) {
+			return;
+		}
+		largestUpdate = Math.max(largestUpdate, elements.length);
+		for (int i = 0; i < elements.length; i++) {
+			if (elements[i] == element) {
+				elementUpdates++;
+			}
+			updatedElements.add(elements[i]);
+		}
+	}
+
+}
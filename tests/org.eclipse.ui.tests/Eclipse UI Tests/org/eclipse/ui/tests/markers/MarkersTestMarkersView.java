@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 IBM Corporation and others.
+ * Copyright (c) 2007, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ package org.eclipse.ui.tests.markers;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Comparator;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.jobs.IJobChangeListener;
@@ -22,7 +23,10 @@ import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Tree;
 import org.eclipse.swt.widgets.TreeColumn;
 import org.eclipse.ui.internal.views.markers.ExtendedMarkersView;
+import org.eclipse.ui.internal.views.markers.MarkerContentGenerator;
+import org.eclipse.ui.views.markers.MarkerItem;
 import org.eclipse.ui.views.markers.MarkerSupportView;
+import org.eclipse.ui.views.markers.internal.MarkerGroup;
 import org.eclipse.ui.views.markers.internal.MarkerSupportRegistry;
 
 /**
@@ -148,4 +152,82 @@ public class MarkersTestMarkersView extends MarkerSupportView {
 		return true;
 	}
 
+	/**
+	 * Return the items shown at the top level of the receiver: the
+	 * categories if the markers are grouped, the marker entries otherwise.
+	 * 
+	 * @return MarkerItem[]
+	 */
+	public MarkerItem[] getElements() {
+		Object markers = invoke(this, ExtendedMarkersView.class,
+				"getActiveViewerInputClone", new Class[0], new Object[0]);
+		return (MarkerItem[]) invoke(markers, markers.getClass(),
+				"getElements", new Class[0], new Object[0]);
+	}
+
+	/**
+	 * Return all of the entries of the category, including the ones beyond
+	 * the marker limit.
+	 * 
+	 * @param category
+	 *            one of the items returned by {@link #getElements()}
+	 * @return MarkerItem[]
+	 */
+	public MarkerItem[] getChildren(MarkerItem category) {
+		return (MarkerItem[]) invoke(category, category.getClass(),
+				"getChildren", new Class[0], new Object[0]);
+	}
+
+	/**
+	 * Return the comparator the entries are sorted with.
+	 * 
+	 * @return Comparator
+	 */
+	public Comparator getComparator() {
+		Object builder = invoke(this, ExtendedMarkersView.class, "getBuilder",
+				new Class[0], new Object[0]);
+		return (Comparator) invoke(builder, builder.getClass(),
+				"getComparator", new Class[0], new Object[0]);
+	}
+
+	/**
+	 * Return the content generator of the receiver.
+	 * 
+	 * @return MarkerContentGenerator
+	 */
+	public MarkerContentGenerator getContentGenerator() {
+		return (MarkerContentGenerator) invoke(this, ExtendedMarkersView.class,
+				"getGenerator", new Class[0], new Object[0]);
+	}
+
+	/**
+	 * Group the markers by the given group, or show them without categories
+	 * if it is <code>null</code>.
+	 * 
+	 * @param group
+	 */
+	public void setGroup(MarkerGroup group) {
+		invoke(this, ExtendedMarkersView.class, "setCategoryGroup",
+				new Class[] { MarkerGroup.class }, new Object[] { group });
+	}
+
+	/**
+	 * Invoke the method that is declared but not visible in the given class.
+	 */
+	private static Object invoke(Object target, Class declaringClass,
+			String name, Class[] parameterTypes, Object[] arguments) {
+		try {
+			Method method = declaringClass.getDeclaredMethod(name,
+					parameterTypes);
+			method.setAccessible(true);
+			return method.invoke(target, arguments);
+		} catch (NoSuchMethodException e) {
+			throw new RuntimeException(e);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		} catch (InvocationTargetException e) {
+			throw new RuntimeException(e.getTargetException());
+		}
+	}
+
 }
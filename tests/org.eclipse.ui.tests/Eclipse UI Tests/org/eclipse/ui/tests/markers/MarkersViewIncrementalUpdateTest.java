@@ -0,0 +1,329 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.markers;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.internal.ide.IDEInternalPreferences;
+import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
+import org.eclipse.ui.internal.views.markers.MarkerContentGenerator;
+import org.eclipse.ui.tests.harness.util.FileUtil;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+import org.eclipse.ui.views.markers.MarkerItem;
+
+/**
+ * Test that the markers view applies marker changes incrementally the same
+ * way a full update of the view would show them.
+ */
+public class MarkersViewIncrementalUpdateTest extends UITestCase {
+
+	private static final String VIEW_ID = "org.eclipse.ui.tests.markerTests";
+
+	private static final long TIMEOUT = 30000;
+
+	private IProject project;
+
+	private IFile file;
+
+	private MarkersTestMarkersView view;
+
+	/**
+	 * @param testName
+	 */
+	public MarkersViewIncrementalUpdateTest(String testName) {
+		super(testName);
+	}
+
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		project = FileUtil.createProject("MarkersViewIncrementalUpdateTest");
+		file = FileUtil.createFile("test.txt", project);
+		IWorkbenchWindow window = openTestWindow();
+		// the view reads the preference when it is created
+		IDEWorkbenchPlugin.getDefault().getPreferenceStore().setValue(
+				IDEInternalPreferences.INCREMENTAL_MARKER_UPDATES, true);
+		try {
+			view = (MarkersTestMarkersView) window.getActivePage().showView(
+					VIEW_ID);
+		} finally {
+			IDEWorkbenchPlugin.getDefault().getPreferenceStore().setToDefault(
+					IDEInternalPreferences.INCREMENTAL_MARKER_UPDATES);
+		}
+	}
+
+	protected void doTearDown() throws Exception {
+		view = null;
+		super.doTearDown();
+		FileUtil.deleteProject(project);
+		project = null;
+		file = null;
+	}
+
+	/**
+	 * Test that added, removed and changed markers show up.
+	 */
+	public void testAddRemoveChange() throws CoreException {
+		final IMarker first = createMarker(IMarker.SEVERITY_ERROR, "first");
+		IMarker second = createMarker(IMarker.SEVERITY_ERROR, "second");
+		build();
+		waitForMarkers(new IMarker[] { first, second });
+
+		IMarker third = createMarker(IMarker.SEVERITY_WARNING, "third");
+		build();
+		waitForMarkers(new IMarker[] { first, second, third });
+
+		second.delete();
+		build();
+		waitForMarkers(new IMarker[] { first, third });
+
+		first.setAttribute(IMarker.MESSAGE, "changed");
+		build();
+		waitFor("the changed message", new Condition() {
+			public boolean compute() {
+				MarkerItem item = findItem(first);
+				return item != null
+						&& "changed".equals(item.getAttributeValue(
+								IMarker.MESSAGE, ""));
+			}
+		});
+		assertSortedCategories();
+	}
+
+	/**
+	 * Test that an entry moves to the category of its new severity.
+	 */
+	public void testSeverityChange() throws CoreException {
+		final IMarker error = createMarker(IMarker.SEVERITY_ERROR, "error");
+		final IMarker moved = createMarker(IMarker.SEVERITY_ERROR, "moved");
+		final IMarker warning = createMarker(IMarker.SEVERITY_WARNING,
+				"warning");
+		build();
+		waitForMarkers(new IMarker[] { error, moved, warning });
+		MarkerItem[] elements = view.getElements();
+		MarkerItem errors = findCategory(elements, error);
+		assertSame(errors, findCategory(elements, moved));
+		assertNotSame(errors, findCategory(elements, warning));
+
+		moved.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
+		build();
+		waitFor("the entry to move", new Condition() {
+			public boolean compute() {
+				MarkerItem[] elements = view.getElements();
+				MarkerItem category = findCategory(elements, moved);
+				return category != null
+						&& category == findCategory(elements, warning)
+						&& category != findCategory(elements, error);
+			}
+		});
+		assertSortedCategories();
+	}
+
+	/**
+	 * Test that the entries within the marker limit stay the first ones of
+	 * their category.
+	 */
+	public void testMarkerLimit() throws CoreException {
+		MarkerContentGenerator generator = view.getContentGenerator();
+		generator.setMarkerLimits(3);
+		generator.setMarkerLimitsEnabled(true);
+
+		IMarker[] markers = new IMarker[5];
+		for (int i = 0; i < markers.length; i++) {
+			markers[i] = createMarker(IMarker.SEVERITY_INFO, "limit " + i);
+		}
+		build();
+		waitForMarkers(markers);
+		assertEntriesWithinLimit(
+				findCategory(view.getElements(), markers[0]), 3);
+
+		markers[0].delete();
+		IMarker added = createMarker(IMarker.SEVERITY_INFO, "limit 5");
+		build();
+		waitForMarkers(new IMarker[] { markers[1], markers[2], markers[3],
+				markers[4], added });
+		assertEntriesWithinLimit(findCategory(view.getElements(), added),
+				3);
+	}
+
+	/**
+	 * Test the updates of the view if the markers are not grouped.
+	 */
+	public void testFlat() throws CoreException {
+		view.setGroup(null);
+		waitFor("the entries without categories", new Condition() {
+			public boolean compute() {
+				MarkerItem[] elements = view.getElements();
+				for (int i = 0; i < elements.length; i++) {
+					if (elements[i].getMarker() == null) {
+						return false;
+					}
+				}
+				return true;
+			}
+		});
+
+		IMarker error = createMarker(IMarker.SEVERITY_ERROR, "error");
+		IMarker warning = createMarker(IMarker.SEVERITY_WARNING, "warning");
+		build();
+		waitForMarkers(new IMarker[] { error, warning });
+
+		IMarker other = createMarker(IMarker.SEVERITY_ERROR, "other");
+		warning.delete();
+		build();
+		waitForMarkers(new IMarker[] { error, other });
+		assertNull(findCategory(view.getElements(), error));
+		MarkerItem[] elements = view.getElements();
+		assertSorted(elements, elements.length);
+	}
+
+	/**
+	 * Create a problem marker on the test file.
+	 */
+	private IMarker createMarker(int severity, String message)
+			throws CoreException {
+		IMarker marker = file.createMarker(IMarker.PROBLEM);
+		marker.setAttribute(IMarker.SEVERITY, severity);
+		marker.setAttribute(IMarker.MESSAGE, message);
+		return marker;
+	}
+
+	/**
+	 * The markers views batch up marker changes outside of builds.
+	 */
+	private void build() throws CoreException {
+		ResourcesPlugin.getWorkspace().build(
+				IncrementalProjectBuilder.INCREMENTAL_BUILD, null);
+	}
+
+	/**
+	 * Wait until the view shows exactly the given markers of the test file.
+	 */
+	private void waitForMarkers(IMarker[] markers) {
+		final Set expected = new HashSet(Arrays.asList(markers));
+		waitFor("the markers " + expected, new Condition() {
+			public boolean compute() {
+				Set shown = new HashSet();
+				MarkerItem[] elements = view.getElements();
+				for (int i = 0; i < elements.length; i++) {
+					if (elements[i].getMarker() != null) {
+						addIfOnFile(shown, elements[i]);
+						continue;
+					}
+					MarkerItem[] children = view.getChildren(elements[i]);
+					for (int j = 0; j < children.length; j++) {
+						addIfOnFile(shown, children[j]);
+					}
+				}
+				return expected.equals(shown);
+			}
+		});
+	}
+
+	private void addIfOnFile(Set markers, MarkerItem item) {
+		if (file.equals(item.getMarker().getResource())) {
+			markers.add(item.getMarker());
+		}
+	}
+
+	private void waitFor(String description, Condition condition) {
+		if (!processEventsUntil(condition, TIMEOUT)) {
+			fail("Timed out waiting for " + description);
+		}
+	}
+
+	/**
+	 * Return the category that shows the marker, or <code>null</code> if it
+	 * is not shown within one of the given categories.
+	 */
+	private MarkerItem findCategory(MarkerItem[] elements, IMarker marker) {
+		for (int i = 0; i < elements.length; i++) {
+			if (elements[i].getMarker() != null) {
+				continue;
+			}
+			MarkerItem[] children = view.getChildren(elements[i]);
+			for (int j = 0; j < children.length; j++) {
+				if (marker.equals(children[j].getMarker())) {
+					return elements[i];
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Return the entry of the marker, or <code>null</code> if it is not
+	 * shown.
+	 */
+	private MarkerItem findItem(IMarker marker) {
+		MarkerItem[] elements = view.getElements();
+		for (int i = 0; i < elements.length; i++) {
+			if (marker.equals(elements[i].getMarker())) {
+				return elements[i];
+			}
+			if (elements[i].getMarker() != null) {
+				continue;
+			}
+			MarkerItem[] children = view.getChildren(elements[i]);
+			for (int j = 0; j < children.length; j++) {
+				if (marker.equals(children[j].getMarker())) {
+					return children[j];
+				}
+			}
+		}
+		return null;
+	}
+
+	private void assertSortedCategories() {
+		MarkerItem[] elements = view.getElements();
+		for (int i = 0; i < elements.length; i++) {
+			MarkerItem[] children = view.getChildren(elements[i]);
+			assertSorted(children, children.length);
+		}
+	}
+
+	/**
+	 * Assert that the first entries up to the limit are sorted and that none
+	 * of the remaining ones sorts before them.
+	 */
+	private void assertEntriesWithinLimit(MarkerItem category, int limit) {
+		assertNotNull(category);
+		MarkerItem[] children = view.getChildren(category);
+		int shown = Math.min(limit, children.length);
+		assertSorted(children, shown);
+		Comparator comparator = view.getComparator();
+		for (int i = shown; i < children.length; i++) {
+			assertTrue("Entry beyond the limit sorts before a shown one",
+					comparator.compare(children[shown - 1], children[i]) <= 0);
+		}
+	}
+
+	/**
+	 * Assert that the first count items are sorted.
+	 */
+	private void assertSorted(MarkerItem[] items, int count) {
+		Comparator comparator = view.getComparator();
+		for (int i = 1; i < count; i++) {
+			assertTrue("Entries not sorted", comparator.compare(items[i - 1],
+					items[i]) <= 0);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2006 IBM Corporation and others.
+ * Copyright (c) 2005, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -515,6 +515,47 @@ public class OperationsAPITest extends TestCase {
 		history.operationChanged(new TestOperation("New op"));
 		assertTrue("should not notify about changes if not in the history", changed == 2);
 	}
+
+	public void testFilteredHistoryUpdates() {
+		assertSame(op6, history.getUndoOperation(contextA));
+		assertSame(op5, history.getUndoOperation(contextB));
+		
+		// contexts of operations changing while in the history
+		op6.addContext(contextB);
+		assertSame("Operation with added context should be found", op6, history.getUndoOperation(contextB));
+		op6.removeContext(contextB);
+		assertSame("Operation with removed context should not be found", op5, history.getUndoOperation(contextB));
+		
+		// matches changing after the history was filtered
+		ObjectUndoContext contextD = new ObjectUndoContext("D");
+		assertEquals(0, history.getUndoHistory(contextD).length);
+		contextA.addMatch(contextD);
+		assertEquals(history.getUndoHistory(contextA).length, history.getUndoHistory(contextD).length);
+		contextA.removeMatch(contextD);
+		assertEquals(0, history.getUndoHistory(contextD).length);
+	}
+
+	public void testUnreportedMatchesChange() {
+		final boolean[] matching = new boolean[] { true };
+		IUndoContext contextD = new IUndoContext() {
+			public String getLabel() {
+				return "D";
+			}
+
+			public boolean matches(IUndoContext context) {
+				return context == this || (matching[0] && context == contextA);
+			}
+		};
+		assertSame(op6, history.getUndoOperation(contextD));
+
+		// the history is not told about the change
+		matching[0] = false;
+		assertNull("Operation no longer matching should not be found", history.getUndoOperation(contextD));
+		
+		matching[0] = true;
+		assertSame("Matching operation should be found again", op6, history.getUndoOperation(contextD));
+		assertEquals(history.getUndoHistory(contextA).length, history.getUndoHistory(contextD).length);
+	}
 	
 	// the setup for the infamous (local conflict on top of composite and composite gets pruned) case
 	private void setup87675() throws ExecutionException {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 IBM Corporation and others.
+ * Copyright (c) 2008, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,8 @@
 
 package org.eclipse.ui.tests.quickaccess;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolControl;
 import org.eclipse.e4.ui.workbench.modeling.EModelService;
@@ -224,4 +226,36 @@ public class QuickAccessDialogTest extends UITestCase {
 		assertTrue("Show all should be turned off when the shell is closed and reopened", table.getItemCount() < newCount);
 	}
 
+	/**
+	 * Tests that typing a filter one character at a time gives the same
+	 * results as setting the whole filter at once
+	 */
+	public void testNarrowedFilter() {
+		final Table table = searchField.getQuickAccessTable();
+		Text text = searchField.getQuickAccessSearchText();
+		String filter = "pro";
+		for (int i = 1; i <= filter.length(); i++) {
+			text.setText(filter.substring(0, i));
+			processEvents();
+		}
+		List<String> narrowedItems = getItemTexts(table);
+
+		text.setText("");
+		processEvents();
+		text.setText(filter);
+		processEvents();
+		List<String> items = getItemTexts(table);
+
+		assertTrue("Not enough quick access items for simple filter", items.size() > 3);
+		assertEquals("Typing the filter should not change the items", items, narrowedItems);
+	}
+
+	private List<String> getItemTexts(Table table) {
+		List<String> texts = new ArrayList<String>();
+		for (int i = 0; i < table.getItemCount(); i++) {
+			texts.add(table.getItem(i).getText(0) + " " + table.getItem(i).getText(1));
+		}
+		return texts;
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2011 IBM Corporation and others.
+ * Copyright (c) 2007, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -408,6 +408,60 @@ public class EvaluationServiceTest extends UITestCase {
 		assertEquals(3, listener.count);
 	}
 	
+	private static class CountingUserExpression extends UserExpression {
+		public int count = 0;
+
+		public CountingUserExpression(String lookFor) {
+			super(lookFor);
+		}
+
+		public EvaluationResult evaluate(IEvaluationContext context)
+				throws CoreException {
+			count++;
+			return super.evaluate(context);
+		}
+	}
+
+	public void testSharedResult() throws Exception {
+		IWorkbenchWindow window = openTestWindow();
+		IEvaluationService service = (IEvaluationService) window
+				.getService(IEvaluationService.class);
+		assertNotNull(service);
+
+		ISourceProviderService sps = (ISourceProviderService) window
+				.getService(ISourceProviderService.class);
+		ActiveUserSourceProvider userProvider = (ActiveUserSourceProvider) sps
+				.getSourceProvider("username");
+		userProvider.setUsername("guest");
+
+		MyEval listener1 = new MyEval();
+		MyEval listener2 = new MyEval();
+		CountingUserExpression expression = new CountingUserExpression("Paul");
+		IEvaluationReference ref1 = service.addEvaluationListener(expression,
+				listener1, IEvaluationService.RESULT);
+		IEvaluationReference ref2 = null;
+		try {
+			assertEquals(1, expression.count);
+			ref2 = service.addEvaluationListener(expression, listener2,
+					IEvaluationService.RESULT);
+			// nothing changed, the result of the first reference is reused
+			assertEquals(1, expression.count);
+			assertFalse(listener2.currentValue);
+			assertEquals(1, listener2.count);
+
+			userProvider.setUsername("Paul");
+			assertEquals(2, expression.count);
+			assertTrue(listener1.currentValue);
+			assertTrue(listener2.currentValue);
+		} finally {
+			service.removeEvaluationListener(ref1);
+			if (ref2 != null) {
+				service.removeEvaluationListener(ref2);
+			}
+			userProvider.setUsername("guest");
+		}
+	}
+
 	public void testSourceProviderPriority() throws Exception {
 		IHandlerService hs = (IHandlerService) getWorkbench().getService(IHandlerService.class);
 		